@@ -0,0 +1,102 @@
+package in.bkitsolutions.lmsbackend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    // Deep clones copy whole curricula inside one transaction each; a small pool keeps
+    // a semester-start burst of clone requests from starving the request threads of DB connections
+    @Bean(name = "courseCloneExecutor")
+    public ThreadPoolTaskExecutor courseCloneExecutor(
+            @Value("${app.clone.pool-size:2}") int poolSize,
+            @Value("${app.clone.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("course-clone-");
+        executor.initialize();
+        return executor;
+    }
+
+    // CSV imports stream their file chunk by chunk; one at a time is enough and bounds DB load
+    @Bean(name = "studentImportExecutor")
+    public ThreadPoolTaskExecutor studentImportExecutor(
+            @Value("${app.import.pool-size:1}") int poolSize,
+            @Value("${app.import.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("student-import-");
+        executor.initialize();
+        return executor;
+    }
+
+    // BCrypt is CPU-bound: one thread per core, and a full queue makes the import thread hash too
+    @Bean(name = "passwordHashExecutor")
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+            @Value("${app.import.hash-threads:0}") int threads) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(1000);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("password-hash-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Image resizing is CPU- and heap-heavy; a full queue drops the job, and the variant is
+    // queued again the next time it is asked for
+    @Bean(name = "imageVariantExecutor")
+    public ThreadPoolTaskExecutor imageVariantExecutor(
+            @Value("${app.image.pool-size:2}") int poolSize,
+            @Value("${app.image.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-variant-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Certificate PDFs: a small pool so a cohort finishing at once queues up instead of
+    // competing with requests; a full queue leaves the row QUEUED for the retry sweep
+    @Bean(name = "certificateRenderExecutor")
+    public ThreadPoolTaskExecutor certificateRenderExecutor(
+            @Value("${app.certificate.render-pool-size:2}") int poolSize,
+            @Value("${app.certificate.render-queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("certificate-render-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Bulk certificate issuance: one job at a time, each already batched
+    @Bean(name = "certificateIssueExecutor")
+    public ThreadPoolTaskExecutor certificateIssueExecutor(
+            @Value("${app.certificate.issue-pool-size:1}") int poolSize,
+            @Value("${app.certificate.issue-queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("certificate-issue-");
+        executor.initialize();
+        return executor;
+    }
+}
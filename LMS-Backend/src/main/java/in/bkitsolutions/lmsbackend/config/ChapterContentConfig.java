@@ -0,0 +1,78 @@
+package in.bkitsolutions.lmsbackend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class ChapterContentConfig {
+    private static final Logger logger = LoggerFactory.getLogger(ChapterContentConfig.class);
+
+    private static final String FK_NAME = "fk_chapter_contents_chapter";
+
+    // Chapter bodies moved from chapters.content to chapter_contents. ddl-auto=update neither
+    // moves data nor creates an ON DELETE CASCADE key, so both are done here at startup.
+    // The legacy column is only dropped when app.content.drop-legacy-column is set, after a
+    // deployment has verified the copy; until then it stays as the rollback copy.
+    @Bean
+    CommandLineRunner initChapterContents(JdbcTemplate jdbcTemplate,
+                                          @Value("${app.content.drop-legacy-column:false}") boolean dropLegacyColumn) {
+        return args -> {
+            moveLegacyContent(jdbcTemplate, dropLegacyColumn);
+            ensureCascadeForeignKey(jdbcTemplate);
+        };
+    }
+
+    // Fails startup rather than serving chapters whose bodies were not copied
+    private void moveLegacyContent(JdbcTemplate jdbcTemplate, boolean dropLegacyColumn) {
+        Integer legacy = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns " +
+                "WHERE table_schema = DATABASE() AND table_name = 'chapters' AND column_name = 'content'",
+                Integer.class);
+        if (legacy == null || legacy == 0) return;
+        try {
+            int moved = jdbcTemplate.update("INSERT INTO chapter_contents (chapter_id, content)"
+                    + " SELECT ch.id, ch.content FROM chapters ch WHERE ch.content IS NOT NULL"
+                    + " AND NOT EXISTS (SELECT 1 FROM chapter_contents cc WHERE cc.chapter_id = ch.id)");
+            Integer missing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM chapters ch"
+                    + " WHERE ch.content IS NOT NULL"
+                    + " AND NOT EXISTS (SELECT 1 FROM chapter_contents cc WHERE cc.chapter_id = ch.id)",
+                    Integer.class);
+            if (missing != null && missing > 0) {
+                throw new IllegalStateException(missing + " chapter bodies are missing from chapter_contents");
+            }
+            if (moved > 0) logger.info("Moved {} chapter bodies to chapter_contents", moved);
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Could not move chapter bodies to chapter_contents", e);
+        }
+        if (dropLegacyColumn) {
+            jdbcTemplate.execute("ALTER TABLE chapters DROP COLUMN content");
+            logger.info("Dropped legacy column chapters.content");
+        } else {
+            logger.info("Keeping legacy column chapters.content; set app.content.drop-legacy-column=true to drop it");
+        }
+    }
+
+    // Chapter deletes rely on the cascade to remove bodies, so startup fails without it
+    private void ensureCascadeForeignKey(JdbcTemplate jdbcTemplate) {
+        try {
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.referential_constraints " +
+                    "WHERE constraint_schema = DATABASE() AND constraint_name = ?",
+                    Integer.class, FK_NAME);
+            if (existing != null && existing > 0) return;
+            jdbcTemplate.update("DELETE cc FROM chapter_contents cc"
+                    + " LEFT JOIN chapters ch ON ch.id = cc.chapter_id WHERE ch.id IS NULL");
+            jdbcTemplate.execute("ALTER TABLE chapter_contents ADD CONSTRAINT " + FK_NAME
+                    + " FOREIGN KEY (chapter_id) REFERENCES chapters (id) ON DELETE CASCADE");
+            logger.info("Created foreign key {} on chapter_contents", FK_NAME);
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Could not create foreign key " + FK_NAME + " on chapter_contents", e);
+        }
+    }
+}
@@ -4,19 +4,10 @@ import in.bkitsolutions.lmsbackend.service.FileStorageService;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.CorsRegistry;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+// Uploaded files are served by UploadController (ranges, validators, sendfile)
 @Configuration
-public class FileUploadConfig implements WebMvcConfigurer {
-
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // Serve uploaded files
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:uploads/");
-    }
+public class FileUploadConfig {
 
     @Bean
     CommandLineRunner initFileStorage(FileStorageService storageService) {
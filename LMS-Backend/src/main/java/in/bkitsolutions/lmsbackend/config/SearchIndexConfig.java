@@ -0,0 +1,40 @@
+package in.bkitsolutions.lmsbackend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class SearchIndexConfig {
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexConfig.class);
+
+    // ddl-auto=update cannot create FULLTEXT indexes, so make sure they exist at startup.
+    // InnoDB keeps them in sync on every insert/update/delete of a course row.
+    @Bean
+    CommandLineRunner initCourseSearchIndex(JdbcTemplate jdbcTemplate) {
+        return args -> {
+            ensureFullTextIndex(jdbcTemplate, "courses", "ft_courses_title", "title");
+            ensureFullTextIndex(jdbcTemplate, "courses", "ft_courses_search",
+                    "title, description, tags, category, department");
+        };
+    }
+
+    private void ensureFullTextIndex(JdbcTemplate jdbcTemplate, String table, String indexName, String columns) {
+        try {
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.statistics " +
+                    "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?",
+                    Integer.class, table, indexName);
+            if (existing != null && existing > 0) return;
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD FULLTEXT INDEX " + indexName + " (" + columns + ")");
+            logger.info("Created FULLTEXT index {} on {}({})", indexName, table, columns);
+        } catch (DataAccessException e) {
+            // Every keyword search would fail with "Can't find FULLTEXT index", so refuse to start
+            throw new IllegalStateException("Could not create FULLTEXT index " + indexName + " on " + table, e);
+        }
+    }
+}
@@ -2,8 +2,13 @@ package in.bkitsolutions.lmsbackend.controller;
 
 import in.bkitsolutions.lmsbackend.dto.ApiResponse;
 import in.bkitsolutions.lmsbackend.dto.CertificateDtos;
+import in.bkitsolutions.lmsbackend.model.Certificate;
+import in.bkitsolutions.lmsbackend.service.CertificateIssueService;
 import in.bkitsolutions.lmsbackend.service.CertificateService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -14,9 +19,11 @@ import java.util.List;
 @RequestMapping("/api/certificates")
 public class CertificateController {
     private final CertificateService certificateService;
+    private final CertificateIssueService certificateIssueService;
 
-    public CertificateController(CertificateService certificateService) {
+    public CertificateController(CertificateService certificateService, CertificateIssueService certificateIssueService) {
         this.certificateService = certificateService;
+        this.certificateIssueService = certificateIssueService;
     }
 
     @PostMapping("/courses/{courseId}")
@@ -27,6 +34,22 @@ public class CertificateController {
         return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.ok("Certificate issued", certificate));
     }
 
+    @PostMapping("/bulk-jobs")
+    public ResponseEntity<ApiResponse<CertificateDtos.BulkIssueJobResponse>> startBulkIssue(
+            Authentication auth, @RequestBody CertificateDtos.BulkIssueRequest req) {
+        String email = (String) auth.getPrincipal();
+        CertificateDtos.BulkIssueJobResponse job = certificateIssueService.enqueue(email, req);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.ok("Certificate issuance queued", job));
+    }
+
+    @GetMapping("/bulk-jobs/{jobId}")
+    public ResponseEntity<ApiResponse<CertificateDtos.BulkIssueJobResponse>> bulkIssueJob(
+            Authentication auth, @PathVariable Long jobId) {
+        String email = (String) auth.getPrincipal();
+        CertificateDtos.BulkIssueJobResponse job = certificateIssueService.getJob(email, jobId);
+        return ResponseEntity.ok(ApiResponse.ok("Certificate issuance status", job));
+    }
+
     @GetMapping("/mine")
     public ResponseEntity<ApiResponse<List<CertificateDtos.CertificateResponse>>> myCertificates(
             Authentication auth) {
@@ -35,10 +58,35 @@ public class CertificateController {
         return ResponseEntity.ok(ApiResponse.ok("Certificates retrieved", certificates));
     }
 
+    // Streams the stored PDF, which is never public; 202 with the render status until it exists
+    @GetMapping("/{id}/pdf")
+    public ResponseEntity<?> download(Authentication auth, @PathVariable Long id) {
+        String email = (String) auth.getPrincipal();
+        Certificate certificate = certificateService.getForDownload(email, id);
+        if (certificate.getPdfKey() != null) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .cacheControl(CacheControl.noStore())
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"certificate-" + id + ".pdf\"")
+                    .body(certificateService.openPdf(certificate));
+        }
+        String status = certificate.getRenderStatus() != null ? certificate.getRenderStatus().name() : null;
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(ApiResponse.ok("Certificate PDF is being prepared", status));
+    }
+
+    @PostMapping("/{id}/revoke")
+    public ResponseEntity<ApiResponse<CertificateDtos.CertificateResponse>> revoke(Authentication auth, @PathVariable Long id) {
+        String email = (String) auth.getPrincipal();
+        CertificateDtos.CertificateResponse certificate = certificateService.revokeCertificate(email, id);
+        return ResponseEntity.ok(ApiResponse.ok("Certificate revoked", certificate));
+    }
+
     @GetMapping("/verify/{uid}")
     public ResponseEntity<ApiResponse<CertificateDtos.CertificateVerifyResponse>> verify(
-            @PathVariable String uid) {
-        CertificateDtos.CertificateVerifyResponse result = certificateService.verifyCertificate(uid);
+            @PathVariable String uid, @RequestParam(defaultValue = "false") boolean details) {
+        CertificateDtos.CertificateVerifyResponse result = certificateService.verifyCertificate(uid, details);
         return ResponseEntity.ok(ApiResponse.ok("Certificate verified", result));
     }
 }
@@ -2,19 +2,30 @@ package in.bkitsolutions.lmsbackend.controller;
 
 import in.bkitsolutions.lmsbackend.dto.ApiResponse;
 import in.bkitsolutions.lmsbackend.dto.ChapterDtos;
+import in.bkitsolutions.lmsbackend.dto.ContentVersion;
+import in.bkitsolutions.lmsbackend.service.ChapterContentStore;
 import in.bkitsolutions.lmsbackend.service.ChapterService;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api")
 public class ChapterController {
+    // Only the reader's own cache may keep it, and it must revalidate so access is checked on every request
+    private static final CacheControl CHAPTER_CACHE = CacheControl.noCache().cachePrivate();
+    private static final MediaType HTML_UTF8 = MediaType.parseMediaType("text/html;charset=UTF-8");
+
     private final ChapterService chapterService;
 
     public ChapterController(ChapterService chapterService) {
@@ -38,12 +49,60 @@ public class ChapterController {
         return ResponseEntity.ok(ApiResponse.ok("Chapters for topic", chapters));
     }
 
+    @PutMapping("/topics/{topicId}/chapters/reorder")
+    public ResponseEntity<ApiResponse<List<ChapterDtos.ChapterSummary>>> reorder(Authentication auth,
+            @PathVariable Long topicId, @RequestBody List<Long> chapterIds) {
+        String email = (String) auth.getPrincipal();
+        List<ChapterDtos.ChapterSummary> chapters = chapterService.reorderChapters(email, topicId, chapterIds);
+        return ResponseEntity.ok(ApiResponse.ok("Chapters reordered", chapters));
+    }
+
     @GetMapping("/chapters/{id}")
     public ResponseEntity<ApiResponse<ChapterDtos.ChapterResponse>> getById(Authentication auth,
-            @PathVariable Long id) {
+            @PathVariable Long id, WebRequest request) {
         String email = (String) auth.getPrincipal();
+        ContentVersion version = chapterService.getChapterVersion(email, id);
+        if (request.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return version.notModified(CHAPTER_CACHE);
+        }
         ChapterDtos.ChapterResponse chapter = chapterService.getChapterById(email, id);
-        return ResponseEntity.ok(ApiResponse.ok("Chapter details", chapter));
+        return version.ok(CHAPTER_CACHE).body(ApiResponse.ok("Chapter details", chapter));
+    }
+
+    // The chapter body alone. Bodies stored compressed go out as stored, with Content-Encoding: gzip,
+    // to clients that accept it; the ETag differs per encoding so caches never mix the two.
+    @GetMapping("/chapters/{id}/content")
+    public ResponseEntity<byte[]> getContent(Authentication auth, @PathVariable Long id, WebRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String email = (String) auth.getPrincipal();
+        boolean acceptsGzip = acceptsGzip(acceptEncoding);
+        ContentVersion version = chapterService.getChapterVersion(email, id).withVariant(acceptsGzip ? "gzip" : null);
+        if (request.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return version.notModified(CHAPTER_CACHE);
+        }
+        ChapterContentStore.Body body = chapterService.getChapterBody(id, acceptsGzip);
+        ResponseEntity.BodyBuilder response = version.ok(CHAPTER_CACHE)
+                .contentType(HTML_UTF8)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .header("X-Content-Type-Options", "nosniff")
+                .header("Content-Security-Policy", "sandbox");
+        if (body.gzip()) response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(body.bytes());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().toLowerCase(Locale.ROOT).split(";");
+            if (!parts[0].trim().equals("gzip") && !parts[0].trim().equals("*")) continue;
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].replace(" ", "");
+                if (param.startsWith("q=") && param.substring(2).matches("0(\\.0*)?")) refused = true;
+            }
+            if (!refused) return true;
+        }
+        return false;
     }
 
     @PatchMapping("/chapters/{id}")
@@ -4,12 +4,14 @@ import in.bkitsolutions.lmsbackend.dto.ApiResponse;
 import in.bkitsolutions.lmsbackend.dto.CollegeDtos;
 import in.bkitsolutions.lmsbackend.service.CollegeService;
 import in.bkitsolutions.lmsbackend.service.FileStorageService;
+import in.bkitsolutions.lmsbackend.service.ImageVariantService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -20,10 +22,13 @@ import java.util.List;
 public class CollegeController {
     private final CollegeService collegeService;
     private final FileStorageService fileStorageService;
+    private final ImageVariantService imageVariantService;
 
-    public CollegeController(CollegeService collegeService, FileStorageService fileStorageService) {
+    public CollegeController(CollegeService collegeService, FileStorageService fileStorageService,
+                             ImageVariantService imageVariantService) {
         this.collegeService = collegeService;
         this.fileStorageService = fileStorageService;
+        this.imageVariantService = imageVariantService;
     }
 
     @PostMapping
@@ -52,10 +57,10 @@ public class CollegeController {
         return ResponseEntity.ok(ApiResponse.ok("Colleges retrieved", colleges));
     }
 
+    // Public and pre-serialized; see PublicController
     @GetMapping("/active")
-    public ResponseEntity<ApiResponse<List<CollegeDtos.CollegeResponse>>> getActive() {
-        List<CollegeDtos.CollegeResponse> colleges = collegeService.getActiveColleges();
-        return ResponseEntity.ok(ApiResponse.ok("Active colleges retrieved", colleges));
+    public ResponseEntity<byte[]> getActive(WebRequest request) {
+        return PublicController.cachedJson(collegeService.getCachedActiveColleges(), request);
     }
 
     @GetMapping("/{id}")
@@ -77,6 +82,7 @@ public class CollegeController {
             @RequestParam("file") MultipartFile file) throws IOException {
         String email = (String) auth.getPrincipal();
         String logoUrl = fileStorageService.store(file, "college-logos");
+        imageVariantService.generateAsync(logoUrl);
         return ResponseEntity.ok(ApiResponse.ok("Logo uploaded", logoUrl));
     }
 
@@ -86,6 +92,7 @@ public class CollegeController {
             @RequestParam("file") MultipartFile file) throws IOException {
         String email = (String) auth.getPrincipal();
         String bannerUrl = fileStorageService.store(file, "college-banners");
+        imageVariantService.generateAsync(bannerUrl);
         return ResponseEntity.ok(ApiResponse.ok("Banner uploaded", bannerUrl));
     }
 
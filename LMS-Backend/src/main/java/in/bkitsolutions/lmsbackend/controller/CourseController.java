@@ -1,23 +1,33 @@
 package in.bkitsolutions.lmsbackend.controller;
 
 import in.bkitsolutions.lmsbackend.dto.ApiResponse;
+import in.bkitsolutions.lmsbackend.dto.ContentVersion;
 import in.bkitsolutions.lmsbackend.dto.CourseDtos;
+import in.bkitsolutions.lmsbackend.dto.CursorPage;
 import in.bkitsolutions.lmsbackend.service.CourseService;
+import in.bkitsolutions.lmsbackend.service.CurriculumSyncService;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/courses")
 public class CourseController {
+    // Detail carries the requester's enrollment and progress: browser-only, always revalidated
+    private static final CacheControl DETAIL_CACHE = CacheControl.noCache().cachePrivate();
+
     private final CourseService courseService;
+    private final CurriculumSyncService curriculumSyncService;
 
-    public CourseController(CourseService courseService) {
+    public CourseController(CourseService courseService, CurriculumSyncService curriculumSyncService) {
         this.courseService = courseService;
+        this.curriculumSyncService = curriculumSyncService;
     }
 
     @PostMapping
@@ -53,6 +63,16 @@ public class CourseController {
         return ResponseEntity.ok(ApiResponse.ok("Courses retrieved", courses));
     }
 
+    @GetMapping("/mine/page")
+    public ResponseEntity<ApiResponse<CursorPage<CourseDtos.CourseResponse>>> minePage(
+            Authentication auth,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        String email = (String) auth.getPrincipal();
+        CursorPage<CourseDtos.CourseResponse> courses = courseService.getMyCoursesPage(email, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.ok("Courses retrieved", courses));
+    }
+
     @GetMapping("/published")
     public ResponseEntity<ApiResponse<List<CourseDtos.CourseResponse>>> published(Authentication auth) {
         String email = (String) auth.getPrincipal();
@@ -62,10 +82,14 @@ public class CourseController {
 
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<CourseDtos.CourseDetailResponse>> detail(
-            Authentication auth, @PathVariable Long id) {
+            Authentication auth, @PathVariable Long id, WebRequest request) {
         String email = (String) auth.getPrincipal();
+        ContentVersion version = courseService.getCourseDetailVersion(email, id);
+        if (request.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return version.notModified(DETAIL_CACHE); // detail is never built
+        }
         CourseDtos.CourseDetailResponse course = courseService.getCourseDetail(email, id);
-        return ResponseEntity.ok(ApiResponse.ok("Course detail retrieved", course));
+        return version.ok(DETAIL_CACHE).body(ApiResponse.ok("Course detail retrieved", course));
     }
 
     // --- Publish / Unpublish ---
@@ -114,12 +138,32 @@ public class CourseController {
             Authentication auth,
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) String category,
-            @RequestParam(required = false) String difficultyLevel) {
+            @RequestParam(required = false) String difficultyLevel,
+            @RequestParam(required = false) Long collegeId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         String email = (String) auth.getPrincipal();
-        List<CourseDtos.CourseResponse> courses = courseService.searchCourses(email, keyword, category, difficultyLevel);
+        List<CourseDtos.CourseResponse> courses = courseService.searchCourses(
+                email, keyword, category, difficultyLevel, collegeId, page, size);
         return ResponseEntity.ok(ApiResponse.ok("Search results", courses));
     }
 
+    @GetMapping("/search/facets")
+    public ResponseEntity<ApiResponse<CourseDtos.CourseFacetsResponse>> searchFacets(
+            Authentication auth,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String difficultyLevel,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String semester,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long collegeId) {
+        String email = (String) auth.getPrincipal();
+        CourseDtos.CourseFacetsResponse facets = courseService.getSearchFacets(
+                email, keyword, category, difficultyLevel, department, semester, status, collegeId);
+        return ResponseEntity.ok(ApiResponse.ok("Search facets", facets));
+    }
+
     // --- Statistics ---
 
     @GetMapping("/{id}/stats")
@@ -147,6 +191,22 @@ public class CourseController {
         return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.ok("Course cloned", course));
     }
 
+    @PostMapping("/clone-jobs")
+    public ResponseEntity<ApiResponse<List<CourseDtos.CloneJobResponse>>> startCloneJobs(
+            Authentication auth, @Valid @RequestBody CourseDtos.CloneJobsRequest req) {
+        String email = (String) auth.getPrincipal();
+        List<CourseDtos.CloneJobResponse> jobs = courseService.startCloneJobs(email, req);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.ok("Clone jobs queued", jobs));
+    }
+
+    @GetMapping("/clone-jobs/{jobId}")
+    public ResponseEntity<ApiResponse<CourseDtos.CloneJobResponse>> cloneJob(
+            Authentication auth, @PathVariable Long jobId) {
+        String email = (String) auth.getPrincipal();
+        CourseDtos.CloneJobResponse job = courseService.getCloneJob(email, jobId);
+        return ResponseEntity.ok(ApiResponse.ok("Clone job status", job));
+    }
+
     // --- Curriculum Management ---
     // DEPRECATED: Topics now belong directly to courses via course_id foreign key
     // Topics are created with courseId, no manual linking needed
@@ -167,6 +227,17 @@ public class CourseController {
         CourseDtos.CourseResponse course = courseService.removeTopicFromCourse(email, courseId, topicId);
         return ResponseEntity.ok(ApiResponse.ok("Topic removed from course", course));
     }
+    */
+
+    // Delta feed for offline clients: topics and chapters changed after `since`, plus deletions
+    @GetMapping("/{courseId}/curriculum/changes")
+    public ResponseEntity<ApiResponse<CourseDtos.CurriculumChangesResponse>> curriculumChanges(
+            Authentication auth, @PathVariable Long courseId,
+            @RequestParam(defaultValue = "0") long since) {
+        String email = (String) auth.getPrincipal();
+        CourseDtos.CurriculumChangesResponse changes = curriculumSyncService.getChanges(email, courseId, since);
+        return ResponseEntity.ok(ApiResponse.ok("Curriculum changes", changes));
+    }
 
     @PutMapping("/{courseId}/topics/reorder")
     public ResponseEntity<ApiResponse<CourseDtos.CourseResponse>> reorderTopics(
@@ -176,5 +247,4 @@ public class CourseController {
         CourseDtos.CourseResponse course = courseService.reorderTopics(email, courseId, topicIds);
         return ResponseEntity.ok(ApiResponse.ok("Topics reordered", course));
     }
-    */
 }
@@ -1,8 +1,10 @@
 package in.bkitsolutions.lmsbackend.controller;
 
 import in.bkitsolutions.lmsbackend.dto.ApiResponse;
+import in.bkitsolutions.lmsbackend.dto.CursorPage;
 import in.bkitsolutions.lmsbackend.dto.EnrollmentDtos;
 import in.bkitsolutions.lmsbackend.service.EnrollmentService;
+import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -24,6 +26,10 @@ public class EnrollmentController {
             Authentication auth, @PathVariable Long courseId) {
         String email = (String) auth.getPrincipal();
         EnrollmentDtos.EnrollmentResponse enrollment = enrollmentService.enroll(email, courseId);
+        if ("WAITLISTED".equals(enrollment.getStatus())) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.ok("Course is full; added to the waitlist", enrollment));
+        }
         return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.ok("Enrolled successfully", enrollment));
     }
 
@@ -49,6 +55,27 @@ public class EnrollmentController {
         return ResponseEntity.ok(ApiResponse.ok("Course enrollments retrieved", enrollments));
     }
 
+    @GetMapping("/mine/page")
+    public ResponseEntity<ApiResponse<CursorPage<EnrollmentDtos.EnrollmentResponse>>> myEnrollmentsPage(
+            Authentication auth,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        String email = (String) auth.getPrincipal();
+        CursorPage<EnrollmentDtos.EnrollmentResponse> enrollments = enrollmentService.getMyEnrollmentsPage(email, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.ok("Enrollments retrieved", enrollments));
+    }
+
+    @GetMapping("/courses/{courseId}/page")
+    public ResponseEntity<ApiResponse<CursorPage<EnrollmentDtos.EnrollmentResponse>>> courseEnrollmentsPage(
+            Authentication auth, @PathVariable Long courseId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        String email = (String) auth.getPrincipal();
+        CursorPage<EnrollmentDtos.EnrollmentResponse> enrollments =
+                enrollmentService.getCourseEnrollmentsPage(email, courseId, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.ok("Course enrollments retrieved", enrollments));
+    }
+
     @GetMapping("/courses/{courseId}/progress")
     public ResponseEntity<ApiResponse<EnrollmentDtos.ProgressResponse>> progress(
             Authentication auth, @PathVariable Long courseId) {
@@ -68,12 +95,12 @@ public class EnrollmentController {
     }
 
     @PostMapping("/admin/courses/{courseId}/bulk-enroll")
-    public ResponseEntity<ApiResponse<List<EnrollmentDtos.EnrollmentResponse>>> adminBulkEnroll(
+    public ResponseEntity<ApiResponse<EnrollmentDtos.BulkEnrollResponse>> adminBulkEnroll(
             Authentication auth, @PathVariable Long courseId,
-            @RequestBody EnrollmentDtos.BulkEnrollRequest req) {
+            @Valid @RequestBody EnrollmentDtos.BulkEnrollRequest req) {
         String email = (String) auth.getPrincipal();
-        List<EnrollmentDtos.EnrollmentResponse> enrollments = enrollmentService.adminBulkEnroll(email, courseId, req.getStudentIds());
-        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.ok("Students enrolled", enrollments));
+        EnrollmentDtos.BulkEnrollResponse result = enrollmentService.adminBulkEnroll(email, courseId, req.getStudentIds());
+        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.ok("Students enrolled", result));
     }
 
     @DeleteMapping("/admin/courses/{courseId}/students/{studentId}")
@@ -84,6 +111,14 @@ public class EnrollmentController {
         return ResponseEntity.ok(ApiResponse.ok("Student unenrolled by admin", null));
     }
 
+    @GetMapping("/admin/courses/{courseId}/waitlist")
+    public ResponseEntity<ApiResponse<List<EnrollmentDtos.WaitlistEntryResponse>>> waitlist(
+            Authentication auth, @PathVariable Long courseId) {
+        String email = (String) auth.getPrincipal();
+        List<EnrollmentDtos.WaitlistEntryResponse> waitlist = enrollmentService.getWaitlist(email, courseId);
+        return ResponseEntity.ok(ApiResponse.ok("Course waitlist retrieved", waitlist));
+    }
+
     @PatchMapping("/admin/{enrollmentId}/status")
     public ResponseEntity<ApiResponse<EnrollmentDtos.EnrollmentResponse>> adminUpdateStatus(
             Authentication auth, @PathVariable Long enrollmentId,
@@ -1,20 +1,25 @@
 package in.bkitsolutions.lmsbackend.controller;
 
 import in.bkitsolutions.lmsbackend.dto.ApiResponse;
+import in.bkitsolutions.lmsbackend.dto.ProgressDtos;
+import in.bkitsolutions.lmsbackend.service.CompletionBitmapService;
 import in.bkitsolutions.lmsbackend.service.ProgressService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/progress")
 public class ProgressController {
     private final ProgressService progressService;
+    private final CompletionBitmapService completionBitmapService;
 
-    public ProgressController(ProgressService progressService) {
+    public ProgressController(ProgressService progressService, CompletionBitmapService completionBitmapService) {
         this.progressService = progressService;
+        this.completionBitmapService = completionBitmapService;
     }
 
     @PostMapping("/chapters/{chapterId}/complete")
@@ -41,4 +46,24 @@ public class ProgressController {
         boolean completed = progressService.isChapterCompleted(email, chapterId);
         return ResponseEntity.ok(ApiResponse.ok("Status retrieved", completed));
     }
+
+    @GetMapping("/courses/{courseId}/chapters")
+    public ResponseEntity<ApiResponse<ProgressDtos.CourseCompletionResponse>> courseCompletion(
+            Authentication auth, @PathVariable Long courseId) {
+        String email = (String) auth.getPrincipal();
+        ProgressDtos.CourseCompletionResponse completion = completionBitmapService.getCourseCompletion(email, courseId);
+        return ResponseEntity.ok(ApiResponse.ok("Course completion retrieved", completion));
+    }
+
+    @GetMapping("/courses/{courseId}/cohort")
+    public ResponseEntity<ApiResponse<ProgressDtos.CohortCompletionResponse>> cohort(
+            Authentication auth,
+            @PathVariable Long courseId,
+            @RequestParam(required = false) List<Long> chapterIds,
+            @RequestParam(defaultValue = "ALL") String match) {
+        String email = (String) auth.getPrincipal();
+        ProgressDtos.CohortCompletionResponse cohort = completionBitmapService.getCohortCompletion(
+                email, courseId, chapterIds, match);
+        return ResponseEntity.ok(ApiResponse.ok("Cohort completion retrieved", cohort));
+    }
 }
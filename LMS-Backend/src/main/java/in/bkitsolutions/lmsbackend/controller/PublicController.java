@@ -1,14 +1,21 @@
 package in.bkitsolutions.lmsbackend.controller;
 
-import in.bkitsolutions.lmsbackend.dto.ApiResponse;
-import in.bkitsolutions.lmsbackend.dto.CollegeDtos;
+import in.bkitsolutions.lmsbackend.service.CollegeBrandingCache;
 import in.bkitsolutions.lmsbackend.service.CollegeService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
 
 @RestController
 @RequestMapping("/api/auth/public")
 public class PublicController {
+    // Same for every visitor; browsers reuse it for a minute, then revalidate against the ETag
+    static final CacheControl BRANDING_CACHE = CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic();
+
     private final CollegeService collegeService;
 
     public PublicController(CollegeService collegeService) {
@@ -16,9 +23,14 @@ public class PublicController {
     }
 
     @GetMapping("/college-branding/{code}")
-    public ResponseEntity<ApiResponse<CollegeDtos.CollegeBrandingResponse>> getCollegeBranding(
-            @PathVariable String code) {
-        CollegeDtos.CollegeBrandingResponse branding = collegeService.getCollegeBranding(code);
-        return ResponseEntity.ok(ApiResponse.ok("Branding retrieved", branding));
+    public ResponseEntity<byte[]> getCollegeBranding(@PathVariable String code, WebRequest request) {
+        return cachedJson(collegeService.getCachedCollegeBranding(code), request);
+    }
+
+    static ResponseEntity<byte[]> cachedJson(CollegeBrandingCache.Cached cached, WebRequest request) {
+        if (request.checkNotModified(cached.version().getEtag())) {
+            return cached.version().notModified(BRANDING_CACHE);
+        }
+        return cached.version().ok(BRANDING_CACHE).contentType(MediaType.APPLICATION_JSON).body(cached.json());
     }
 }
@@ -2,6 +2,7 @@ package in.bkitsolutions.lmsbackend.controller;
 
 import in.bkitsolutions.lmsbackend.dto.ApiResponse;
 import in.bkitsolutions.lmsbackend.dto.AttemptDtos;
+import in.bkitsolutions.lmsbackend.dto.CursorPage;
 import in.bkitsolutions.lmsbackend.model.TestAttempt;
 import in.bkitsolutions.lmsbackend.service.ResultService;
 import org.springframework.http.ResponseEntity;
@@ -43,6 +44,15 @@ public class ResultController {
         return ResponseEntity.ok(ApiResponse.ok("My results", list));
     }
 
+    @GetMapping("/me/results/page")
+    public ResponseEntity<ApiResponse<CursorPage<AttemptDtos.ResultDto>>> myResultsPage(Authentication auth,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        String email = (String) auth.getPrincipal();
+        CursorPage<AttemptDtos.ResultDto> page = resultService.myResultsPage(email, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.ok("My results", page));
+    }
+
     @DeleteMapping("/results/{id}")
     public ResponseEntity<ApiResponse<Void>> delete(Authentication auth, @PathVariable Long id) {
         String email = (String) auth.getPrincipal();
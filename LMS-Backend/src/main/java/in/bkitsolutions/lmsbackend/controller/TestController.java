@@ -1,6 +1,7 @@
 package in.bkitsolutions.lmsbackend.controller;
 
 import in.bkitsolutions.lmsbackend.dto.ApiResponse;
+import in.bkitsolutions.lmsbackend.dto.CursorPage;
 import in.bkitsolutions.lmsbackend.dto.TestDtos;
 import in.bkitsolutions.lmsbackend.model.TestEntity;
 import in.bkitsolutions.lmsbackend.service.TestService;
@@ -58,6 +59,15 @@ public class TestController {
         return ResponseEntity.ok(ApiResponse.ok("My tests", tests));
     }
 
+    @GetMapping("/mine/page")
+    public ResponseEntity<ApiResponse<CursorPage<TestEntity>>> minePage(Authentication auth,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        String email = (String) auth.getPrincipal();
+        CursorPage<TestEntity> tests = testService.myTestsPage(email, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.ok("My tests", tests));
+    }
+
     @GetMapping("/available")
     public ResponseEntity<ApiResponse<List<TestEntity>>> available(Authentication auth) {
         String email = (String) auth.getPrincipal();
@@ -1,13 +1,17 @@
 package in.bkitsolutions.lmsbackend.controller;
 
 import in.bkitsolutions.lmsbackend.dto.ApiResponse;
+import in.bkitsolutions.lmsbackend.dto.ContentVersion;
+import in.bkitsolutions.lmsbackend.dto.CursorPage;
 import in.bkitsolutions.lmsbackend.dto.TopicDtos;
 import in.bkitsolutions.lmsbackend.service.TopicService;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
@@ -16,6 +20,10 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api/topics")
 public class TopicController {
+    // Private: only the reader's own cache may keep it, and it must revalidate so access
+    // checks run on every request
+    private static final CacheControl CURRICULUM_CACHE = CacheControl.noCache().cachePrivate();
+
     private final TopicService topicService;
 
     public TopicController(TopicService topicService) {
@@ -53,6 +61,15 @@ public class TopicController {
         return ResponseEntity.ok(ApiResponse.ok("My topics", topics));
     }
 
+    @GetMapping("/mine/page")
+    public ResponseEntity<ApiResponse<CursorPage<TopicDtos.TopicResponse>>> minePage(Authentication auth,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        String email = (String) auth.getPrincipal();
+        CursorPage<TopicDtos.TopicResponse> topics = topicService.getMyTopicsPage(email, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.ok("My topics", topics));
+    }
+
     @GetMapping("/published")
     public ResponseEntity<ApiResponse<List<TopicDtos.TopicResponse>>> published(Authentication auth) {
         String email = (String) auth.getPrincipal();
@@ -103,9 +120,13 @@ public class TopicController {
     
     @GetMapping("/course/{courseId}")
     public ResponseEntity<ApiResponse<List<TopicDtos.TopicResponse>>> byCourse(
-            Authentication auth, @PathVariable Long courseId) {
+            Authentication auth, @PathVariable Long courseId, WebRequest request) {
         String email = (String) auth.getPrincipal();
+        ContentVersion version = topicService.getTopicsByCourseVersion(email, courseId);
+        if (request.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return version.notModified(CURRICULUM_CACHE);
+        }
         List<TopicDtos.TopicResponse> topics = topicService.getTopicsByCourse(email, courseId);
-        return ResponseEntity.ok(ApiResponse.ok("Course curriculum", topics));
+        return version.ok(CURRICULUM_CACHE).body(ApiResponse.ok("Course curriculum", topics));
     }
 }
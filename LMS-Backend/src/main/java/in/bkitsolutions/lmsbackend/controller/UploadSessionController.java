@@ -0,0 +1,83 @@
+package in.bkitsolutions.lmsbackend.controller;
+
+import in.bkitsolutions.lmsbackend.dto.ApiResponse;
+import in.bkitsolutions.lmsbackend.dto.UploadDtos;
+import in.bkitsolutions.lmsbackend.service.ResumableUploadService;
+import in.bkitsolutions.lmsbackend.service.UploadGarbageCollector;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/uploads")
+public class UploadSessionController {
+    private final ResumableUploadService resumableUploadService;
+    private final UploadGarbageCollector uploadGarbageCollector;
+
+    public UploadSessionController(ResumableUploadService resumableUploadService,
+                                   UploadGarbageCollector uploadGarbageCollector) {
+        this.resumableUploadService = resumableUploadService;
+        this.uploadGarbageCollector = uploadGarbageCollector;
+    }
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<UploadDtos.UploadSessionResponse>> initiate(Authentication auth,
+            @Valid @RequestBody UploadDtos.InitiateUploadRequest req) {
+        String email = (String) auth.getPrincipal();
+        UploadDtos.UploadSessionResponse session = resumableUploadService.initiate(email, req);
+        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.ok("Upload started", session));
+    }
+
+    @PostMapping("/direct")
+    public ResponseEntity<ApiResponse<UploadDtos.DirectUploadResponse>> direct(Authentication auth,
+            @Valid @RequestBody UploadDtos.InitiateUploadRequest req) {
+        String email = (String) auth.getPrincipal();
+        UploadDtos.DirectUploadResponse upload = resumableUploadService.presignDirect(email, req);
+        return ResponseEntity.ok(ApiResponse.ok("Upload URL issued", upload));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<UploadDtos.UploadSessionResponse>> get(Authentication auth, @PathVariable String id) {
+        String email = (String) auth.getPrincipal();
+        UploadDtos.UploadSessionResponse session = resumableUploadService.getSession(email, id);
+        return ResponseEntity.ok(ApiResponse.ok("Upload status", session));
+    }
+
+    // Raw chunk bytes as the body (not multipart), so the multipart size limit does not apply
+    @PutMapping("/{id}/chunks")
+    public ResponseEntity<ApiResponse<UploadDtos.UploadSessionResponse>> putChunk(Authentication auth,
+            @PathVariable String id, @RequestParam long offset,
+            @RequestHeader("X-Chunk-SHA256") String sha256, InputStream body) {
+        String email = (String) auth.getPrincipal();
+        UploadDtos.UploadSessionResponse session = resumableUploadService.writeChunk(email, id, offset, sha256, body);
+        return ResponseEntity.ok(ApiResponse.ok("Chunk stored", session));
+    }
+
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<ApiResponse<UploadDtos.UploadSessionResponse>> complete(Authentication auth,
+            @PathVariable String id) {
+        String email = (String) auth.getPrincipal();
+        UploadDtos.UploadSessionResponse session = resumableUploadService.complete(email, id);
+        return ResponseEntity.ok(ApiResponse.ok("Upload completed", session));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse<Void>> abort(Authentication auth, @PathVariable String id) {
+        String email = (String) auth.getPrincipal();
+        resumableUploadService.abort(email, id);
+        return ResponseEntity.ok(ApiResponse.ok("Upload aborted"));
+    }
+
+    // Orphaned-file collection on demand; dryRun (the default) only reports what would go
+    @PostMapping("/gc")
+    public ResponseEntity<ApiResponse<UploadDtos.GarbageCollectionReport>> collectGarbage(Authentication auth,
+            @RequestParam(defaultValue = "true") boolean dryRun) {
+        String email = (String) auth.getPrincipal();
+        UploadDtos.GarbageCollectionReport report = uploadGarbageCollector.run(email, dryRun);
+        return ResponseEntity.ok(ApiResponse.ok(dryRun ? "Upload GC dry run" : "Upload GC finished", report));
+    }
+}
@@ -1,10 +1,13 @@
 package in.bkitsolutions.lmsbackend.controller;
 
 import in.bkitsolutions.lmsbackend.dto.ApiResponse;
+import in.bkitsolutions.lmsbackend.dto.CursorPage;
+import in.bkitsolutions.lmsbackend.dto.UserDtos;
 import in.bkitsolutions.lmsbackend.model.User;
 import in.bkitsolutions.lmsbackend.model.UserType;
 import in.bkitsolutions.lmsbackend.repository.UserRepository;
 import in.bkitsolutions.lmsbackend.service.AuthService;
+import in.bkitsolutions.lmsbackend.service.UserManagementService;
 import in.bkitsolutions.lmsbackend.service.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -12,6 +15,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.EnumSet;
 import java.util.List;
 
 @RestController
@@ -21,11 +25,14 @@ public class UserController {
     private final AuthService authService;
     private final UserRepository userRepository;
     private final UserService userService;
+    private final UserManagementService userManagementService;
 
-    public UserController(AuthService authService, UserRepository userRepository, UserService userService) {
+    public UserController(AuthService authService, UserRepository userRepository, UserService userService,
+                          UserManagementService userManagementService) {
         this.authService = authService;
         this.userRepository = userRepository;
         this.userService = userService;
+        this.userManagementService = userManagementService;
     }
 
     @GetMapping("/me")
@@ -40,47 +47,25 @@ public class UserController {
             return ResponseEntity.status(401).body(ApiResponse.fail("Unauthorized"));
         }
         String email = (String) authentication.getPrincipal();
-        User requester = authService.getByEmail(email);
-        
-        // Role-based access control based on FIXES.md requirements
-        List<User> users;
-        switch (requester.getType()) {
-            case ROOTADMIN:
-                // Root Admin: Read-only access to all users
-                users = userRepository.findAll();
-                break;
-            case SUPERADMIN:
-                // Super Admin: Read-only access to all users except ROOT ADMIN
-                users = userRepository.findAll().stream()
-                        .filter(user -> user.getType() != UserType.ROOTADMIN)
-                        .toList();
-                break;
-            case ADMIN:
-                // College Admin: Only users from their college
-                if (requester.getCollege() == null) {
-                    throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Admin without college assignment cannot access users");
-                }
-                users = userRepository.findByCollegeId(requester.getCollege().getId());
-                break;
-            case FACULTY:
-                // Faculty: Only users from their college (students and other faculty)
-                if (requester.getCollege() == null) {
-                    throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Faculty without college assignment cannot access users");
-                }
-                users = userRepository.findByCollegeId(requester.getCollege().getId()).stream()
-                        .filter(user -> user.getType() == UserType.USER || user.getType() == UserType.FACULTY)
-                        .toList();
-                break;
-            case USER:
-                // Students: No access to user lists
-                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Students cannot access user lists");
-            default:
-                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied");
-        }
-        
+        UserScope scope = userScope(authService.getByEmail(email), false);
+        List<User> users = (scope.collegeId() == null ? userRepository.findAll()
+                : userRepository.findByCollegeId(scope.collegeId())).stream()
+                .filter(user -> scope.types().contains(user.getType()))
+                .toList();
         return ResponseEntity.ok(ApiResponse.ok("Fetched users", users));
     }
 
+    // Paged variant of /all with the same visibility rules, returning DTOs instead of entities
+    @GetMapping("/all/page")
+    public ResponseEntity<ApiResponse<CursorPage<UserDtos.UserResponse>>> getAllUsersPage(
+            Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        String email = (String) authentication.getPrincipal();
+        UserScope scope = userScope(authService.getByEmail(email), false);
+        return ResponseEntity.ok(ApiResponse.ok("Fetched users", usersPage(scope, cursor, limit)));
+    }
+
     @GetMapping("/super-admins")
     public ResponseEntity<ApiResponse<List<User>>> getSuperAdmins(Authentication authentication) {
         String email = (String) authentication.getPrincipal();
@@ -150,28 +135,22 @@ public class UserController {
     @GetMapping("/students")
     public ResponseEntity<ApiResponse<List<User>>> getStudents(Authentication authentication) {
         String email = (String) authentication.getPrincipal();
-        User requester = authService.getByEmail(email);
-        
-        List<User> students;
-        switch (requester.getType()) {
-            case ROOTADMIN:
-            case SUPERADMIN:
-                students = userRepository.findAllByType(UserType.USER);
-                break;
-            case ADMIN:
-            case FACULTY:
-                if (requester.getCollege() == null) {
-                    throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User without college assignment cannot access students");
-                }
-                students = userRepository.findByCollegeIdAndType(requester.getCollege().getId(), UserType.USER);
-                break;
-            default:
-                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Students cannot access other students list");
-        }
-        
+        UserScope scope = userScope(authService.getByEmail(email), true);
+        List<User> students = scope.collegeId() == null ? userRepository.findAllByType(UserType.USER)
+                : userRepository.findByCollegeIdAndType(scope.collegeId(), UserType.USER);
         return ResponseEntity.ok(ApiResponse.ok("Fetched Students", students));
     }
 
+    @GetMapping("/students/page")
+    public ResponseEntity<ApiResponse<CursorPage<UserDtos.UserResponse>>> getStudentsPage(
+            Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        String email = (String) authentication.getPrincipal();
+        UserScope scope = userScope(authService.getByEmail(email), true);
+        return ResponseEntity.ok(ApiResponse.ok("Fetched Students", usersPage(scope, cursor, limit)));
+    }
+
     @GetMapping("/college/{collegeId}")
     public ResponseEntity<ApiResponse<List<User>>> getUsersByCollege(
             @PathVariable Long collegeId, 
@@ -218,4 +197,48 @@ public class UserController {
         
         return ResponseEntity.ok(ApiResponse.ok("Fetched user statistics", stats));
     }
+
+    // Users a requester may list; collegeId null = every college
+    private record UserScope(Long collegeId, EnumSet<UserType> types) {
+    }
+
+    /**
+     * Role-based visibility shared by /all, /students and their paged variants: Root Admin
+     * sees everyone, Super Admin everyone but Root Admins, a college Admin their college and
+     * Faculty their college's students and faculty. With studentsOnly only students are listed.
+     */
+    private static UserScope userScope(User requester, boolean studentsOnly) {
+        switch (requester.getType()) {
+            case ROOTADMIN:
+                return new UserScope(null, studentsOnly ? EnumSet.of(UserType.USER) : EnumSet.allOf(UserType.class));
+            case SUPERADMIN:
+                return new UserScope(null, studentsOnly ? EnumSet.of(UserType.USER)
+                        : EnumSet.complementOf(EnumSet.of(UserType.ROOTADMIN)));
+            case ADMIN:
+            case FACULTY:
+                boolean admin = requester.getType() == UserType.ADMIN;
+                if (requester.getCollege() == null) {
+                    throw new ResponseStatusException(HttpStatus.FORBIDDEN, studentsOnly
+                            ? "User without college assignment cannot access students"
+                            : (admin ? "Admin" : "Faculty") + " without college assignment cannot access users");
+                }
+                EnumSet<UserType> types = studentsOnly ? EnumSet.of(UserType.USER)
+                        : admin ? EnumSet.allOf(UserType.class) : EnumSet.of(UserType.USER, UserType.FACULTY);
+                return new UserScope(requester.getCollege().getId(), types);
+            case USER:
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                        studentsOnly ? "Students cannot access other students list" : "Students cannot access user lists");
+            default:
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied");
+        }
+    }
+
+    private CursorPage<UserDtos.UserResponse> usersPage(UserScope scope, String cursor, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        Long before = CursorPage.decode(cursor);
+        List<User> rows = scope.collegeId() == null
+                ? userRepository.findPage(scope.types(), before, CursorPage.request(pageSize))
+                : userRepository.findPageByCollegeId(scope.collegeId(), scope.types(), before, CursorPage.request(pageSize));
+        return CursorPage.of(rows, pageSize, User::getId, userManagementService::mapToUserResponse);
+    }
 }
@@ -2,13 +2,18 @@ package in.bkitsolutions.lmsbackend.controller;
 
 import in.bkitsolutions.lmsbackend.dto.ApiResponse;
 import in.bkitsolutions.lmsbackend.dto.UserDtos;
+import in.bkitsolutions.lmsbackend.service.StudentImportService;
 import in.bkitsolutions.lmsbackend.service.UserManagementService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 
@@ -19,6 +24,9 @@ public class UserManagementController {
     @Autowired
     private UserManagementService userManagementService;
 
+    @Autowired
+    private StudentImportService studentImportService;
+
     @PostMapping("/super-admin")
     public ResponseEntity<ApiResponse<UserDtos.UserResponse>> createSuperAdmin(
             Authentication auth,
@@ -59,6 +67,37 @@ public class UserManagementController {
             ApiResponse.ok("Student created successfully", user));
     }
 
+    @PostMapping("/students/import")
+    public ResponseEntity<ApiResponse<UserDtos.StudentImportJobResponse>> importStudents(
+            Authentication auth,
+            @RequestParam("file") MultipartFile file) {
+        String email = (String) auth.getPrincipal();
+        UserDtos.StudentImportJobResponse job = studentImportService.enqueue(email, file);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(
+            ApiResponse.ok("Student import queued", job));
+    }
+
+    @GetMapping("/students/import-jobs/{jobId}")
+    public ResponseEntity<ApiResponse<UserDtos.StudentImportJobResponse>> getImportJob(
+            Authentication auth,
+            @PathVariable Long jobId) {
+        String email = (String) auth.getPrincipal();
+        UserDtos.StudentImportJobResponse job = studentImportService.getJob(email, jobId);
+        return ResponseEntity.ok(ApiResponse.ok("Fetched import job", job));
+    }
+
+    @GetMapping("/students/import-jobs/{jobId}/errors")
+    public ResponseEntity<Resource> getImportErrors(
+            Authentication auth,
+            @PathVariable Long jobId) {
+        String email = (String) auth.getPrincipal();
+        Resource report = studentImportService.getErrorReport(email, jobId);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("text/csv"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"import-" + jobId + "-errors.csv\"")
+            .body(report);
+    }
+
     @PutMapping("/{userId}")
     public ResponseEntity<ApiResponse<UserDtos.UserResponse>> updateUser(
             Authentication auth,
@@ -22,7 +22,9 @@ public class CertificateDtos {
         private String collegeName;
         private String collegeLogoUrl;
         private String issuedAt;
-        private String downloadUrl;
+        private String downloadUrl; // the authenticated PDF endpoint, set once renderStatus is READY
+        private String renderStatus;
+        private String revokedAt;
     }
 
     @Data
@@ -31,9 +33,41 @@ public class CertificateDtos {
     @AllArgsConstructor
     public static class CertificateVerifyResponse {
         private boolean valid;
+        private boolean revoked;
+        private String certificateUid;
+        // Names are only filled for detail views (?details=true); the plain check is answered from the UID
         private String studentName;
         private String courseTitle;
         private String collegeName;
         private String issuedAt;
     }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BulkIssueRequest {
+        private Long courseId;   // one course, or
+        private Long collegeId;  // every course of a college (platform admins; college admins default to their own)
+        private Boolean renderPdfs; // default true; otherwise PDFs render when each student first asks
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BulkIssueJobResponse {
+        private Long id;
+        private Long collegeId;
+        private Long courseId;
+        private Boolean renderPdfs;
+        private String status;
+        private Integer eligible;
+        private Integer issued;
+        private Integer progressPercent;
+        private String errorMessage;
+        private String createdAt;
+        private String startedAt;
+        private String completedAt;
+    }
 }
@@ -56,6 +56,7 @@ public class CollegeDtos {
         private String code;
         private String description;
         private String logoUrl;
+        private String logoThumbnailUrl;
         private String bannerUrl;
         private String primaryColor;
         private String secondaryColor;
@@ -80,7 +81,11 @@ public class CollegeDtos {
         private String name;
         private String code;
         private String logoUrl;
+        // Resized copies; equal to the original URL until they have been rendered
+        private String logoThumbnailUrl;
+        private String logoMediumUrl;
         private String bannerUrl;
+        private String bannerMediumUrl;
         private String primaryColor;
         private String secondaryColor;
     }
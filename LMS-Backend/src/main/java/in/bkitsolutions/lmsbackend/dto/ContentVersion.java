@@ -0,0 +1,66 @@
+package in.bkitsolutions.lmsbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Validators for a conditional GET: a strong ETag hashed from the version parts of
+ * everything a response is built from, and the newest updatedAt among those parts.
+ */
+@Getter
+@AllArgsConstructor
+public class ContentVersion {
+    private final String etag;
+    private final long lastModified; // epoch millis, -1 when unknown
+
+    public static ContentVersion of(Object... parts) {
+        StringBuilder fingerprint = new StringBuilder();
+        LocalDateTime newest = null;
+        for (Object part : parts) {
+            fingerprint.append(part).append('|');
+            if (part instanceof LocalDateTime time && (newest == null || time.isAfter(newest))) {
+                newest = time;
+            }
+        }
+        String etag = "\"" + DigestUtils.md5DigestAsHex(fingerprint.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+        long lastModified = newest != null ? newest.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+        return new ContentVersion(etag, lastModified);
+    }
+
+    /**
+     * The same ETag without Last-Modified, for responses aggregated over rows that can be
+     * deleted: a deletion never raises the newest updatedAt, so If-Modified-Since alone would
+     * get a stale 304.
+     */
+    public ContentVersion withoutLastModified() {
+        return new ContentVersion(etag, -1);
+    }
+
+    /** Same version, distinct ETag for another representation of it (e.g. a content coding). */
+    public ContentVersion withVariant(String variant) {
+        if (variant == null) return this;
+        return new ContentVersion(etag.substring(0, etag.length() - 1) + "-" + variant + "\"", lastModified);
+    }
+
+    public ResponseEntity.BodyBuilder ok(CacheControl cacheControl) {
+        return withValidators(ResponseEntity.ok(), cacheControl);
+    }
+
+    // Repeats Cache-Control on the 304, otherwise Spring Security's no-store default would apply
+    public <T> ResponseEntity<T> notModified(CacheControl cacheControl) {
+        return withValidators(ResponseEntity.status(HttpStatus.NOT_MODIFIED), cacheControl).build();
+    }
+
+    private ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder builder, CacheControl cacheControl) {
+        builder.eTag(etag).cacheControl(cacheControl);
+        return lastModified >= 0 ? builder.lastModified(lastModified) : builder;
+    }
+}
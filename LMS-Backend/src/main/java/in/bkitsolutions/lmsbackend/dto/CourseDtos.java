@@ -1,6 +1,7 @@
 package in.bkitsolutions.lmsbackend.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -24,6 +25,7 @@ public class CourseDtos {
         private Boolean published;
         private Boolean enrollmentOpen;
         private Integer maxEnrollment;
+        private Boolean waitlistEnabled;
         private Integer displayOrder;
         private String category;
         private String department;
@@ -49,6 +51,7 @@ public class CourseDtos {
         private Boolean published;
         private Boolean enrollmentOpen;
         private Integer maxEnrollment;
+        private Boolean waitlistEnabled;
         private Integer displayOrder;
         private String category;
         private String department;
@@ -82,6 +85,7 @@ public class CourseDtos {
         private Boolean published;
         private Boolean enrollmentOpen;
         private Integer maxEnrollment;
+        private Boolean waitlistEnabled;
         private Integer displayOrder;
         private String category;
         private String department;
@@ -117,6 +121,7 @@ public class CourseDtos {
         private Boolean published;
         private Boolean enrollmentOpen;
         private Integer maxEnrollment;
+        private Boolean waitlistEnabled;
         private String category;
         private String department;
         private String semester;
@@ -150,6 +155,36 @@ public class CourseDtos {
         private List<ChapterDtos.ChapterResponse> chapters;
     }
 
+    // Delta of a course's curriculum after version `since`; pass `version` as since next time.
+    // On fullSync the lists hold the whole curriculum and replace what the client has.
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CurriculumChangesResponse {
+        private Long courseId;
+        private long since;
+        private long version;
+        private boolean fullSync;
+        private List<CurriculumTopic> topics;
+        private List<ChapterDtos.ChapterResponse> chapters; // summaries, no content
+        private List<Long> deletedTopicIds; // their chapters are gone too
+        private List<Long> deletedChapterIds;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CurriculumTopic {
+        private Long id;
+        private String title;
+        private String description;
+        private Boolean published;
+        private Integer displayOrder;
+        private String updatedAt;
+    }
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -188,4 +223,48 @@ public class CourseDtos {
         private Map<String, Long> difficultyDistribution;
         private Map<String, Long> statusDistribution;
     }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CourseFacetsResponse {
+        private long totalCourses;
+        private Map<String, Long> categories;
+        private Map<String, Long> difficultyLevels;
+        private Map<String, Long> departments;
+        private Map<String, Long> semesters;
+        private Map<String, Long> statuses;
+    }
+
+    @Data
+    public static class CloneJobsRequest {
+        @NotEmpty
+        @Size(max = 500)
+        private List<Long> courseIds;
+        private Boolean includeTests; // copy tests and questions too; default links the original tests
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CloneJobResponse {
+        private Long id;
+        private Long sourceCourseId;
+        private Long targetCourseId;
+        private Long targetCollegeId;
+        private Boolean includeTests;
+        private String status;
+        private String stage;
+        private Integer progressPercent;
+        private Integer topicsCopied;
+        private Integer chaptersCopied;
+        private Integer testsCopied;
+        private Integer questionsCopied;
+        private String errorMessage;
+        private String createdAt;
+        private String startedAt;
+        private String completedAt;
+    }
 }
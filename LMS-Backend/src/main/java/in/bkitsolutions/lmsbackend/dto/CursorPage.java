@@ -0,0 +1,87 @@
+package in.bkitsolutions.lmsbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list, newest first (ordered by id DESC; ids are
+ * identity-generated so this is also creation order). The cursor is opaque to clients:
+ * pass {@code nextCursor} back as {@code cursor} to get the following page.
+ *
+ * Repositories take the decoded cursor as an exclusive upper bound on id together with
+ * {@link #request(int)}, which asks for one extra row to detect whether more pages exist.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private static final String PREFIX = "id:";
+
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private int limit;
+
+    public static int clampLimit(Integer limit) {
+        if (limit == null || limit <= 0) return DEFAULT_LIMIT;
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    /** Exclusive id bound for the page after {@code cursor}; Long.MAX_VALUE for the first page. */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return Long.MAX_VALUE;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) throw new IllegalArgumentException(raw);
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    public static String encode(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Pageable request(int limit) {
+        return PageRequest.of(0, limit + 1);
+    }
+
+    /** Builds the page from up to {@code limit + 1} rows fetched with {@link #request(int)}. */
+    public static <E, T> CursorPage<T> of(List<E> rows, int limit, Function<E, Long> idOf, Function<E, T> mapper) {
+        return ofList(rows, limit, idOf, pageRows -> pageRows.stream().map(mapper).toList());
+    }
+
+    /** Same as {@link #of}, for mappers that convert the whole page at once (batched lookups). */
+    public static <E, T> CursorPage<T> ofList(List<E> rows, int limit, Function<E, Long> idOf,
+                                              Function<List<E>, List<T>> mapper) {
+        boolean hasMore = rows.size() > limit;
+        List<E> pageRows = hasMore ? rows.subList(0, limit) : rows;
+        return CursorPage.<T>builder()
+                .items(mapper.apply(pageRows))
+                .nextCursor(hasMore ? encode(idOf.apply(pageRows.get(pageRows.size() - 1))) : null)
+                .hasMore(hasMore)
+                .limit(limit)
+                .build();
+    }
+
+    public static <T> CursorPage<T> empty(int limit) {
+        return CursorPage.<T>builder().items(List.of()).hasMore(false).limit(limit).build();
+    }
+}
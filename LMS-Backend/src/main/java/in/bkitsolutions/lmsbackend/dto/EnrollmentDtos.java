@@ -1,5 +1,7 @@
 package in.bkitsolutions.lmsbackend.dto;
 
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,10 +23,23 @@ public class EnrollmentDtos {
         private Long studentId;
         private String studentName;
         private String studentEmail;
-        private String status;
+        private String status; // an EnrollmentStatus, or WAITLISTED when the course was full
         private String enrolledAt;
         private String completedAt;
         private Integer progressPercentage;
+        private Integer waitlistPosition; // 1-based, only when WAITLISTED
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class WaitlistEntryResponse {
+        private Long studentId;
+        private String studentName;
+        private String studentEmail;
+        private Integer position;
+        private String joinedAt;
     }
 
     @Data
@@ -44,9 +59,34 @@ public class EnrollmentDtos {
     @NoArgsConstructor
     @AllArgsConstructor
     public static class BulkEnrollRequest {
+        @NotEmpty
+        @Size(max = 5000)
         private List<Long> studentIds;
     }
 
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BulkEnrollResponse {
+        private Long courseId;
+        private Integer requested;
+        private Integer enrolled;
+        private Integer skipped;
+        private List<BulkEnrollOutcome> outcomes; // one per requested id, in request order
+        private List<EnrollmentResponse> enrollments; // the enrollments created by this request
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BulkEnrollOutcome {
+        private Long studentId;
+        private String outcome; // ENROLLED, ALREADY_ENROLLED, DUPLICATE, STUDENT_NOT_FOUND, NOT_A_STUDENT, COURSE_FULL
+        private Long enrollmentId;
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -22,6 +22,8 @@ public class ProfileDtos {
         private String type; // USER, ADMIN, SUPERADMIN, ROOTADMIN
         private String phoneNumber;
         private String profilePictureUrl;
+        private String profilePictureThumbnailUrl; // equal to profilePictureUrl until rendered
+        private String profilePictureMediumUrl;
         private String bio;
         private LocalDate dateOfBirth;
         private String address;
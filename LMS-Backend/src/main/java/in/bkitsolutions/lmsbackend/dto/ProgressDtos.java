@@ -0,0 +1,39 @@
+package in.bkitsolutions.lmsbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+public class ProgressDtos {
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CourseCompletionResponse {
+        private Long courseId;
+        private Integer totalChapters;
+        private Integer completedCount;
+        private List<Long> completedChapterIds;
+        private Integer mandatoryTotal;
+        private List<Long> mandatoryRemainingIds;
+        private Boolean mandatoryCompleted;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CohortCompletionResponse {
+        private Long courseId;
+        private String match; // ALL = completed every selected chapter, ANY = at least one
+        private List<Long> chapterIds;
+        private Integer studentCount;
+        private List<Long> studentIds;
+        private Map<Long, Integer> completionsByChapter;
+    }
+}
@@ -0,0 +1,79 @@
+package in.bkitsolutions.lmsbackend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+public class UploadDtos {
+
+    @Data
+    public static class InitiateUploadRequest {
+        @NotBlank
+        @Size(max = 255)
+        private String fileName;
+
+        @NotNull
+        @Positive
+        private Long totalSize;
+
+        @NotBlank
+        private String purpose; // chapter-videos, chapter-documents, ...
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class UploadSessionResponse {
+        private String id;
+        private String fileName;
+        private String purpose;
+        private Long totalSize;
+        private Integer chunkSize;
+        private Integer chunkCount;
+        private Integer receivedChunkCount;
+        private List<Integer> missingChunks; // indexes; chunk i starts at offset i * chunkSize
+        private String status;
+        private String url; // set once COMPLETED
+        private String createdAt;
+        private String updatedAt;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DirectUploadResponse {
+        private String uploadUrl; // send the file here, with method and headers as given
+        private String method;
+        private Map<String, String> headers;
+        private String url; // where the file can be read once uploaded
+        private String expiresAt;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class GarbageCollectionReport {
+        private boolean dryRun;
+        private long scannedFiles;
+        private long scannedBytes;
+        private long referencedFiles;
+        private long recentFiles; // unreferenced but within the grace period
+        private long orphanFiles;
+        private long orphanBytes;
+        private long deletedFiles;
+        private List<String> sample; // first orphans found, as keys under the upload directory
+        private String startedAt;
+        private long durationMs;
+    }
+}
@@ -149,4 +149,24 @@ public class UserDtos {
         private String city;
         private String country;
     }
-}
\ No newline at end of file
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StudentImportJobResponse {
+        private Long id;
+        private Long collegeId;
+        private String fileName;
+        private String status;
+        private Integer rowsRead;
+        private Integer usersCreated;
+        private Integer enrollmentsCreated;
+        private Integer rowsFailed;
+        private Boolean hasErrorReport;
+        private String errorMessage;
+        private String createdAt;
+        private String startedAt;
+        private String completedAt;
+    }
+}
@@ -21,6 +21,7 @@ public class Certificate {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Signed by CertificateUidSigner; certificates issued before signing keep their UUID
     @Column(name = "certificate_uid", nullable = false, unique = true, length = 100)
     private String certificateUid;
 
@@ -48,9 +49,31 @@ public class Certificate {
     @Column(name = "college_name")
     private String collegeName;
 
+    // Public URL of a PDF rendered before pdfKey existed; removed and re-rendered when next asked for
     @Column(name = "download_url", length = 500)
     private String downloadUrl;
 
+    // Storage key of the rendered PDF, outside /uploads; streamed by GET /api/certificates/{id}/pdf
+    @Column(name = "pdf_key", length = 300)
+    private String pdfKey;
+
+    // The PDF is rendered once, in the background, and then served from pdfKey
+    @Enumerated(EnumType.STRING)
+    @Column(name = "render_status", length = 20)
+    private CertificateRenderStatus renderStatus;
+
+    @Column(name = "render_attempts")
+    private Integer renderAttempts;
+
+    @Column(name = "render_requested_at")
+    private LocalDateTime renderRequestedAt;
+
+    @Column(name = "rendered_at")
+    private LocalDateTime renderedAt;
+
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+
     @PrePersist
     protected void onCreate() {
         issuedAt = LocalDateTime.now();
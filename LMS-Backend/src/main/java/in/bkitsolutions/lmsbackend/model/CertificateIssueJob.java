@@ -0,0 +1,72 @@
+package in.bkitsolutions.lmsbackend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "certificate_issue_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CertificateIssueJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "college_id", nullable = false)
+    private College college;
+
+    // Null to issue for every course of the college
+    @Column(name = "course_id")
+    private Long courseId;
+
+    @ManyToOne
+    @JoinColumn(name = "requested_by", nullable = false)
+    private User requestedBy;
+
+    @Column(name = "render_pdfs", nullable = false)
+    @Builder.Default
+    private Boolean renderPdfs = true;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private CertificateIssueJobStatus status = CertificateIssueJobStatus.QUEUED;
+
+    // Completed enrollments still without a certificate when the job started
+    @Column(name = "eligible")
+    @Builder.Default
+    private Integer eligible = 0;
+
+    @Column(name = "issued")
+    @Builder.Default
+    private Integer issued = 0;
+
+    @Column(name = "progress_percent")
+    @Builder.Default
+    private Integer progressPercent = 0;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
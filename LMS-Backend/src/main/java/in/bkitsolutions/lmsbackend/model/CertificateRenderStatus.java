@@ -0,0 +1,9 @@
+package in.bkitsolutions.lmsbackend.model;
+
+public enum CertificateRenderStatus {
+    NOT_REQUESTED, // bulk-issued without rendering; queued when the student first asks for it
+    QUEUED,
+    RENDERING,
+    READY,
+    FAILED
+}
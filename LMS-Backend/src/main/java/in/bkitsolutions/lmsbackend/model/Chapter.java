@@ -20,8 +20,7 @@ public class Chapter {
     @Column(nullable = false)
     private String title;
 
-    @Column(columnDefinition = "LONGTEXT")
-    private String content; // Rich HTML content
+    // The HTML body lives in ChapterContent and is read only by the single-chapter endpoint
 
     @Enumerated(EnumType.STRING)
     @Column(name = "content_type", nullable = false)
@@ -65,12 +64,20 @@ public class Chapter {
     @Column(name = "display_order")
     private Integer displayOrder;
 
+    // The course's change_seq at this row's last write; null for rows never written since
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,38 @@
+package in.bkitsolutions.lmsbackend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Students who completed one chapter, as a serialized CompletionBitmap of student ids
+@Entity
+@Table(name = "chapter_completion_bitmaps")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChapterCompletionBitmap {
+    @Id
+    @Column(name = "chapter_id")
+    private Long chapterId;
+
+    @Column(name = "student_bits", nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] studentBits;
+
+    @Column(name = "completed_count", nullable = false)
+    @Builder.Default
+    private Integer completedCount = 0;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+}
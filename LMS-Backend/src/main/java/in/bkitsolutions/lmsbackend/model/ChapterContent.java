@@ -0,0 +1,34 @@
+package in.bkitsolutions.lmsbackend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Body of a chapter, kept out of the chapters table so that loading or listing chapters
+// never reads it. ChapterContentConfig adds the ON DELETE CASCADE foreign key to chapters.
+// Exactly one of content and contentGzip is set; ChapterContentStore decides which.
+// compressChecked marks bodies already encoded under the compression rule, so the
+// ContentCompressionJob sweep visits each legacy or raw-copied row only once.
+@Entity
+@Table(name = "chapter_contents")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChapterContent {
+    @Id
+    @Column(name = "chapter_id")
+    private Long chapterId;
+
+    @Column(columnDefinition = "LONGTEXT")
+    private String content; // Rich HTML content, when stored uncompressed
+
+    @Column(name = "content_gzip", columnDefinition = "LONGBLOB")
+    private byte[] contentGzip; // The same HTML as a gzip stream (RFC 1952), servable as-is
+
+    @Column(name = "compress_checked", nullable = false, columnDefinition = "BOOLEAN DEFAULT false")
+    @Builder.Default
+    private Boolean compressChecked = false;
+}
@@ -59,6 +59,18 @@ public class Course {
     @Column(name = "max_enrollment")
     private Integer maxEnrollment;
 
+    // Enrollments not DROPPED; written only by SeatReservationService's conditional UPDATEs
+    @Column(name = "seats_taken", insertable = false, updatable = false, columnDefinition = "INT DEFAULT 0")
+    private Integer seatsTaken;
+
+    // Curriculum change counter; written only by CurriculumSyncService.nextChangeSeq
+    @Column(name = "change_seq", insertable = false, updatable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long changeSeq;
+
+    @Column(name = "waitlist_enabled")
+    @Builder.Default
+    private Boolean waitlistEnabled = false;
+
     @Column(name = "display_order")
     private Integer displayOrder;
 
@@ -95,6 +107,11 @@ public class Course {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Optimistic-lock version; also feeds the ETag of read endpoints
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private long version;
+
     @OneToMany(mappedBy = "course", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("displayOrder ASC")
     @Builder.Default
@@ -0,0 +1,85 @@
+package in.bkitsolutions.lmsbackend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "course_clone_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseCloneJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "source_course_id", nullable = false)
+    private Long sourceCourseId;
+
+    // Set once the copy has committed
+    @Column(name = "target_course_id")
+    private Long targetCourseId;
+
+    @ManyToOne
+    @JoinColumn(name = "target_college_id", nullable = false)
+    private College targetCollege;
+
+    @ManyToOne
+    @JoinColumn(name = "requested_by", nullable = false)
+    private User requestedBy;
+
+    @Column(name = "include_tests", nullable = false)
+    @Builder.Default
+    private Boolean includeTests = false;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private CloneJobStatus status = CloneJobStatus.QUEUED;
+
+    @Column(length = 30)
+    private String stage;
+
+    @Column(name = "progress_percent")
+    @Builder.Default
+    private Integer progressPercent = 0;
+
+    @Column(name = "topics_copied")
+    @Builder.Default
+    private Integer topicsCopied = 0;
+
+    @Column(name = "chapters_copied")
+    @Builder.Default
+    private Integer chaptersCopied = 0;
+
+    @Column(name = "tests_copied")
+    @Builder.Default
+    private Integer testsCopied = 0;
+
+    @Column(name = "questions_copied")
+    @Builder.Default
+    private Integer questionsCopied = 0;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,46 @@
+package in.bkitsolutions.lmsbackend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Chapters of one course completed by one student, as a serialized CompletionBitmap of chapter ids
+@Entity
+@Table(name = "course_completion_bitmaps", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"course_id", "student_id"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseCompletionBitmap {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "chapter_bits", nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] chapterBits;
+
+    @Column(name = "completed_count", nullable = false)
+    @Builder.Default
+    private Integer completedCount = 0;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -44,6 +44,15 @@ public class Enrollment {
     @Builder.Default
     private Integer progressPercentage = 0;
 
+    // Maintained incrementally by ProgressCounterService; progressPercentage is derived from them
+    @Column(name = "completed_chapters", columnDefinition = "INT DEFAULT 0")
+    @Builder.Default
+    private Integer completedChapters = 0;
+
+    @Column(name = "total_chapters", columnDefinition = "INT DEFAULT 0")
+    @Builder.Default
+    private Integer totalChapters = 0;
+
     @PrePersist
     protected void onCreate() {
         enrolledAt = LocalDateTime.now();
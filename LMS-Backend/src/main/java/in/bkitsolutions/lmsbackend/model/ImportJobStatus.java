@@ -0,0 +1,8 @@
+package in.bkitsolutions.lmsbackend.model;
+
+public enum ImportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,36 @@
+package in.bkitsolutions.lmsbackend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One content-addressed upload: <sha-256 hex><extension>, stored once under uploads/blobs.
+// refCount counts the store() calls not yet matched by a delete(); referencedAt is the last
+// store(), which keeps the orphan collector off blobs that were just handed out again.
+@Entity
+@Table(name = "stored_blobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredBlob {
+    @Id
+    @Column(length = 80)
+    private String name;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "referenced_at")
+    private LocalDateTime referencedAt;
+}
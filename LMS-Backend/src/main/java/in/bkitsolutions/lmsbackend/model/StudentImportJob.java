@@ -0,0 +1,77 @@
+package in.bkitsolutions.lmsbackend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "student_import_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentImportJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "college_id", nullable = false)
+    private College college;
+
+    @ManyToOne
+    @JoinColumn(name = "requested_by", nullable = false)
+    private User requestedBy;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    // Uploaded CSV; deleted once the job finishes since it holds plaintext passwords
+    @Column(name = "source_path", length = 500)
+    private String sourcePath;
+
+    @Column(name = "error_report_path", length = 500)
+    private String errorReportPath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private ImportJobStatus status = ImportJobStatus.QUEUED;
+
+    @Column(name = "rows_read")
+    @Builder.Default
+    private Integer rowsRead = 0;
+
+    @Column(name = "users_created")
+    @Builder.Default
+    private Integer usersCreated = 0;
+
+    @Column(name = "enrollments_created")
+    @Builder.Default
+    private Integer enrollmentsCreated = 0;
+
+    @Column(name = "rows_failed")
+    @Builder.Default
+    private Integer rowsFailed = 0;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -39,12 +39,20 @@ public class Topic {
     @Column(name = "display_order")
     private Integer displayOrder;
 
+    // The course's change_seq at this row's last write; null for rows never written since
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private long version;
+
     @OneToMany(mappedBy = "topic", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnore
     @OrderBy("displayOrder ASC")
@@ -0,0 +1,8 @@
+package in.bkitsolutions.lmsbackend.model;
+
+public enum UploadSessionStatus {
+    OPEN,
+    ASSEMBLING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,25 @@
+package in.bkitsolutions.lmsbackend.repository;
+
+import in.bkitsolutions.lmsbackend.model.CertificateIssueJob;
+import in.bkitsolutions.lmsbackend.model.CertificateIssueJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CertificateIssueJobRepository extends JpaRepository<CertificateIssueJob, Long> {
+    List<CertificateIssueJob> findByStatusAndCreatedAtBefore(CertificateIssueJobStatus status, LocalDateTime before);
+
+    List<CertificateIssueJob> findByStatusAndStartedAtBefore(CertificateIssueJobStatus status, LocalDateTime before);
+
+    // Conditional so the runner and the stale-job sweep cannot both claim a job
+    @Modifying
+    @Query("UPDATE CertificateIssueJob j SET j.status = :to WHERE j.id = :id AND j.status = :from")
+    int transition(@Param("id") Long id, @Param("from") CertificateIssueJobStatus from,
+                   @Param("to") CertificateIssueJobStatus to);
+}
@@ -1,9 +1,17 @@
 package in.bkitsolutions.lmsbackend.repository;
 
 import in.bkitsolutions.lmsbackend.model.Certificate;
+import in.bkitsolutions.lmsbackend.model.CertificateRenderStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +23,21 @@ public interface CertificateRepository extends JpaRepository<Certificate, Long>
     List<Certificate> findByStudentId(Long studentId);
     List<Certificate> findByCollegeId(Long collegeId);
     List<Certificate> findByCourseId(Long courseId);
+
+    @Query("SELECT c.id FROM Certificate c WHERE c.revokedAt IS NOT NULL")
+    List<Long> findRevokedIds();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Certificate c WHERE c.id = :id")
+    Optional<Certificate> findByIdForUpdate(@Param("id") Long id);
+
+    // Renders lost to a restart or a full queue, failures still worth another attempt, and
+    // unrevoked certificates whose only PDF is a public copy from before PDFs were kept private
+    @Query("SELECT c.id FROM Certificate c WHERE ((c.renderStatus IS NULL OR c.renderStatus IN :statuses)"
+            + " AND (c.renderRequestedAt IS NULL OR c.renderRequestedAt < :before)"
+            + " AND (c.renderAttempts IS NULL OR c.renderAttempts < :maxAttempts))"
+            + " OR (c.pdfKey IS NULL AND c.downloadUrl IS NOT NULL AND c.revokedAt IS NULL) ORDER BY c.id")
+    List<Long> findIdsToRender(@Param("statuses") Collection<CertificateRenderStatus> statuses,
+                               @Param("before") LocalDateTime before, @Param("maxAttempts") int maxAttempts,
+                               Pageable pageable);
 }
@@ -0,0 +1,37 @@
+package in.bkitsolutions.lmsbackend.repository;
+
+import in.bkitsolutions.lmsbackend.model.ChapterCompletionBitmap;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ChapterCompletionBitmapRepository extends JpaRepository<ChapterCompletionBitmap, Long> {
+    List<ChapterCompletionBitmap> findByChapterIdIn(Collection<Long> chapterIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM ChapterCompletionBitmap b WHERE b.chapterId = :chapterId")
+    Optional<ChapterCompletionBitmap> findForUpdate(@Param("chapterId") Long chapterId);
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO chapter_completion_bitmaps (chapter_id, student_bits, completed_count, updated_at)"
+            + " VALUES (:chapterId, :bits, :count, NOW())", nativeQuery = true)
+    int insertIfAbsent(@Param("chapterId") Long chapterId, @Param("bits") byte[] bits, @Param("count") int count);
+
+    @Modifying
+    @Query("DELETE FROM ChapterCompletionBitmap b WHERE b.chapterId IN :chapterIds")
+    int deleteByChapterIdIn(@Param("chapterIds") Collection<Long> chapterIds);
+
+    @Modifying
+    @Query("DELETE FROM ChapterCompletionBitmap b WHERE b.chapterId IN"
+            + " (SELECT ch.id FROM Chapter ch WHERE ch.topic.course.id = :courseId)")
+    int deleteByCourseId(@Param("courseId") Long courseId);
+}
@@ -0,0 +1,22 @@
+package in.bkitsolutions.lmsbackend.repository;
+
+import in.bkitsolutions.lmsbackend.model.ChapterContent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ChapterContentRepository extends JpaRepository<ChapterContent, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM ChapterContent c WHERE c.chapterId = :chapterId")
+    Optional<ChapterContent> findByIdForUpdate(@Param("chapterId") Long chapterId);
+
+    // Keyset scan for ContentCompressionJob: rows never encoded under the compression rule
+    @Query(value = "SELECT chapter_id FROM chapter_contents WHERE compress_checked = false"
+            + " AND chapter_id > :after ORDER BY chapter_id LIMIT :limit", nativeQuery = true)
+    List<Long> findUncheckedIds(@Param("after") long after, @Param("limit") int limit);
+}
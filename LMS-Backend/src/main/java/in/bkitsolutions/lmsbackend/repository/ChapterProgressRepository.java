@@ -2,8 +2,12 @@ package in.bkitsolutions.lmsbackend.repository;
 
 import in.bkitsolutions.lmsbackend.model.ChapterProgress;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +18,34 @@ public interface ChapterProgressRepository extends JpaRepository<ChapterProgress
     List<ChapterProgress> findByStudentIdAndCompletedTrue(Long studentId);
     List<ChapterProgress> findByChapterTopicIdAndStudentId(Long topicId, Long studentId);
     long countByChapterTopicIdAndStudentIdAndCompletedTrue(Long topicId, Long studentId);
+    long countByChapterTopicCourseIdAndStudentIdAndCompletedTrue(Long courseId, Long studentId);
+
+    // Rows are [studentId, completedCount] over the chapters of one course
+    @Query("SELECT cp.student.id, COUNT(cp) FROM ChapterProgress cp"
+            + " WHERE cp.chapter.topic.course.id = :courseId AND cp.completed = true GROUP BY cp.student.id")
+    List<Object[]> countCompletedByCourseIdGroupByStudent(@Param("courseId") Long courseId);
+
+    // Sources for building completion bitmaps that do not exist yet
+    @Query("SELECT cp.chapter.id FROM ChapterProgress cp"
+            + " WHERE cp.chapter.topic.course.id = :courseId AND cp.student.id = :studentId AND cp.completed = true")
+    List<Long> findCompletedChapterIds(@Param("courseId") Long courseId, @Param("studentId") Long studentId);
+
+    @Query("SELECT cp.student.id FROM ChapterProgress cp WHERE cp.chapter.id = :chapterId AND cp.completed = true")
+    List<Long> findCompletedStudentIds(@Param("chapterId") Long chapterId);
+
+    // Completion is two statements: make sure the row exists, then flip it. Only the request
+    // whose UPDATE matches a row still marked incomplete counts the completion, however many race
+    @Modifying
+    @Query(value = "INSERT INTO chapter_progress (chapter_id, student_id, completed, time_spent_seconds, last_accessed_at)"
+            + " VALUES (:chapterId, :studentId, false, 0, NOW()) ON DUPLICATE KEY UPDATE id = id", nativeQuery = true)
+    int insertIfAbsent(@Param("chapterId") Long chapterId, @Param("studentId") Long studentId);
+
+    @Modifying
+    @Query(value = "UPDATE chapter_progress SET completed = true, completed_at = NOW(), last_accessed_at = NOW()"
+            + " WHERE chapter_id = :chapterId AND student_id = :studentId AND completed = false", nativeQuery = true)
+    int markCompleted(@Param("chapterId") Long chapterId, @Param("studentId") Long studentId);
+
+    @Modifying
+    @Query("DELETE FROM ChapterProgress cp WHERE cp.chapter.id IN :chapterIds")
+    int deleteByChapterIdIn(@Param("chapterIds") Collection<Long> chapterIds);
 }
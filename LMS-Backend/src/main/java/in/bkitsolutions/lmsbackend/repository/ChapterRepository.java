@@ -3,6 +3,8 @@ package in.bkitsolutions.lmsbackend.repository;
 import in.bkitsolutions.lmsbackend.model.Chapter;
 import in.bkitsolutions.lmsbackend.model.Topic;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -12,4 +14,41 @@ public interface ChapterRepository extends JpaRepository<Chapter, Long> {
     List<Chapter> findByTopicIdOrderByDisplayOrderAsc(Long topicId);
     
     long countByTopicId(Long topicId);
+
+    @Query("SELECT ch.id, ch.displayOrder FROM Chapter ch WHERE ch.topic.id = :topicId")
+    List<Object[]> findDisplayOrdersByTopicId(@Param("topicId") Long topicId);
+
+    long countByTopicCourseId(Long courseId);
+
+    // Summaries for listings and curriculum trees: no entity, no topic join fetch
+    String SUMMARY_COLUMNS = "SELECT ch.id AS id, ch.title AS title, ch.contentType AS contentType,"
+            + " ch.estimatedMinutes AS estimatedMinutes, ch.isMandatory AS isMandatory,"
+            + " ch.displayOrder AS displayOrder, ch.topic.id AS topicId,"
+            + " ch.createdAt AS createdAt, ch.updatedAt AS updatedAt FROM Chapter ch";
+
+    @Query(SUMMARY_COLUMNS + " WHERE ch.topic.id = :topicId ORDER BY ch.displayOrder ASC")
+    List<ChapterSummaryView> findSummariesByTopicId(@Param("topicId") Long topicId);
+
+    @Query(SUMMARY_COLUMNS + " WHERE ch.topic.course.id = :courseId ORDER BY ch.displayOrder ASC, ch.id ASC")
+    List<ChapterSummaryView> findSummariesByCourseId(@Param("courseId") Long courseId);
+
+    @Query(SUMMARY_COLUMNS + " WHERE ch.topic.course.id = :courseId AND ch.changeSeq > :since"
+            + " ORDER BY ch.displayOrder ASC, ch.id ASC")
+    List<ChapterSummaryView> findSummariesByCourseIdChangedSince(@Param("courseId") Long courseId,
+                                                                @Param("since") Long since);
+
+    // Version stamps for conditional GETs; read without loading the chapter entity
+    @Query("SELECT ch.version, ch.updatedAt, ch.topic.id FROM Chapter ch WHERE ch.id = :id")
+    List<Object[]> findVersionStampById(@Param("id") Long id);
+
+    // One row: [count, sum(id), sum(version), max(updatedAt)] over the chapters of a course
+    @Query("SELECT COUNT(ch), COALESCE(SUM(ch.id), 0), COALESCE(SUM(ch.version), 0), MAX(ch.updatedAt)"
+            + " FROM Chapter ch WHERE ch.topic.course.id = :courseId")
+    List<Object[]> findVersionStampByCourseId(@Param("courseId") Long courseId);
+
+    @Query("SELECT ch.id FROM Chapter ch WHERE ch.topic.course.id = :courseId")
+    List<Long> findIdsByCourseId(@Param("courseId") Long courseId);
+
+    @Query("SELECT ch.id FROM Chapter ch WHERE ch.topic.course.id = :courseId AND ch.isMandatory = true")
+    List<Long> findMandatoryIdsByCourseId(@Param("courseId") Long courseId);
 }
@@ -0,0 +1,18 @@
+package in.bkitsolutions.lmsbackend.repository;
+
+import in.bkitsolutions.lmsbackend.model.ContentType;
+
+import java.time.LocalDateTime;
+
+// Listing columns of a chapter; filled by the aliased summary queries in ChapterRepository
+public interface ChapterSummaryView {
+    Long getId();
+    String getTitle();
+    ContentType getContentType();
+    Integer getEstimatedMinutes();
+    Boolean getIsMandatory();
+    Integer getDisplayOrder();
+    Long getTopicId();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,39 @@
+package in.bkitsolutions.lmsbackend.repository;
+
+import in.bkitsolutions.lmsbackend.model.CourseCompletionBitmap;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CourseCompletionBitmapRepository extends JpaRepository<CourseCompletionBitmap, Long> {
+    Optional<CourseCompletionBitmap> findByCourseIdAndStudentId(Long courseId, Long studentId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM CourseCompletionBitmap b WHERE b.courseId = :courseId AND b.studentId = :studentId")
+    Optional<CourseCompletionBitmap> findForUpdate(@Param("courseId") Long courseId, @Param("studentId") Long studentId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM CourseCompletionBitmap b WHERE b.courseId = :courseId AND b.studentId IN :studentIds")
+    List<CourseCompletionBitmap> findForUpdate(@Param("courseId") Long courseId,
+                                               @Param("studentIds") Collection<Long> studentIds);
+
+    // Concurrent first completions race to create the row; the loser keeps the winner's bits
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO course_completion_bitmaps (course_id, student_id, chapter_bits, completed_count, updated_at)"
+            + " VALUES (:courseId, :studentId, :bits, :count, NOW())", nativeQuery = true)
+    int insertIfAbsent(@Param("courseId") Long courseId, @Param("studentId") Long studentId,
+                       @Param("bits") byte[] bits, @Param("count") int count);
+
+    @Modifying
+    @Query("DELETE FROM CourseCompletionBitmap b WHERE b.courseId = :courseId")
+    int deleteByCourseId(@Param("courseId") Long courseId);
+}
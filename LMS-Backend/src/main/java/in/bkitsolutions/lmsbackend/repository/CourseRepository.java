@@ -2,14 +2,27 @@ package in.bkitsolutions.lmsbackend.repository;
 
 import in.bkitsolutions.lmsbackend.model.Course;
 import in.bkitsolutions.lmsbackend.model.CourseStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CourseRepository extends JpaRepository<Course, Long> {
+    // Must match the column lists of the FULLTEXT indexes created in SearchIndexConfig
+    String FULLTEXT_MATCH = "MATCH(c.title, c.description, c.tags, c.category, c.department) AGAINST (:query IN BOOLEAN MODE)";
+    String TITLE_MATCH = "MATCH(c.title) AGAINST (:query IN BOOLEAN MODE)";
+    String SEARCH_FILTERS = " AND (:collegeId IS NULL OR c.college_id = :collegeId)"
+            + " AND (:category IS NULL OR c.category = :category)"
+            + " AND (:difficultyLevel IS NULL OR c.difficulty_level = :difficultyLevel)";
+
     List<Course> findByCollegeId(Long collegeId);
     List<Course> findByCollegeIdAndPublishedTrue(Long collegeId);
     List<Course> findByCreatedById(Long userId);
@@ -17,5 +30,89 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     List<Course> findByCollegeIdAndStatus(Long collegeId, CourseStatus status);
     List<Course> findByStatus(CourseStatus status);
     Optional<Course> findByCourseCodeAndCollegeId(String courseCode, Long collegeId);
+
     boolean existsByCourseCodeAndCollegeId(String courseCode, Long collegeId);
+
+    // Seat counter, see SeatReservationService: admits or rejects in one statement
+    @Modifying
+    @Query(value = "UPDATE courses SET seats_taken = seats_taken + :seats WHERE id = :id"
+            + " AND (max_enrollment IS NULL OR seats_taken + :seats <= max_enrollment)", nativeQuery = true)
+    int reserveSeats(@Param("id") Long id, @Param("seats") int seats);
+
+    @Modifying
+    @Query(value = "UPDATE courses SET seats_taken = GREATEST(0, seats_taken - :seats) WHERE id = :id", nativeQuery = true)
+    int releaseSeats(@Param("id") Long id, @Param("seats") int seats);
+
+    // Rows are [seatsTaken, maxEnrollment]
+    @Query(value = "SELECT seats_taken, max_enrollment FROM courses WHERE id = :id", nativeQuery = true)
+    List<Object[]> findSeats(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "UPDATE courses c SET c.seats_taken = (SELECT COUNT(*) FROM enrollments e"
+            + " WHERE e.course_id = c.id AND e.status <> 'DROPPED')", nativeQuery = true)
+    int recountSeats();
+
+    // Keyset pages (see CursorPage): rows with id below the cursor, newest first
+    List<Course> findByIdLessThanOrderByIdDesc(Long before, Pageable pageable);
+    List<Course> findByCollegeIdAndIdLessThanOrderByIdDesc(Long collegeId, Long before, Pageable pageable);
+    List<Course> findByCreatedByIdAndIdLessThanOrderByIdDesc(Long userId, Long before, Pageable pageable);
+
+    @Query("SELECT c.version, c.updatedAt, c.college.id FROM Course c WHERE c.id = :id")
+    List<Object[]> findVersionStampById(@Param("id") Long id);
+
+    @Query("SELECT COALESCE(c.changeSeq, 0), c.college.id FROM Course c WHERE c.id = :id")
+    List<Object[]> findSyncStampById(@Param("id") Long id);
+
+    // Full-text search: title hits weigh three times as much as hits in the other columns
+    @Query(value = "SELECT c.id FROM courses c WHERE " + FULLTEXT_MATCH + SEARCH_FILTERS
+            + " ORDER BY (" + TITLE_MATCH + ") * 3 + " + FULLTEXT_MATCH + " DESC, c.id DESC"
+            + " LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Long> fullTextSearchIds(@Param("query") String query,
+                                 @Param("collegeId") Long collegeId,
+                                 @Param("category") String category,
+                                 @Param("difficultyLevel") String difficultyLevel,
+                                 @Param("limit") int limit,
+                                 @Param("offset") int offset);
+
+    @Query(value = "SELECT COUNT(*) FROM courses c WHERE " + FULLTEXT_MATCH + SEARCH_FILTERS, nativeQuery = true)
+    long countFullTextSearch(@Param("query") String query,
+                             @Param("collegeId") Long collegeId,
+                             @Param("category") String category,
+                             @Param("difficultyLevel") String difficultyLevel);
+
+    // Fallback when the keyword has no indexable token (shorter than innodb_ft_min_token_size)
+    @Query("SELECT c FROM Course c WHERE (:collegeId IS NULL OR c.college.id = :collegeId)"
+            + " AND (:category IS NULL OR LOWER(c.category) = LOWER(:category))"
+            + " AND (:difficultyLevel IS NULL OR LOWER(c.difficultyLevel) = LOWER(:difficultyLevel))"
+            + " AND (:keyword IS NULL OR LOWER(c.title) LIKE LOWER(CONCAT('%', :keyword, '%'))"
+            + " OR LOWER(c.description) LIKE LOWER(CONCAT('%', :keyword, '%'))"
+            + " OR LOWER(c.tags) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+    Page<Course> searchByFilters(@Param("collegeId") Long collegeId,
+                                 @Param("keyword") String keyword,
+                                 @Param("category") String category,
+                                 @Param("difficultyLevel") String difficultyLevel,
+                                 Pageable pageable);
+
+    // Facets: every id matching the keyword, unranked; filters are applied by CourseFacetIndex
+    @Query(value = "SELECT c.id FROM courses c WHERE " + FULLTEXT_MATCH
+            + " AND (:collegeId IS NULL OR c.college_id = :collegeId)", nativeQuery = true)
+    List<Long> fullTextMatchIds(@Param("query") String query, @Param("collegeId") Long collegeId);
+
+    @Query("SELECT c.id FROM Course c WHERE (:collegeId IS NULL OR c.college.id = :collegeId)"
+            + " AND (LOWER(c.title) LIKE LOWER(CONCAT('%', :keyword, '%'))"
+            + " OR LOWER(c.description) LIKE LOWER(CONCAT('%', :keyword, '%'))"
+            + " OR LOWER(c.tags) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+    List<Long> keywordMatchIds(@Param("keyword") String keyword, @Param("collegeId") Long collegeId);
+
+    // One grouped query for a list response instead of loading each course's tests; rows are [courseId, count]
+    @Query("SELECT c.id, COUNT(t) FROM Course c JOIN c.tests t WHERE c.id IN :courseIds GROUP BY c.id")
+    List<Object[]> countTestsByCourseIds(@Param("courseIds") Collection<Long> courseIds);
+
+    // Rows are [id, category, difficultyLevel, department, semester, status]
+    @Query("SELECT c.id, c.category, c.difficultyLevel, c.department, c.semester, c.status"
+            + " FROM Course c WHERE c.college.id = :collegeId")
+    List<Object[]> findFacetRowsByCollegeId(@Param("collegeId") Long collegeId);
+
+    @Query("SELECT c.id, c.category, c.difficultyLevel, c.department, c.semester, c.status FROM Course c")
+    List<Object[]> findFacetRows();
 }
@@ -0,0 +1,38 @@
+package in.bkitsolutions.lmsbackend.repository;
+
+import in.bkitsolutions.lmsbackend.model.CourseWaitlistEntry;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CourseWaitlistRepository extends JpaRepository<CourseWaitlistEntry, Long> {
+    Optional<CourseWaitlistEntry> findByCourseIdAndStudentId(Long courseId, Long studentId);
+    List<CourseWaitlistEntry> findByCourseIdOrderByIdAsc(Long courseId);
+    long countByCourseIdAndIdLessThanEqual(Long courseId, Long id);
+
+    // Locking read, so an entry committed after this transaction started is still seen
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<CourseWaitlistEntry> findFirstByCourseIdOrderByIdAsc(Long courseId);
+
+    @Modifying
+    @Query("DELETE FROM CourseWaitlistEntry w WHERE w.course.id = :courseId AND w.student.id = :studentId")
+    int deleteByCourseIdAndStudentId(@Param("courseId") Long courseId, @Param("studentId") Long studentId);
+
+    @Modifying
+    @Query("DELETE FROM CourseWaitlistEntry w WHERE w.course.id = :courseId AND w.student.id IN :studentIds")
+    int deleteByCourseIdAndStudentIdIn(@Param("courseId") Long courseId,
+                                       @Param("studentIds") Collection<Long> studentIds);
+
+    @Modifying
+    @Query("DELETE FROM CourseWaitlistEntry w WHERE w.course.id = :courseId")
+    int deleteByCourseId(@Param("courseId") Long courseId);
+}
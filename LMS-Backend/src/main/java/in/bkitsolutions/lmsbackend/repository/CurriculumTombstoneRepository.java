@@ -0,0 +1,19 @@
+package in.bkitsolutions.lmsbackend.repository;
+
+import in.bkitsolutions.lmsbackend.model.CurriculumTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CurriculumTombstoneRepository extends JpaRepository<CurriculumTombstone, Long> {
+    List<CurriculumTombstone> findByCourseIdAndChangeSeqGreaterThan(Long courseId, Long changeSeq);
+
+    @Modifying
+    @Query("DELETE FROM CurriculumTombstone t WHERE t.courseId = :courseId")
+    int deleteByCourseId(@Param("courseId") Long courseId);
+}
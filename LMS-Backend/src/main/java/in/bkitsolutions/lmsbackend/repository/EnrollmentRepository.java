@@ -2,16 +2,32 @@ package in.bkitsolutions.lmsbackend.repository;
 
 import in.bkitsolutions.lmsbackend.model.Enrollment;
 import in.bkitsolutions.lmsbackend.model.EnrollmentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
+    // Progress counter updates. MySQL applies single-table SET assignments left to right, so
+    // these fragments see the counters already updated earlier in the same statement.
+    String SET_PROGRESS = "progress_percentage = CASE WHEN total_chapters > 0"
+            + " THEN LEAST(100, completed_chapters * 100 DIV total_chapters) ELSE 0 END";
+    String SET_COMPLETION = "completed_at = CASE WHEN status = 'ACTIVE' AND progress_percentage >= 100"
+            + " THEN NOW() ELSE completed_at END,"
+            + " status = CASE WHEN status = 'ACTIVE' AND progress_percentage >= 100 THEN 'COMPLETED' ELSE status END";
+    // A new chapter reopens enrollments that were completed by finishing every chapter; ones an
+    // admin marked completed with chapters still open stay completed
+    String REOPEN_IF_FINISHED = "completed_at = CASE WHEN status = 'COMPLETED' AND completed_chapters >= total_chapters"
+            + " THEN NULL ELSE completed_at END,"
+            + " status = CASE WHEN status = 'COMPLETED' AND completed_chapters >= total_chapters THEN 'ACTIVE' ELSE status END";
+
     Optional<Enrollment> findByCourseIdAndStudentId(Long courseId, Long studentId);
     boolean existsByCourseIdAndStudentId(Long courseId, Long studentId);
     boolean existsByCourseIdAndStudentIdAndStatus(Long courseId, Long studentId, EnrollmentStatus status);
@@ -19,8 +35,60 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
     List<Enrollment> findByStudentIdAndStatus(Long studentId, EnrollmentStatus status);
     List<Enrollment> findByCourseId(Long courseId);
     long countByCourseId(Long courseId);
+    List<Enrollment> findByCourseIdAndIdLessThanOrderByIdDesc(Long courseId, Long before, Pageable pageable);
+    List<Enrollment> findByStudentIdAndIdLessThanOrderByIdDesc(Long studentId, Long before, Pageable pageable);
     long countByCourseIdAndStatus(Long courseId, EnrollmentStatus status);
 
+    @Query("SELECT e FROM Enrollment e JOIN FETCH e.course JOIN FETCH e.student"
+            + " WHERE e.course.id = :courseId AND e.student.id IN :studentIds")
+    List<Enrollment> findWithStudentByCourseIdAndStudentIdIn(@Param("courseId") Long courseId,
+                                                             @Param("studentIds") Collection<Long> studentIds);
+
     @Query("SELECT COUNT(e) FROM Enrollment e JOIN e.course c WHERE c.college.id = :collegeId")
     long countByCollegeId(@Param("collegeId") Long collegeId);
+
+    // One grouped query instead of countByCourseId per course; rows are [courseId, count]
+    @Query("SELECT e.course.id, COUNT(e) FROM Enrollment e WHERE e.course.id IN :courseIds GROUP BY e.course.id")
+    List<Object[]> countByCourseIds(@Param("courseIds") Collection<Long> courseIds);
+
+    @Modifying
+    @Query(value = "UPDATE enrollments SET completed_chapters = LEAST(completed_chapters + 1, total_chapters), "
+            + SET_PROGRESS + ", " + SET_COMPLETION
+            + " WHERE course_id = :courseId AND student_id = :studentId", nativeQuery = true)
+    int incrementCompletedChapters(@Param("courseId") Long courseId, @Param("studentId") Long studentId);
+
+    @Modifying
+    @Query(value = "UPDATE enrollments SET " + REOPEN_IF_FINISHED + ", total_chapters = total_chapters + :delta, "
+            + SET_PROGRESS + " WHERE course_id = :courseId", nativeQuery = true)
+    int addTotalChapters(@Param("courseId") Long courseId, @Param("delta") int delta);
+
+    @Modifying
+    @Query(value = "UPDATE enrollments e SET e.completed_chapters = GREATEST(0, e.completed_chapters"
+            + " - (SELECT COUNT(*) FROM chapter_progress cp WHERE cp.student_id = e.student_id"
+            + " AND cp.completed = true AND cp.chapter_id IN (:chapterIds))),"
+            + " e.total_chapters = GREATEST(0, e.total_chapters - :removed), "
+            + SET_PROGRESS + ", " + SET_COMPLETION
+            + " WHERE e.course_id = :courseId", nativeQuery = true)
+    int removeChapters(@Param("courseId") Long courseId, @Param("chapterIds") Collection<Long> chapterIds,
+                       @Param("removed") int removed);
+
+    // Reconciliation: rows are [enrollmentId, studentId, totalChapters, completedChapters]
+    @Query("SELECT e.id, e.student.id, e.totalChapters, e.completedChapters FROM Enrollment e WHERE e.course.id = :courseId")
+    List<Object[]> findProgressCountersByCourseId(@Param("courseId") Long courseId);
+
+    @Query("SELECT DISTINCT e.course.id FROM Enrollment e")
+    List<Long> findEnrolledCourseIds();
+
+    // Recounts one enrollment from the source tables in a single statement, so a completion
+    // that commits while the reconciliation job runs is not overwritten by a stale count
+    @Modifying
+    @Query(value = "UPDATE enrollments e SET"
+            + " e.total_chapters = (SELECT COUNT(*) FROM chapters ch JOIN topics t ON ch.topic_id = t.id"
+            + " WHERE t.course_id = e.course_id),"
+            + " e.completed_chapters = (SELECT COUNT(*) FROM chapter_progress cp"
+            + " JOIN chapters ch ON cp.chapter_id = ch.id JOIN topics t ON ch.topic_id = t.id"
+            + " WHERE t.course_id = e.course_id AND cp.student_id = e.student_id AND cp.completed = true), "
+            + SET_PROGRESS + ", " + SET_COMPLETION
+            + " WHERE e.id = :id", nativeQuery = true)
+    int recountProgress(@Param("id") Long id);
 }
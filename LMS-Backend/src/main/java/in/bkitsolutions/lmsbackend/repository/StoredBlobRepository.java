@@ -0,0 +1,30 @@
+package in.bkitsolutions.lmsbackend.repository;
+
+import in.bkitsolutions.lmsbackend.model.StoredBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+    // Takes a reference, creating the row on first use; locks the row until commit
+    @Modifying
+    @Query(value = "INSERT INTO stored_blobs (name, size_bytes, ref_count, created_at, referenced_at)"
+            + " VALUES (:name, :size, 1, NOW(), NOW())"
+            + " ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, referenced_at = NOW()", nativeQuery = true)
+    int addReference(@Param("name") String name, @Param("size") long size);
+
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount - 1 WHERE b.name = :name AND b.refCount > 0")
+    int releaseReference(@Param("name") String name);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM StoredBlob b WHERE b.name = :name")
+    Optional<StoredBlob> findByIdForUpdate(@Param("name") String name);
+}
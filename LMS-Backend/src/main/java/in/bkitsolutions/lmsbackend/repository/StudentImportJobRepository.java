@@ -0,0 +1,24 @@
+package in.bkitsolutions.lmsbackend.repository;
+
+import in.bkitsolutions.lmsbackend.model.ImportJobStatus;
+import in.bkitsolutions.lmsbackend.model.StudentImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StudentImportJobRepository extends JpaRepository<StudentImportJob, Long> {
+    List<StudentImportJob> findByStatusAndCreatedAtBefore(ImportJobStatus status, LocalDateTime before);
+
+    List<StudentImportJob> findByStatusAndStartedAtBefore(ImportJobStatus status, LocalDateTime before);
+
+    // Conditional so the runner and the stale-job sweep cannot both claim a job
+    @Modifying
+    @Query("UPDATE StudentImportJob j SET j.status = :to WHERE j.id = :id AND j.status = :from")
+    int transition(@Param("id") Long id, @Param("from") ImportJobStatus from, @Param("to") ImportJobStatus to);
+}
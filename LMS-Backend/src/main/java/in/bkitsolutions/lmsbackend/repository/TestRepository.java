@@ -2,6 +2,7 @@ package in.bkitsolutions.lmsbackend.repository;
 
 import in.bkitsolutions.lmsbackend.model.TestEntity;
 import in.bkitsolutions.lmsbackend.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,6 +13,10 @@ import java.util.List;
 public interface TestRepository extends JpaRepository<TestEntity, Long> {
     List<TestEntity> findByCreatedBy(User createdBy);
 
+    List<TestEntity> findByIdLessThanOrderByIdDesc(Long before, Pageable pageable);
+
+    List<TestEntity> findByCreatedByIdAndIdLessThanOrderByIdDesc(Long userId, Long before, Pageable pageable);
+
     @Query("SELECT t FROM TestEntity t WHERE t.createdBy = :admin AND t.published = true AND (t.startTime IS NULL OR t.startTime <= :now) AND (t.endTime IS NULL OR t.endTime >= :now)")
     List<TestEntity> findActivePublishedByAdmin(@Param("admin") User admin, @Param("now") LocalDateTime now);
 
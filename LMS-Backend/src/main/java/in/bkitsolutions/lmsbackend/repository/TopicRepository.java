@@ -2,8 +2,12 @@ package in.bkitsolutions.lmsbackend.repository;
 
 import in.bkitsolutions.lmsbackend.model.Topic;
 import in.bkitsolutions.lmsbackend.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface TopicRepository extends JpaRepository<Topic, Long> {
@@ -20,10 +24,28 @@ public interface TopicRepository extends JpaRepository<Topic, Long> {
     long countByCreatedById(Long userId);
 
     long countByCreatedByCollegeId(Long collegeId);
+
+    List<Topic> findByIdLessThanOrderByIdDesc(Long before, Pageable pageable);
+
+    List<Topic> findByCreatedByIdAndIdLessThanOrderByIdDesc(Long userId, Long before, Pageable pageable);
     
     // Find all topics for a specific course (ordered by display order)
     List<Topic> findByCourseIdOrderByDisplayOrderAsc(Long courseId);
+
+    List<Topic> findByCourseIdAndChangeSeqGreaterThanOrderByDisplayOrderAsc(Long courseId, Long changeSeq);
     
     // Find published topics for a specific course
     List<Topic> findByCourseIdAndPublishedTrueOrderByDisplayOrderAsc(Long courseId);
+
+    @Query("SELECT t.id, t.displayOrder FROM Topic t WHERE t.course.id = :courseId")
+    List<Object[]> findDisplayOrdersByCourseId(@Param("courseId") Long courseId);
+
+    // One grouped query for a list response instead of loading each course's topics; rows are [courseId, count]
+    @Query("SELECT t.course.id, COUNT(t) FROM Topic t WHERE t.course.id IN :courseIds GROUP BY t.course.id")
+    List<Object[]> countByCourseIds(@Param("courseIds") Collection<Long> courseIds);
+
+    // One row: [count, sum(id), sum(version), max(updatedAt)] over the topics of a course
+    @Query("SELECT COUNT(t), COALESCE(SUM(t.id), 0), COALESCE(SUM(t.version), 0), MAX(t.updatedAt)"
+            + " FROM Topic t WHERE t.course.id = :courseId")
+    List<Object[]> findVersionStampByCourseId(@Param("courseId") Long courseId);
 }
@@ -2,8 +2,12 @@ package in.bkitsolutions.lmsbackend.repository;
 
 import in.bkitsolutions.lmsbackend.model.User;
 import in.bkitsolutions.lmsbackend.model.UserType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +18,20 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByCollegeId(Long collegeId);
     List<User> findByCollegeIdAndType(Long collegeId, UserType type);
     long countByCollegeId(Long collegeId);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // Keyset pages (see CursorPage). Separate queries so the per-college one can use the college_id index
+    @Query("SELECT u FROM User u WHERE u.id < :before AND u.type IN :types ORDER BY u.id DESC")
+    List<User> findPage(@Param("types") Collection<UserType> types,
+                        @Param("before") Long before,
+                        Pageable pageable);
+
+    @Query("SELECT u FROM User u WHERE u.college.id = :collegeId AND u.id < :before AND u.type IN :types"
+            + " ORDER BY u.id DESC")
+    List<User> findPageByCollegeId(@Param("collegeId") Long collegeId,
+                                   @Param("types") Collection<UserType> types,
+                                   @Param("before") Long before,
+                                   Pageable pageable);
 }
@@ -0,0 +1,74 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Consumer;
+
+/**
+ * Job-row bookkeeping shared by the runners of queued background jobs (course clones,
+ * bulk certificate issues, student imports). A job is claimed with its repository's
+ * conditional QUEUED -> RUNNING update, so one the stale-job sweep has already failed is
+ * skipped; every later change to the row is a short transaction of its own, never part of
+ * the work the runner does in between.
+ */
+abstract class BackgroundJobRunner<J> {
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final JpaRepository<J, Long> jobRepository;
+    private final String jobName;
+    private final TransactionTemplate jobTx;
+
+    protected BackgroundJobRunner(JpaRepository<J, Long> jobRepository, String jobName,
+                                  PlatformTransactionManager transactionManager) {
+        this.jobRepository = jobRepository;
+        this.jobName = jobName;
+        this.jobTx = new TransactionTemplate(transactionManager);
+    }
+
+    /** The repository's conditional QUEUED -> RUNNING update; false when the job was not QUEUED. */
+    protected abstract boolean markRunning(Long jobId);
+
+    /** Sets the FAILED status, the message and the completion time. */
+    protected abstract void markFailed(J job, String message);
+
+    /**
+     * Claims the job and applies {@code prepare} in the same transaction. Null when the job
+     * is gone, was failed as stale, or was claimed already.
+     */
+    protected J claim(Long jobId, Consumer<J> prepare) {
+        return jobTx.execute(status -> {
+            if (!markRunning(jobId)) return null;
+            J job = jobRepository.findById(jobId).orElseThrow();
+            prepare.accept(job);
+            return jobRepository.save(job);
+        });
+    }
+
+    protected void update(Long jobId, Consumer<J> change) {
+        jobTx.executeWithoutResult(status -> jobRepository.findById(jobId).ifPresent(job -> {
+            change.accept(job);
+            jobRepository.save(job);
+        }));
+    }
+
+    protected void fail(Long jobId, Exception e) {
+        fail(jobId, e, job -> {
+        });
+    }
+
+    /** Logs the failure and records it, after {@code progress} has written what the job got done. */
+    protected void fail(Long jobId, Exception e, Consumer<J> progress) {
+        logger.error("{} {} failed", jobName, jobId, e);
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        String truncated = message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+        update(jobId, job -> {
+            progress.accept(job);
+            markFailed(job, truncated);
+        });
+    }
+}
@@ -0,0 +1,104 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import in.bkitsolutions.lmsbackend.model.CertificateIssueJob;
+import in.bkitsolutions.lmsbackend.model.CertificateIssueJobStatus;
+import in.bkitsolutions.lmsbackend.repository.CertificateIssueJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Executes queued bulk issuance jobs on the certificateIssueExecutor: counts the eligible
+ * enrollments, then issues them batch by batch, each batch committed on its own so a failed
+ * job keeps what it issued and a rerun picks up the rest. Progress is written after every
+ * batch. New certificates are handed to the render queue until it fills; the render retry
+ * sweep takes the remainder.
+ */
+@Component
+public class CertificateIssueJobRunner extends BackgroundJobRunner<CertificateIssueJob> {
+    private static final Logger logger = LoggerFactory.getLogger(CertificateIssueJobRunner.class);
+
+    private final CertificateIssueJobRepository issueJobRepository;
+    private final CertificateIssueService issueService;
+    private final CertificateService certificateService;
+
+    @Value("${app.certificate.issue-batch-size:500}")
+    private int batchSize;
+
+    public CertificateIssueJobRunner(CertificateIssueJobRepository issueJobRepository, CertificateIssueService issueService,
+                                     CertificateService certificateService, PlatformTransactionManager transactionManager) {
+        super(issueJobRepository, "Certificate issue job", transactionManager);
+        this.issueJobRepository = issueJobRepository;
+        this.issueService = issueService;
+        this.certificateService = certificateService;
+    }
+
+    @Override
+    protected boolean markRunning(Long jobId) {
+        return issueJobRepository.transition(jobId, CertificateIssueJobStatus.QUEUED, CertificateIssueJobStatus.RUNNING) == 1;
+    }
+
+    @Override
+    protected void markFailed(CertificateIssueJob job, String message) {
+        job.setStatus(CertificateIssueJobStatus.FAILED);
+        job.setErrorMessage(message);
+        job.setCompletedAt(LocalDateTime.now());
+    }
+
+    @Async("certificateIssueExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void run(CertificateIssueService.IssueRequested event) {
+        Long jobId = event.jobId();
+        CertificateIssueJob job = claim(jobId, j -> {
+            j.setStartedAt(LocalDateTime.now());
+            j.getCollege().getId(); // initialize for use outside the transaction
+        });
+        if (job == null) return;
+
+        Long collegeId = job.getCollege().getId();
+        boolean render = Boolean.TRUE.equals(job.getRenderPdfs());
+        int issued = 0;
+        try {
+            int eligible = issueService.countEligible(collegeId, job.getCourseId());
+            update(jobId, j -> j.setEligible(eligible));
+
+            boolean renderQueueOpen = render;
+            long after = 0;
+            List<CertificateIssueService.Eligible> batch;
+            while (!(batch = issueService.findEligible(collegeId, job.getCourseId(), after, batchSize)).isEmpty()) {
+                List<Long> created = issueService.insertBatch(batch, render);
+                for (int i = 0; i < created.size() && renderQueueOpen; i++) {
+                    renderQueueOpen = certificateService.submitRender(created.get(i));
+                }
+                issued += created.size();
+                after = batch.get(batch.size() - 1).enrollmentId();
+                int soFar = issued;
+                update(jobId, j -> {
+                    j.setIssued(soFar);
+                    j.setProgressPercent(eligible > 0 ? Math.min(99, soFar * 100 / eligible) : 99);
+                });
+            }
+            if (render && !renderQueueOpen) {
+                logger.info("Certificate render queue full during issue job {}; the retry sweep will render the rest", jobId);
+            }
+
+            int total = issued;
+            update(jobId, j -> {
+                j.setIssued(total);
+                j.setProgressPercent(100);
+                j.setStatus(CertificateIssueJobStatus.COMPLETED);
+                j.setCompletedAt(LocalDateTime.now());
+            });
+        } catch (RuntimeException e) {
+            int total = issued;
+            fail(jobId, e, j -> j.setIssued(total));
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import in.bkitsolutions.lmsbackend.dto.CertificateDtos;
+import in.bkitsolutions.lmsbackend.model.*;
+import in.bkitsolutions.lmsbackend.repository.CertificateIssueJobRepository;
+import in.bkitsolutions.lmsbackend.repository.CollegeRepository;
+import in.bkitsolutions.lmsbackend.repository.CourseRepository;
+import in.bkitsolutions.lmsbackend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bulk certificate issuance for a course or a whole college. Eligible enrollments are read
+ * with one anti-join per batch and inserted with ON DUPLICATE KEY UPDATE against the
+ * (course, student) unique key, so a rerun, or a student claiming a certificate meanwhile,
+ * never duplicates one. Unlike INSERT IGNORE it still fails on any other error, such as a
+ * name too long for its column, which would otherwise be truncated under a UID signed
+ * over the full name.
+ */
+@Service
+@Transactional
+public class CertificateIssueService {
+    private static final Logger logger = LoggerFactory.getLogger(CertificateIssueService.class);
+
+    /** Picked up by CertificateIssueJobRunner after the job row commits. */
+    public record IssueRequested(Long jobId) {
+    }
+
+    /** A completed enrollment without a certificate. */
+    public record Eligible(long enrollmentId, long courseId, long studentId, long collegeId,
+                           String studentName, String courseTitle, String collegeName) {
+    }
+
+    private static final String ELIGIBLE_FROM = " FROM enrollments e"
+            + " JOIN courses c ON c.id = e.course_id"
+            + " JOIN users u ON u.id = e.student_id"
+            + " JOIN colleges col ON col.id = c.college_id"
+            + " LEFT JOIN certificates cert ON cert.course_id = e.course_id AND cert.student_id = e.student_id"
+            + " WHERE e.status = 'COMPLETED' AND cert.id IS NULL AND c.college_id = ?";
+
+    private final CertificateIssueJobRepository issueJobRepository;
+    private final CourseRepository courseRepository;
+    private final CollegeRepository collegeRepository;
+    private final UserRepository userRepository;
+    private final CertificateUidSigner uidSigner;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.certificate.issue-stale-after:PT2H}")
+    private Duration staleAfter;
+
+    public CertificateIssueService(CertificateIssueJobRepository issueJobRepository, CourseRepository courseRepository,
+                                   CollegeRepository collegeRepository, UserRepository userRepository,
+                                   CertificateUidSigner uidSigner, ApplicationEventPublisher eventPublisher,
+                                   JdbcTemplate jdbcTemplate) {
+        this.issueJobRepository = issueJobRepository;
+        this.courseRepository = courseRepository;
+        this.collegeRepository = collegeRepository;
+        this.userRepository = userRepository;
+        this.uidSigner = uidSigner;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    private User requireUser(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+    }
+
+    public CertificateDtos.BulkIssueJobResponse enqueue(String requesterEmail, CertificateDtos.BulkIssueRequest req) {
+        User requester = requireUser(requesterEmail);
+        boolean platformAdmin = requester.getType() == UserType.SUPERADMIN || requester.getType() == UserType.ROOTADMIN;
+        if (!platformAdmin && requester.getType() != UserType.ADMIN) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only admins can issue certificates in bulk");
+        }
+
+        College college;
+        if (req.getCourseId() != null) {
+            Course course = courseRepository.findById(req.getCourseId())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found"));
+            college = course.getCollege();
+        } else if (req.getCollegeId() != null && platformAdmin) {
+            college = collegeRepository.findById(req.getCollegeId())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "College not found"));
+        } else if (!platformAdmin && requester.getCollege() != null) {
+            college = requester.getCollege();
+        } else {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "courseId or collegeId is required");
+        }
+        if (!platformAdmin && (requester.getCollege() == null || !requester.getCollege().getId().equals(college.getId()))) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied");
+        }
+
+        CertificateIssueJob job = issueJobRepository.save(CertificateIssueJob.builder()
+                .college(college)
+                .courseId(req.getCourseId())
+                .requestedBy(requester)
+                .renderPdfs(req.getRenderPdfs() == null || req.getRenderPdfs())
+                .build());
+        eventPublisher.publishEvent(new IssueRequested(job.getId()));
+        return toJobResponse(job);
+    }
+
+    @Transactional(readOnly = true)
+    public CertificateDtos.BulkIssueJobResponse getJob(String requesterEmail, Long jobId) {
+        User requester = requireUser(requesterEmail);
+        CertificateIssueJob job = issueJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Issue job not found"));
+        boolean visible = requester.getType() == UserType.SUPERADMIN || requester.getType() == UserType.ROOTADMIN
+                || job.getRequestedBy().getId().equals(requester.getId())
+                || (requester.getType() == UserType.ADMIN && requester.getCollege() != null
+                        && requester.getCollege().getId().equals(job.getCollege().getId()));
+        if (!visible) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied");
+        }
+        return toJobResponse(job);
+    }
+
+    @Transactional(readOnly = true)
+    public int countEligible(Long collegeId, Long courseId) {
+        Integer count = courseId != null
+                ? jdbcTemplate.queryForObject("SELECT COUNT(*)" + ELIGIBLE_FROM + " AND e.course_id = ?",
+                        Integer.class, collegeId, courseId)
+                : jdbcTemplate.queryForObject("SELECT COUNT(*)" + ELIGIBLE_FROM, Integer.class, collegeId);
+        return count != null ? count : 0;
+    }
+
+    // Keyset-paged by enrollment id so each batch is an index range, not an OFFSET scan
+    @Transactional(readOnly = true)
+    public List<Eligible> findEligible(Long collegeId, Long courseId, long afterEnrollmentId, int limit) {
+        String sql = "SELECT e.id, e.course_id, e.student_id, c.college_id, u.name, c.title, col.name"
+                + ELIGIBLE_FROM
+                + (courseId != null ? " AND e.course_id = ?" : "")
+                + " AND e.id > ? ORDER BY e.id LIMIT ?";
+        Object[] args = courseId != null
+                ? new Object[]{collegeId, courseId, afterEnrollmentId, limit}
+                : new Object[]{collegeId, afterEnrollmentId, limit};
+        return jdbcTemplate.query(sql, (rs, i) -> new Eligible(rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                rs.getLong(4), rs.getString(5), rs.getString(6), rs.getString(7)), args);
+    }
+
+    /**
+     * Inserts certificates for one batch in the caller's transaction and returns the ids of
+     * those actually created. Rows go in under placeholder UIDs, which are then replaced by
+     * signed ones once their ids are known.
+     */
+    public List<Long> insertBatch(List<Eligible> batch, boolean renderPdfs) {
+        if (batch.isEmpty()) return List.of();
+
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        Timestamp issuedAt = Timestamp.valueOf(now);
+        String renderStatus = (renderPdfs ? CertificateRenderStatus.QUEUED : CertificateRenderStatus.NOT_REQUESTED).name();
+        Map<String, Eligible> byPlaceholder = new HashMap<>();
+        StringBuilder insert = new StringBuilder("INSERT INTO certificates (certificate_uid, course_id, student_id,"
+                + " college_id, issued_at, student_name, course_title, college_name, render_status, render_attempts,"
+                + " render_requested_at) VALUES ");
+        List<Object> args = new ArrayList<>(batch.size() * 11);
+        for (int i = 0; i < batch.size(); i++) {
+            Eligible row = batch.get(i);
+            String placeholder = "pending-" + UUID.randomUUID();
+            byPlaceholder.put(placeholder, row);
+            insert.append(i == 0 ? "" : ",").append("(?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?)");
+            args.addAll(Arrays.asList(placeholder, row.courseId(), row.studentId(), row.collegeId(), issuedAt,
+                    row.studentName(), row.courseTitle(), row.collegeName(), renderStatus, renderPdfs ? issuedAt : null));
+        }
+        insert.append(" ON DUPLICATE KEY UPDATE id = id");
+        jdbcTemplate.update(insert.toString(), args.toArray());
+
+        StringBuilder select = new StringBuilder("SELECT id, certificate_uid FROM certificates WHERE certificate_uid IN (");
+        List<String> placeholders = new ArrayList<>(byPlaceholder.keySet());
+        for (int i = 0; i < placeholders.size(); i++) {
+            select.append(i == 0 ? "?" : ", ?");
+        }
+        select.append(')');
+        List<Long> created = new ArrayList<>(placeholders.size());
+        List<Object[]> signed = new ArrayList<>(placeholders.size());
+        jdbcTemplate.query(select.toString(), rs -> {
+            long id = rs.getLong(1);
+            Eligible row = byPlaceholder.get(rs.getString(2));
+            created.add(id);
+            signed.add(new Object[]{uidSigner.sign(id, now.toLocalDate(), row.studentName(), row.courseTitle()), id});
+        }, placeholders.toArray());
+        jdbcTemplate.batchUpdate("UPDATE certificates SET certificate_uid = ? WHERE id = ?", signed);
+        return created;
+    }
+
+    /**
+     * Fails issue jobs lost to a restart or a full issue queue: still QUEUED, or RUNNING
+     * without finishing, after app.certificate.issue-stale-after. Batches already issued
+     * stay; starting the job again issues the rest.
+     */
+    @Scheduled(initialDelayString = "${app.certificate.issue-stale-sweep-initial-delay:PT5M}",
+            fixedDelayString = "${app.certificate.issue-stale-sweep-interval:PT15M}")
+    public void failStaleJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(staleAfter);
+        List<CertificateIssueJob> stale = new ArrayList<>(
+                issueJobRepository.findByStatusAndCreatedAtBefore(CertificateIssueJobStatus.QUEUED, cutoff));
+        stale.addAll(issueJobRepository.findByStatusAndStartedAtBefore(CertificateIssueJobStatus.RUNNING, cutoff));
+        for (CertificateIssueJob job : stale) {
+            if (issueJobRepository.transition(job.getId(), job.getStatus(), CertificateIssueJobStatus.FAILED) == 0) continue;
+            job.setStatus(CertificateIssueJobStatus.FAILED);
+            job.setErrorMessage("Issuing did not finish; start it again to issue the rest");
+            job.setCompletedAt(LocalDateTime.now());
+            issueJobRepository.save(job);
+        }
+        if (!stale.isEmpty()) {
+            logger.info("Failed {} stale certificate issue job(s)", stale.size());
+        }
+    }
+
+    static CertificateDtos.BulkIssueJobResponse toJobResponse(CertificateIssueJob job) {
+        return CertificateDtos.BulkIssueJobResponse.builder()
+                .id(job.getId())
+                .collegeId(job.getCollege().getId())
+                .courseId(job.getCourseId())
+                .renderPdfs(job.getRenderPdfs())
+                .status(job.getStatus().name())
+                .eligible(job.getEligible())
+                .issued(job.getIssued())
+                .progressPercent(job.getProgressPercent())
+                .errorMessage(job.getErrorMessage())
+                .createdAt(job.getCreatedAt() != null ? job.getCreatedAt().toString() : null)
+                .startedAt(job.getStartedAt() != null ? job.getStartedAt().toString() : null)
+                .completedAt(job.getCompletedAt() != null ? job.getCompletedAt().toString() : null)
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import in.bkitsolutions.lmsbackend.model.Certificate;
+import in.bkitsolutions.lmsbackend.model.CertificateRenderStatus;
+import in.bkitsolutions.lmsbackend.repository.CertificateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * Renders queued certificates on the certificateRenderExecutor, where CertificateService
+ * submits them after commit, once each: the row is claimed under its lock, the PDF is rendered
+ * and stored under a private key outside any transaction, and pdfKey is filled in when it is
+ * stored. A failure marks the row FAILED for CertificateService's retry sweep.
+ */
+@Component
+public class CertificateRenderJobRunner {
+    private static final Logger logger = LoggerFactory.getLogger(CertificateRenderJobRunner.class);
+
+    private final CertificateRepository certificateRepository;
+    private final CertificateRenderer certificateRenderer;
+    private final FileStorageService fileStorageService;
+    private final TransactionTemplate transactionTemplate;
+
+    public CertificateRenderJobRunner(CertificateRepository certificateRepository, CertificateRenderer certificateRenderer,
+                                      FileStorageService fileStorageService, PlatformTransactionManager transactionManager) {
+        this.certificateRepository = certificateRepository;
+        this.certificateRenderer = certificateRenderer;
+        this.fileStorageService = fileStorageService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void run(Long certificateId) {
+        CertificateRenderer.Content content = transactionTemplate.execute(status -> {
+            Certificate certificate = certificateRepository.findByIdForUpdate(certificateId).orElse(null);
+            if (certificate == null || certificate.getRenderStatus() == CertificateRenderStatus.READY
+                    || certificate.getRenderStatus() == CertificateRenderStatus.RENDERING) {
+                return null; // gone, done, or taken by another worker
+            }
+            certificate.setRenderStatus(CertificateRenderStatus.RENDERING);
+            certificate.setRenderAttempts(certificate.getRenderAttempts() != null ? certificate.getRenderAttempts() + 1 : 1);
+            certificate.setRenderRequestedAt(LocalDateTime.now());
+            certificateRepository.save(certificate);
+            return new CertificateRenderer.Content(certificate.getCertificateUid(), certificate.getStudentName(),
+                    certificate.getCourseTitle(), certificate.getCollegeName(), certificate.getIssuedAt(),
+                    certificate.getCollege().getLogoUrl(), certificate.getCollege().getPrimaryColor());
+        });
+        if (content == null) return;
+
+        String key;
+        Path temp = null;
+        try {
+            temp = fileStorageService.createTempFile();
+            certificateRenderer.render(content, temp);
+            key = fileStorageService.storePrivateFile(temp, "certificate.pdf", "certificates");
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not render certificate {}", certificateId, e);
+            finish(certificateId, CertificateRenderStatus.FAILED, null);
+            return;
+        } finally {
+            deleteQuietly(temp);
+        }
+        finish(certificateId, CertificateRenderStatus.READY, key);
+    }
+
+    private void finish(Long certificateId, CertificateRenderStatus status, String key) {
+        transactionTemplate.executeWithoutResult(tx -> certificateRepository.findById(certificateId).ifPresentOrElse(c -> {
+            c.setRenderStatus(status);
+            if (key != null) {
+                if (c.getPdfKey() != null && !c.getPdfKey().equals(key)) fileStorageService.deletePrivate(c.getPdfKey());
+                c.setPdfKey(key);
+                c.setRenderedAt(LocalDateTime.now());
+            }
+            certificateRepository.save(c);
+        }, () -> {
+            if (key != null) fileStorageService.deletePrivate(key); // certificate deleted while rendering
+        }));
+    }
+
+    private static void deleteQuietly(Path temp) {
+        if (temp == null) return;
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}", temp, e);
+        }
+    }
+}
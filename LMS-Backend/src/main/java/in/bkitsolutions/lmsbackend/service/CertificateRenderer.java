@@ -0,0 +1,178 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Lays out the certificate PDF: an A4 landscape page framed in the college's primary colour,
+ * its logo, the student, course and college names, the issue date and the verification id.
+ * Pure rendering; CertificateRenderJobRunner decides when it runs and where the file goes.
+ */
+@Component
+public class CertificateRenderer {
+    private static final Logger logger = LoggerFactory.getLogger(CertificateRenderer.class);
+
+    private static final Color DEFAULT_PRIMARY = new Color(0x1E, 0x40, 0xAF);
+    private static final Color TEXT = new Color(0x1F, 0x29, 0x37);
+    private static final Color MUTED = new Color(0x6B, 0x72, 0x80);
+    private static final DateTimeFormatter ISSUED = DateTimeFormatter.ofPattern("d MMMM yyyy", Locale.ENGLISH);
+    private static final int MAX_LOGO_BYTES = 5 * 1024 * 1024;
+    private static final float LOGO_BOX = 90;
+
+    public record Content(String certificateUid, String studentName, String courseTitle, String collegeName,
+                          LocalDateTime issuedAt, String logoUrl, String primaryColor) {
+    }
+
+    private final FileStorageService fileStorageService;
+    private final ImageVariantService imageVariantService;
+
+    @Value("${app.certificate.verify-base-url:http://localhost:8080/api/certificates/verify}")
+    private String verifyBaseUrl;
+
+    public CertificateRenderer(FileStorageService fileStorageService, ImageVariantService imageVariantService) {
+        this.fileStorageService = fileStorageService;
+        this.imageVariantService = imageVariantService;
+    }
+
+    public void render(Content content, OutputStream out) throws IOException {
+        PDFont bold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+        PDFont regular = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        PDFont italic = new PDType1Font(Standard14Fonts.FontName.HELVETICA_OBLIQUE);
+        Color primary = parseColor(content.primaryColor());
+
+        try (PDDocument document = new PDDocument()) {
+            PDRectangle size = new PDRectangle(PDRectangle.A4.getHeight(), PDRectangle.A4.getWidth());
+            PDPage page = new PDPage(size);
+            document.addPage(page);
+            float width = size.getWidth();
+            float height = size.getHeight();
+            PDImageXObject logo = loadLogo(document, content.logoUrl());
+
+            try (PDPageContentStream cs = new PDPageContentStream(document, page)) {
+                cs.setStrokingColor(primary);
+                cs.setLineWidth(8);
+                cs.addRect(20, 20, width - 40, height - 40);
+                cs.stroke();
+                cs.setLineWidth(1.5f);
+                cs.addRect(34, 34, width - 68, height - 68);
+                cs.stroke();
+
+                float y = height - 70;
+                if (logo != null) {
+                    float scale = Math.min(LOGO_BOX / logo.getWidth(), LOGO_BOX / logo.getHeight());
+                    float w = logo.getWidth() * scale;
+                    float h = logo.getHeight() * scale;
+                    cs.drawImage(logo, (width - w) / 2, y - h, w, h);
+                    y -= h + 25;
+                } else {
+                    y -= 20;
+                }
+
+                centered(cs, regular, 16, MUTED, content.collegeName(), width, y);
+                y -= 55;
+                centered(cs, bold, 34, primary, "Certificate of Completion", width, y);
+                y -= 45;
+                centered(cs, italic, 14, MUTED, "This is to certify that", width, y);
+                y -= 42;
+                centered(cs, bold, 28, TEXT, content.studentName(), width, y);
+                y -= 36;
+                centered(cs, italic, 14, MUTED, "has successfully completed the course", width, y);
+                y -= 36;
+                centered(cs, bold, 22, TEXT, content.courseTitle(), width, y);
+
+                String issued = content.issuedAt() != null ? "Issued on " + ISSUED.format(content.issuedAt()) : "";
+                centered(cs, regular, 12, TEXT, issued, width, 95);
+                centered(cs, regular, 9, MUTED, "Certificate ID " + content.certificateUid()
+                        + "  ·  Verify at " + verifyBaseUrl + "/" + content.certificateUid(), width, 60);
+            }
+            document.save(out);
+        }
+    }
+
+    public void render(Content content, Path target) throws IOException {
+        try (OutputStream out = Files.newOutputStream(target)) {
+            render(content, out);
+        }
+    }
+
+    private static void centered(PDPageContentStream cs, PDFont font, float fontSize, Color color,
+                                 String text, float pageWidth, float y) throws IOException {
+        String printable = printable(font, text);
+        if (printable.isEmpty()) return;
+        float textWidth = font.getStringWidth(printable) / 1000 * fontSize;
+        float maxWidth = pageWidth - 120;
+        if (textWidth > maxWidth) { // long course titles shrink rather than run off the page
+            fontSize = fontSize * maxWidth / textWidth;
+            textWidth = maxWidth;
+        }
+        cs.beginText();
+        cs.setNonStrokingColor(color);
+        cs.setFont(font, fontSize);
+        cs.newLineAtOffset((pageWidth - textWidth) / 2, y);
+        cs.showText(printable);
+        cs.endText();
+    }
+
+    // The standard fonts cover WinAnsi only; other characters are replaced instead of failing the render
+    private static String printable(PDFont font, String text) throws IOException {
+        if (text == null) return "";
+        StringBuilder out = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            String ch = new String(Character.toChars(codePoint));
+            try {
+                font.encode(ch);
+                out.append(ch);
+            } catch (IllegalArgumentException e) {
+                out.append('?');
+            }
+            i += Character.charCount(codePoint);
+        }
+        return out.toString();
+    }
+
+    // The medium variant when it exists (always JPEG or PNG, and small); otherwise the original
+    private PDImageXObject loadLogo(PDDocument document, String logoUrl) {
+        if (logoUrl == null) return null;
+        String url = imageVariantService.variantUrl(logoUrl, ImageVariantService.Variant.MEDIUM);
+        String key = fileStorageService.keyOf(url);
+        if (key == null) return null;
+        try (InputStream in = fileStorageService.open(key)) {
+            byte[] bytes = in.readNBytes(MAX_LOGO_BYTES + 1);
+            if (bytes.length > MAX_LOGO_BYTES) return null;
+            return PDImageXObject.createFromByteArray(document, bytes, key);
+        } catch (IOException | RuntimeException e) {
+            logger.info("Rendering certificate without logo {}: {}", logoUrl, e.getMessage());
+            return null;
+        }
+    }
+
+    private static Color parseColor(String value) {
+        if (value == null || value.isBlank()) return DEFAULT_PRIMARY;
+        try {
+            return Color.decode(value.trim().startsWith("#") ? value.trim() : "#" + value.trim());
+        } catch (NumberFormatException e) {
+            return DEFAULT_PRIMARY;
+        }
+    }
+}
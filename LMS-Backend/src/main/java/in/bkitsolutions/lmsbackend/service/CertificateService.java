@@ -3,29 +3,73 @@ package in.bkitsolutions.lmsbackend.service;
 import in.bkitsolutions.lmsbackend.dto.CertificateDtos;
 import in.bkitsolutions.lmsbackend.model.*;
 import in.bkitsolutions.lmsbackend.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class CertificateService {
+    private static final Logger logger = LoggerFactory.getLogger(CertificateService.class);
+
+    private static final int REQUEUE_BATCH = 200;
+
     private final CertificateRepository certificateRepository;
     private final CourseRepository courseRepository;
     private final EnrollmentRepository enrollmentRepository;
     private final UserRepository userRepository;
+    private final CertificateUidSigner uidSigner;
+    private final CertificateRenderJobRunner renderJobRunner;
+    private final TaskExecutor renderExecutor;
+    private final FileStorageService fileStorageService;
+
+    // Reloaded from the database every minute so every instance sees revocations made elsewhere
+    private volatile Set<Long> revokedIds = Set.of();
+
+    @Value("${app.certificate.render-retry-after:PT10M}")
+    private Duration renderRetryAfter;
+
+    @Value("${app.certificate.render-max-attempts:5}")
+    private int renderMaxAttempts;
 
     public CertificateService(CertificateRepository certificateRepository, CourseRepository courseRepository,
-                              EnrollmentRepository enrollmentRepository, UserRepository userRepository) {
+                              EnrollmentRepository enrollmentRepository, UserRepository userRepository,
+                              CertificateUidSigner uidSigner, CertificateRenderJobRunner renderJobRunner,
+                              @Qualifier("certificateRenderExecutor") TaskExecutor renderExecutor,
+                              FileStorageService fileStorageService) {
         this.certificateRepository = certificateRepository;
         this.courseRepository = courseRepository;
         this.enrollmentRepository = enrollmentRepository;
         this.userRepository = userRepository;
+        this.uidSigner = uidSigner;
+        this.renderJobRunner = renderJobRunner;
+        this.renderExecutor = renderExecutor;
+        this.fileStorageService = fileStorageService;
     }
 
+    @Transactional
     public CertificateDtos.CertificateResponse issueCertificate(String studentEmail, Long courseId) {
         User student = requireUser(studentEmail);
         Course course = courseRepository.findById(courseId)
@@ -43,35 +87,72 @@ public class CertificateService {
         if (certificateRepository.existsByCourseIdAndStudentId(courseId, student.getId())) {
             Certificate existing = certificateRepository.findByCourseIdAndStudentId(courseId, student.getId())
                     .orElseThrow();
+            if (existing.getPdfKey() == null && existing.getRenderStatus() != CertificateRenderStatus.RENDERING) {
+                requestRender(existing);
+            }
             return toResponse(existing);
         }
 
+        // The signed UID needs the generated id and issue date, so the row is inserted with a placeholder first
         Certificate certificate = Certificate.builder()
-                .certificateUid(UUID.randomUUID().toString())
+                .certificateUid("pending-" + UUID.randomUUID())
                 .course(course)
                 .student(student)
                 .college(course.getCollege())
                 .studentName(student.getName())
                 .courseTitle(course.getTitle())
                 .collegeName(course.getCollege().getName())
+                .renderStatus(CertificateRenderStatus.QUEUED)
+                .renderAttempts(0)
                 .build();
 
         certificate = certificateRepository.save(certificate);
+        certificate.setCertificateUid(uidSigner.sign(certificate.getId(), certificate.getIssuedAt().toLocalDate(),
+                certificate.getStudentName(), certificate.getCourseTitle()));
+        requestRender(certificate);
         return toResponse(certificate);
     }
 
+    // Listing never queues renders: NOT_REQUESTED ones start on download, public copies in requeueStalledRenders
+    @Transactional(readOnly = true)
     public List<CertificateDtos.CertificateResponse> getMyCertificates(String studentEmail) {
         User student = requireUser(studentEmail);
-        return certificateRepository.findByStudentId(student.getId())
-                .stream().map(this::toResponse).collect(Collectors.toList());
+        return certificateRepository.findByStudentId(student.getId()).stream()
+                .map(this::toResponse).collect(Collectors.toList());
     }
 
-    public CertificateDtos.CertificateVerifyResponse verifyCertificate(String certificateUid) {
-        Certificate certificate = certificateRepository.findByCertificateUid(certificateUid)
+    // Signed UIDs are checked against the signature and the revocation set alone; the row is only
+    // read for a detail view or for a legacy UUID UID
+    @Transactional(readOnly = true)
+    public CertificateDtos.CertificateVerifyResponse verifyCertificate(String certificateUid, boolean details) {
+        CertificateUidSigner.Claims claims = uidSigner.parse(certificateUid);
+        if (claims == null) {
+            return verifyStored(certificateRepository.findByCertificateUid(certificateUid)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Certificate not found")));
+        }
+        boolean revoked = revokedIds.contains(claims.certificateId());
+        if (!details || revoked) {
+            return CertificateDtos.CertificateVerifyResponse.builder()
+                    .valid(!revoked)
+                    .revoked(revoked)
+                    .certificateUid(certificateUid)
+                    .issuedAt(claims.issuedOn().toString())
+                    .build();
+        }
+        Certificate certificate = certificateRepository.findById(claims.certificateId())
+                .filter(c -> c.getCertificateUid().equalsIgnoreCase(certificateUid.replace("-", "").replace(" ", "")))
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Certificate not found"));
+        return verifyStored(certificate);
+    }
 
+    private CertificateDtos.CertificateVerifyResponse verifyStored(Certificate certificate) {
+        boolean revoked = certificate.getRevokedAt() != null;
+        boolean signed = uidSigner.parse(certificate.getCertificateUid()) == null
+                || uidSigner.matches(certificate.getCertificateUid(), certificate.getStudentName(), certificate.getCourseTitle());
         return CertificateDtos.CertificateVerifyResponse.builder()
-                .valid(true)
+                .valid(!revoked && signed)
+                .revoked(revoked)
+                .certificateUid(certificate.getCertificateUid())
                 .studentName(certificate.getStudentName())
                 .courseTitle(certificate.getCourseTitle())
                 .collegeName(certificate.getCollegeName())
@@ -79,6 +160,142 @@ public class CertificateService {
                 .build();
     }
 
+    // Platform admins, or an admin of the issuing college
+    @Transactional
+    public CertificateDtos.CertificateResponse revokeCertificate(String email, Long certificateId) {
+        User requester = requireUser(email);
+        Certificate certificate = certificateRepository.findById(certificateId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Certificate not found"));
+        boolean platformAdmin = requester.getType() == UserType.ROOTADMIN || requester.getType() == UserType.SUPERADMIN;
+        boolean collegeAdmin = requester.getType() == UserType.ADMIN && requester.getCollege() != null
+                && requester.getCollege().getId().equals(certificate.getCollege().getId());
+        if (!platformAdmin && !collegeAdmin) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not allowed to revoke this certificate");
+        }
+        if (certificate.getRevokedAt() == null) {
+            certificate.setRevokedAt(LocalDateTime.now());
+            deletePublicCopy(certificate);
+            certificateRepository.save(certificate);
+            Set<Long> updated = new HashSet<>(revokedIds);
+            updated.add(certificate.getId());
+            revokedIds = Set.copyOf(updated);
+        }
+        return toResponse(certificate);
+    }
+
+    @Scheduled(fixedDelayString = "${app.certificate.revocation-refresh:PT1M}")
+    public void refreshRevocations() {
+        revokedIds = Set.copyOf(certificateRepository.findRevokedIds());
+    }
+
+    // The certificate for its owner or a staff member of the issuing college; pdfKey is null while it is still rendering
+    @Transactional
+    public Certificate getForDownload(String email, Long certificateId) {
+        User requester = requireUser(email);
+        Certificate certificate = certificateRepository.findById(certificateId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Certificate not found"));
+        boolean owner = certificate.getStudent().getId().equals(requester.getId());
+        boolean platformAdmin = requester.getType() == UserType.ROOTADMIN || requester.getType() == UserType.SUPERADMIN;
+        boolean collegeStaff = (requester.getType() == UserType.ADMIN || requester.getType() == UserType.FACULTY)
+                && requester.getCollege() != null
+                && requester.getCollege().getId().equals(certificate.getCollege().getId());
+        if (!owner && !platformAdmin && !collegeStaff) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not allowed to download this certificate");
+        }
+        if (certificate.getRevokedAt() != null) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Certificate has been revoked");
+        }
+        if (certificate.getPdfKey() == null && (certificate.getRenderStatus() == CertificateRenderStatus.FAILED
+                || certificate.getRenderStatus() == CertificateRenderStatus.NOT_REQUESTED || hasPublicCopy(certificate))) {
+            requestRender(certificate); // asked for explicitly, so worth another try
+        }
+        return certificate;
+    }
+
+    public Resource openPdf(Certificate certificate) {
+        try {
+            return new InputStreamResource(fileStorageService.open(certificate.getPdfKey()));
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Certificate PDF not found");
+        }
+    }
+
+    // Rendered before PDFs were kept private: served from /uploads to anyone with the URL
+    private static boolean hasPublicCopy(Certificate certificate) {
+        return certificate.getPdfKey() == null && certificate.getDownloadUrl() != null;
+    }
+
+    // Picks up renders lost to a restart or a full queue and retries failures, up to the attempt
+    // limit; also re-renders PDFs still public from before they were kept private
+    @Scheduled(initialDelayString = "${app.certificate.render-retry-initial-delay:PT2M}",
+            fixedDelayString = "${app.certificate.render-retry-interval:PT5M}")
+    @Transactional
+    public void requeueStalledRenders() {
+        List<Long> ids = certificateRepository.findIdsToRender(
+                EnumSet.of(CertificateRenderStatus.QUEUED, CertificateRenderStatus.RENDERING, CertificateRenderStatus.FAILED),
+                LocalDateTime.now().minus(renderRetryAfter), renderMaxAttempts, PageRequest.of(0, REQUEUE_BATCH));
+        for (Long id : ids) {
+            certificateRepository.findByIdForUpdate(id).ifPresent(this::requestRender);
+        }
+        if (!ids.isEmpty()) {
+            logger.info("Requeued {} certificate render(s)", ids.size());
+        }
+    }
+
+    // Queues the render once the caller's transaction commits, so the worker finds the row QUEUED
+    private void requestRender(Certificate certificate) {
+        deletePublicCopy(certificate);
+        certificate.setRenderStatus(CertificateRenderStatus.QUEUED);
+        certificate.setRenderRequestedAt(LocalDateTime.now());
+        certificateRepository.save(certificate);
+        Long certificateId = certificate.getId();
+        Runnable submit = () -> {
+            if (!submitRender(certificateId)) {
+                logger.warn("Certificate render queue full; certificate {} will be retried", certificateId);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit.run();
+                }
+            });
+        } else {
+            submit.run();
+        }
+    }
+
+    // The file goes once the cleared URL is committed; a rollback leaves both in place
+    private void deletePublicCopy(Certificate certificate) {
+        if (!hasPublicCopy(certificate)) return;
+        String url = certificate.getDownloadUrl();
+        certificate.setDownloadUrl(null);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    fileStorageService.delete(url);
+                }
+            });
+        } else {
+            fileStorageService.delete(url);
+        }
+    }
+
+    /**
+     * Hands a committed QUEUED certificate to the render executor. False when its queue is
+     * full; the row stays QUEUED and requeueStalledRenders picks it up later.
+     */
+    boolean submitRender(Long certificateId) {
+        try {
+            renderExecutor.execute(() -> renderJobRunner.run(certificateId));
+            return true;
+        } catch (TaskRejectedException e) {
+            return false;
+        }
+    }
+
     private CertificateDtos.CertificateResponse toResponse(Certificate certificate) {
         return CertificateDtos.CertificateResponse.builder()
                 .id(certificate.getId())
@@ -91,7 +308,9 @@ public class CertificateService {
                 .collegeName(certificate.getCollegeName())
                 .collegeLogoUrl(certificate.getCollege().getLogoUrl())
                 .issuedAt(certificate.getIssuedAt() != null ? certificate.getIssuedAt().toString() : null)
-                .downloadUrl(certificate.getDownloadUrl())
+                .downloadUrl(certificate.getPdfKey() != null ? "/api/certificates/" + certificate.getId() + "/pdf" : null)
+                .renderStatus(certificate.getRenderStatus() != null ? certificate.getRenderStatus().name() : null)
+                .revokedAt(certificate.getRevokedAt() != null ? certificate.getRevokedAt().toString() : null)
                 .build();
     }
 
@@ -0,0 +1,148 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Certificate UIDs that verify themselves. A UID is base32 of
+ * {@code version | id (5 bytes) | issue day (3) | name digest (4) | HMAC-SHA256 (10)}, where
+ * the name digest is taken over the student name and course title, so the MAC covers all four.
+ * {@link #parse} checks it without the database; only a detail view needs the row, and
+ * {@link #matches} then confirms the stored names are the ones that were signed.
+ */
+@Component
+public class CertificateUidSigner {
+    private static final byte VERSION = 1;
+    private static final int PAYLOAD_LENGTH = 13;
+    private static final int MAC_LENGTH = 10;
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567".toCharArray();
+    private static final long MAX_ID = (1L << 40) - 1;
+
+    public record Claims(long certificateId, LocalDate issuedOn) {
+    }
+
+    private final SecretKeySpec key;
+
+    public CertificateUidSigner(@Value("${app.certificate.signing-secret:${app.jwt.secret:change-me-secret}}") String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    public String sign(long certificateId, LocalDate issuedOn, String studentName, String courseTitle) {
+        if (certificateId < 0 || certificateId > MAX_ID) {
+            throw new IllegalArgumentException("Certificate id out of range: " + certificateId);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(PAYLOAD_LENGTH + MAC_LENGTH);
+        buffer.put(VERSION);
+        putUnsigned(buffer, certificateId, 5);
+        putUnsigned(buffer, issuedOn.toEpochDay(), 3);
+        buffer.put(nameDigest(studentName, courseTitle));
+        buffer.put(mac(Arrays.copyOf(buffer.array(), PAYLOAD_LENGTH)));
+        return encode(buffer.array());
+    }
+
+    // Null for anything that is not a UID this key signed, including legacy UUID UIDs
+    public Claims parse(String uid) {
+        byte[] bytes = decode(uid);
+        if (bytes == null || bytes.length != PAYLOAD_LENGTH + MAC_LENGTH || bytes[0] != VERSION) return null;
+        byte[] payload = Arrays.copyOf(bytes, PAYLOAD_LENGTH);
+        byte[] mac = Arrays.copyOfRange(bytes, PAYLOAD_LENGTH, bytes.length);
+        if (!MessageDigest.isEqual(mac, mac(payload))) return null;
+        ByteBuffer buffer = ByteBuffer.wrap(payload, 1, PAYLOAD_LENGTH - 1);
+        long id = getUnsigned(buffer, 5);
+        long epochDay = getUnsigned(buffer, 3);
+        return new Claims(id, LocalDate.ofEpochDay(epochDay));
+    }
+
+    // Whether a parsed UID was signed over these names, i.e. the stored row has not been altered
+    public boolean matches(String uid, String studentName, String courseTitle) {
+        byte[] bytes = decode(uid);
+        if (bytes == null || bytes.length != PAYLOAD_LENGTH + MAC_LENGTH) return false;
+        return MessageDigest.isEqual(Arrays.copyOfRange(bytes, 9, PAYLOAD_LENGTH), nameDigest(studentName, courseTitle));
+    }
+
+    private byte[] mac(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return Arrays.copyOf(mac.doFinal(payload), MAC_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    private static byte[] nameDigest(String studentName, String courseTitle) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((studentName != null ? studentName : "").getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update((courseTitle != null ? courseTitle : "").getBytes(StandardCharsets.UTF_8));
+            return Arrays.copyOf(digest.digest(), 4);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private static void putUnsigned(ByteBuffer buffer, long value, int bytes) {
+        for (int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+            buffer.put((byte) (value >>> shift));
+        }
+    }
+
+    private static long getUnsigned(ByteBuffer buffer, int bytes) {
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = (value << 8) | (buffer.get() & 0xFF);
+        }
+        return value;
+    }
+
+    private static String encode(byte[] bytes) {
+        StringBuilder out = new StringBuilder((bytes.length * 8 + 4) / 5);
+        int buffer = 0;
+        int bits = 0;
+        for (byte b : bytes) {
+            buffer = (buffer << 8) | (b & 0xFF);
+            bits += 8;
+            while (bits >= 5) {
+                out.append(ALPHABET[(buffer >>> (bits - 5)) & 31]);
+                bits -= 5;
+            }
+        }
+        if (bits > 0) out.append(ALPHABET[(buffer << (5 - bits)) & 31]);
+        return out.toString();
+    }
+
+    // Case-insensitive, ignores dashes and spaces people add when copying; null when not base32
+    private static byte[] decode(String text) {
+        if (text == null || text.length() > 64) return null;
+        String normalized = text.replace("-", "").replace(" ", "").toUpperCase(Locale.ROOT);
+        byte[] out = new byte[normalized.length() * 5 / 8];
+        int buffer = 0;
+        int bits = 0;
+        int index = 0;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            int value = c >= 'A' && c <= 'Z' ? c - 'A' : c >= '2' && c <= '7' ? c - '2' + 26 : -1;
+            if (value < 0) return null;
+            buffer = (buffer << 5) | value;
+            bits += 5;
+            if (bits >= 8) {
+                out[index++] = (byte) (buffer >>> (bits - 8));
+                bits -= 8;
+            }
+        }
+        // Only the canonical spelling is accepted: no spare character, and zero padding bits
+        if (bits >= 5 || (buffer & ((1 << bits) - 1)) != 0) return null;
+        return out;
+    }
+}
@@ -0,0 +1,104 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import in.bkitsolutions.lmsbackend.model.ChapterContent;
+import in.bkitsolutions.lmsbackend.repository.ChapterContentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reads and writes chapter bodies. Bodies of at least app.content.compress-threshold
+ * characters are stored gzip-compressed when that is smaller; the gzip header doubles as
+ * the format marker, and the bytes are exactly what a client sending Accept-Encoding: gzip
+ * can be given, so they are only inflated for clients that cannot take them.
+ */
+@Service
+@Transactional
+public class ChapterContentStore {
+    /** A body as sent on the wire: UTF-8 HTML, gzip-encoded when {@code gzip} is set. */
+    public record Body(byte[] bytes, boolean gzip) {
+    }
+
+    private final ChapterContentRepository chapterContentRepository;
+
+    @Value("${app.content.compress-threshold:1024}")
+    private int compressThreshold;
+
+    public ChapterContentStore(ChapterContentRepository chapterContentRepository) {
+        this.chapterContentRepository = chapterContentRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public String readHtml(Long chapterId) {
+        return chapterContentRepository.findById(chapterId).map(ChapterContentStore::html).orElse(null);
+    }
+
+    /** The stored bytes, inflated only when the client does not accept gzip. */
+    @Transactional(readOnly = true)
+    public Body readBody(Long chapterId, boolean acceptsGzip) {
+        ChapterContent stored = chapterContentRepository.findById(chapterId).orElse(null);
+        if (stored == null) return new Body(new byte[0], false);
+        if (stored.getContentGzip() != null && acceptsGzip) return new Body(stored.getContentGzip(), true);
+        String html = html(stored);
+        return new Body(html != null ? html.getBytes(StandardCharsets.UTF_8) : new byte[0], false);
+    }
+
+    public void write(Long chapterId, String html) {
+        chapterContentRepository.save(encode(chapterId, html));
+    }
+
+    /**
+     * Compresses one stored body in place and marks it checked either way; false if it was
+     * already compressed, is below the threshold or does not shrink.
+     */
+    public boolean compressStored(Long chapterId) {
+        ChapterContent stored = chapterContentRepository.findByIdForUpdate(chapterId).orElse(null);
+        if (stored == null) return false;
+        stored.setCompressChecked(true);
+        if (stored.getContentGzip() != null) return false;
+        ChapterContent encoded = encode(chapterId, stored.getContent());
+        if (encoded.getContentGzip() == null) return false;
+        stored.setContent(null);
+        stored.setContentGzip(encoded.getContentGzip());
+        return true;
+    }
+
+    private ChapterContent encode(Long chapterId, String html) {
+        if (html != null && html.length() >= compressThreshold) {
+            byte[] raw = html.getBytes(StandardCharsets.UTF_8);
+            byte[] gzip = gzip(raw);
+            if (gzip.length < raw.length) return new ChapterContent(chapterId, null, gzip, true);
+        }
+        return new ChapterContent(chapterId, html, null, true);
+    }
+
+    private static String html(ChapterContent stored) {
+        return stored.getContentGzip() != null ? gunzip(stored.getContentGzip()) : stored.getContent();
+    }
+
+    static byte[] gzip(byte[] raw) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    static String gunzip(byte[] compressed) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt compressed chapter content", e);
+        }
+    }
+}
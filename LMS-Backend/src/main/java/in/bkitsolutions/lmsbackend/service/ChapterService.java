@@ -1,11 +1,14 @@
 package in.bkitsolutions.lmsbackend.service;
 
 import in.bkitsolutions.lmsbackend.dto.ChapterDtos;
+import in.bkitsolutions.lmsbackend.dto.ContentVersion;
 import in.bkitsolutions.lmsbackend.model.Chapter;
+import in.bkitsolutions.lmsbackend.model.CurriculumTombstone;
 import in.bkitsolutions.lmsbackend.model.Topic;
 import in.bkitsolutions.lmsbackend.model.User;
 import in.bkitsolutions.lmsbackend.model.UserType;
 import in.bkitsolutions.lmsbackend.repository.ChapterRepository;
+import in.bkitsolutions.lmsbackend.repository.ChapterSummaryView;
 import in.bkitsolutions.lmsbackend.repository.TopicRepository;
 import in.bkitsolutions.lmsbackend.repository.UserRepository;
 import org.springframework.http.HttpStatus;
@@ -13,6 +16,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,14 +24,24 @@ import java.util.stream.Collectors;
 @Transactional
 public class ChapterService {
     private final ChapterRepository chapterRepository;
+    private final ChapterContentStore chapterContentStore;
     private final TopicRepository topicRepository;
     private final UserRepository userRepository;
+    private final ProgressCounterService progressCounterService;
+    private final DisplayOrderWriter displayOrderWriter;
+    private final CurriculumSyncService curriculumSyncService;
 
-    public ChapterService(ChapterRepository chapterRepository, TopicRepository topicRepository,
-            UserRepository userRepository) {
+    public ChapterService(ChapterRepository chapterRepository, ChapterContentStore chapterContentStore,
+            TopicRepository topicRepository, UserRepository userRepository,
+            ProgressCounterService progressCounterService, DisplayOrderWriter displayOrderWriter,
+            CurriculumSyncService curriculumSyncService) {
         this.chapterRepository = chapterRepository;
+        this.chapterContentStore = chapterContentStore;
         this.topicRepository = topicRepository;
         this.userRepository = userRepository;
+        this.progressCounterService = progressCounterService;
+        this.displayOrderWriter = displayOrderWriter;
+        this.curriculumSyncService = curriculumSyncService;
     }
 
     private User requireUser(String email) {
@@ -52,11 +66,11 @@ public class ChapterService {
         return topic;
     }
 
-    private ChapterDtos.ChapterResponse toResponse(Chapter chapter) {
+    private ChapterDtos.ChapterResponse toResponse(Chapter chapter, String content) {
         ChapterDtos.ChapterResponse response = new ChapterDtos.ChapterResponse();
         response.setId(chapter.getId());
         response.setTitle(chapter.getTitle());
-        response.setContent(chapter.getContent());
+        response.setContent(content);
         response.setContentType(chapter.getContentType());
         response.setVideoUrl(chapter.getVideoUrl());
         response.setVideoPlatform(chapter.getVideoPlatform());
@@ -73,7 +87,7 @@ public class ChapterService {
         return response;
     }
 
-    private ChapterDtos.ChapterSummary toSummary(Chapter chapter) {
+    private ChapterDtos.ChapterSummary toSummary(ChapterSummaryView chapter) {
         return new ChapterDtos.ChapterSummary(
             chapter.getId(), 
             chapter.getTitle(), 
@@ -84,6 +98,14 @@ public class ChapterService {
         );
     }
 
+    private String readContent(Long chapterId) {
+        return chapterContentStore.readHtml(chapterId);
+    }
+
+    private void writeContent(Long chapterId, String content) {
+        chapterContentStore.write(chapterId, content);
+    }
+
     public ChapterDtos.ChapterResponse createChapter(String requesterEmail, Long topicId,
             ChapterDtos.CreateChapterRequest req) {
         User requester = requireUser(requesterEmail);
@@ -94,7 +116,6 @@ public class ChapterService {
         Topic topic = requireOwnedTopic(requester, topicId);
         Chapter chapter = Chapter.builder()
                 .title(req.getTitle())
-                .content(req.getContent())
                 .contentType(req.getContentType() != null ? req.getContentType() : in.bkitsolutions.lmsbackend.model.ContentType.TEXT)
                 .videoUrl(req.getVideoUrl())
                 .videoPlatform(req.getVideoPlatform())
@@ -107,8 +128,11 @@ public class ChapterService {
                 .topic(topic)
                 .displayOrder(req.getDisplayOrder() != null ? req.getDisplayOrder() : 0)
                 .build();
+        curriculumSyncService.touch(chapter);
         Chapter saved = chapterRepository.save(chapter);
-        return toResponse(saved);
+        if (req.getContent() != null) writeContent(saved.getId(), req.getContent());
+        progressCounterService.chapterAdded(saved);
+        return toResponse(saved, req.getContent());
     }
 
     public ChapterDtos.ChapterResponse updateChapter(String requesterEmail, Long chapterId,
@@ -120,8 +144,10 @@ public class ChapterService {
         verifyTopicAccess(requester, topic);
         if (req.getTitle() != null)
             chapter.setTitle(req.getTitle());
-        if (req.getContent() != null)
-            chapter.setContent(req.getContent());
+        if (req.getContent() != null) {
+            writeContent(chapterId, req.getContent());
+            chapter.setUpdatedAt(LocalDateTime.now()); // bumps the version, so the ETag changes too
+        }
         if (req.getContentType() != null)
             chapter.setContentType(req.getContentType());
         if (req.getVideoUrl() != null)
@@ -142,8 +168,9 @@ public class ChapterService {
             chapter.setIsMandatory(req.getIsMandatory());
         if (req.getDisplayOrder() != null)
             chapter.setDisplayOrder(req.getDisplayOrder());
+        curriculumSyncService.touch(chapter);
         Chapter saved = chapterRepository.save(chapter);
-        return toResponse(saved);
+        return toResponse(saved, req.getContent() != null ? req.getContent() : readContent(chapterId));
     }
 
     public void deleteChapter(String requesterEmail, Long chapterId) {
@@ -152,6 +179,8 @@ public class ChapterService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Chapter not found"));
         Topic topic = chapter.getTopic();
         verifyTopicAccess(requester, topic);
+        progressCounterService.chapterRemoved(chapter);
+        curriculumSyncService.recordDeletion(topic.getCourse().getId(), CurriculumTombstone.CHAPTER, chapterId);
         chapterRepository.delete(chapter);
     }
 
@@ -172,7 +201,7 @@ public class ChapterService {
         // FACULTY and ADMIN can view all chapters
         if (requester.getType() == UserType.FACULTY || requester.getType() == UserType.ADMIN ||
             requester.getType() == UserType.SUPERADMIN || requester.getType() == UserType.ROOTADMIN) {
-            return chapterRepository.findByTopicIdOrderByDisplayOrderAsc(topicId)
+            return chapterRepository.findSummariesByTopicId(topicId)
                     .stream().map(this::toSummary).collect(Collectors.toList());
         }
         
@@ -187,7 +216,7 @@ public class ChapterService {
                 throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Topic not available");
             }
         }
-        return chapterRepository.findByTopicIdOrderByDisplayOrderAsc(topicId)
+        return chapterRepository.findSummariesByTopicId(topicId)
                 .stream().map(this::toSummary).collect(Collectors.toList());
     }
 
@@ -195,14 +224,37 @@ public class ChapterService {
         User requester = requireUser(requesterEmail);
         Chapter chapter = chapterRepository.findById(chapterId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Chapter not found"));
-        Topic topic = chapter.getTopic();
-        
+        verifyChapterReadAccess(requester, chapter.getTopic());
+        return toResponse(chapter, readContent(chapterId));
+    }
+
+    // Body of getChapterById as stored; the caller checks access via getChapterVersion first
+    @Transactional(readOnly = true)
+    public ChapterContentStore.Body getChapterBody(Long chapterId, boolean acceptsGzip) {
+        return chapterContentStore.readBody(chapterId, acceptsGzip);
+    }
+
+    // Validators for getChapterById; same access rules, but the chapter content is never loaded
+    public ContentVersion getChapterVersion(String requesterEmail, Long chapterId) {
+        User requester = requireUser(requesterEmail);
+        List<Object[]> stamp = chapterRepository.findVersionStampById(chapterId);
+        if (stamp.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Chapter not found");
+        }
+        Long topicId = (Long) stamp.get(0)[2];
+        Topic topic = topicRepository.findById(topicId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Topic not found"));
+        verifyChapterReadAccess(requester, topic);
+        return ContentVersion.of(chapterId, stamp.get(0)[0], stamp.get(0)[1], topicId);
+    }
+
+    private void verifyChapterReadAccess(User requester, Topic topic) {
         // FACULTY and ADMIN can view all chapters
         if (requester.getType() == UserType.FACULTY || requester.getType() == UserType.ADMIN ||
             requester.getType() == UserType.SUPERADMIN || requester.getType() == UserType.ROOTADMIN) {
-            return toResponse(chapter);
+            return;
         }
-        
+
         // Students can only see chapters of published topics from their college
         if (requester.getType() == UserType.USER) {
             if (!Boolean.TRUE.equals(topic.getPublished())) {
@@ -214,7 +266,6 @@ public class ChapterService {
                 throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Chapter not available");
             }
         }
-        return toResponse(chapter);
     }
 
     public void updateChapterOrder(String requesterEmail, Long chapterId, Integer displayOrder) {
@@ -228,6 +279,23 @@ public class ChapterService {
         Topic topic = chapter.getTopic();
         verifyTopicAccess(requester, topic);
         chapter.setDisplayOrder(displayOrder);
+        curriculumSyncService.touch(chapter);
         chapterRepository.save(chapter);
     }
+
+    /** Sets the order of all chapters of a topic at once; positions follow the list, starting at 1. */
+    public List<ChapterDtos.ChapterSummary> reorderChapters(String requesterEmail, Long topicId, List<Long> chapterIds) {
+        User requester = requireUser(requesterEmail);
+        if (requester.getType() != UserType.ADMIN && requester.getType() != UserType.FACULTY
+                && requester.getType() != UserType.SUPERADMIN && requester.getType() != UserType.ROOTADMIN) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not allowed");
+        }
+        Topic topic = topicRepository.findById(topicId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Topic not found"));
+        verifyTopicAccess(requester, topic);
+        displayOrderWriter.reorder("chapters", "topic_id", topicId, topic.getCourse().getId(),
+                chapterRepository.findDisplayOrdersByTopicId(topicId), chapterIds, "chapter of the topic");
+        return chapterRepository.findSummariesByTopicId(topicId)
+                .stream().map(this::toSummary).collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,137 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.bkitsolutions.lmsbackend.dto.ContentVersion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Serialized responses of the public college endpoints (login-page branding by code, the
+ * active college list), kept with their ETag so a hit costs a map lookup. CollegeService
+ * invalidates after commit; the TTL bounds what other instances may serve stale. Entries
+ * built while image variants are still rendering expire sooner, so the variant URLs show up
+ * once they exist. Each key maps to the future of its entry: one caller loads, outside any
+ * map lock, and concurrent callers for that key wait on its future.
+ */
+@Service
+public class CollegeBrandingCache {
+    private static final String ACTIVE_COLLEGES = "active";
+    private static final String BRANDING = "branding:";
+
+    /** A response body as sent, and its validators. */
+    public record Cached(byte[] json, ContentVersion version) {
+    }
+
+    /** What a loader returns: the body to serialize, and whether it is worth keeping only briefly. */
+    public record Loaded(Object body, boolean provisional) {
+    }
+
+    private record Entry(Cached cached, long expiresAt) {
+        boolean fresh(long now) {
+            return now - expiresAt < 0;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, CompletableFuture<Entry>> entries = new ConcurrentHashMap<>();
+
+    @Value("${app.college.branding-cache-ttl:PT5M}")
+    private Duration ttl;
+
+    @Value("${app.college.branding-cache-provisional-ttl:PT30S}")
+    private Duration provisionalTtl;
+
+    public CollegeBrandingCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public Cached branding(String code, Supplier<Loaded> loader) {
+        return get(BRANDING + code.toUpperCase(Locale.ROOT), loader);
+    }
+
+    public Cached activeColleges(Supplier<Loaded> loader) {
+        return get(ACTIVE_COLLEGES, loader);
+    }
+
+    /** Drops the branding of these codes and the active list once the current transaction commits. */
+    public void invalidate(String... codes) {
+        afterCommit(() -> {
+            for (String code : codes) {
+                if (code != null) entries.remove(BRANDING + code.toUpperCase(Locale.ROOT));
+            }
+            entries.remove(ACTIVE_COLLEGES);
+        });
+    }
+
+    private Cached get(String key, Supplier<Loaded> loader) {
+        while (true) {
+            CompletableFuture<Entry> current = entries.get(key);
+            if (current != null && !expired(current)) return await(current).cached();
+            // One load per key at a time: a cold start under a login storm queries once, the rest wait for it
+            CompletableFuture<Entry> mine = new CompletableFuture<>();
+            boolean claimed = current == null ? entries.putIfAbsent(key, mine) == null : entries.replace(key, current, mine);
+            if (!claimed) continue; // another caller started a load first
+            try {
+                Entry entry = load(loader);
+                mine.complete(entry);
+                return entry.cached();
+            } catch (RuntimeException e) {
+                entries.remove(key, mine); // the next caller tries again
+                mine.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    // Still loading counts as current; a failed load has already been removed from the map
+    private static boolean expired(CompletableFuture<Entry> future) {
+        return future.isDone() && !future.isCompletedExceptionally() && !future.join().fresh(System.nanoTime());
+    }
+
+    private static Entry await(CompletableFuture<Entry> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private Entry load(Supplier<Loaded> loader) {
+        Loaded loaded = loader.get();
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(loaded.body());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize college response", e);
+        }
+        ContentVersion version = new ContentVersion("\"" + DigestUtils.md5DigestAsHex(json) + "\"", -1);
+        Duration lifetime = loaded.provisional() ? provisionalTtl : ttl;
+        return new Entry(new Cached(json, version), System.nanoTime() + lifetime.toNanos());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package in.bkitsolutions.lmsbackend.service;
 
+import in.bkitsolutions.lmsbackend.dto.ApiResponse;
 import in.bkitsolutions.lmsbackend.dto.CollegeDtos;
 import in.bkitsolutions.lmsbackend.model.College;
 import in.bkitsolutions.lmsbackend.model.User;
@@ -11,6 +12,7 @@ import in.bkitsolutions.lmsbackend.repository.EnrollmentRepository;
 import in.bkitsolutions.lmsbackend.repository.UserRepository;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -27,16 +29,21 @@ public class CollegeService {
     private final TestRepository testRepository;
     private final EnrollmentRepository enrollmentRepository;
     private final FileStorageService fileStorageService;
+    private final ImageVariantService imageVariantService;
+    private final CollegeBrandingCache brandingCache;
 
     public CollegeService(CollegeRepository collegeRepository, UserRepository userRepository,
                           CourseRepository courseRepository, TestRepository testRepository,
-                          EnrollmentRepository enrollmentRepository, FileStorageService fileStorageService) {
+                          EnrollmentRepository enrollmentRepository, FileStorageService fileStorageService,
+                          ImageVariantService imageVariantService, CollegeBrandingCache brandingCache) {
         this.collegeRepository = collegeRepository;
         this.userRepository = userRepository;
         this.courseRepository = courseRepository;
         this.testRepository = testRepository;
         this.enrollmentRepository = enrollmentRepository;
         this.fileStorageService = fileStorageService;
+        this.imageVariantService = imageVariantService;
+        this.brandingCache = brandingCache;
     }
 
     public CollegeDtos.CollegeResponse createCollege(String requesterEmail, CollegeDtos.CreateCollegeRequest req) {
@@ -64,6 +71,7 @@ public class CollegeService {
                 .build();
 
         college = collegeRepository.save(college);
+        brandingCache.invalidate(college.getCode());
         return toResponse(college);
     }
 
@@ -83,6 +91,7 @@ public class CollegeService {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied to this college");
         }
 
+        String previousCode = college.getCode();
         if (req.getName() != null) college.setName(req.getName());
         if (req.getCode() != null) {
             if (!college.getCode().equals(req.getCode().toUpperCase()) && 
@@ -117,6 +126,7 @@ public class CollegeService {
         if (req.getIsActive() != null) college.setIsActive(req.getIsActive());
 
         college = collegeRepository.save(college);
+        brandingCache.invalidate(previousCode, college.getCode());
         return toResponse(college);
     }
 
@@ -132,6 +142,33 @@ public class CollegeService {
         return collegeRepository.findByIsActiveTrue().stream().map(this::toResponse).collect(Collectors.toList());
     }
 
+    // Public, on every login page load: served from CollegeBrandingCache. SUPPORTS so that a
+    // cache hit does not even borrow a connection; a miss loads through the repositories.
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CollegeBrandingCache.Cached getCachedActiveColleges() {
+        return brandingCache.activeColleges(() -> {
+            List<CollegeDtos.CollegeResponse> colleges = getActiveColleges();
+            boolean provisional = colleges.stream().anyMatch(c -> pending(c.getLogoUrl(), c.getLogoThumbnailUrl()));
+            return new CollegeBrandingCache.Loaded(ApiResponse.ok("Active colleges retrieved", colleges), provisional);
+        });
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CollegeBrandingCache.Cached getCachedCollegeBranding(String code) {
+        return brandingCache.branding(code, () -> {
+            CollegeDtos.CollegeBrandingResponse branding = getCollegeBranding(code);
+            boolean provisional = pending(branding.getLogoUrl(), branding.getLogoThumbnailUrl())
+                    || pending(branding.getLogoUrl(), branding.getLogoMediumUrl())
+                    || pending(branding.getBannerUrl(), branding.getBannerMediumUrl());
+            return new CollegeBrandingCache.Loaded(ApiResponse.ok("Branding retrieved", branding), provisional);
+        });
+    }
+
+    // variantUrl hands back the original while the variant is still being rendered
+    private static boolean pending(String originalUrl, String variantUrl) {
+        return originalUrl != null && originalUrl.equals(variantUrl);
+    }
+
     public CollegeDtos.CollegeResponse getCollege(Long collegeId) {
         College college = collegeRepository.findById(collegeId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "College not found"));
@@ -146,7 +183,10 @@ public class CollegeService {
                 .name(college.getName())
                 .code(college.getCode())
                 .logoUrl(college.getLogoUrl())
+                .logoThumbnailUrl(variant(college.getLogoUrl(), ImageVariantService.Variant.THUMBNAIL))
+                .logoMediumUrl(variant(college.getLogoUrl(), ImageVariantService.Variant.MEDIUM))
                 .bannerUrl(college.getBannerUrl())
+                .bannerMediumUrl(variant(college.getBannerUrl(), ImageVariantService.Variant.MEDIUM))
                 .primaryColor(college.getPrimaryColor())
                 .secondaryColor(college.getSecondaryColor())
                 .build();
@@ -161,6 +201,7 @@ public class CollegeService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "College not found"));
         college.setIsActive(!college.getIsActive());
         collegeRepository.save(college);
+        brandingCache.invalidate(college.getCode());
     }
 
     private CollegeDtos.CollegeResponse toResponse(College college) {
@@ -173,6 +214,7 @@ public class CollegeService {
                 .code(college.getCode())
                 .description(college.getDescription())
                 .logoUrl(college.getLogoUrl())
+                .logoThumbnailUrl(variant(college.getLogoUrl(), ImageVariantService.Variant.THUMBNAIL))
                 .bannerUrl(college.getBannerUrl())
                 .primaryColor(college.getPrimaryColor())
                 .secondaryColor(college.getSecondaryColor())
@@ -189,6 +231,10 @@ public class CollegeService {
                 .build();
     }
 
+    private String variant(String url, ImageVariantService.Variant variant) {
+        return url != null ? imageVariantService.variantUrl(url, variant) : null;
+    }
+
     private User requireUser(String email) {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
@@ -0,0 +1,359 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of 32-bit ids, laid out like a Roaring bitmap: ids are partitioned by
+ * their high 16 bits and each partition holds its low 16 bits either as a sorted array
+ * (up to 4096 values) or as a 65536-bit bitmap. Chapter ids of one course and student
+ * ids of one college are clustered, so most sets are a few small array containers.
+ *
+ * Serialized form: container count, then per container its key, cardinality - 1 and the
+ * values (array) or 1024 words (bitmap); the cardinality tells the reader which.
+ */
+public final class CompletionBitmap {
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+    private static final byte FORMAT = 1;
+
+    private char[] keys = new char[0];
+    private Container[] containers = new Container[0];
+    private int size;
+
+    public static CompletionBitmap of(Collection<Long> ids) {
+        CompletionBitmap bitmap = new CompletionBitmap();
+        ids.stream().sorted().forEach(bitmap::add);
+        return bitmap;
+    }
+
+    public boolean add(long id) {
+        int value = checked(id);
+        char key = (char) (value >>> 16);
+        int i = Arrays.binarySearch(keys, 0, size, key);
+        if (i < 0) {
+            i = -i - 1;
+            insertContainer(i, key, new Container());
+        }
+        return containers[i].add((char) value);
+    }
+
+    public boolean remove(long id) {
+        int value = checked(id);
+        int i = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        if (i < 0 || !containers[i].remove((char) value)) return false;
+        if (containers[i].cardinality == 0) removeContainer(i);
+        return true;
+    }
+
+    public boolean contains(long id) {
+        if (id < 0 || id > 0xFFFFFFFFL) return false;
+        int value = (int) id;
+        int i = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < size; i++) total += containers[i].cardinality;
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public CompletionBitmap and(CompletionBitmap other) {
+        CompletionBitmap result = new CompletionBitmap();
+        int i = 0, j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) i++;
+            else if (keys[i] > other.keys[j]) j++;
+            else {
+                Container c = containers[i].and(other.containers[j]);
+                if (c.cardinality > 0) result.appendContainer(keys[i], c);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public CompletionBitmap or(CompletionBitmap other) {
+        CompletionBitmap result = new CompletionBitmap();
+        int i = 0, j = 0;
+        while (i < size || j < other.size) {
+            if (j >= other.size || (i < size && keys[i] < other.keys[j])) {
+                result.appendContainer(keys[i], containers[i].copy());
+                i++;
+            } else if (i >= size || keys[i] > other.keys[j]) {
+                result.appendContainer(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.appendContainer(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public CompletionBitmap andNot(CompletionBitmap other) {
+        CompletionBitmap result = new CompletionBitmap();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) j++;
+            Container c = j < other.size && other.keys[j] == keys[i]
+                    ? containers[i].andNot(other.containers[j]) : containers[i].copy();
+            if (c.cardinality > 0) result.appendContainer(keys[i], c);
+        }
+        return result;
+    }
+
+    /** Ids in ascending order. */
+    public List<Long> toList() {
+        List<Long> ids = new ArrayList<>(cardinality());
+        for (int i = 0; i < size; i++) {
+            long high = (long) keys[i] << 16;
+            containers[i].forEach(low -> ids.add(high | low));
+        }
+        return ids;
+    }
+
+    public byte[] serialize() {
+        int bytes = 1 + 4;
+        for (int i = 0; i < size; i++) bytes += 4 + containers[i].serializedSize();
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        buffer.put(FORMAT).putInt(size);
+        for (int i = 0; i < size; i++) {
+            Container c = containers[i];
+            buffer.putChar(keys[i]).putChar((char) (c.cardinality - 1));
+            if (c.bits == null) {
+                for (int k = 0; k < c.cardinality; k++) buffer.putChar(c.values[k]);
+            } else {
+                for (long word : c.bits) buffer.putLong(word);
+            }
+        }
+        return buffer.array();
+    }
+
+    public static CompletionBitmap deserialize(byte[] data) {
+        CompletionBitmap bitmap = new CompletionBitmap();
+        if (data == null || data.length == 0) return bitmap;
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (buffer.get() != FORMAT) throw new IllegalArgumentException("Unknown completion bitmap format");
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            char key = buffer.getChar();
+            int cardinality = buffer.getChar() + 1;
+            Container c = new Container();
+            c.cardinality = cardinality;
+            if (cardinality <= ARRAY_MAX) {
+                c.values = new char[Math.max(cardinality, 4)];
+                for (int k = 0; k < cardinality; k++) c.values[k] = buffer.getChar();
+            } else {
+                c.values = null;
+                c.bits = new long[WORDS];
+                for (int w = 0; w < WORDS; w++) c.bits[w] = buffer.getLong();
+            }
+            bitmap.appendContainer(key, c);
+        }
+        return bitmap;
+    }
+
+    private static int checked(long id) {
+        if (id < 0 || id > 0xFFFFFFFFL) throw new IllegalArgumentException("Id out of bitmap range: " + id);
+        return (int) id;
+    }
+
+    private void insertContainer(int index, char key, Container container) {
+        ensureCapacity(size + 1);
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void appendContainer(char key, Container container) {
+        ensureCapacity(size + 1);
+        keys[size] = key;
+        containers[size] = container;
+        size++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        containers[--size] = null;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= keys.length) return;
+        int capacity = Math.max(needed, Math.max(4, keys.length * 2));
+        keys = Arrays.copyOf(keys, capacity);
+        containers = Arrays.copyOf(containers, capacity);
+    }
+
+    /** Low 16 bits of one partition: sorted {@code values} or, past ARRAY_MAX, {@code bits}. */
+    private static final class Container {
+        char[] values = new char[4];
+        long[] bits;
+        int cardinality;
+
+        boolean add(char low) {
+            if (bits != null) {
+                long before = bits[low >>> 6];
+                bits[low >>> 6] |= 1L << low;
+                if (before == bits[low >>> 6]) return false;
+                cardinality++;
+                return true;
+            }
+            int i = Arrays.binarySearch(values, 0, cardinality, low);
+            if (i >= 0) return false;
+            i = -i - 1;
+            if (cardinality == ARRAY_MAX) {
+                toBits();
+                return add(low);
+            }
+            if (cardinality == values.length) values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = low;
+            cardinality++;
+            return true;
+        }
+
+        boolean remove(char low) {
+            if (bits != null) {
+                long before = bits[low >>> 6];
+                bits[low >>> 6] &= ~(1L << low);
+                if (before == bits[low >>> 6]) return false;
+                if (--cardinality <= ARRAY_MAX) toArray();
+                return true;
+            }
+            int i = Arrays.binarySearch(values, 0, cardinality, low);
+            if (i < 0) return false;
+            System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+            cardinality--;
+            return true;
+        }
+
+        boolean contains(char low) {
+            if (bits != null) return (bits[low >>> 6] & (1L << low)) != 0;
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        Container and(Container other) {
+            if (bits != null && other.bits != null) {
+                long[] words = new long[WORDS];
+                for (int w = 0; w < WORDS; w++) words[w] = bits[w] & other.bits[w];
+                return fromBits(words);
+            }
+            Container small = bits == null ? this : other;
+            Container large = small == this ? other : this;
+            Container result = new Container();
+            result.values = new char[Math.max(small.cardinality, 4)];
+            for (int k = 0; k < small.cardinality; k++) {
+                if (large.contains(small.values[k])) result.values[result.cardinality++] = small.values[k];
+            }
+            return result;
+        }
+
+        Container or(Container other) {
+            if (bits == null && other.bits == null && cardinality + other.cardinality <= ARRAY_MAX) {
+                Container result = new Container();
+                result.values = new char[Math.max(cardinality + other.cardinality, 4)];
+                int i = 0, j = 0;
+                while (i < cardinality || j < other.cardinality) {
+                    char next;
+                    if (j >= other.cardinality || (i < cardinality && values[i] < other.values[j])) next = values[i++];
+                    else if (i >= cardinality || values[i] > other.values[j]) next = other.values[j++];
+                    else {
+                        next = values[i++];
+                        j++;
+                    }
+                    result.values[result.cardinality++] = next;
+                }
+                return result;
+            }
+            long[] words = words();
+            long[] otherWords = other.words();
+            for (int w = 0; w < WORDS; w++) words[w] |= otherWords[w];
+            return fromBits(words);
+        }
+
+        Container andNot(Container other) {
+            if (bits != null) {
+                long[] words = bits.clone();
+                long[] otherWords = other.words();
+                for (int w = 0; w < WORDS; w++) words[w] &= ~otherWords[w];
+                return fromBits(words);
+            }
+            Container result = new Container();
+            result.values = new char[Math.max(cardinality, 4)];
+            for (int k = 0; k < cardinality; k++) {
+                if (!other.contains(values[k])) result.values[result.cardinality++] = values[k];
+            }
+            return result;
+        }
+
+        Container copy() {
+            Container c = new Container();
+            c.cardinality = cardinality;
+            c.values = values != null ? values.clone() : null;
+            c.bits = bits != null ? bits.clone() : null;
+            return c;
+        }
+
+        void forEach(IntConsumer action) {
+            if (bits == null) {
+                for (int k = 0; k < cardinality; k++) action.accept(values[k]);
+                return;
+            }
+            for (int w = 0; w < WORDS; w++) {
+                long word = bits[w];
+                while (word != 0) {
+                    action.accept(w * 64 + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        int serializedSize() {
+            return bits == null ? cardinality * 2 : WORDS * 8;
+        }
+
+        private long[] words() {
+            if (bits != null) return bits.clone();
+            long[] words = new long[WORDS];
+            for (int k = 0; k < cardinality; k++) words[values[k] >>> 6] |= 1L << values[k];
+            return words;
+        }
+
+        private void toBits() {
+            bits = words();
+            values = null;
+        }
+
+        private void toArray() {
+            char[] array = new char[Math.max(cardinality, 4)];
+            int[] n = {0};
+            forEach(low -> array[n[0]++] = (char) low);
+            values = array;
+            bits = null;
+        }
+
+        private static Container fromBits(long[] words) {
+            Container c = new Container();
+            c.values = null;
+            c.bits = words;
+            for (long word : words) c.cardinality += Long.bitCount(word);
+            if (c.cardinality <= ARRAY_MAX) c.toArray();
+            return c;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import in.bkitsolutions.lmsbackend.dto.ProgressDtos;
+import in.bkitsolutions.lmsbackend.model.ChapterCompletionBitmap;
+import in.bkitsolutions.lmsbackend.model.Course;
+import in.bkitsolutions.lmsbackend.model.CourseCompletionBitmap;
+import in.bkitsolutions.lmsbackend.model.User;
+import in.bkitsolutions.lmsbackend.model.UserType;
+import in.bkitsolutions.lmsbackend.repository.ChapterCompletionBitmapRepository;
+import in.bkitsolutions.lmsbackend.repository.ChapterProgressRepository;
+import in.bkitsolutions.lmsbackend.repository.ChapterRepository;
+import in.bkitsolutions.lmsbackend.repository.CourseCompletionBitmapRepository;
+import in.bkitsolutions.lmsbackend.repository.CourseRepository;
+import in.bkitsolutions.lmsbackend.repository.EnrollmentRepository;
+import in.bkitsolutions.lmsbackend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Completion bitmaps kept alongside chapter_progress: per (course, student) the completed
+ * chapter ids, and per chapter the ids of the students who completed it. Rows that do not
+ * exist yet (completions recorded before the bitmaps) are built from chapter_progress by
+ * the first writer; readers build them in memory and never insert. The per-chapter row is
+ * written after the completion commits, in its own transaction, so it is never locked
+ * alongside the course row.
+ */
+@Service
+@Transactional
+public class CompletionBitmapService {
+    private static final Logger logger = LoggerFactory.getLogger(CompletionBitmapService.class);
+    private static final int LOCK_BATCH = 1000;
+
+    private final CourseCompletionBitmapRepository courseBitmapRepository;
+    private final ChapterCompletionBitmapRepository chapterBitmapRepository;
+    private final ChapterProgressRepository chapterProgressRepository;
+    private final ChapterRepository chapterRepository;
+    private final CourseRepository courseRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate chapterTx;
+
+    public CompletionBitmapService(CourseCompletionBitmapRepository courseBitmapRepository,
+                                   ChapterCompletionBitmapRepository chapterBitmapRepository,
+                                   ChapterProgressRepository chapterProgressRepository,
+                                   ChapterRepository chapterRepository, CourseRepository courseRepository,
+                                   EnrollmentRepository enrollmentRepository, UserRepository userRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.courseBitmapRepository = courseBitmapRepository;
+        this.chapterBitmapRepository = chapterBitmapRepository;
+        this.chapterProgressRepository = chapterProgressRepository;
+        this.chapterRepository = chapterRepository;
+        this.courseRepository = courseRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.userRepository = userRepository;
+        // Runs from afterCommit, where the finished transaction's connection is still bound
+        this.chapterTx = new TransactionTemplate(transactionManager);
+        this.chapterTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    private User requireUser(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+    }
+
+    // --- Bookkeeping (called from ProgressCounterService) ---
+
+    /**
+     * The course row is per student and updated in the caller's transaction. The per-chapter
+     * row is shared by every student of the course, so it is updated after the caller commits,
+     * holding its lock only for that one statement pair. If that update fails the row is
+     * dropped and rebuilt from chapter_progress by the next writer.
+     */
+    public void recordCompletion(Long courseId, Long chapterId, Long studentId) {
+        CourseCompletionBitmap courseRow = lockCourseRow(courseId, studentId);
+        CompletionBitmap chapters = CompletionBitmap.deserialize(courseRow.getChapterBits());
+        if (chapters.add(chapterId)) {
+            courseRow.setChapterBits(chapters.serialize());
+            courseRow.setCompletedCount(chapters.cardinality());
+        }
+
+        Runnable addStudent = () -> addChapterCompleter(chapterId, studentId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addStudent.run();
+                }
+            });
+        } else {
+            addStudent.run();
+        }
+    }
+
+    private void addChapterCompleter(Long chapterId, Long studentId) {
+        try {
+            chapterTx.executeWithoutResult(status -> {
+                ChapterCompletionBitmap chapterRow = lockChapterRow(chapterId);
+                CompletionBitmap students = CompletionBitmap.deserialize(chapterRow.getStudentBits());
+                if (students.add(studentId)) {
+                    chapterRow.setStudentBits(students.serialize());
+                    chapterRow.setCompletedCount(students.cardinality());
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Could not update completion bitmap of chapter {}; dropping it to be rebuilt", chapterId, e);
+            try {
+                chapterTx.executeWithoutResult(status -> chapterBitmapRepository.deleteByChapterIdIn(List.of(chapterId)));
+            } catch (RuntimeException again) {
+                logger.error("Completion bitmap of chapter {} may be missing student {}", chapterId, studentId, again);
+            }
+        }
+    }
+
+    /** Must run before the course's chapters are deleted. */
+    public void courseRemoved(Long courseId) {
+        chapterBitmapRepository.deleteByCourseId(courseId);
+        courseBitmapRepository.deleteByCourseId(courseId);
+    }
+
+    /** Must run while the chapters' progress rows still exist (their bitmaps may be built from them). */
+    public void chaptersRemoved(Long courseId, Collection<Long> chapterIds) {
+        CompletionBitmap removed = CompletionBitmap.of(chapterIds);
+        CompletionBitmap affected = new CompletionBitmap();
+        for (CompletionBitmap students : chapterCompleters(chapterIds).values()) {
+            affected = affected.or(students);
+        }
+        List<Long> studentIds = affected.toList();
+        for (int from = 0; from < studentIds.size(); from += LOCK_BATCH) {
+            List<Long> batch = studentIds.subList(from, Math.min(from + LOCK_BATCH, studentIds.size()));
+            for (CourseCompletionBitmap row : courseBitmapRepository.findForUpdate(courseId, batch)) {
+                CompletionBitmap chapters = CompletionBitmap.deserialize(row.getChapterBits()).andNot(removed);
+                row.setChapterBits(chapters.serialize());
+                row.setCompletedCount(chapters.cardinality());
+            }
+        }
+        chapterBitmapRepository.deleteByChapterIdIn(chapterIds);
+    }
+
+    public CompletionBitmap completedChapters(Long courseId, Long studentId) {
+        return courseBitmapRepository.findByCourseIdAndStudentId(courseId, studentId)
+                .map(row -> CompletionBitmap.deserialize(row.getChapterBits()))
+                .orElseGet(() -> CompletionBitmap.of(
+                        chapterProgressRepository.findCompletedChapterIds(courseId, studentId)));
+    }
+
+    public Map<Long, CompletionBitmap> chapterCompleters(Collection<Long> chapterIds) {
+        Map<Long, CompletionBitmap> byChapter = new HashMap<>();
+        if (chapterIds.isEmpty()) return byChapter;
+        for (ChapterCompletionBitmap row : chapterBitmapRepository.findByChapterIdIn(chapterIds)) {
+            byChapter.put(row.getChapterId(), CompletionBitmap.deserialize(row.getStudentBits()));
+        }
+        for (Long chapterId : chapterIds) {
+            byChapter.computeIfAbsent(chapterId,
+                    id -> CompletionBitmap.of(chapterProgressRepository.findCompletedStudentIds(id)));
+        }
+        return byChapter;
+    }
+
+    // --- Queries ---
+
+    @Transactional(readOnly = true)
+    public ProgressDtos.CourseCompletionResponse getCourseCompletion(String studentEmail, Long courseId) {
+        User student = requireUser(studentEmail);
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found"));
+        boolean sameCollege = student.getCollege() != null && course.getCollege() != null
+                && student.getCollege().getId().equals(course.getCollege().getId());
+        if (!sameCollege && !enrollmentRepository.existsByCourseIdAndStudentId(courseId, student.getId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied");
+        }
+        CompletionBitmap courseChapters = CompletionBitmap.of(chapterRepository.findIdsByCourseId(courseId));
+        CompletionBitmap completed = completedChapters(courseId, student.getId()).and(courseChapters);
+        CompletionBitmap mandatory = CompletionBitmap.of(chapterRepository.findMandatoryIdsByCourseId(courseId));
+        CompletionBitmap remaining = mandatory.andNot(completed);
+
+        return ProgressDtos.CourseCompletionResponse.builder()
+                .courseId(courseId)
+                .totalChapters(courseChapters.cardinality())
+                .completedCount(completed.cardinality())
+                .completedChapterIds(completed.toList())
+                .mandatoryTotal(mandatory.cardinality())
+                .mandatoryRemainingIds(remaining.toList())
+                .mandatoryCompleted(remaining.isEmpty())
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public ProgressDtos.CohortCompletionResponse getCohortCompletion(String requesterEmail, Long courseId,
+                                                                     List<Long> chapterIds, String match) {
+        User requester = requireUser(requesterEmail);
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found"));
+        verifyCohortAccess(requester, course);
+
+        boolean matchAll;
+        if (match == null || match.equalsIgnoreCase("ALL")) matchAll = true;
+        else if (match.equalsIgnoreCase("ANY")) matchAll = false;
+        else throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "match must be ALL or ANY");
+
+        List<Long> courseChapterIds = chapterRepository.findIdsByCourseId(courseId);
+        List<Long> selected = chapterIds == null || chapterIds.isEmpty() ? courseChapterIds : chapterIds;
+        CompletionBitmap courseChapters = CompletionBitmap.of(courseChapterIds);
+        for (Long chapterId : selected) {
+            if (!courseChapters.contains(chapterId)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Chapter " + chapterId + " does not belong to this course");
+            }
+        }
+
+        Map<Long, CompletionBitmap> byChapter = chapterCompleters(selected);
+        Map<Long, Integer> completionsByChapter = new LinkedHashMap<>();
+        CompletionBitmap cohort = null;
+        for (Long chapterId : selected) {
+            CompletionBitmap students = byChapter.get(chapterId);
+            completionsByChapter.put(chapterId, students.cardinality());
+            if (cohort == null) cohort = students;
+            else cohort = matchAll ? cohort.and(students) : cohort.or(students);
+        }
+        if (cohort == null) cohort = new CompletionBitmap();
+
+        return ProgressDtos.CohortCompletionResponse.builder()
+                .courseId(courseId)
+                .match(matchAll ? "ALL" : "ANY")
+                .chapterIds(selected)
+                .studentCount(cohort.cardinality())
+                .studentIds(cohort.toList())
+                .completionsByChapter(completionsByChapter)
+                .build();
+    }
+
+    private void verifyCohortAccess(User requester, Course course) {
+        if (requester.getType() == UserType.SUPERADMIN || requester.getType() == UserType.ROOTADMIN) return;
+        if ((requester.getType() == UserType.ADMIN || requester.getType() == UserType.FACULTY)
+                && requester.getCollege() != null && course.getCollege() != null
+                && requester.getCollege().getId().equals(course.getCollege().getId())) return;
+        throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied");
+    }
+
+    private CourseCompletionBitmap lockCourseRow(Long courseId, Long studentId) {
+        return courseBitmapRepository.findForUpdate(courseId, studentId).orElseGet(() -> {
+            CompletionBitmap built = CompletionBitmap.of(
+                    chapterProgressRepository.findCompletedChapterIds(courseId, studentId));
+            courseBitmapRepository.insertIfAbsent(courseId, studentId, built.serialize(), built.cardinality());
+            return courseBitmapRepository.findForUpdate(courseId, studentId).orElseThrow();
+        });
+    }
+
+    private ChapterCompletionBitmap lockChapterRow(Long chapterId) {
+        return chapterBitmapRepository.findForUpdate(chapterId).orElseGet(() -> {
+            CompletionBitmap built = CompletionBitmap.of(chapterProgressRepository.findCompletedStudentIds(chapterId));
+            chapterBitmapRepository.insertIfAbsent(chapterId, built.serialize(), built.cardinality());
+            return chapterBitmapRepository.findForUpdate(chapterId).orElseThrow();
+        });
+    }
+}
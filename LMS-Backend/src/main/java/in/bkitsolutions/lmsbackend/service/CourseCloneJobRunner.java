@@ -0,0 +1,89 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import in.bkitsolutions.lmsbackend.model.CloneJobStatus;
+import in.bkitsolutions.lmsbackend.model.Course;
+import in.bkitsolutions.lmsbackend.model.CourseCloneJob;
+import in.bkitsolutions.lmsbackend.repository.CourseCloneJobRepository;
+import in.bkitsolutions.lmsbackend.repository.CourseRepository;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Executes queued clone jobs on the courseCloneExecutor. The copy itself is one transaction;
+ * its progress is kept in memory by CourseCloneService for pollers, and the job row is
+ * written before and after it, never alongside it.
+ */
+@Component
+public class CourseCloneJobRunner extends BackgroundJobRunner<CourseCloneJob> {
+    private final CourseCloneJobRepository cloneJobRepository;
+    private final CourseRepository courseRepository;
+    private final CourseCloneService courseCloneService;
+    private final TransactionTemplate cloneTx;
+
+    public CourseCloneJobRunner(CourseCloneJobRepository cloneJobRepository, CourseRepository courseRepository,
+                                CourseCloneService courseCloneService, PlatformTransactionManager transactionManager) {
+        super(cloneJobRepository, "Course clone job", transactionManager);
+        this.cloneJobRepository = cloneJobRepository;
+        this.courseRepository = courseRepository;
+        this.courseCloneService = courseCloneService;
+        this.cloneTx = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    protected boolean markRunning(Long jobId) {
+        return cloneJobRepository.transition(jobId, CloneJobStatus.QUEUED, CloneJobStatus.RUNNING) == 1;
+    }
+
+    @Override
+    protected void markFailed(CourseCloneJob job, String message) {
+        job.setStatus(CloneJobStatus.FAILED);
+        job.setErrorMessage(message);
+        job.setCompletedAt(LocalDateTime.now());
+    }
+
+    @Async("courseCloneExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void run(CourseCloneService.CloneRequested event) {
+        Long jobId = event.jobId();
+        CourseCloneJob claimed = claim(jobId, job -> {
+            job.setStage("COURSE");
+            job.setStartedAt(LocalDateTime.now());
+        });
+        if (claimed == null) return;
+        try {
+            CourseCloneService.CloneResult result = cloneTx.execute(status -> {
+                CourseCloneJob job = cloneJobRepository.findById(jobId)
+                        .orElseThrow(() -> new IllegalStateException("Clone job " + jobId + " not found"));
+                Course original = courseRepository.findById(job.getSourceCourseId())
+                        .orElseThrow(() -> new IllegalStateException("Source course " + job.getSourceCourseId() + " no longer exists"));
+                return courseCloneService.deepClone(original, job.getRequestedBy(), job.getTargetCollege(),
+                        Boolean.TRUE.equals(job.getIncludeTests()),
+                        (stage, percent, soFar) -> courseCloneService.reportProgress(jobId, stage, percent, soFar));
+            });
+            update(jobId, job -> {
+                applyCounts(job, "DONE", 100, result);
+                job.setTargetCourseId(result.courseId);
+                job.setStatus(CloneJobStatus.COMPLETED);
+                job.setCompletedAt(LocalDateTime.now());
+            });
+        } catch (RuntimeException e) {
+            fail(jobId, e);
+        } finally {
+            courseCloneService.clearProgress(jobId);
+        }
+    }
+
+    private static void applyCounts(CourseCloneJob job, String stage, int percent, CourseCloneService.CloneResult counts) {
+        job.setStage(stage);
+        job.setProgressPercent(percent);
+        job.setTopicsCopied(counts.topics);
+        job.setChaptersCopied(counts.chapters);
+        job.setTestsCopied(counts.tests);
+        job.setQuestionsCopied(counts.questions);
+    }
+}
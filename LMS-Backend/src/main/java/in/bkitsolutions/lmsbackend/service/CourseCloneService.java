@@ -0,0 +1,347 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import in.bkitsolutions.lmsbackend.dto.CourseDtos;
+import in.bkitsolutions.lmsbackend.model.*;
+import in.bkitsolutions.lmsbackend.repository.CourseCloneJobRepository;
+import in.bkitsolutions.lmsbackend.repository.CourseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Deep course copy. The course row goes through JPA; topics, chapters, chapter contents,
+ * tests and questions are copied server-side with INSERT ... SELECT so LONGTEXT content
+ * never round-trips through the JVM. Rows whose new ids are needed for remapping (topics,
+ * tests) are inserted as one JDBC batch and mapped back through the generated keys.
+ */
+@Service
+@Transactional
+public class CourseCloneService {
+    private static final Logger logger = LoggerFactory.getLogger(CourseCloneService.class);
+
+    private static final String COPY_TOPIC =
+            "INSERT INTO topics (title, description, course_id, created_by, published, display_order,"
+            + " created_at, updated_at, version)"
+            + " SELECT title, description, ?, ?, published, display_order, NOW(), NOW(), 0 FROM topics WHERE id = ?";
+
+    private static final String COPY_CHAPTERS =
+            "INSERT INTO chapters (title, content_type, video_url, video_platform, document_url,"
+            + " document_name, document_type, test_id, estimated_minutes, is_mandatory, topic_id, display_order,"
+            + " created_at, updated_at, version)"
+            + " SELECT title, content_type, video_url, video_platform, document_url,"
+            + " document_name, document_type, test_id, estimated_minutes, is_mandatory, ?, display_order,"
+            + " NOW(), NOW(), 0 FROM chapters WHERE topic_id = ? ORDER BY id";
+
+    // COPY_CHAPTERS inserts in source id order, so the n-th new chapter of a topic is a copy of the n-th old one
+    private static final String COPY_CHAPTER_CONTENTS =
+            "INSERT INTO chapter_contents (chapter_id, content, content_gzip, compress_checked)"
+            + " SELECT n.id, cc.content, cc.content_gzip, cc.compress_checked"
+            + " FROM (SELECT id, ROW_NUMBER() OVER (ORDER BY id) AS rn FROM chapters WHERE topic_id = ?) n"
+            + " JOIN (SELECT id, ROW_NUMBER() OVER (ORDER BY id) AS rn FROM chapters WHERE topic_id = ?) o ON o.rn = n.rn"
+            + " JOIN chapter_contents cc ON cc.chapter_id = o.id";
+
+    // Copies start unpublished, like the cloned course
+    private static final String COPY_TEST =
+            "INSERT INTO tests (title, description, created_by, start_time, end_time, total_marks, published,"
+            + " max_attempts, proctored, duration_minutes, instructions, passing_percentage, difficulty_level,"
+            + " show_results_immediately, allow_review, max_violations)"
+            + " SELECT title, description, ?, start_time, end_time, total_marks, false,"
+            + " max_attempts, proctored, duration_minutes, instructions, passing_percentage, difficulty_level,"
+            + " show_results_immediately, allow_review, max_violations FROM tests WHERE id = ?";
+
+    private static final String COPY_QUESTIONS =
+            "INSERT INTO questions (test_id, question_text, marks, negative_marks, question_type,"
+            + " option_a, option_b, option_c, option_d, correct_option, correct_options_csv, correct_answer,"
+            + " character_limit, image_url, allow_file_upload, file_upload_instructions)"
+            + " SELECT ?, question_text, marks, negative_marks, question_type,"
+            + " option_a, option_b, option_c, option_d, correct_option, correct_options_csv, correct_answer,"
+            + " character_limit, image_url, allow_file_upload, file_upload_instructions"
+            + " FROM questions WHERE test_id = ?";
+
+    /** Receives stage changes during a clone; percent is 0-100. */
+    public interface ProgressListener {
+        void onProgress(String stage, int percent, CloneResult soFar);
+    }
+
+    /** Picked up by CourseCloneJobRunner after the job row commits. */
+    public record CloneRequested(Long jobId) {
+    }
+
+    public static class CloneResult {
+        public Long courseId;
+        public int topics;
+        public int chapters;
+        public int tests;
+        public int questions;
+    }
+
+    // Copy progress of clones running on this node. Kept here rather than written to the job
+    // row mid-copy, which would need a second pooled connection next to the clone's own
+    private record LiveProgress(String stage, int percent, int topics, int chapters, int tests, int questions) {
+    }
+
+    private final Map<Long, LiveProgress> liveProgress = new ConcurrentHashMap<>();
+
+    @Value("${app.clone.stale-after:PT2H}")
+    private Duration staleAfter;
+
+    private final CourseRepository courseRepository;
+    private final CourseCloneJobRepository cloneJobRepository;
+    private final CourseFacetIndex courseFacetIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+
+    public CourseCloneService(CourseRepository courseRepository, CourseCloneJobRepository cloneJobRepository,
+                              CourseFacetIndex courseFacetIndex, ApplicationEventPublisher eventPublisher,
+                              JdbcTemplate jdbcTemplate) {
+        this.courseRepository = courseRepository;
+        this.cloneJobRepository = cloneJobRepository;
+        this.courseFacetIndex = courseFacetIndex;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Queues an asynchronous deep clone. */
+    public CourseDtos.CloneJobResponse enqueue(Course original, User requester, College college, boolean includeTests) {
+        CourseCloneJob job = cloneJobRepository.save(CourseCloneJob.builder()
+                .sourceCourseId(original.getId())
+                .targetCollege(college)
+                .requestedBy(requester)
+                .includeTests(includeTests)
+                .stage("QUEUED")
+                .build());
+        eventPublisher.publishEvent(new CloneRequested(job.getId()));
+        return toJobResponse(job);
+    }
+
+    @Transactional(readOnly = true)
+    public CourseDtos.CloneJobResponse getJob(User requester, Long jobId) {
+        CourseCloneJob job = cloneJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Clone job not found"));
+        if (requester.getType() != UserType.SUPERADMIN && requester.getType() != UserType.ROOTADMIN
+                && !job.getRequestedBy().getId().equals(requester.getId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied");
+        }
+        CourseDtos.CloneJobResponse response = toJobResponse(job);
+        LiveProgress live = liveProgress.get(jobId);
+        if (live != null && job.getStatus() == CloneJobStatus.RUNNING) {
+            response.setStage(live.stage());
+            response.setProgressPercent(live.percent());
+            response.setTopicsCopied(live.topics());
+            response.setChaptersCopied(live.chapters());
+            response.setTestsCopied(live.tests());
+            response.setQuestionsCopied(live.questions());
+        }
+        return response;
+    }
+
+    // Called by CourseCloneJobRunner from inside the clone transaction; touches no database
+    void reportProgress(Long jobId, String stage, int percent, CloneResult soFar) {
+        liveProgress.put(jobId, new LiveProgress(stage, percent, soFar.topics, soFar.chapters, soFar.tests, soFar.questions));
+    }
+
+    void clearProgress(Long jobId) {
+        liveProgress.remove(jobId);
+    }
+
+    /**
+     * Fails clone jobs lost to a restart or a full clone queue: still QUEUED, or RUNNING
+     * without finishing, after app.clone.stale-after. A lost clone never committed anything,
+     * so the requester only has to start it again.
+     */
+    @Scheduled(initialDelayString = "${app.clone.stale-sweep-initial-delay:PT5M}",
+            fixedDelayString = "${app.clone.stale-sweep-interval:PT15M}")
+    public void failStaleJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(staleAfter);
+        List<CourseCloneJob> stale = new ArrayList<>(
+                cloneJobRepository.findByStatusAndCreatedAtBefore(CloneJobStatus.QUEUED, cutoff));
+        stale.addAll(cloneJobRepository.findByStatusAndStartedAtBefore(CloneJobStatus.RUNNING, cutoff));
+        for (CourseCloneJob job : stale) {
+            if (cloneJobRepository.transition(job.getId(), job.getStatus(), CloneJobStatus.FAILED) == 0) continue;
+            job.setStatus(CloneJobStatus.FAILED);
+            job.setErrorMessage("Clone did not finish; start it again");
+            job.setCompletedAt(LocalDateTime.now());
+            cloneJobRepository.save(job);
+        }
+        if (!stale.isEmpty()) {
+            logger.info("Failed {} stale course clone job(s)", stale.size());
+        }
+    }
+
+    /**
+     * Copies the course with its curriculum into {@code college}, owned by {@code requester}.
+     * Runs in the caller's transaction. Without {@code includeTests} the clone links the
+     * original tests, as the shallow clone used to.
+     */
+    public CloneResult deepClone(Course original, User requester, College college, boolean includeTests,
+                                 ProgressListener listener) {
+        CloneResult result = new CloneResult();
+        Course clone = courseRepository.save(Course.builder()
+                .title(original.getTitle() + " (Copy)")
+                .courseCode(null) // Clear code so it's unique
+                .description(original.getDescription())
+                .thumbnailUrl(original.getThumbnailUrl())
+                .createdBy(requester)
+                .college(college)
+                .status(CourseStatus.DRAFT)
+                .published(false)
+                .enrollmentOpen(false)
+                .maxEnrollment(original.getMaxEnrollment())
+                .displayOrder(original.getDisplayOrder())
+                .category(original.getCategory())
+                .department(original.getDepartment())
+                .semester(original.getSemester())
+                .credits(original.getCredits())
+                .difficultyLevel(original.getDifficultyLevel())
+                .estimatedHours(original.getEstimatedHours())
+                .prerequisites(original.getPrerequisites())
+                .learningObjectives(original.getLearningObjectives())
+                .tags(original.getTags())
+                .build());
+        result.courseId = clone.getId();
+        courseFacetIndex.upsert(clone);
+        report(listener, "TOPICS", 5, result);
+
+        List<Long> sourceTopicIds = jdbcTemplate.queryForList(
+                "SELECT id FROM topics WHERE course_id = ? ORDER BY display_order, id", Long.class, original.getId());
+        Map<Long, Long> topicIds = copyRows(COPY_TOPIC, sourceTopicIds, clone.getId(), requester.getId());
+        result.topics = topicIds.size();
+
+        // One statement per topic: keeps each copy of LONGTEXT content bounded and gives progress steps
+        int done = 0;
+        for (Map.Entry<Long, Long> topic : topicIds.entrySet()) {
+            result.chapters += jdbcTemplate.update(COPY_CHAPTERS, topic.getValue(), topic.getKey());
+            jdbcTemplate.update(COPY_CHAPTER_CONTENTS, topic.getValue(), topic.getKey());
+            done++;
+            report(listener, "CHAPTERS", 10 + done * 60 / topicIds.size(), result);
+        }
+
+        if (includeTests) {
+            copyTests(original, clone, requester, topicIds.values(), result, listener);
+        } else {
+            jdbcTemplate.update("INSERT INTO course_tests (course_id, test_id)"
+                    + " SELECT ?, test_id FROM course_tests WHERE course_id = ?", clone.getId(), original.getId());
+        }
+        report(listener, "COMMITTING", 95, result);
+        return result;
+    }
+
+    private void copyTests(Course original, Course clone, User requester, Collection<Long> newTopicIds,
+                           CloneResult result, ProgressListener listener) {
+        report(listener, "TESTS", 75, result);
+        // Tests linked to the course plus tests referenced by its quiz chapters
+        Set<Long> sourceTestIds = new LinkedHashSet<>(jdbcTemplate.queryForList(
+                "SELECT test_id FROM course_tests WHERE course_id = ? ORDER BY test_id", Long.class, original.getId()));
+        if (!newTopicIds.isEmpty()) {
+            sourceTestIds.addAll(jdbcTemplate.queryForList(
+                    "SELECT DISTINCT test_id FROM chapters WHERE test_id IS NOT NULL AND topic_id IN ("
+                            + placeholders(newTopicIds.size()) + ")", Long.class, newTopicIds.toArray()));
+        }
+        Map<Long, Long> testIds = copyRows(COPY_TEST, new ArrayList<>(sourceTestIds), requester.getId());
+        result.tests = testIds.size();
+
+        report(listener, "QUESTIONS", 85, result);
+        for (Map.Entry<Long, Long> test : testIds.entrySet()) {
+            result.questions += jdbcTemplate.update(COPY_QUESTIONS, test.getValue(), test.getKey());
+        }
+
+        if (testIds.isEmpty()) return;
+        jdbcTemplate.batchUpdate("INSERT INTO course_tests (course_id, test_id) VALUES (?, ?)",
+                testIds.values().stream().map(id -> new Object[]{clone.getId(), id}).collect(Collectors.toList()));
+
+        // Point the copied quiz chapters at the copied tests
+        if (!newTopicIds.isEmpty()) {
+            StringBuilder remap = new StringBuilder("UPDATE chapters SET test_id = CASE test_id");
+            List<Object> args = new ArrayList<>();
+            for (Map.Entry<Long, Long> test : testIds.entrySet()) {
+                remap.append(" WHEN ? THEN ?");
+                args.add(test.getKey());
+                args.add(test.getValue());
+            }
+            remap.append(" ELSE test_id END WHERE topic_id IN (").append(placeholders(newTopicIds.size())).append(')');
+            args.addAll(newTopicIds);
+            jdbcTemplate.update(remap.toString(), args.toArray());
+        }
+    }
+
+    /**
+     * Runs {@code insertSelectSql} once per source id as a single JDBC batch. The statement's
+     * last parameter is the source id, preceded by {@code leadingArgs}. Returns source id -> new id,
+     * relying on the driver returning generated keys in batch order.
+     */
+    private Map<Long, Long> copyRows(String insertSelectSql, List<Long> sourceIds, Object... leadingArgs) {
+        if (sourceIds.isEmpty()) return Collections.emptyMap();
+        return jdbcTemplate.execute((ConnectionCallback<Map<Long, Long>>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(insertSelectSql, Statement.RETURN_GENERATED_KEYS)) {
+                for (Long sourceId : sourceIds) {
+                    int index = 1;
+                    for (Object arg : leadingArgs) ps.setObject(index++, arg);
+                    ps.setLong(index, sourceId);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                Map<Long, Long> mapping = new LinkedHashMap<>();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (Long sourceId : sourceIds) {
+                        if (!keys.next()) throw new IllegalStateException("Missing generated key for " + sourceId);
+                        mapping.put(sourceId, keys.getLong(1));
+                    }
+                }
+                return mapping;
+            }
+        });
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static void report(ProgressListener listener, String stage, int percent, CloneResult soFar) {
+        if (listener != null) listener.onProgress(stage, percent, soFar);
+    }
+
+    static CourseDtos.CloneJobResponse toJobResponse(CourseCloneJob job) {
+        return CourseDtos.CloneJobResponse.builder()
+                .id(job.getId())
+                .sourceCourseId(job.getSourceCourseId())
+                .targetCourseId(job.getTargetCourseId())
+                .targetCollegeId(job.getTargetCollege().getId())
+                .includeTests(job.getIncludeTests())
+                .status(job.getStatus().name())
+                .stage(job.getStage())
+                .progressPercent(job.getProgressPercent())
+                .topicsCopied(job.getTopicsCopied())
+                .chaptersCopied(job.getChaptersCopied())
+                .testsCopied(job.getTestsCopied())
+                .questionsCopied(job.getQuestionsCopied())
+                .errorMessage(job.getErrorMessage())
+                .createdAt(job.getCreatedAt() != null ? job.getCreatedAt().toString() : null)
+                .startedAt(job.getStartedAt() != null ? job.getStartedAt().toString() : null)
+                .completedAt(job.getCompletedAt() != null ? job.getCompletedAt().toString() : null)
+                .build();
+    }
+}
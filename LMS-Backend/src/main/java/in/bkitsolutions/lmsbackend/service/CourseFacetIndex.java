@@ -0,0 +1,316 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import in.bkitsolutions.lmsbackend.model.Course;
+import in.bkitsolutions.lmsbackend.model.CourseStatus;
+import in.bkitsolutions.lmsbackend.repository.CourseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory columnar snapshot of the facet fields of every course, one per college, plus one
+ * across all colleges for platform admins searching without a college.
+ * Each facet column is stored as an int array of dictionary codes, so counting a
+ * query is a single pass over primitive arrays with no DB access. Snapshots are
+ * loaded lazily and then kept current by CourseService writes (after commit).
+ * Every committed write bumps the college's generation; a snapshot is only used while
+ * it is at the current generation, so a write that lands while a snapshot is loading
+ * forces a reload rather than being lost. The TTL picks up writes made on other nodes.
+ */
+@Service
+public class CourseFacetIndex {
+    public static final String CATEGORY = "category";
+    public static final String DIFFICULTY_LEVEL = "difficultyLevel";
+    public static final String DEPARTMENT = "department";
+    public static final String SEMESTER = "semester";
+    public static final String STATUS = "status";
+
+    private static final String[] DIMENSIONS = {CATEGORY, DIFFICULTY_LEVEL, DEPARTMENT, SEMESTER, STATUS};
+    private static final int NONE = -1;
+    // Key of the all-colleges snapshot; college ids start at 1
+    private static final Long ALL_COLLEGES = 0L;
+
+    private final CourseRepository courseRepository;
+    private final Map<Long, CollegeSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    @Value("${app.course.facet-snapshot-ttl:PT10M}")
+    private Duration snapshotTtl;
+
+    public CourseFacetIndex(CourseRepository courseRepository) {
+        this.courseRepository = courseRepository;
+    }
+
+    /**
+     * Adds the facet counts of one college's courses to {@code counts}.
+     *
+     * @param restrictTo course ids matched by the keyword query, or null for every course
+     * @param filters    selected value per dimension (case-insensitive); a dimension's own
+     *                   filter is ignored when counting that dimension, so the UI can still
+     *                   show the alternatives next to a selected value
+     */
+    public void countInto(FacetCounts counts, Long collegeId, Set<Long> restrictTo, Map<String, String> filters) {
+        snapshot(collegeId).countInto(counts, restrictTo, filters);
+    }
+
+    /** Same as {@link #countInto} over every college's courses, from a single snapshot. */
+    public void countAllInto(FacetCounts counts, Set<Long> restrictTo, Map<String, String> filters) {
+        snapshot(ALL_COLLEGES).countInto(counts, restrictTo, filters);
+    }
+
+    public void upsert(Course course) {
+        if (course.getCollege() == null) return;
+        Long collegeId = course.getCollege().getId();
+        String[] values = {course.getCategory(), course.getDifficultyLevel(), course.getDepartment(),
+                course.getSemester(), statusOf(course.getStatus())};
+        Long courseId = course.getId();
+        afterCommit(() -> applyWrite(collegeId, snapshot -> snapshot.upsert(courseId, values)));
+    }
+
+    public void remove(Long collegeId, Long courseId) {
+        afterCommit(() -> applyWrite(collegeId, snapshot -> snapshot.remove(courseId)));
+    }
+
+    public void invalidate(Long collegeId) {
+        afterCommit(() -> {
+            for (Long key : List.of(collegeId, ALL_COLLEGES)) {
+                generation(key).incrementAndGet();
+                snapshots.remove(key);
+            }
+        });
+    }
+
+    // Every write lands in its college's snapshot and in the all-colleges one
+    private void applyWrite(Long collegeId, Consumer<CollegeSnapshot> patch) {
+        patchSnapshot(collegeId, patch);
+        patchSnapshot(ALL_COLLEGES, patch);
+    }
+
+    // Patches the cached snapshot; it stays current only if no other write or load slipped in between
+    private void patchSnapshot(Long key, Consumer<CollegeSnapshot> patch) {
+        long generation = generation(key).incrementAndGet();
+        CollegeSnapshot snapshot = snapshots.get(key);
+        if (snapshot != null) {
+            patch.accept(snapshot);
+            snapshot.generation.compareAndSet(generation - 1, generation);
+        }
+    }
+
+    private CollegeSnapshot snapshot(Long collegeId) {
+        CollegeSnapshot snapshot = snapshots.get(collegeId);
+        if (snapshot != null && snapshot.isCurrent(generation(collegeId).get(), snapshotTtl)) return snapshot;
+        // Captured before reading, so a write committing during the load leaves this snapshot stale
+        long generation = generation(collegeId).get();
+        CollegeSnapshot loaded = load(collegeId);
+        loaded.generation.set(generation);
+        snapshots.put(collegeId, loaded);
+        return loaded;
+    }
+
+    private AtomicLong generation(Long collegeId) {
+        return generations.computeIfAbsent(collegeId, id -> new AtomicLong());
+    }
+
+    private CollegeSnapshot load(Long collegeId) {
+        CollegeSnapshot snapshot = new CollegeSnapshot();
+        List<Object[]> rows = ALL_COLLEGES.equals(collegeId)
+                ? courseRepository.findFacetRows()
+                : courseRepository.findFacetRowsByCollegeId(collegeId);
+        for (Object[] row : rows) {
+            snapshot.upsert((Long) row[0], new String[]{(String) row[1], (String) row[2], (String) row[3],
+                    (String) row[4], statusOf((CourseStatus) row[5])});
+        }
+        return snapshot;
+    }
+
+    private static String statusOf(CourseStatus status) {
+        return status != null ? status.name() : CourseStatus.DRAFT.name();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /** Counts per dimension, keyed by value, in descending count order when read via {@link #toMap}. */
+    public static class FacetCounts {
+        private final Map<String, Map<String, Long>> byDimension = new HashMap<>();
+        private long total;
+
+        public long getTotal() {
+            return total;
+        }
+
+        public Map<String, Long> toMap(String dimension) {
+            Map<String, Long> sorted = new LinkedHashMap<>();
+            byDimension.getOrDefault(dimension, Map.of()).entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+            return sorted;
+        }
+    }
+
+    private static class CollegeSnapshot {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final AtomicLong generation = new AtomicLong(-1);
+        private final long loadedAt = System.nanoTime();
+        private final List<String>[] dictionaries;
+        private final List<Map<String, Integer>> codes = new ArrayList<>();
+        private final Map<Long, Integer> rowByCourseId = new HashMap<>();
+        private long[] courseIds = new long[64];
+        private int[][] columns = new int[DIMENSIONS.length][64];
+        private boolean[] live = new boolean[64];
+        private int rows;
+        private int deadRows;
+
+        @SuppressWarnings("unchecked")
+        CollegeSnapshot() {
+            dictionaries = new List[DIMENSIONS.length];
+            for (int d = 0; d < DIMENSIONS.length; d++) {
+                dictionaries[d] = new ArrayList<>();
+                codes.add(new HashMap<>());
+            }
+        }
+
+        boolean isCurrent(long currentGeneration, Duration ttl) {
+            return generation.get() == currentGeneration && System.nanoTime() - loadedAt < ttl.toNanos();
+        }
+
+        void upsert(Long courseId, String[] values) {
+            lock.writeLock().lock();
+            try {
+                Integer row = rowByCourseId.get(courseId);
+                if (row == null) {
+                    ensureCapacity(rows + 1);
+                    row = rows++;
+                    rowByCourseId.put(courseId, row);
+                    courseIds[row] = courseId;
+                    live[row] = true;
+                }
+                for (int d = 0; d < DIMENSIONS.length; d++) {
+                    columns[d][row] = encode(d, values[d]);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long courseId) {
+            lock.writeLock().lock();
+            try {
+                Integer row = rowByCourseId.remove(courseId);
+                if (row == null) return;
+                live[row] = false;
+                if (++deadRows > 64 && deadRows > rows / 2) compact();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Single pass: a row matching every filter counts for all dimensions; a row that
+         * fails exactly one filter still counts for that dimension (disjunctive faceting).
+         */
+        void countInto(FacetCounts counts, Set<Long> restrictTo, Map<String, String> filters) {
+            lock.readLock().lock();
+            try {
+                boolean[][] accepted = new boolean[DIMENSIONS.length][];
+                for (int d = 0; d < DIMENSIONS.length; d++) {
+                    String selected = filters != null ? filters.get(DIMENSIONS[d]) : null;
+                    if (selected == null || selected.isBlank()) continue;
+                    accepted[d] = new boolean[dictionaries[d].size()];
+                    for (int code = 0; code < dictionaries[d].size(); code++) {
+                        accepted[d][code] = dictionaries[d].get(code).equalsIgnoreCase(selected.trim());
+                    }
+                }
+
+                long[][] tallies = new long[DIMENSIONS.length][];
+                for (int d = 0; d < DIMENSIONS.length; d++) tallies[d] = new long[dictionaries[d].size()];
+
+                for (int row = 0; row < rows; row++) {
+                    if (!live[row]) continue;
+                    if (restrictTo != null && !restrictTo.contains(courseIds[row])) continue;
+                    int failed = NONE;
+                    int failures = 0;
+                    for (int d = 0; d < DIMENSIONS.length && failures < 2; d++) {
+                        if (accepted[d] != null && (columns[d][row] == NONE || !accepted[d][columns[d][row]])) {
+                            failed = d;
+                            failures++;
+                        }
+                    }
+                    if (failures == 0) {
+                        counts.total++;
+                        for (int d = 0; d < DIMENSIONS.length; d++) {
+                            if (columns[d][row] != NONE) tallies[d][columns[d][row]]++;
+                        }
+                    } else if (failures == 1 && columns[failed][row] != NONE) {
+                        tallies[failed][columns[failed][row]]++;
+                    }
+                }
+
+                for (int d = 0; d < DIMENSIONS.length; d++) {
+                    for (int code = 0; code < tallies[d].length; code++) {
+                        if (tallies[d][code] == 0) continue;
+                        counts.byDimension.computeIfAbsent(DIMENSIONS[d], k -> new HashMap<>())
+                                .merge(dictionaries[d].get(code), tallies[d][code], Long::sum);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private int encode(int dimension, String value) {
+            if (value == null || value.isBlank()) return NONE;
+            return codes.get(dimension).computeIfAbsent(value, v -> {
+                dictionaries[dimension].add(v);
+                return dictionaries[dimension].size() - 1;
+            });
+        }
+
+        private void ensureCapacity(int needed) {
+            if (needed <= courseIds.length) return;
+            int capacity = Math.max(needed, courseIds.length * 2);
+            courseIds = Arrays.copyOf(courseIds, capacity);
+            live = Arrays.copyOf(live, capacity);
+            for (int d = 0; d < DIMENSIONS.length; d++) columns[d] = Arrays.copyOf(columns[d], capacity);
+        }
+
+        private void compact() {
+            int target = 0;
+            for (int row = 0; row < rows; row++) {
+                if (!live[row]) continue;
+                courseIds[target] = courseIds[row];
+                live[target] = true;
+                for (int d = 0; d < DIMENSIONS.length; d++) columns[d][target] = columns[d][row];
+                rowByCourseId.put(courseIds[target], target);
+                target++;
+            }
+            Arrays.fill(live, target, rows, false);
+            rows = target;
+            deadRows = 0;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import in.bkitsolutions.lmsbackend.model.Course;
+import in.bkitsolutions.lmsbackend.repository.CourseRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Course catalog search backed by the MySQL FULLTEXT indexes on the courses table.
+ * Ranking, tenant filtering and pagination all happen in the database; only the
+ * requested page of courses is loaded into memory.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CourseSearchService {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // InnoDB default innodb_ft_min_token_size; shorter words are not in the index
+    private static final int MIN_TOKEN_LENGTH = 3;
+
+    private final CourseRepository courseRepository;
+
+    public CourseSearchService(CourseRepository courseRepository) {
+        this.courseRepository = courseRepository;
+    }
+
+    /**
+     * @param collegeId null searches across all colleges (SuperAdmin/RootAdmin scope)
+     */
+    public Page<Course> search(Long collegeId, String keyword, String category, String difficultyLevel,
+                               int page, int size) {
+        int pageSize = clampPageSize(size);
+        int pageNumber = Math.max(page, 0);
+        String categoryFilter = blankToNull(category);
+        String difficultyFilter = blankToNull(difficultyLevel);
+        String trimmedKeyword = blankToNull(keyword);
+
+        String booleanQuery = toBooleanQuery(trimmedKeyword);
+        if (booleanQuery == null) {
+            return courseRepository.searchByFilters(collegeId, trimmedKeyword, categoryFilter, difficultyFilter,
+                    PageRequest.of(pageNumber, pageSize, Sort.by(Sort.Direction.DESC, "id")));
+        }
+
+        long total = courseRepository.countFullTextSearch(booleanQuery, collegeId, categoryFilter, difficultyFilter);
+        PageRequest pageable = PageRequest.of(pageNumber, pageSize);
+        if (total == 0 || pageable.getOffset() >= total) {
+            return new PageImpl<>(List.of(), pageable, total);
+        }
+
+        List<Long> ids = courseRepository.fullTextSearchIds(booleanQuery, collegeId, categoryFilter,
+                difficultyFilter, pageSize, (int) pageable.getOffset());
+
+        // findAllById does not keep the relevance order of the id list
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) rank.put(ids.get(i), i);
+        List<Course> courses = new ArrayList<>(courseRepository.findAllById(ids));
+        courses.sort(Comparator.comparing(c -> rank.get(c.getId())));
+        return new PageImpl<>(courses, pageable, total);
+    }
+
+    /**
+     * Ids of every course matching the keyword, for facet counting.
+     * Returns null when there is no keyword, meaning "all courses in scope".
+     */
+    public Set<Long> matchingIds(Long collegeId, String keyword) {
+        String trimmedKeyword = blankToNull(keyword);
+        if (trimmedKeyword == null) return null;
+        String booleanQuery = toBooleanQuery(trimmedKeyword);
+        List<Long> ids = booleanQuery != null
+                ? courseRepository.fullTextMatchIds(booleanQuery, collegeId)
+                : courseRepository.keywordMatchIds(trimmedKeyword, collegeId);
+        return new HashSet<>(ids);
+    }
+
+    /**
+     * Turns free text into a BOOLEAN MODE query where every indexable word is required
+     * and prefix-matched ("java stre" -> "+java* +stre*"). Returns null when no word is
+     * long enough to be in the index.
+     */
+    static String toBooleanQuery(String keyword) {
+        if (keyword == null) return null;
+        StringBuilder query = new StringBuilder();
+        for (String token : keyword.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() < MIN_TOKEN_LENGTH) continue;
+            if (query.length() > 0) query.append(' ');
+            query.append('+').append(token).append('*');
+        }
+        return query.length() > 0 ? query.toString() : null;
+    }
+
+    private static int clampPageSize(int size) {
+        if (size <= 0) return DEFAULT_PAGE_SIZE;
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -1,7 +1,9 @@
 package in.bkitsolutions.lmsbackend.service;
 
 import in.bkitsolutions.lmsbackend.dto.ChapterDtos;
+import in.bkitsolutions.lmsbackend.dto.ContentVersion;
 import in.bkitsolutions.lmsbackend.dto.CourseDtos;
+import in.bkitsolutions.lmsbackend.dto.CursorPage;
 import in.bkitsolutions.lmsbackend.dto.TopicDtos;
 import in.bkitsolutions.lmsbackend.model.*;
 import in.bkitsolutions.lmsbackend.repository.*;
@@ -12,8 +14,10 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,11 +30,25 @@ public class CourseService {
     private final TestRepository testRepository;
     private final EnrollmentRepository enrollmentRepository;
     private final ChapterRepository chapterRepository;
+    private final CourseSearchService courseSearchService;
+    private final CourseFacetIndex courseFacetIndex;
+    private final CourseCloneService courseCloneService;
+    private final EnrollmentService enrollmentService;
+    private final SeatReservationService seatReservationService;
+    private final CourseWaitlistRepository waitlistRepository;
+    private final DisplayOrderWriter displayOrderWriter;
+    private final CurriculumTombstoneRepository tombstoneRepository;
+    private final CompletionBitmapService completionBitmapService;
 
     public CourseService(CourseRepository courseRepository, UserRepository userRepository,
                          CollegeRepository collegeRepository, TopicRepository topicRepository,
                          TestRepository testRepository, EnrollmentRepository enrollmentRepository,
-                         ChapterRepository chapterRepository) {
+                         ChapterRepository chapterRepository, CourseSearchService courseSearchService,
+                         CourseFacetIndex courseFacetIndex, CourseCloneService courseCloneService,
+                         EnrollmentService enrollmentService, SeatReservationService seatReservationService,
+                         CourseWaitlistRepository waitlistRepository, DisplayOrderWriter displayOrderWriter,
+                         CurriculumTombstoneRepository tombstoneRepository,
+                         CompletionBitmapService completionBitmapService) {
         this.courseRepository = courseRepository;
         this.userRepository = userRepository;
         this.collegeRepository = collegeRepository;
@@ -38,6 +56,15 @@ public class CourseService {
         this.testRepository = testRepository;
         this.enrollmentRepository = enrollmentRepository;
         this.chapterRepository = chapterRepository;
+        this.courseSearchService = courseSearchService;
+        this.courseFacetIndex = courseFacetIndex;
+        this.courseCloneService = courseCloneService;
+        this.enrollmentService = enrollmentService;
+        this.seatReservationService = seatReservationService;
+        this.waitlistRepository = waitlistRepository;
+        this.displayOrderWriter = displayOrderWriter;
+        this.tombstoneRepository = tombstoneRepository;
+        this.completionBitmapService = completionBitmapService;
     }
 
     public CourseDtos.CourseResponse createCourse(String requesterEmail, CourseDtos.CreateCourseRequest req) {
@@ -69,6 +96,7 @@ public class CourseService {
                 .published(req.getPublished() != null ? req.getPublished() : false)
                 .enrollmentOpen(req.getEnrollmentOpen() != null ? req.getEnrollmentOpen() : true)
                 .maxEnrollment(req.getMaxEnrollment())
+                .waitlistEnabled(Boolean.TRUE.equals(req.getWaitlistEnabled()))
                 .displayOrder(req.getDisplayOrder())
                 .category(req.getCategory())
                 .department(req.getDepartment())
@@ -94,6 +122,7 @@ public class CourseService {
         }
 
         course = courseRepository.save(course);
+        courseFacetIndex.upsert(course);
         return toResponse(course);
     }
 
@@ -116,7 +145,11 @@ public class CourseService {
         }
         if (req.getPublished() != null) course.setPublished(req.getPublished());
         if (req.getEnrollmentOpen() != null) course.setEnrollmentOpen(req.getEnrollmentOpen());
+        boolean capacityChanged = (req.getMaxEnrollment() != null
+                && !req.getMaxEnrollment().equals(course.getMaxEnrollment()))
+                || (Boolean.TRUE.equals(req.getWaitlistEnabled()) && !Boolean.TRUE.equals(course.getWaitlistEnabled()));
         if (req.getMaxEnrollment() != null) course.setMaxEnrollment(req.getMaxEnrollment());
+        if (req.getWaitlistEnabled() != null) course.setWaitlistEnabled(req.getWaitlistEnabled());
         if (req.getDisplayOrder() != null) course.setDisplayOrder(req.getDisplayOrder());
         if (req.getCategory() != null) course.setCategory(req.getCategory());
         if (req.getDepartment() != null) course.setDepartment(req.getDepartment());
@@ -137,6 +170,13 @@ public class CourseService {
         }
 
         course = courseRepository.save(course);
+        courseFacetIndex.upsert(course);
+        if (capacityChanged) {
+            // The seat UPDATEs must see the new maxEnrollment
+            courseRepository.flush();
+            seatReservationService.capacityChanged(courseId);
+            enrollmentService.promoteFromWaitlist(courseId);
+        }
         return toResponse(course);
     }
 
@@ -145,7 +185,11 @@ public class CourseService {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found"));
         verifyAccess(requester, course);
+        waitlistRepository.deleteByCourseId(courseId);
+        tombstoneRepository.deleteByCourseId(courseId);
+        completionBitmapService.courseRemoved(courseId);
         courseRepository.delete(course);
+        courseFacetIndex.remove(course.getCollege().getId(), course.getId());
     }
 
     public List<CourseDtos.CourseResponse> getMyCourses(String requesterEmail) {
@@ -160,7 +204,26 @@ public class CourseService {
         } else {
             courses = new ArrayList<>();
         }
-        return courses.stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(courses);
+    }
+
+    public CursorPage<CourseDtos.CourseResponse> getMyCoursesPage(String requesterEmail, String cursor, Integer limit) {
+        User requester = requireUser(requesterEmail);
+        int pageSize = CursorPage.clampLimit(limit);
+        long before = CursorPage.decode(cursor);
+        List<Course> rows;
+        if (requester.getType() == UserType.SUPERADMIN || requester.getType() == UserType.ROOTADMIN) {
+            rows = courseRepository.findByIdLessThanOrderByIdDesc(before, CursorPage.request(pageSize));
+        } else if (requester.getType() == UserType.ADMIN) {
+            rows = courseRepository.findByCollegeIdAndIdLessThanOrderByIdDesc(
+                    requester.getCollege().getId(), before, CursorPage.request(pageSize));
+        } else if (requester.getType() == UserType.FACULTY) {
+            rows = courseRepository.findByCreatedByIdAndIdLessThanOrderByIdDesc(
+                    requester.getId(), before, CursorPage.request(pageSize));
+        } else {
+            return CursorPage.empty(pageSize);
+        }
+        return CursorPage.ofList(rows, pageSize, Course::getId, this::toResponses);
     }
 
     public List<CourseDtos.CourseResponse> getPublishedCourses(String requesterEmail) {
@@ -168,14 +231,14 @@ public class CourseService {
         if (requester.getCollege() == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User must belong to a college");
         }
-        return courseRepository.findByCollegeIdAndPublishedTrue(requester.getCollege().getId())
-                .stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(courseRepository.findByCollegeIdAndPublishedTrue(requester.getCollege().getId()));
     }
 
     public CourseDtos.CourseDetailResponse getCourseDetail(String requesterEmail, Long courseId) {
         User requester = requireUser(requesterEmail);
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found"));
+        verifyCourseReadAccess(requester, course.getCollege().getId());
 
         boolean isEnrolled = enrollmentRepository.existsByCourseIdAndStudentIdAndStatus(
                 courseId, requester.getId(), EnrollmentStatus.ACTIVE);
@@ -187,16 +250,22 @@ public class CourseService {
             progress = enrollment != null ? enrollment.getProgressPercentage() : 0;
         }
 
-        // Build topics with chapters (curriculum)
+        // Build topics with chapters (curriculum). Summaries only: bodies are served by GET /api/chapters/{id}
+        Map<Long, List<ChapterSummaryView>> chaptersByTopic = chapterRepository.findSummariesByCourseId(courseId)
+                .stream().collect(Collectors.groupingBy(ChapterSummaryView::getTopicId));
         List<CourseDtos.TopicWithChaptersResponse> topicResponses = new ArrayList<>();
         if (course.getTopics() != null) {
             for (Topic topic : course.getTopics()) {
-                List<Chapter> chapters = chapterRepository.findByTopicIdOrderByDisplayOrderAsc(topic.getId());
+                // Students see only published topics, as in TopicService.getTopicsByCourse
+                if (requester.getType() == UserType.USER && !Boolean.TRUE.equals(topic.getPublished())) continue;
+                List<ChapterSummaryView> chapters = chaptersByTopic.getOrDefault(topic.getId(), List.of());
                 List<ChapterDtos.ChapterResponse> chapterResponses = chapters.stream()
                         .map(ch -> ChapterDtos.ChapterResponse.builder()
                                 .id(ch.getId())
                                 .title(ch.getTitle())
-                                .content(isEnrolled || isContentManager(requester, course) ? ch.getContent() : null)
+                                .contentType(ch.getContentType())
+                                .estimatedMinutes(ch.getEstimatedMinutes())
+                                .isMandatory(ch.getIsMandatory())
                                 .topicId(topic.getId())
                                 .displayOrder(ch.getDisplayOrder())
                                 .createdAt(ch.getCreatedAt() != null ? ch.getCreatedAt().toString() : null)
@@ -232,6 +301,7 @@ public class CourseService {
                 .published(course.getPublished())
                 .enrollmentOpen(course.getEnrollmentOpen())
                 .maxEnrollment(course.getMaxEnrollment())
+                .waitlistEnabled(course.getWaitlistEnabled())
                 .category(course.getCategory())
                 .department(course.getDepartment())
                 .semester(course.getSemester())
@@ -250,6 +320,31 @@ public class CourseService {
                 .build();
     }
 
+    /**
+     * Cheap validators for getCourseDetail: the course, its topics and chapters, the
+     * enrollment count and the requester's own enrollment, without building the detail.
+     */
+    public ContentVersion getCourseDetailVersion(String requesterEmail, Long courseId) {
+        User requester = requireUser(requesterEmail);
+        List<Object[]> course = courseRepository.findVersionStampById(courseId);
+        if (course.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found");
+        }
+        verifyCourseReadAccess(requester, (Long) course.get(0)[2]);
+        Object[] topics = topicRepository.findVersionStampByCourseId(courseId).get(0);
+        Object[] chapters = chapterRepository.findVersionStampByCourseId(courseId).get(0);
+        Enrollment enrollment = enrollmentRepository.findByCourseIdAndStudentId(courseId, requester.getId())
+                .orElse(null);
+
+        return ContentVersion.of(courseId, course.get(0)[0], course.get(0)[1],
+                topics[0], topics[1], topics[2], topics[3],
+                chapters[0], chapters[1], chapters[2], chapters[3],
+                enrollmentRepository.countByCourseId(courseId), requester.getId(),
+                enrollment != null ? enrollment.getStatus() : null,
+                enrollment != null ? enrollment.getProgressPercentage() : null,
+                requester.getType() == UserType.USER ? "published" : "all").withoutLastModified();
+    }
+
     // --- Publish / Unpublish ---
 
     public CourseDtos.CourseResponse publishCourse(String requesterEmail, Long courseId) {
@@ -260,6 +355,7 @@ public class CourseService {
         course.setPublished(true);
         course.setStatus(CourseStatus.PUBLISHED);
         course = courseRepository.save(course);
+        courseFacetIndex.upsert(course);
         return toResponse(course);
     }
 
@@ -271,6 +367,7 @@ public class CourseService {
         course.setPublished(false);
         course.setStatus(CourseStatus.DRAFT);
         course = courseRepository.save(course);
+        courseFacetIndex.upsert(course);
         return toResponse(course);
     }
 
@@ -293,36 +390,67 @@ public class CourseService {
         if (requester.getType() != UserType.SUPERADMIN && requester.getType() != UserType.ROOTADMIN) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only SuperAdmin/RootAdmin can query by college");
         }
-        return courseRepository.findByCollegeId(collegeId)
-                .stream().map(this::toResponse).collect(Collectors.toList());
+        return toResponses(courseRepository.findByCollegeId(collegeId));
     }
 
     // --- Search / Filter ---
 
-    public List<CourseDtos.CourseResponse> searchCourses(String requesterEmail, String keyword, String category, String difficultyLevel) {
+    public List<CourseDtos.CourseResponse> searchCourses(String requesterEmail, String keyword, String category,
+                                                         String difficultyLevel, Long collegeId, int page, int size) {
         User requester = requireUser(requesterEmail);
-        List<Course> courses;
+        Long scopeCollegeId;
 
         if (requester.getType() == UserType.SUPERADMIN || requester.getType() == UserType.ROOTADMIN) {
-            courses = courseRepository.findAll();
+            scopeCollegeId = collegeId; // null = all colleges
         } else if (requester.getCollege() != null) {
-            courses = courseRepository.findByCollegeId(requester.getCollege().getId());
+            scopeCollegeId = requester.getCollege().getId();
         } else {
-            courses = new ArrayList<>();
+            return new ArrayList<>();
         }
 
-        // Apply filters
-        return courses.stream()
-                .filter(c -> keyword == null || keyword.isBlank()
-                        || c.getTitle().toLowerCase().contains(keyword.toLowerCase())
-                        || (c.getDescription() != null && c.getDescription().toLowerCase().contains(keyword.toLowerCase()))
-                        || (c.getTags() != null && c.getTags().toLowerCase().contains(keyword.toLowerCase())))
-                .filter(c -> category == null || category.isBlank()
-                        || (c.getCategory() != null && c.getCategory().equalsIgnoreCase(category)))
-                .filter(c -> difficultyLevel == null || difficultyLevel.isBlank()
-                        || (c.getDifficultyLevel() != null && c.getDifficultyLevel().equalsIgnoreCase(difficultyLevel)))
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        List<Course> courses = courseSearchService
+                .search(scopeCollegeId, keyword, category, difficultyLevel, page, size)
+                .getContent();
+        return toResponses(courses);
+    }
+
+    public CourseDtos.CourseFacetsResponse getSearchFacets(String requesterEmail, String keyword, String category,
+                                                          String difficultyLevel, String department, String semester,
+                                                          String status, Long collegeId) {
+        User requester = requireUser(requesterEmail);
+        boolean allColleges = false;
+        Long scopeCollegeId = null;
+
+        if (requester.getType() == UserType.SUPERADMIN || requester.getType() == UserType.ROOTADMIN) {
+            scopeCollegeId = collegeId;
+            allColleges = collegeId == null;
+        } else if (requester.getCollege() != null) {
+            scopeCollegeId = requester.getCollege().getId();
+        }
+
+        Map<String, String> filters = new HashMap<>();
+        filters.put(CourseFacetIndex.CATEGORY, category);
+        filters.put(CourseFacetIndex.DIFFICULTY_LEVEL, difficultyLevel);
+        filters.put(CourseFacetIndex.DEPARTMENT, department);
+        filters.put(CourseFacetIndex.SEMESTER, semester);
+        filters.put(CourseFacetIndex.STATUS, status);
+
+        CourseFacetIndex.FacetCounts counts = new CourseFacetIndex.FacetCounts();
+        if (allColleges) {
+            courseFacetIndex.countAllInto(counts, courseSearchService.matchingIds(null, keyword), filters);
+        } else if (scopeCollegeId != null) {
+            courseFacetIndex.countInto(counts, scopeCollegeId,
+                    courseSearchService.matchingIds(scopeCollegeId, keyword), filters);
+        }
+
+        return CourseDtos.CourseFacetsResponse.builder()
+                .totalCourses(counts.getTotal())
+                .categories(counts.toMap(CourseFacetIndex.CATEGORY))
+                .difficultyLevels(counts.toMap(CourseFacetIndex.DIFFICULTY_LEVEL))
+                .departments(counts.toMap(CourseFacetIndex.DEPARTMENT))
+                .semesters(counts.toMap(CourseFacetIndex.SEMESTER))
+                .statuses(counts.toMap(CourseFacetIndex.STATUS))
+                .build();
     }
 
     // --- Course Statistics ---
@@ -339,12 +467,7 @@ public class CourseService {
         long droppedEnrollments = enrollmentRepository.countByCourseIdAndStatus(courseId, EnrollmentStatus.DROPPED);
 
         int totalTopics = course.getTopics() != null ? course.getTopics().size() : 0;
-        int totalChapters = 0;
-        if (course.getTopics() != null) {
-            for (Topic topic : course.getTopics()) {
-                totalChapters += chapterRepository.findByTopicIdOrderByDisplayOrderAsc(topic.getId()).size();
-            }
-        }
+        int totalChapters = (int) chapterRepository.countByTopicCourseId(courseId);
         int totalTests = course.getTests() != null ? course.getTests().size() : 0;
 
         double completionRate = totalEnrollments > 0 ? (double) completedEnrollments / totalEnrollments * 100 : 0;
@@ -398,11 +521,7 @@ public class CourseService {
             activeEnrollments += enrollmentRepository.countByCourseIdAndStatus(course.getId(), EnrollmentStatus.ACTIVE);
             completedEnrollments += enrollmentRepository.countByCourseIdAndStatus(course.getId(), EnrollmentStatus.COMPLETED);
             totalTopics += course.getTopics() != null ? course.getTopics().size() : 0;
-            if (course.getTopics() != null) {
-                for (Topic topic : course.getTopics()) {
-                    totalChapters += chapterRepository.findByTopicIdOrderByDisplayOrderAsc(topic.getId()).size();
-                }
-            }
+            totalChapters += (int) chapterRepository.countByTopicCourseId(course.getId());
         }
 
         // Category distribution
@@ -447,33 +566,36 @@ public class CourseService {
 
         College college = requester.getCollege() != null ? requester.getCollege() : original.getCollege();
 
-        Course clone = Course.builder()
-                .title(original.getTitle() + " (Copy)")
-                .courseCode(null) // Clear code so it's unique
-                .description(original.getDescription())
-                .thumbnailUrl(original.getThumbnailUrl())
-                .createdBy(requester)
-                .college(college)
-                .status(CourseStatus.DRAFT)
-                .published(false)
-                .enrollmentOpen(false)
-                .maxEnrollment(original.getMaxEnrollment())
-                .displayOrder(original.getDisplayOrder())
-                .category(original.getCategory())
-                .department(original.getDepartment())
-                .semester(original.getSemester())
-                .credits(original.getCredits())
-                .difficultyLevel(original.getDifficultyLevel())
-                .estimatedHours(original.getEstimatedHours())
-                .prerequisites(original.getPrerequisites())
-                .learningObjectives(original.getLearningObjectives())
-                .tags(original.getTags())
-                .topics(original.getTopics() != null ? new ArrayList<>(original.getTopics()) : new ArrayList<>())
-                .tests(original.getTests() != null ? new ArrayList<>(original.getTests()) : new ArrayList<>())
-                .build();
+        // Synchronous deep copy of topics and chapters; tests stay linked to the originals
+        CourseCloneService.CloneResult result = courseCloneService.deepClone(original, requester, college, false, null);
+        Course clone = courseRepository.findById(result.courseId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Clone failed"));
+        // Rows were copied with SQL, so the managed clone's collections are still empty
+        CourseDtos.CourseResponse response = toResponse(clone);
+        response.setTopicCount(result.topics);
+        response.setTestCount(original.getTests() != null ? original.getTests().size() : 0);
+        return response;
+    }
+
+    public List<CourseDtos.CloneJobResponse> startCloneJobs(String requesterEmail, CourseDtos.CloneJobsRequest req) {
+        User requester = requireUser(requesterEmail);
+        boolean includeTests = Boolean.TRUE.equals(req.getIncludeTests());
+        List<Course> originals = courseRepository.findAllById(req.getCourseIds());
+        if (originals.size() != new HashSet<>(req.getCourseIds()).size()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found");
+        }
+        originals.forEach(original -> verifyAccess(requester, original));
 
-        clone = courseRepository.save(clone);
-        return toResponse(clone);
+        List<CourseDtos.CloneJobResponse> jobs = new ArrayList<>();
+        for (Course original : originals) {
+            College college = requester.getCollege() != null ? requester.getCollege() : original.getCollege();
+            jobs.add(courseCloneService.enqueue(original, requester, college, includeTests));
+        }
+        return jobs;
+    }
+
+    public CourseDtos.CloneJobResponse getCloneJob(String requesterEmail, Long jobId) {
+        return courseCloneService.getJob(requireUser(requesterEmail), jobId);
     }
 
     // --- Manage Course Curriculum (Add/Remove Topics) ---
@@ -511,32 +633,26 @@ public class CourseService {
         course = courseRepository.save(course);
         return toResponse(course);
     }
+    */
 
+    /** Sets the order of all topics of a course at once; positions follow the list, starting at 1. */
     public CourseDtos.CourseResponse reorderTopics(String requesterEmail, Long courseId, List<Long> topicIds) {
         User requester = requireUser(requesterEmail);
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found"));
         verifyAccess(requester, course);
-
-        List<Topic> orderedTopics = new ArrayList<>();
-        for (Long topicId : topicIds) {
-            Topic topic = topicRepository.findById(topicId)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Topic " + topicId + " not found"));
-            orderedTopics.add(topic);
-        }
-        course.setTopics(orderedTopics);
-        course = courseRepository.save(course);
+        displayOrderWriter.reorder("topics", "course_id", courseId, courseId,
+                topicRepository.findDisplayOrdersByCourseId(courseId), topicIds, "topic of the course");
         return toResponse(course);
     }
-    */
 
-    private boolean isContentManager(User user, Course course) {
-        if (user.getType() == UserType.SUPERADMIN || user.getType() == UserType.ROOTADMIN) return true;
-        if (user.getType() == UserType.ADMIN &&
-            user.getCollege() != null && user.getCollege().getId().equals(course.getCollege().getId())) return true;
-        if (user.getType() == UserType.FACULTY &&
-            course.getCreatedBy().getId().equals(user.getId())) return true;
-        return false;
+    // Read rule shared by the course detail, topic list and curriculum sync endpoints:
+    // platform admins see every course, everyone else only their own college's
+    static void verifyCourseReadAccess(User requester, Long courseCollegeId) {
+        if (requester.getType() == UserType.SUPERADMIN || requester.getType() == UserType.ROOTADMIN) return;
+        if (requester.getCollege() == null || !requester.getCollege().getId().equals(courseCollegeId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied");
+        }
     }
 
     private void verifyAccess(User requester, Course course) {
@@ -549,6 +665,35 @@ public class CourseService {
     }
 
     private CourseDtos.CourseResponse toResponse(Course course) {
+        return toResponse(course, enrollmentRepository.countByCourseId(course.getId()),
+                course.getTopics() != null ? course.getTopics().size() : 0,
+                course.getTests() != null ? course.getTests().size() : 0);
+    }
+
+    // Batch variant for lists: one grouped count query each for enrollments, topics and tests
+    // instead of loading them per course
+    private List<CourseDtos.CourseResponse> toResponses(List<Course> courses) {
+        if (courses.isEmpty()) return new ArrayList<>();
+        List<Long> courseIds = courses.stream().map(Course::getId).collect(Collectors.toList());
+        Map<Long, Long> enrollmentCounts = countsById(enrollmentRepository.countByCourseIds(courseIds));
+        Map<Long, Long> topicCounts = countsById(topicRepository.countByCourseIds(courseIds));
+        Map<Long, Long> testCounts = countsById(courseRepository.countTestsByCourseIds(courseIds));
+        return courses.stream()
+                .map(c -> toResponse(c, enrollmentCounts.getOrDefault(c.getId(), 0L),
+                        topicCounts.getOrDefault(c.getId(), 0L).intValue(),
+                        testCounts.getOrDefault(c.getId(), 0L).intValue()))
+                .collect(Collectors.toList());
+    }
+
+    private static Map<Long, Long> countsById(List<Object[]> rows) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    private CourseDtos.CourseResponse toResponse(Course course, long enrollmentCount, int topicCount, int testCount) {
         return CourseDtos.CourseResponse.builder()
                 .id(course.getId())
                 .title(course.getTitle())
@@ -563,6 +708,7 @@ public class CourseService {
                 .published(course.getPublished())
                 .enrollmentOpen(course.getEnrollmentOpen())
                 .maxEnrollment(course.getMaxEnrollment())
+                .waitlistEnabled(course.getWaitlistEnabled())
                 .displayOrder(course.getDisplayOrder())
                 .category(course.getCategory())
                 .department(course.getDepartment())
@@ -575,9 +721,9 @@ public class CourseService {
                 .tags(course.getTags())
                 .createdAt(course.getCreatedAt() != null ? course.getCreatedAt().toString() : null)
                 .updatedAt(course.getUpdatedAt() != null ? course.getUpdatedAt().toString() : null)
-                .topicCount(course.getTopics() != null ? course.getTopics().size() : 0)
-                .testCount(course.getTests() != null ? course.getTests().size() : 0)
-                .enrollmentCount(enrollmentRepository.countByCourseId(course.getId()))
+                .topicCount(topicCount)
+                .testCount(testCount)
+                .enrollmentCount(enrollmentCount)
                 .build();
     }
 
@@ -0,0 +1,239 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import in.bkitsolutions.lmsbackend.dto.ChapterDtos;
+import in.bkitsolutions.lmsbackend.dto.CourseDtos;
+import in.bkitsolutions.lmsbackend.model.Chapter;
+import in.bkitsolutions.lmsbackend.model.CurriculumTombstone;
+import in.bkitsolutions.lmsbackend.model.Topic;
+import in.bkitsolutions.lmsbackend.model.User;
+import in.bkitsolutions.lmsbackend.model.UserType;
+import in.bkitsolutions.lmsbackend.repository.ChapterRepository;
+import in.bkitsolutions.lmsbackend.repository.ChapterSummaryView;
+import in.bkitsolutions.lmsbackend.repository.CourseRepository;
+import in.bkitsolutions.lmsbackend.repository.CurriculumTombstoneRepository;
+import in.bkitsolutions.lmsbackend.repository.TopicRepository;
+import in.bkitsolutions.lmsbackend.repository.UserRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Delta sync of a course's curriculum. Every topic and chapter write takes the next value
+ * of courses.change_seq and stamps it on the row (deletes on a tombstone), so a client
+ * holding version N only needs the rows stamped above N. Taking a number locks the course
+ * row until commit, so numbers become visible in order and a reader never skips one.
+ */
+@Service
+@Transactional
+public class CurriculumSyncService {
+    private final CourseRepository courseRepository;
+    private final TopicRepository topicRepository;
+    private final ChapterRepository chapterRepository;
+    private final CurriculumTombstoneRepository tombstoneRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public CurriculumSyncService(CourseRepository courseRepository, TopicRepository topicRepository,
+                                 ChapterRepository chapterRepository,
+                                 CurriculumTombstoneRepository tombstoneRepository,
+                                 UserRepository userRepository, JdbcTemplate jdbcTemplate) {
+        this.courseRepository = courseRepository;
+        this.topicRepository = topicRepository;
+        this.chapterRepository = chapterRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Next change number of the course, in the caller's transaction. */
+    public long nextChangeSeq(Long courseId) {
+        int updated = jdbcTemplate.update(
+                "UPDATE courses SET change_seq = LAST_INSERT_ID(COALESCE(change_seq, 0) + 1) WHERE id = ?", courseId);
+        if (updated == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found");
+        }
+        return jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+    }
+
+    public void touch(Topic topic) {
+        topic.setChangeSeq(nextChangeSeq(topic.getCourse().getId()));
+    }
+
+    public void touch(Chapter chapter) {
+        chapter.setChangeSeq(nextChangeSeq(chapter.getTopic().getCourse().getId()));
+    }
+
+    public void recordDeletion(Long courseId, String entityType, Long entityId) {
+        tombstoneRepository.save(CurriculumTombstone.builder()
+                .courseId(courseId)
+                .entityType(entityType)
+                .entityId(entityId)
+                .changeSeq(nextChangeSeq(courseId))
+                .build());
+    }
+
+    /**
+     * Tombstones a topic and the chapters deleted with it under one change number, so a
+     * client syncing past it drops the chapters even if it only applies chapter deletions.
+     */
+    public void recordTopicDeletion(Long courseId, Long topicId, Collection<Long> chapterIds) {
+        long changeSeq = nextChangeSeq(courseId);
+        List<CurriculumTombstone> tombstones = new ArrayList<>(chapterIds.size() + 1);
+        tombstones.add(CurriculumTombstone.builder()
+                .courseId(courseId)
+                .entityType(CurriculumTombstone.TOPIC)
+                .entityId(topicId)
+                .changeSeq(changeSeq)
+                .build());
+        for (Long chapterId : chapterIds) {
+            tombstones.add(CurriculumTombstone.builder()
+                    .courseId(courseId)
+                    .entityType(CurriculumTombstone.CHAPTER)
+                    .entityId(chapterId)
+                    .changeSeq(changeSeq)
+                    .build());
+        }
+        tombstoneRepository.saveAll(tombstones);
+    }
+
+    /**
+     * Topics and chapters written after {@code since}, and tombstones of those deleted.
+     * since = 0 (or a version this course never had) returns the whole curriculum.
+     * Read access is that of the course detail; students see only published topics, and a
+     * topic unpublished since their version comes back as deleted, with its chapters.
+     */
+    @Transactional(readOnly = true)
+    public CourseDtos.CurriculumChangesResponse getChanges(String requesterEmail, Long courseId, long since) {
+        User requester = userRepository.findByEmail(requesterEmail)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+        List<Object[]> stamp = courseRepository.findSyncStampById(courseId);
+        if (stamp.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found");
+        }
+        CourseService.verifyCourseReadAccess(requester, (Long) stamp.get(0)[1]);
+        long version = ((Number) stamp.get(0)[0]).longValue();
+        if (requester.getType() == UserType.USER) return getPublishedChanges(courseId, since, version);
+
+        CourseDtos.CurriculumChangesResponse.CurriculumChangesResponseBuilder response =
+                CourseDtos.CurriculumChangesResponse.builder().courseId(courseId).since(since).version(version);
+        if (since > 0 && since == version) {
+            return response.topics(List.of()).chapters(List.of())
+                    .deletedTopicIds(List.of()).deletedChapterIds(List.of()).build();
+        }
+        if (since <= 0 || since > version) {
+            return response.fullSync(true)
+                    .topics(toTopics(topicRepository.findByCourseIdOrderByDisplayOrderAsc(courseId)))
+                    .chapters(toChapters(chapterRepository.findSummariesByCourseId(courseId)))
+                    .deletedTopicIds(List.of()).deletedChapterIds(List.of())
+                    .build();
+        }
+
+        List<Long> deletedTopicIds = new ArrayList<>();
+        List<Long> deletedChapterIds = new ArrayList<>();
+        for (CurriculumTombstone tombstone : tombstoneRepository.findByCourseIdAndChangeSeqGreaterThan(courseId, since)) {
+            if (CurriculumTombstone.TOPIC.equals(tombstone.getEntityType())) deletedTopicIds.add(tombstone.getEntityId());
+            else deletedChapterIds.add(tombstone.getEntityId());
+        }
+        return response
+                .topics(toTopics(topicRepository.findByCourseIdAndChangeSeqGreaterThanOrderByDisplayOrderAsc(courseId, since)))
+                .chapters(toChapters(chapterRepository.findSummariesByCourseIdChangedSince(courseId, since)))
+                .deletedTopicIds(deletedTopicIds)
+                .deletedChapterIds(deletedChapterIds)
+                .build();
+    }
+
+    // getChanges for students. Topics that changed are few, so any changed published topic
+    // is sent with all its chapters: it may just have been published and be new to the client.
+    private CourseDtos.CurriculumChangesResponse getPublishedChanges(Long courseId, long since, long version) {
+        CourseDtos.CurriculumChangesResponse.CurriculumChangesResponseBuilder response =
+                CourseDtos.CurriculumChangesResponse.builder().courseId(courseId).since(since).version(version);
+        if (since > 0 && since == version) {
+            return response.topics(List.of()).chapters(List.of())
+                    .deletedTopicIds(List.of()).deletedChapterIds(List.of()).build();
+        }
+        List<Topic> published = topicRepository.findByCourseIdAndPublishedTrueOrderByDisplayOrderAsc(courseId);
+        Set<Long> publishedIds = published.stream().map(Topic::getId).collect(Collectors.toSet());
+        if (since <= 0 || since > version) {
+            return response.fullSync(true)
+                    .topics(toTopics(published))
+                    .chapters(toChapters(chapterRepository.findSummariesByCourseId(courseId).stream()
+                            .filter(ch -> publishedIds.contains(ch.getTopicId())).collect(Collectors.toList())))
+                    .deletedTopicIds(List.of()).deletedChapterIds(List.of())
+                    .build();
+        }
+
+        List<Long> deletedTopicIds = new ArrayList<>();
+        List<Long> deletedChapterIds = new ArrayList<>();
+        for (CurriculumTombstone tombstone : tombstoneRepository.findByCourseIdAndChangeSeqGreaterThan(courseId, since)) {
+            if (CurriculumTombstone.TOPIC.equals(tombstone.getEntityType())) deletedTopicIds.add(tombstone.getEntityId());
+            else deletedChapterIds.add(tombstone.getEntityId());
+        }
+        List<Topic> changedTopics = new ArrayList<>();
+        Set<Long> resentTopicIds = new HashSet<>();
+        Set<Long> hiddenTopicIds = new HashSet<>();
+        for (Topic topic : topicRepository.findByCourseIdAndChangeSeqGreaterThanOrderByDisplayOrderAsc(courseId, since)) {
+            if (publishedIds.contains(topic.getId())) {
+                changedTopics.add(topic);
+                resentTopicIds.add(topic.getId());
+            } else {
+                deletedTopicIds.add(topic.getId());
+                hiddenTopicIds.add(topic.getId());
+            }
+        }
+        List<ChapterSummaryView> chapters = new ArrayList<>();
+        Set<Long> sentChapterIds = new HashSet<>();
+        for (ChapterSummaryView ch : chapterRepository.findSummariesByCourseIdChangedSince(courseId, since)) {
+            if (publishedIds.contains(ch.getTopicId()) && sentChapterIds.add(ch.getId())) chapters.add(ch);
+        }
+        if (!resentTopicIds.isEmpty() || !hiddenTopicIds.isEmpty()) {
+            for (ChapterSummaryView ch : chapterRepository.findSummariesByCourseId(courseId)) {
+                if (hiddenTopicIds.contains(ch.getTopicId())) deletedChapterIds.add(ch.getId());
+                else if (resentTopicIds.contains(ch.getTopicId()) && sentChapterIds.add(ch.getId())) chapters.add(ch);
+            }
+        }
+        return response
+                .topics(toTopics(changedTopics))
+                .chapters(toChapters(chapters))
+                .deletedTopicIds(deletedTopicIds)
+                .deletedChapterIds(deletedChapterIds)
+                .build();
+    }
+
+    private static List<CourseDtos.CurriculumTopic> toTopics(List<Topic> topics) {
+        return topics.stream()
+                .map(t -> CourseDtos.CurriculumTopic.builder()
+                        .id(t.getId())
+                        .title(t.getTitle())
+                        .description(t.getDescription())
+                        .published(t.getPublished())
+                        .displayOrder(t.getDisplayOrder())
+                        .updatedAt(t.getUpdatedAt() != null ? t.getUpdatedAt().toString() : null)
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private static List<ChapterDtos.ChapterResponse> toChapters(List<ChapterSummaryView> chapters) {
+        return chapters.stream()
+                .map(ch -> ChapterDtos.ChapterResponse.builder()
+                        .id(ch.getId())
+                        .title(ch.getTitle())
+                        .contentType(ch.getContentType())
+                        .estimatedMinutes(ch.getEstimatedMinutes())
+                        .isMandatory(ch.getIsMandatory())
+                        .topicId(ch.getTopicId())
+                        .displayOrder(ch.getDisplayOrder())
+                        .createdAt(ch.getCreatedAt() != null ? ch.getCreatedAt().toString() : null)
+                        .updatedAt(ch.getUpdatedAt() != null ? ch.getUpdatedAt().toString() : null)
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
@@ -30,6 +30,9 @@ public class DataInitializationService {
     @Autowired
     private ChapterRepository chapterRepository;
 
+    @Autowired
+    private ChapterContentStore chapterContentStore;
+
     @Autowired
     private TestRepository testRepository;
 
@@ -564,14 +567,13 @@ public class DataInitializationService {
     private Chapter createAndSaveChapter(Topic topic, String title, String content, int order) {
         Chapter chapter = Chapter.builder()
                 .title(title)
-                .content(content)
                 .contentType(ContentType.TEXT)
                 .topic(topic)
                 .displayOrder(order)
                 .isMandatory(true)
                 .estimatedMinutes(15)
                 .build();
-        return chapterRepository.save(chapter);
+        return saveWithContent(chapter, content);
     }
 
     // Overloaded method for chapters with different content types
@@ -581,7 +583,6 @@ public class DataInitializationService {
                                          Integer estimatedMinutes, Boolean isMandatory, int order) {
         Chapter chapter = Chapter.builder()
                 .title(title)
-                .content(content)
                 .contentType(contentType)
                 .videoUrl(videoUrl)
                 .videoPlatform(videoPlatform)
@@ -594,7 +595,13 @@ public class DataInitializationService {
                 .topic(topic)
                 .displayOrder(order)
                 .build();
-        return chapterRepository.save(chapter);
+        return saveWithContent(chapter, content);
+    }
+
+    private Chapter saveWithContent(Chapter chapter, String content) {
+        Chapter saved = chapterRepository.save(chapter);
+        if (content != null) chapterContentStore.write(saved.getId(), content);
+        return saved;
     }
 
     /**
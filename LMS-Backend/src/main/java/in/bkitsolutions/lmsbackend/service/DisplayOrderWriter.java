@@ -0,0 +1,75 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Applies a complete new order to the children of one parent (topics of a course,
+ * chapters of a topic) with a single UPDATE. Only rows whose position changes are
+ * written; they get a new version, updated_at and one curriculum change number, so the
+ * parent's version stamps and with them every cached curriculum change once per reorder.
+ */
+@Component
+public class DisplayOrderWriter {
+    private final JdbcTemplate jdbcTemplate;
+    private final CurriculumSyncService curriculumSyncService;
+
+    public DisplayOrderWriter(JdbcTemplate jdbcTemplate, CurriculumSyncService curriculumSyncService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.curriculumSyncService = curriculumSyncService;
+    }
+
+    /**
+     * @param current  [id, displayOrder] of every child of the parent
+     * @param ordered  all child ids in their new order; positions start at 1
+     * @return the number of rows whose position changed
+     */
+    int reorder(String table, String parentColumn, Long parentId, Long courseId,
+                List<Object[]> current, List<Long> ordered, String childName) {
+        Map<Long, Integer> currentOrder = new HashMap<>();
+        for (Object[] row : current) currentOrder.put((Long) row[0], (Integer) row[1]);
+        Set<Long> seen = new HashSet<>();
+        if (ordered == null || ordered.size() != currentOrder.size()
+                || !ordered.stream().allMatch(id -> id != null && currentOrder.containsKey(id) && seen.add(id))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "The list must contain every " + childName + " exactly once");
+        }
+
+        StringBuilder cases = new StringBuilder();
+        StringBuilder ids = new StringBuilder();
+        List<Object> caseArgs = new ArrayList<>();
+        List<Object> idArgs = new ArrayList<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            Long id = ordered.get(i);
+            if (Objects.equals(currentOrder.get(id), i + 1)) continue;
+            cases.append(" WHEN ? THEN ?");
+            caseArgs.add(id);
+            caseArgs.add(i + 1);
+            ids.append(ids.isEmpty() ? "?" : ", ?");
+            idArgs.add(id);
+        }
+        if (idArgs.isEmpty()) return 0;
+
+        List<Object> args = new ArrayList<>(caseArgs);
+        args.add(Timestamp.valueOf(LocalDateTime.now()));
+        args.add(curriculumSyncService.nextChangeSeq(courseId));
+        args.add(parentId);
+        args.addAll(idArgs);
+        jdbcTemplate.update("UPDATE " + table + " SET display_order = CASE id" + cases + " END,"
+                + " version = version + 1, updated_at = ?, change_seq = ?"
+                + " WHERE " + parentColumn + " = ? AND id IN (" + ids + ")", args.toArray());
+        return idArgs.size();
+    }
+}
@@ -1,34 +1,57 @@
 package in.bkitsolutions.lmsbackend.service;
 
+import in.bkitsolutions.lmsbackend.dto.CursorPage;
 import in.bkitsolutions.lmsbackend.dto.EnrollmentDtos;
 import in.bkitsolutions.lmsbackend.model.*;
 import in.bkitsolutions.lmsbackend.repository.*;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class EnrollmentService {
+    private static final int INSERT_CHUNK = 500;
+
     private final EnrollmentRepository enrollmentRepository;
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
-    private final ChapterProgressRepository chapterProgressRepository;
+    private final ProgressCounterService progressCounterService;
     private final ChapterRepository chapterRepository;
+    private final ChapterProgressRepository chapterProgressRepository;
+    private final SeatReservationService seatReservationService;
+    private final CourseWaitlistRepository waitlistRepository;
+    private final JdbcTemplate jdbcTemplate;
 
     public EnrollmentService(EnrollmentRepository enrollmentRepository, CourseRepository courseRepository,
-                             UserRepository userRepository, ChapterProgressRepository chapterProgressRepository,
-                             ChapterRepository chapterRepository) {
+                             UserRepository userRepository, ProgressCounterService progressCounterService,
+                             ChapterRepository chapterRepository, ChapterProgressRepository chapterProgressRepository,
+                             SeatReservationService seatReservationService, CourseWaitlistRepository waitlistRepository,
+                             JdbcTemplate jdbcTemplate) {
         this.enrollmentRepository = enrollmentRepository;
         this.courseRepository = courseRepository;
         this.userRepository = userRepository;
-        this.chapterProgressRepository = chapterProgressRepository;
+        this.progressCounterService = progressCounterService;
         this.chapterRepository = chapterRepository;
+        this.chapterProgressRepository = chapterProgressRepository;
+        this.seatReservationService = seatReservationService;
+        this.waitlistRepository = waitlistRepository;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     public EnrollmentDtos.EnrollmentResponse enroll(String studentEmail, Long courseId) {
@@ -52,35 +75,119 @@ public class EnrollmentService {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You can only enroll in courses from your college");
         }
 
-        if (enrollmentRepository.existsByCourseIdAndStudentId(courseId, student.getId())) {
+        Enrollment existing = enrollmentRepository.findByCourseIdAndStudentId(courseId, student.getId()).orElse(null);
+        if (existing != null && existing.getStatus() != EnrollmentStatus.DROPPED) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Already enrolled in this course");
         }
 
-        // Check max enrollment
-        if (course.getMaxEnrollment() != null) {
-            long count = enrollmentRepository.countByCourseId(courseId);
-            if (count >= course.getMaxEnrollment()) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Course enrollment is full");
-            }
+        // A waitlist join is confirmed against the database, never against the in-process full mark
+        boolean waitlist = Boolean.TRUE.equals(course.getWaitlistEnabled());
+        boolean admitted = waitlist ? seatReservationService.reserve(courseId, 1)
+                : seatReservationService.tryReserve(courseId);
+        if (!admitted) {
+            if (waitlist) return joinWaitlist(course, student);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Course enrollment is full");
         }
 
-        Enrollment enrollment = Enrollment.builder()
+        waitlistRepository.deleteByCourseIdAndStudentId(courseId, student.getId());
+        return toResponse(activate(course, student, existing));
+    }
+
+    public void unenroll(String studentEmail, Long courseId) {
+        User student = requireUser(studentEmail);
+        Enrollment enrollment = enrollmentRepository.findByCourseIdAndStudentId(courseId, student.getId()).orElse(null);
+        if (enrollment == null) {
+            // Leaving the waitlist
+            if (waitlistRepository.deleteByCourseIdAndStudentId(courseId, student.getId()) > 0) return;
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Enrollment not found");
+        }
+        drop(enrollment);
+    }
+
+    // Creates the enrollment, or reactivates a dropped one; the caller has taken the seat
+    private Enrollment activate(Course course, User student, Enrollment existing) {
+        Enrollment enrollment = existing != null ? existing : Enrollment.builder()
                 .course(course)
                 .student(student)
-                .status(EnrollmentStatus.ACTIVE)
-                .progressPercentage(0)
                 .build();
+        enrollment.setStatus(EnrollmentStatus.ACTIVE);
+        enrollment.setCompletedAt(null);
+        progressCounterService.initialize(enrollment);
+        return enrollmentRepository.save(enrollment);
+    }
 
-        enrollment = enrollmentRepository.save(enrollment);
-        return toResponse(enrollment);
+    private EnrollmentDtos.EnrollmentResponse joinWaitlist(Course course, User student) {
+        CourseWaitlistEntry entry = waitlistRepository.findByCourseIdAndStudentId(course.getId(), student.getId())
+                .orElseGet(() -> waitlistRepository.save(CourseWaitlistEntry.builder()
+                        .course(course)
+                        .student(student)
+                        .build()));
+        return EnrollmentDtos.EnrollmentResponse.builder()
+                .courseId(course.getId())
+                .courseTitle(course.getTitle())
+                .courseThumbnailUrl(course.getThumbnailUrl())
+                .studentId(student.getId())
+                .studentName(student.getName())
+                .studentEmail(student.getEmail())
+                .status("WAITLISTED")
+                .waitlistPosition((int) waitlistRepository.countByCourseIdAndIdLessThanEqual(course.getId(), entry.getId()))
+                .build();
     }
 
-    public void unenroll(String studentEmail, Long courseId) {
-        User student = requireUser(studentEmail);
-        Enrollment enrollment = enrollmentRepository.findByCourseIdAndStudentId(courseId, student.getId())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Enrollment not found"));
+    // Frees the seat and hands it straight to the head of the waitlist, if any
+    private void drop(Enrollment enrollment) {
+        if (enrollment.getStatus() == EnrollmentStatus.DROPPED) return;
         enrollment.setStatus(EnrollmentStatus.DROPPED);
         enrollmentRepository.save(enrollment);
+        promote(enrollment.getCourse().getId(), 1);
+    }
+
+    /**
+     * Enrolls waitlisted students in FIFO order while seats are free. The head of the queue
+     * is read with a row lock, so concurrent promotions of one course take entries one after
+     * another. Returns the number of students promoted.
+     */
+    public int promoteFromWaitlist(Long courseId) {
+        return promote(courseId, 0);
+    }
+
+    // Seats freed in this transaction still count as taken; they go to the queue first and any
+    // left over are released when the transaction commits
+    private int promote(Long courseId, int freedSeats) {
+        int promoted = 0;
+        while (true) {
+            CourseWaitlistEntry next = waitlistRepository.findFirstByCourseIdOrderByIdAsc(courseId).orElse(null);
+            if (next == null) break;
+            Enrollment existing = enrollmentRepository
+                    .findByCourseIdAndStudentId(courseId, next.getStudent().getId()).orElse(null);
+            if (existing != null && existing.getStatus() != EnrollmentStatus.DROPPED) {
+                waitlistRepository.delete(next); // enrolled some other way meanwhile
+                continue;
+            }
+            if (freedSeats > 0) freedSeats--;
+            else if (!seatReservationService.reserve(courseId, 1)) break;
+            waitlistRepository.delete(next);
+            activate(next.getCourse(), next.getStudent(), existing);
+            promoted++;
+        }
+        if (freedSeats > 0) seatReservationService.release(courseId, freedSeats);
+        return promoted;
+    }
+
+    public List<EnrollmentDtos.WaitlistEntryResponse> getWaitlist(String requesterEmail, Long courseId) {
+        verifyEnrollmentListAccess(requireUser(requesterEmail), courseId);
+        List<CourseWaitlistEntry> entries = waitlistRepository.findByCourseIdOrderByIdAsc(courseId);
+        List<EnrollmentDtos.WaitlistEntryResponse> result = new ArrayList<>(entries.size());
+        for (CourseWaitlistEntry entry : entries) {
+            result.add(EnrollmentDtos.WaitlistEntryResponse.builder()
+                    .studentId(entry.getStudent().getId())
+                    .studentName(entry.getStudent().getName())
+                    .studentEmail(entry.getStudent().getEmail())
+                    .position(result.size() + 1)
+                    .joinedAt(entry.getCreatedAt() != null ? entry.getCreatedAt().toString() : null)
+                    .build());
+        }
+        return result;
     }
 
     public List<EnrollmentDtos.EnrollmentResponse> getMyEnrollments(String studentEmail) {
@@ -90,11 +197,33 @@ public class EnrollmentService {
     }
 
     public List<EnrollmentDtos.EnrollmentResponse> getCourseEnrollments(String requesterEmail, Long courseId) {
-        User requester = requireUser(requesterEmail);
+        verifyEnrollmentListAccess(requireUser(requesterEmail), courseId);
+        return enrollmentRepository.findByCourseId(courseId)
+                .stream().map(this::toResponse).collect(Collectors.toList());
+    }
+
+    public CursorPage<EnrollmentDtos.EnrollmentResponse> getCourseEnrollmentsPage(String requesterEmail, Long courseId,
+                                                                                  String cursor, Integer limit) {
+        verifyEnrollmentListAccess(requireUser(requesterEmail), courseId);
+        int pageSize = CursorPage.clampLimit(limit);
+        List<Enrollment> rows = enrollmentRepository.findByCourseIdAndIdLessThanOrderByIdDesc(
+                courseId, CursorPage.decode(cursor), CursorPage.request(pageSize));
+        return CursorPage.of(rows, pageSize, Enrollment::getId, this::toResponse);
+    }
+
+    public CursorPage<EnrollmentDtos.EnrollmentResponse> getMyEnrollmentsPage(String studentEmail,
+                                                                              String cursor, Integer limit) {
+        User student = requireUser(studentEmail);
+        int pageSize = CursorPage.clampLimit(limit);
+        List<Enrollment> rows = enrollmentRepository.findByStudentIdAndIdLessThanOrderByIdDesc(
+                student.getId(), CursorPage.decode(cursor), CursorPage.request(pageSize));
+        return CursorPage.of(rows, pageSize, Enrollment::getId, this::toResponse);
+    }
+
+    // Only course creator, admin of same college, or superadmin can view enrollments
+    private void verifyEnrollmentListAccess(User requester, Long courseId) {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found"));
-
-        // Only course creator, admin of same college, or superadmin can view enrollments
         if (requester.getType() != UserType.SUPERADMIN && requester.getType() != UserType.ROOTADMIN) {
             if (requester.getType() == UserType.ADMIN || requester.getType() == UserType.FACULTY) {
                 if (requester.getCollege() == null || !requester.getCollege().getId().equals(course.getCollege().getId())) {
@@ -104,47 +233,24 @@ public class EnrollmentService {
                 throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Insufficient permissions");
             }
         }
-
-        return enrollmentRepository.findByCourseId(courseId)
-                .stream().map(this::toResponse).collect(Collectors.toList());
     }
 
+    // Counters are kept current by ProgressCounterService, so this is a single-row read
+    @Transactional(readOnly = true)
     public EnrollmentDtos.ProgressResponse getProgress(String studentEmail, Long courseId) {
         User student = requireUser(studentEmail);
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found"));
-
         Enrollment enrollment = enrollmentRepository.findByCourseIdAndStudentId(courseId, student.getId())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Not enrolled in this course"));
-
-        // Calculate progress from chapter completions
-        int totalChapters = 0;
-        int completedChapters = 0;
-        if (course.getTopics() != null) {
-            for (Topic topic : course.getTopics()) {
-                List<Chapter> chapters = chapterRepository.findByTopicIdOrderByDisplayOrderAsc(topic.getId());
-                totalChapters += chapters.size();
-                completedChapters += (int) chapterProgressRepository
-                        .countByChapterTopicIdAndStudentIdAndCompletedTrue(topic.getId(), student.getId());
-            }
-        }
-
-        int progressPercent = totalChapters > 0 ? (completedChapters * 100) / totalChapters : 0;
-
-        // Update enrollment progress
-        enrollment.setProgressPercentage(progressPercent);
-        if (progressPercent >= 100 && enrollment.getStatus() == EnrollmentStatus.ACTIVE) {
-            enrollment.setStatus(EnrollmentStatus.COMPLETED);
-            enrollment.setCompletedAt(LocalDateTime.now());
-        }
-        enrollmentRepository.save(enrollment);
+                .orElseThrow(() -> courseRepository.existsById(courseId)
+                        ? new ResponseStatusException(HttpStatus.NOT_FOUND, "Not enrolled in this course")
+                        : new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found"));
 
+        Course course = enrollment.getCourse();
         return EnrollmentDtos.ProgressResponse.builder()
                 .courseId(course.getId())
                 .courseTitle(course.getTitle())
-                .totalChapters(totalChapters)
-                .completedChapters(completedChapters)
-                .progressPercentage(progressPercent)
+                .totalChapters(enrollment.getTotalChapters())
+                .completedChapters(enrollment.getCompletedChapters())
+                .progressPercentage(enrollment.getProgressPercentage())
                 .status(enrollment.getStatus().name())
                 .build();
     }
@@ -187,25 +293,27 @@ public class EnrollmentService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Can only enroll student users");
         }
 
-        if (enrollmentRepository.existsByCourseIdAndStudentId(courseId, studentId)) {
+        Enrollment existing = enrollmentRepository.findByCourseIdAndStudentId(courseId, studentId).orElse(null);
+        if (existing != null && existing.getStatus() != EnrollmentStatus.DROPPED) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Student already enrolled");
         }
+        if (!seatReservationService.reserve(courseId, 1)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Course enrollment is full");
+        }
 
-        Enrollment enrollment = Enrollment.builder()
-                .course(course)
-                .student(student)
-                .status(EnrollmentStatus.ACTIVE)
-                .progressPercentage(0)
-                .build();
-
-        enrollment = enrollmentRepository.save(enrollment);
-        return toResponse(enrollment);
+        waitlistRepository.deleteByCourseIdAndStudentId(courseId, studentId);
+        return toResponse(activate(course, student, existing));
     }
 
     /**
-     * Bulk enroll multiple students into a course
+     * Bulk enroll multiple students into a course. Students and existing enrollments are
+     * each loaded with one query and the new rows go in as multi-row INSERTs; the seats for
+     * all of them are taken with one conditional UPDATE, so maxEnrollment cannot be overrun.
+     * Dropped enrollments are reactivated. Like adminEnrollStudent, this is an explicit
+     * admin choice and takes free seats ahead of the waitlist; the enrolled students'
+     * own waitlist entries are released.
      */
-    public List<EnrollmentDtos.EnrollmentResponse> adminBulkEnroll(String requesterEmail, Long courseId, List<Long> studentIds) {
+    public EnrollmentDtos.BulkEnrollResponse adminBulkEnroll(String requesterEmail, Long courseId, List<Long> studentIds) {
         User requester = requireUser(requesterEmail);
         verifyAdminAccess(requester);
 
@@ -213,23 +321,114 @@ public class EnrollmentService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found"));
         verifyCollegeAccess(requester, course);
 
-        return studentIds.stream()
-                .filter(studentId -> !enrollmentRepository.existsByCourseIdAndStudentId(courseId, studentId))
-                .map(studentId -> {
-                    User student = userRepository.findById(studentId)
-                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Student " + studentId + " not found"));
-                    if (student.getType() != UserType.USER) return null;
-
-                    Enrollment enrollment = Enrollment.builder()
-                            .course(course)
-                            .student(student)
-                            .status(EnrollmentStatus.ACTIVE)
-                            .progressPercentage(0)
-                            .build();
-                    return toResponse(enrollmentRepository.save(enrollment));
-                })
-                .filter(r -> r != null)
-                .collect(Collectors.toList());
+        Set<Long> requested = studentIds.stream().filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, User> users = requested.isEmpty() ? Map.of() : userRepository.findAllById(requested).stream()
+                .collect(Collectors.toMap(User::getId, u -> u));
+        Map<Long, Enrollment> existing = requested.isEmpty() ? Map.of()
+                : enrollmentRepository.findWithStudentByCourseIdAndStudentIdIn(courseId, requested).stream()
+                        .collect(Collectors.toMap(e -> e.getStudent().getId(), e -> e));
+
+        Map<Long, String> outcomes = new LinkedHashMap<>();
+        List<Long> eligible = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (Long studentId : studentIds) {
+            if (studentId == null) continue;
+            if (!seen.add(studentId)) continue; // reported once, as DUPLICATE below
+            User student = users.get(studentId);
+            Enrollment current = existing.get(studentId);
+            if (student == null) outcomes.put(studentId, "STUDENT_NOT_FOUND");
+            else if (student.getType() != UserType.USER) outcomes.put(studentId, "NOT_A_STUDENT");
+            else if (current != null && current.getStatus() != EnrollmentStatus.DROPPED) {
+                outcomes.put(studentId, "ALREADY_ENROLLED");
+            } else eligible.add(studentId);
+        }
+
+        int seats = seatReservationService.reserveUpTo(courseId, eligible.size());
+        List<Long> toEnroll = new ArrayList<>();
+        List<Enrollment> toReactivate = new ArrayList<>();
+        for (int i = 0; i < eligible.size(); i++) {
+            Long studentId = eligible.get(i);
+            if (i >= seats) {
+                outcomes.put(studentId, "COURSE_FULL");
+                continue;
+            }
+            outcomes.put(studentId, "ENROLLED");
+            Enrollment current = existing.get(studentId);
+            if (current != null) toReactivate.add(current);
+            else toEnroll.add(studentId);
+        }
+
+        insertEnrollments(courseId, toEnroll);
+        for (Enrollment enrollment : toReactivate) {
+            activate(course, enrollment.getStudent(), enrollment);
+            toEnroll.add(enrollment.getStudent().getId());
+        }
+        if (!toEnroll.isEmpty()) waitlistRepository.deleteByCourseIdAndStudentIdIn(courseId, toEnroll);
+        Map<Long, Enrollment> created = toEnroll.isEmpty() ? Map.of()
+                : enrollmentRepository.findWithStudentByCourseIdAndStudentIdIn(courseId, toEnroll).stream()
+                        .collect(Collectors.toMap(e -> e.getStudent().getId(), e -> e));
+
+        List<EnrollmentDtos.BulkEnrollOutcome> report = new ArrayList<>();
+        Set<Long> reported = new HashSet<>();
+        for (Long studentId : studentIds) {
+            if (studentId == null) continue;
+            boolean first = reported.add(studentId);
+            Enrollment enrollment = first ? created.get(studentId) : null;
+            report.add(EnrollmentDtos.BulkEnrollOutcome.builder()
+                    .studentId(studentId)
+                    .outcome(first ? outcomes.get(studentId) : "DUPLICATE")
+                    .enrollmentId(enrollment != null ? enrollment.getId() : null)
+                    .build());
+        }
+
+        return EnrollmentDtos.BulkEnrollResponse.builder()
+                .courseId(courseId)
+                .requested(report.size())
+                .enrolled(toEnroll.size())
+                .skipped(report.size() - toEnroll.size())
+                .outcomes(report)
+                .enrollments(toEnroll.stream().map(created::get).filter(Objects::nonNull)
+                        .map(this::toResponse).collect(Collectors.toList()))
+                .build();
+    }
+
+    /**
+     * Enrolls students the caller has already validated (new USERs of the course's college,
+     * not yet enrolled), as far as seats allow. Returns the ids that did not fit.
+     */
+    public List<Long> enrollValidatedStudents(Long courseId, List<Long> studentIds) {
+        int fit = seatReservationService.reserveUpTo(courseId, studentIds.size());
+        insertEnrollments(courseId, studentIds.subList(0, fit));
+        return studentIds.subList(fit, studentIds.size());
+    }
+
+    // The caller has reserved a seat for each of these students.
+    // Progress counters are seeded here as ProgressCounterService.initialize does for single enrollments
+    private void insertEnrollments(Long courseId, List<Long> studentIds) {
+        if (studentIds.isEmpty()) return;
+        int totalChapters = (int) chapterRepository.countByTopicCourseId(courseId);
+        Map<Long, Long> completedByStudent = new HashMap<>();
+        if (totalChapters > 0) {
+            for (Object[] row : chapterProgressRepository.countCompletedByCourseIdGroupByStudent(courseId)) {
+                completedByStudent.put((Long) row[0], (Long) row[1]);
+            }
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int from = 0; from < studentIds.size(); from += INSERT_CHUNK) {
+            List<Long> chunk = studentIds.subList(from, Math.min(from + INSERT_CHUNK, studentIds.size()));
+            StringBuilder sql = new StringBuilder("INSERT INTO enrollments (course_id, student_id, status, enrolled_at,"
+                    + " progress_percentage, completed_chapters, total_chapters) VALUES ");
+            List<Object> args = new ArrayList<>(chunk.size() * 7);
+            for (int i = 0; i < chunk.size(); i++) {
+                Long studentId = chunk.get(i);
+                int completed = (int) Math.min(completedByStudent.getOrDefault(studentId, 0L), totalChapters);
+                sql.append(i == 0 ? "" : ",").append("(?, ?, ?, ?, ?, ?, ?)");
+                args.addAll(List.of(courseId, studentId, EnrollmentStatus.ACTIVE.name(), now,
+                        ProgressCounterService.percentOf(completed, totalChapters), completed, totalChapters));
+            }
+            jdbcTemplate.update(sql.toString(), args.toArray());
+        }
     }
 
     /**
@@ -243,11 +442,12 @@ public class EnrollmentService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found"));
         verifyCollegeAccess(requester, course);
 
-        Enrollment enrollment = enrollmentRepository.findByCourseIdAndStudentId(courseId, studentId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Enrollment not found"));
-
-        enrollment.setStatus(EnrollmentStatus.DROPPED);
-        enrollmentRepository.save(enrollment);
+        Enrollment enrollment = enrollmentRepository.findByCourseIdAndStudentId(courseId, studentId).orElse(null);
+        if (enrollment == null) {
+            if (waitlistRepository.deleteByCourseIdAndStudentId(courseId, studentId) > 0) return;
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Enrollment not found");
+        }
+        drop(enrollment);
     }
 
     /**
@@ -262,17 +462,33 @@ public class EnrollmentService {
 
         verifyCollegeAccess(requester, enrollment.getCourse());
 
+        EnrollmentStatus newStatus;
         try {
-            EnrollmentStatus newStatus = EnrollmentStatus.valueOf(status.toUpperCase());
-            enrollment.setStatus(newStatus);
-            if (newStatus == EnrollmentStatus.COMPLETED) {
-                enrollment.setCompletedAt(LocalDateTime.now());
-                enrollment.setProgressPercentage(100);
-            }
+            newStatus = EnrollmentStatus.valueOf(status.toUpperCase());
         } catch (IllegalArgumentException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid status: " + status);
         }
 
+        Long courseId = enrollment.getCourse().getId();
+        if (newStatus == EnrollmentStatus.DROPPED) {
+            drop(enrollment);
+            return toResponse(enrollment);
+        }
+        boolean reactivated = enrollment.getStatus() == EnrollmentStatus.DROPPED;
+        if (reactivated && !seatReservationService.reserve(courseId, 1)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Course enrollment is full");
+        }
+        enrollment.setStatus(newStatus);
+        if (reactivated) {
+            // Chapters may have been added or completed while the enrollment was dropped
+            enrollment.setCompletedAt(null);
+            progressCounterService.initialize(enrollment);
+        }
+        if (newStatus == EnrollmentStatus.COMPLETED) {
+            enrollment.setCompletedAt(LocalDateTime.now());
+            enrollment.setProgressPercentage(100);
+        }
+
         enrollment = enrollmentRepository.save(enrollment);
         return toResponse(enrollment);
     }
@@ -1,35 +1,97 @@
 package in.bkitsolutions.lmsbackend.service;
 
+import in.bkitsolutions.lmsbackend.model.StoredBlob;
+import in.bkitsolutions.lmsbackend.repository.StoredBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
+/**
+ * Stores uploads in the configured ObjectStorage (local disk, or S3 with
+ * app.storage.backend=s3) and hands out their public URLs. With app.upload.content-addressed
+ * each upload is hashed while it streams to a temp file and kept once as
+ * blobs/ab/cd/&lt;sha-256&gt;&lt;ext&gt;; stored_blobs counts the references, and delete()
+ * removes a blob only when its last one goes. Otherwise every upload gets a fresh UUID name
+ * under its subfolder. Derived files (resized images) live under derived/&lt;original name&gt;/
+ * and are deleted together with their original. Files under private/ (rendered certificates)
+ * are never served from /uploads; their owners stream them after their own access checks.
+ */
 @Service
 public class FileStorageService {
+    private static final Logger logger = LoggerFactory.getLogger(FileStorageService.class);
 
-    @Value("${app.upload.dir:uploads}")
-    private String uploadDir;
+    private static final String BLOB_DIR = "blobs";
+    private static final String TEMP_DIR = ".incoming";
+    private static final String DERIVED_DIR = "derived";
+    private static final String PRIVATE_DIR = "private";
 
-    @Value("${app.upload.base-url:http://localhost:8080/uploads}")
-    private String baseUrl;
+    // Names produced by store(): a random UUID or the SHA-256 of the content, plus the extension
+    private static final Pattern GENERATED_NAME = Pattern.compile(
+            "([0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}|[0-9a-f]{64})(\\.[A-Za-z0-9]{1,10})?");
+    private static final Pattern EXTENSION = Pattern.compile("\\.[A-Za-z0-9]{1,10}");
+
+    private final StoredBlobRepository storedBlobRepository;
+    private final LocalObjectStorage local;
+    private final ObjectStorage storage;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate purgeTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** Published when the derived files of a stored name are deleted on this node. */
+    public record DerivativesDeleted(String name) {
+    }
+
+    @Value("${app.upload.content-addressed:false}")
+    private boolean contentAddressed;
+
+    public FileStorageService(StoredBlobRepository storedBlobRepository, PlatformTransactionManager transactionManager,
+                              LocalObjectStorage local, ObjectProvider<S3ObjectStorage> s3,
+                              ApplicationEventPublisher eventPublisher) {
+        this.storedBlobRepository = storedBlobRepository;
+        this.local = local;
+        this.storage = s3.getIfAvailable(() -> local);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.purgeTransaction = new TransactionTemplate(transactionManager);
+        this.purgeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+    }
 
     // Initialize upload directory
     public void init() {
         try {
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
+            Files.createDirectories(local.root());
         } catch (IOException e) {
             throw new RuntimeException("Could not initialize upload directory", e);
         }
+        logger.info("Uploads are stored in {}", storage.getClass().getSimpleName());
     }
 
     // Store file and return URL
@@ -37,50 +99,300 @@ public class FileStorageService {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("Cannot store empty file");
         }
+        Path temp = createTempFile();
+        MessageDigest sha256 = sha256();
+        try (InputStream in = contentAddressed ? new DigestInputStream(file.getInputStream(), sha256) : file.getInputStream()) {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        if (contentAddressed) {
+            return storeBlob(temp, HexFormat.of().formatHex(sha256.digest()), file.getOriginalFilename());
+        }
+        return storeNamed(temp, file.getOriginalFilename(), subfolder);
+    }
 
-        // Create subfolder if needed
-        Path subfolderPath = Paths.get(uploadDir, subfolder);
-        if (!Files.exists(subfolderPath)) {
-            Files.createDirectories(subfolderPath);
+    /**
+     * Takes over a file already on local disk (an assembled resumable upload) and returns
+     * its URL. On local storage the file is moved, never copied; in content-addressed mode
+     * it is read once more to hash it, streaming.
+     */
+    public String storeLocalFile(Path source, String originalFilename, String subfolder) throws IOException {
+        if (contentAddressed) {
+            MessageDigest sha256 = sha256();
+            try (InputStream in = new DigestInputStream(Files.newInputStream(source), sha256)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return storeBlob(source, HexFormat.of().formatHex(sha256.digest()), originalFilename);
         }
+        return storeNamed(source, originalFilename, subfolder);
+    }
 
-        // Generate unique filename
-        String originalFilename = file.getOriginalFilename();
-        String extension = originalFilename != null && originalFilename.contains(".") 
-            ? originalFilename.substring(originalFilename.lastIndexOf(".")) 
-            : "";
-        String filename = UUID.randomUUID().toString() + extension;
+    /**
+     * Stores a file that must not be publicly readable and returns its key, for open() and
+     * deletePrivate(). Never content-addressed: blobs are served publicly. On S3 the bucket
+     * policy must keep private/ out of the public base URL.
+     */
+    public String storePrivateFile(Path source, String originalFilename, String subfolder) throws IOException {
+        String key = newKey(PRIVATE_DIR + "/" + subfolder, originalFilename);
+        try {
+            storage.put(key, source, contentTypeOf(key), true);
+        } finally {
+            Files.deleteIfExists(source); // already moved on local storage
+        }
+        return key;
+    }
 
-        // Store file
-        Path destinationFile = subfolderPath.resolve(filename);
-        Files.copy(file.getInputStream(), destinationFile, StandardCopyOption.REPLACE_EXISTING);
+    public void deletePrivate(String key) {
+        if (key == null || !key.startsWith(PRIVATE_DIR + "/")) return;
+        try {
+            storage.delete(key);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to delete file {}: {}", key, e.getMessage());
+        }
+    }
 
-        // Return public URL
-        return baseUrl + "/" + subfolder + "/" + filename;
+    // Temp files live under the local upload root so that moving them into place is a rename
+    public Path createTempFile() throws IOException {
+        Path tempDir = local.root().resolve(TEMP_DIR);
+        Files.createDirectories(tempDir);
+        return Files.createTempFile(tempDir, "upload-", ".part");
+    }
+
+    public String newKey(String subfolder, String originalFilename) {
+        return subfolder + "/" + UUID.randomUUID() + extensionOf(originalFilename);
+    }
+
+    private String storeNamed(Path temp, String originalFilename, String subfolder) throws IOException {
+        String key = newKey(subfolder, originalFilename);
+        try {
+            storage.put(key, temp, contentTypeOf(key), true);
+        } finally {
+            Files.deleteIfExists(temp); // already moved on local storage
+        }
+        return storage.publicUrl(key);
+    }
+
+    /**
+     * Puts temp into the blob store under its digest, or drops it when the content is already
+     * there. New content is uploaded to a staging key first, outside any transaction; the
+     * reference and the existence check then run under the stored_blobs row lock, which
+     * orders them against a concurrent last delete, and only a move of the staged object
+     * happens while it is held. Only if the blob was purged between the first check and the
+     * lock is the file put under the lock.
+     */
+    private String storeBlob(Path temp, String digest, String originalFilename) throws IOException {
+        String name = digest + extensionOf(originalFilename);
+        String key = blobKey(name);
+        String staged = null;
+        try {
+            long size = Files.size(temp);
+            if (!storage.exists(key)) {
+                // Under the temp prefix, which the collector sweeps and the migrator skips
+                staged = TEMP_DIR + "/staged-" + UUID.randomUUID() + extensionOf(originalFilename);
+                storage.put(staged, temp, contentTypeOf(key), true);
+            }
+
+            String stagedKey = staged;
+            transactionTemplate.executeWithoutResult(status -> {
+                storedBlobRepository.addReference(name, size);
+                try {
+                    if (storage.exists(key)) return;
+                    if (stagedKey != null) storage.move(stagedKey, key);
+                    else storage.put(key, temp, contentTypeOf(key), true);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Could not store blob " + name, e);
+                }
+            });
+            return storage.publicUrl(key);
+        } finally {
+            Files.deleteIfExists(temp); // already moved unless the content was stored before
+            if (staged != null) {
+                try {
+                    storage.delete(staged); // left over when someone else stored the same content first
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Could not delete staged upload {}", staged, e);
+                }
+            }
+        }
     }
 
     // Delete file by URL
     public void delete(String fileUrl) {
         try {
-            if (fileUrl != null && fileUrl.startsWith(baseUrl)) {
-                String relativePath = fileUrl.substring(baseUrl.length() + 1);
-                Path filePath = Paths.get(uploadDir, relativePath);
-                Files.deleteIfExists(filePath);
+            String key = storage.keyOf(fileUrl);
+            ObjectStorage owner = storage;
+            if (key == null && storage != local) {
+                key = local.keyOf(fileUrl); // stored before the switch to another backend
+                owner = local;
             }
-        } catch (IOException e) {
+            if (key == null) return;
+            String name = key.substring(key.lastIndexOf('/') + 1);
+            if (key.startsWith(BLOB_DIR + "/")) {
+                releaseBlob(name);
+            } else {
+                owner.delete(key);
+                deleteDerivatives(owner, name);
+            }
+        } catch (IOException | RuntimeException e) {
             // Log but don't throw - file deletion is not critical
-            System.err.println("Failed to delete file: " + fileUrl);
+            logger.warn("Failed to delete file {}: {}", fileUrl, e.getMessage());
         }
     }
 
-    // For future S3 implementation
-    public String storeToS3(MultipartFile file, String subfolder) {
-        // TODO: Implement S3 upload when moving to production
-        // For now, use local storage
+    // Drops one reference; the blob itself goes after commit, and only if nobody took a new one
+    private void releaseBlob(String name) {
+        if (!GENERATED_NAME.matcher(name).matches()) return;
+        Runnable release = () -> {
+            if (storedBlobRepository.releaseReference(name) == 0) return;
+            Runnable purge = () -> purgeIfUnreferenced(name);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        purge.run();
+                    }
+                });
+            } else {
+                purge.run();
+            }
+        };
+        if (TransactionSynchronizationManager.isActualTransactionActive()) release.run();
+        else transactionTemplate.executeWithoutResult(status -> release.run());
+    }
+
+    private void purgeIfUnreferenced(String name) {
         try {
-            return store(file, subfolder);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to store file", e);
+            purgeTransaction.executeWithoutResult(status -> {
+                StoredBlob blob = storedBlobRepository.findByIdForUpdate(name).orElse(null);
+                if (blob == null || blob.getRefCount() > 0) return;
+                try {
+                    // A blob stored before a backend switch may still be on local disk
+                    for (ObjectStorage owner : storage == local ? List.of(storage) : List.of(storage, local)) {
+                        owner.delete(blobKey(name));
+                        deleteDerivatives(owner, name);
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException("Could not delete blob " + name, e);
+                }
+                storedBlobRepository.delete(blob);
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Could not purge unreferenced blob {}", name, e);
         }
     }
+
+    /**
+     * Removes a local blob that no stored URL refers to any more, whatever its count says
+     * (references leaked by delete() calls that never happened). A blob handed out again
+     * since the cutoff is kept: its new URL may not have been saved yet.
+     */
+    public boolean purgeOrphanBlob(String name, LocalDateTime referencedBefore) {
+        if (!GENERATED_NAME.matcher(name).matches()) return false;
+        return Boolean.TRUE.equals(purgeTransaction.execute(status -> {
+            StoredBlob blob = storedBlobRepository.findByIdForUpdate(name).orElse(null);
+            if (blob != null) {
+                LocalDateTime lastUse = blob.getReferencedAt() != null ? blob.getReferencedAt() : blob.getCreatedAt();
+                if (lastUse != null && lastUse.isAfter(referencedBefore)) return false;
+            }
+            try {
+                local.delete(blobKey(name));
+                deleteDerivatives(local, name);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not delete blob " + name, e);
+            }
+            if (blob != null) storedBlobRepository.delete(blob);
+            return true;
+        }));
+    }
+
+    private void deleteDerivatives(ObjectStorage owner, String name) throws IOException {
+        if (GENERATED_NAME.matcher(name).matches()) {
+            owner.deletePrefix(DERIVED_DIR + "/" + name + "/");
+            eventPublisher.publishEvent(new DerivativesDeleted(name));
+        }
+    }
+
+    private static String blobKey(String name) {
+        return BLOB_DIR + "/" + name.substring(0, 2) + "/" + name.substring(2, 4) + "/" + name;
+    }
+
+    // Key of a file stored through this service in the active backend, or null
+    public String keyOf(String fileUrl) {
+        return storage.keyOf(fileUrl);
+    }
+
+    public String urlOf(String key) {
+        return storage.publicUrl(key);
+    }
+
+    // Key for a file derived from the stored one; only generated (never reused) names get one
+    public String derivativeKey(String originalKey, String fileName) {
+        String name = originalKey.substring(originalKey.lastIndexOf('/') + 1);
+        if (!GENERATED_NAME.matcher(name).matches()) return null;
+        return DERIVED_DIR + "/" + name + "/" + fileName;
+    }
+
+    public boolean exists(String key) throws IOException {
+        return storage.exists(key);
+    }
+
+    public InputStream open(String key) throws IOException {
+        return storage.open(key);
+    }
+
+    public void deleteDerivatives(String originalKey) throws IOException {
+        deleteDerivatives(storage, originalKey.substring(originalKey.lastIndexOf('/') + 1));
+    }
+
+    public void putDerivative(String key, Path temp) throws IOException {
+        try {
+            storage.put(key, temp, contentTypeOf(key), true);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /** A direct-to-storage upload URL for the key, or null when the backend cannot presign. */
+    public ObjectStorage.PresignedUpload presignUpload(String key, long size, Duration ttl) {
+        return storage.presignUpload(key, contentTypeOf(key), size, ttl);
+    }
+
+    private static String contentTypeOf(String key) {
+        return MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+    }
+
+    private static String extensionOf(String originalFilename) {
+        if (originalFilename == null || !originalFilename.contains(".")) return "";
+        String extension = originalFilename.substring(originalFilename.lastIndexOf('.')).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(extension).matches() ? extension : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Regular public file under the local upload directory, or null; rejects paths that escape it
+    // or reach private/ or the in-progress uploads under .incoming/
+    public Path resolve(String relativePath) {
+        Path file = local.resolve(relativePath);
+        if (file == null) return null;
+        return file.startsWith(local.root().resolve(PRIVATE_DIR)) || file.startsWith(local.root().resolve(TEMP_DIR))
+                ? null : file;
+    }
+
+    // Generated names are never reused for other content, so what they point to never changes,
+    // and neither do the files derived from them
+    public boolean isImmutable(Path file) {
+        if (GENERATED_NAME.matcher(file.getFileName().toString()).matches()) return true;
+        Path dir = file.getParent();
+        return dir != null && dir.getParent() != null
+                && DERIVED_DIR.equals(dir.getParent().getFileName().toString())
+                && GENERATED_NAME.matcher(dir.getFileName().toString()).matches();
+    }
 }
@@ -0,0 +1,294 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Resized, re-encoded copies of uploaded images (college logos and banners, profile pictures).
+ * Variants are rendered on the bounded imageVariantExecutor, never on a request thread, and
+ * stored under the original's derived/ key with the target size in the name, so they are
+ * cached as immutably as the original. A variant that is not there yet is queued on first
+ * request and the original URL is returned meanwhile.
+ *
+ * Which variants exist is remembered in memory (bounded, least recently used out), as is
+ * which originals cannot be rendered, so storage is rarely probed on a request. The entries
+ * can go stale: a content-addressed name comes back after its blob is purged, and another
+ * node may delete the files. Entries for a name are dropped when this node deletes its
+ * derived files, and every entry expires after app.image.variant-cache-ttl.
+ */
+@Service
+public class ImageVariantService {
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    // Larger sources are not decoded at all; a 40 MP RGBA raster is already 160 MB of heap
+    private static final long MAX_SOURCE_PIXELS = 40_000_000L;
+    private static final float JPEG_QUALITY = 0.85f;
+    private static final Set<String> ALPHA_EXTENSIONS = Set.of(".png", ".gif", ".webp");
+    private static final int MAX_KNOWN_KEYS = 50_000;
+
+    public enum Variant {
+        THUMBNAIL(160),
+        MEDIUM(960);
+
+        private final int maxSide;
+
+        Variant(int maxSide) {
+            this.maxSide = maxSide;
+        }
+    }
+
+    private final FileStorageService fileStorageService;
+    private final Executor executor;
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    // Variant keys known to exist, and original names whose variants cannot be rendered,
+    // each with the System.nanoTime() at which the entry expires
+    private final Map<String, Long> rendered = lruMap();
+    private final Map<String, Long> unrenderable = lruMap();
+
+    @Value("${app.image.variant-cache-ttl:PT10M}")
+    private Duration cacheTtl;
+
+    public ImageVariantService(FileStorageService fileStorageService,
+                               @Qualifier("imageVariantExecutor") Executor executor) {
+        this.fileStorageService = fileStorageService;
+        this.executor = executor;
+    }
+
+    /** URL of the variant when it has been rendered, otherwise the original URL (and the variant is queued). */
+    public String variantUrl(String url, Variant variant) {
+        String original = fileStorageService.keyOf(url);
+        String target = original != null ? targetOf(original, variant) : null;
+        if (target == null || isKnown(unrenderable, nameOf(original))) return url;
+        if (isKnown(rendered, target)) return fileStorageService.urlOf(target);
+        if (queued.contains(original)) return url;
+        if (exists(target)) {
+            remember(rendered, target);
+            return fileStorageService.urlOf(target);
+        }
+        generateAsync(url);
+        return url;
+    }
+
+    @EventListener
+    public void onDerivativesDeleted(FileStorageService.DerivativesDeleted event) {
+        unrenderable.remove(event.name());
+        for (Variant variant : Variant.values()) {
+            String target = targetOf(event.name(), variant);
+            if (target != null) rendered.remove(target);
+        }
+    }
+
+    private static Map<String, Long> lruMap() {
+        return Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > MAX_KNOWN_KEYS;
+            }
+        });
+    }
+
+    private static boolean isKnown(Map<String, Long> entries, String key) {
+        Long expiresAt = entries.get(key);
+        if (expiresAt == null) return false;
+        if (expiresAt - System.nanoTime() > 0) return true;
+        entries.remove(key, expiresAt);
+        return false;
+    }
+
+    private void remember(Map<String, Long> entries, String key) {
+        entries.put(key, System.nanoTime() + cacheTtl.toNanos());
+    }
+
+    private static String nameOf(String key) {
+        return key.substring(key.lastIndexOf('/') + 1);
+    }
+
+    private boolean exists(String key) {
+        try {
+            return fileStorageService.exists(key);
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /** Queues all variants of a freshly stored image; foreign URLs and non-images are ignored. */
+    public void generateAsync(String url) {
+        String original = fileStorageService.keyOf(url);
+        if (original == null || fileStorageService.derivativeKey(original, "") == null) return;
+        if (!queued.add(original)) return;
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(original);
+                } finally {
+                    queued.remove(original);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // Queue full: the next variantUrl call for this image tries again
+            queued.remove(original);
+        }
+    }
+
+    private void generate(String original) {
+        try {
+            BufferedImage source = null;
+            for (Variant variant : Variant.values()) {
+                String target = targetOf(original, variant);
+                if (target == null) continue;
+                if (isKnown(rendered, target) || exists(target)) {
+                    remember(rendered, target);
+                    continue;
+                }
+                if (source == null) {
+                    try {
+                        source = decode(original);
+                    } catch (IOException | RuntimeException e) {
+                        remember(unrenderable, nameOf(original)); // corrupt source; serving the original is harmless
+                        throw e;
+                    }
+                    if (source == null) {
+                        remember(unrenderable, nameOf(original));
+                        return;
+                    }
+                }
+                Path temp = fileStorageService.createTempFile();
+                try {
+                    write(resize(source, variant.maxSide, hasAlpha(target)), temp, hasAlpha(target));
+                    fileStorageService.putDerivative(target, temp);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+            // Original deleted while rendering: do not leave variants behind without it
+            if (!exists(original)) {
+                fileStorageService.deleteDerivatives(original);
+                return;
+            }
+            for (Variant variant : Variant.values()) {
+                String target = targetOf(original, variant);
+                if (target != null) remember(rendered, target);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not render image variants of {}", original, e);
+        }
+    }
+
+    private String targetOf(String original, Variant variant) {
+        String name = original.substring(original.lastIndexOf('/') + 1);
+        String extension = name.contains(".") ? name.substring(name.lastIndexOf('.')).toLowerCase(Locale.ROOT) : "";
+        String format = ALPHA_EXTENSIONS.contains(extension) ? ".png" : ".jpg";
+        return fileStorageService.derivativeKey(original,
+                variant.name().toLowerCase(Locale.ROOT) + "-" + variant.maxSide + format);
+    }
+
+    private static boolean hasAlpha(String target) {
+        return target.endsWith(".png");
+    }
+
+    // Reads the header first so that oversized sources are refused before any pixels are decoded
+    private BufferedImage decode(String key) throws IOException {
+        try (InputStream stream = fileStorageService.open(key);
+             ImageInputStream in = ImageIO.createImageInputStream(stream)) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null; // SVG and other formats ImageIO cannot read
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > MAX_SOURCE_PIXELS) {
+                    logger.info("Not rendering variants of {}: {} pixels", key, pixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves repeatedly before the last bilinear step, which keeps large downscales from aliasing
+    private static BufferedImage resize(BufferedImage source, int maxSide, boolean alpha) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) maxSide / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = source;
+        do {
+            int w = Math.max(targetWidth, current.getWidth() / 2);
+            int h = Math.max(targetHeight, current.getHeight() / 2);
+            if (current != source && w == current.getWidth() && h == current.getHeight()) break;
+            BufferedImage next = new BufferedImage(w, h, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                if (!alpha) {
+                    g.setColor(Color.WHITE); // transparent JPEG sources flatten onto white, not black
+                    g.fillRect(0, 0, w, h);
+                }
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (current.getWidth() > targetWidth || current.getHeight() > targetHeight);
+        return current;
+    }
+
+    // Encoded to a temp file first and then stored whole, so a request never sees half a file
+    private static void write(BufferedImage image, Path temp, boolean png) throws IOException {
+        if (png) {
+            ImageIO.write(image, "png", temp.toFile());
+        } else {
+            writeJpeg(image, temp);
+        }
+    }
+
+    private static void writeJpeg(BufferedImage image, Path file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
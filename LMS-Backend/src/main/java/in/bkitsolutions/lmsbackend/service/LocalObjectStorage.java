@@ -0,0 +1,110 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Comparator;
+
+/**
+ * Files under app.upload.dir, served by UploadController. Always present: it is the
+ * default backend, and with S3 active it still serves (and the migrator drains) files
+ * stored before the switch.
+ */
+@Component
+public class LocalObjectStorage implements ObjectStorage {
+
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDir;
+
+    @Value("${app.upload.base-url:http://localhost:8080/uploads}")
+    private String baseUrl;
+
+    public Path root() {
+        return Paths.get(uploadDir).toAbsolutePath().normalize();
+    }
+
+    // Regular file for the key, or null; rejects keys that escape the upload directory
+    public Path resolve(String key) {
+        Path root = root();
+        Path file = root.resolve(key).normalize();
+        if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+            return null;
+        }
+        return file;
+    }
+
+    private Path pathOf(String key) throws IOException {
+        Path root = root();
+        Path file = root.resolve(key).normalize();
+        if (!file.startsWith(root)) {
+            throw new IOException("Key outside the upload directory: " + key);
+        }
+        return file;
+    }
+
+    // A rename: temp files are created under the upload root for this reason
+    @Override
+    public void put(String key, Path source, String contentType, boolean immutable) throws IOException {
+        Path target = pathOf(key);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        return Files.isRegularFile(pathOf(key));
+    }
+
+    @Override
+    public void move(String fromKey, String toKey) throws IOException {
+        put(toKey, pathOf(fromKey), null, true);
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(pathOf(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(pathOf(key));
+    }
+
+    @Override
+    public void deletePrefix(String prefix) throws IOException {
+        Path dir = pathOf(prefix);
+        if (!Files.isDirectory(dir)) return;
+        try (var files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Override
+    public String publicUrl(String key) {
+        return baseUrl + "/" + key;
+    }
+
+    @Override
+    public String keyOf(String url) {
+        return url != null && url.startsWith(baseUrl + "/") ? url.substring(baseUrl.length() + 1) : null;
+    }
+
+    @Override
+    public PresignedUpload presignUpload(String key, String contentType, long size, Duration ttl) {
+        return null;
+    }
+}
@@ -0,0 +1,45 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Where uploaded files live, addressed by keys such as college-logos/&lt;uuid&gt;.png or
+ * blobs/ab/cd/&lt;sha-256&gt;.mp4. FileStorageService decides the keys and the reference
+ * counting; implementations only move bytes. LocalObjectStorage keeps them under
+ * app.upload.dir, S3ObjectStorage in a bucket (app.storage.backend=s3).
+ */
+public interface ObjectStorage {
+
+    /**
+     * Stores the file under the key. The source may be moved away (local disk) or left in
+     * place (upload); the caller deletes whatever is left of it.
+     */
+    void put(String key, Path source, String contentType, boolean immutable) throws IOException;
+
+    boolean exists(String key) throws IOException;
+
+    /** Moves an object to another key, replacing it: a rename on disk, a server-side copy elsewhere. */
+    void move(String fromKey, String toKey) throws IOException;
+
+    InputStream open(String key) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    void deletePrefix(String prefix) throws IOException;
+
+    String publicUrl(String key);
+
+    /** Key behind a URL returned by {@link #publicUrl}, or null for any other URL. */
+    String keyOf(String url);
+
+    /** A URL the client can upload the file to directly, or null when uploads must go through the server. */
+    PresignedUpload presignUpload(String key, String contentType, long size, Duration ttl);
+
+    record PresignedUpload(String url, String method, Map<String, String> headers, Instant expiresAt) {
+    }
+}
@@ -17,10 +17,13 @@ import java.time.LocalDateTime;
 public class ProfileService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ImageVariantService imageVariantService;
 
-    public ProfileService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public ProfileService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                          ImageVariantService imageVariantService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.imageVariantService = imageVariantService;
     }
 
     private User requireUser(String email) {
@@ -107,17 +110,21 @@ public class ProfileService {
         User user = requireUser(email);
         user.setProfilePictureUrl(req.getProfilePictureUrl());
         user = userRepository.save(user);
+        imageVariantService.generateAsync(user.getProfilePictureUrl());
         return convertToProfileResponse(user);
     }
 
     private ProfileDtos.UserProfileResponse convertToProfileResponse(User user) {
+        String picture = user.getProfilePictureUrl();
         return new ProfileDtos.UserProfileResponse(
                 user.getId(),
                 user.getEmail(),
                 user.getName(),
                 user.getType().name(),
                 user.getPhoneNumber(),
-                user.getProfilePictureUrl(),
+                picture,
+                picture != null ? imageVariantService.variantUrl(picture, ImageVariantService.Variant.THUMBNAIL) : null,
+                picture != null ? imageVariantService.variantUrl(picture, ImageVariantService.Variant.MEDIUM) : null,
                 user.getBio(),
                 user.getDateOfBirth(),
                 user.getAddress(),
@@ -0,0 +1,88 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import in.bkitsolutions.lmsbackend.model.Chapter;
+import in.bkitsolutions.lmsbackend.model.Enrollment;
+import in.bkitsolutions.lmsbackend.model.Topic;
+import in.bkitsolutions.lmsbackend.repository.ChapterProgressRepository;
+import in.bkitsolutions.lmsbackend.repository.ChapterRepository;
+import in.bkitsolutions.lmsbackend.repository.EnrollmentRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps the completedChapters/totalChapters counters on each enrollment in step with
+ * chapter completions and curriculum edits, so reading progress never has to walk the
+ * course. Every change is a single relative UPDATE in the caller's transaction; drift
+ * from paths that bypass this class is repaired by {@link ProgressReconciliationJob}.
+ * The completion bitmaps are maintained from the same hooks.
+ */
+@Service
+@Transactional
+public class ProgressCounterService {
+    private final EnrollmentRepository enrollmentRepository;
+    private final ChapterRepository chapterRepository;
+    private final ChapterProgressRepository chapterProgressRepository;
+    private final CompletionBitmapService completionBitmapService;
+
+    public ProgressCounterService(EnrollmentRepository enrollmentRepository, ChapterRepository chapterRepository,
+                                  ChapterProgressRepository chapterProgressRepository,
+                                  CompletionBitmapService completionBitmapService) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.chapterRepository = chapterRepository;
+        this.chapterProgressRepository = chapterProgressRepository;
+        this.completionBitmapService = completionBitmapService;
+    }
+
+    /** Seeds the counters of a new enrollment; earlier completions in the course still count. */
+    public void initialize(Enrollment enrollment) {
+        Long courseId = enrollment.getCourse().getId();
+        int total = (int) chapterRepository.countByTopicCourseId(courseId);
+        int completed = (int) chapterProgressRepository
+                .countByChapterTopicCourseIdAndStudentIdAndCompletedTrue(courseId, enrollment.getStudent().getId());
+        enrollment.setTotalChapters(total);
+        enrollment.setCompletedChapters(Math.min(completed, total));
+        enrollment.setProgressPercentage(percentOf(enrollment.getCompletedChapters(), total));
+    }
+
+    /** Call only on the transition of a chapter to completed, never on a repeat completion. */
+    public void chapterCompleted(Chapter chapter, Long studentId) {
+        Long courseId = courseIdOf(chapter.getTopic());
+        if (courseId == null) return;
+        enrollmentRepository.incrementCompletedChapters(courseId, studentId);
+        completionBitmapService.recordCompletion(courseId, chapter.getId(), studentId);
+    }
+
+    public void chapterAdded(Chapter chapter) {
+        Long courseId = courseIdOf(chapter.getTopic());
+        if (courseId != null) enrollmentRepository.addTotalChapters(courseId, 1);
+    }
+
+    /**
+     * Must run before the chapters are deleted: it takes their completions off the
+     * counters and then drops the progress rows, which would otherwise block the delete.
+     */
+    public void chaptersRemoved(Topic topic, Collection<Long> chapterIds) {
+        if (chapterIds.isEmpty()) return;
+        Long courseId = courseIdOf(topic);
+        if (courseId != null) {
+            enrollmentRepository.removeChapters(courseId, chapterIds, chapterIds.size());
+            completionBitmapService.chaptersRemoved(courseId, chapterIds);
+        }
+        chapterProgressRepository.deleteByChapterIdIn(chapterIds);
+    }
+
+    public void chapterRemoved(Chapter chapter) {
+        chaptersRemoved(chapter.getTopic(), List.of(chapter.getId()));
+    }
+
+    public static int percentOf(int completed, int total) {
+        return total > 0 ? Math.min(100, (completed * 100) / total) : 0;
+    }
+
+    private static Long courseIdOf(Topic topic) {
+        return topic != null && topic.getCourse() != null ? topic.getCourse().getId() : null;
+    }
+}
@@ -0,0 +1,77 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import in.bkitsolutions.lmsbackend.repository.ChapterProgressRepository;
+import in.bkitsolutions.lmsbackend.repository.ChapterRepository;
+import in.bkitsolutions.lmsbackend.repository.EnrollmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Periodically compares the enrollment progress counters with chapter_progress and
+ * recounts the enrollments that drifted. Runs shortly after startup too, which also
+ * fills in the counters of enrollments created before they existed.
+ */
+@Component
+public class ProgressReconciliationJob {
+    private static final Logger logger = LoggerFactory.getLogger(ProgressReconciliationJob.class);
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final ChapterRepository chapterRepository;
+    private final ChapterProgressRepository chapterProgressRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public ProgressReconciliationJob(EnrollmentRepository enrollmentRepository, ChapterRepository chapterRepository,
+                                     ChapterProgressRepository chapterProgressRepository,
+                                     PlatformTransactionManager transactionManager) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.chapterRepository = chapterRepository;
+        this.chapterProgressRepository = chapterProgressRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(initialDelayString = "${app.progress.reconcile-initial-delay:PT1M}",
+            fixedDelayString = "${app.progress.reconcile-interval:PT6H}")
+    public void reconcileAll() {
+        int repaired = 0;
+        for (Long courseId : enrollmentRepository.findEnrolledCourseIds()) {
+            try {
+                Integer fixed = transactionTemplate.execute(status -> reconcileCourse(courseId));
+                repaired += fixed != null ? fixed : 0;
+            } catch (RuntimeException e) {
+                logger.warn("Progress reconciliation failed for course {}", courseId, e);
+            }
+        }
+        if (repaired > 0) {
+            logger.info("Progress reconciliation repaired {} enrollment(s)", repaired);
+        }
+    }
+
+    /** One transaction per course keeps row locks short; returns the number of enrollments recounted. */
+    int reconcileCourse(Long courseId) {
+        long total = chapterRepository.countByTopicCourseId(courseId);
+        Map<Long, Long> completedByStudent = new HashMap<>();
+        for (Object[] row : chapterProgressRepository.countCompletedByCourseIdGroupByStudent(courseId)) {
+            completedByStudent.put((Long) row[0], (Long) row[1]);
+        }
+
+        int repaired = 0;
+        for (Object[] row : enrollmentRepository.findProgressCountersByCourseId(courseId)) {
+            long completed = completedByStudent.getOrDefault((Long) row[1], 0L);
+            Integer storedTotal = (Integer) row[2];
+            Integer storedCompleted = (Integer) row[3];
+            if (storedTotal == null || storedTotal != total
+                    || storedCompleted == null || storedCompleted != completed) {
+                enrollmentRepository.recountProgress((Long) row[0]);
+                repaired++;
+            }
+        }
+        return repaired;
+    }
+}
@@ -7,21 +7,25 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.time.LocalDateTime;
-
 @Service
 @Transactional
 public class ProgressService {
     private final ChapterProgressRepository chapterProgressRepository;
     private final ChapterRepository chapterRepository;
     private final UserRepository userRepository;
+    private final ProgressCounterService progressCounterService;
+    private final TimeSpentAccumulator timeSpentAccumulator;
 
     public ProgressService(ChapterProgressRepository chapterProgressRepository,
                            ChapterRepository chapterRepository,
-                           UserRepository userRepository) {
+                           UserRepository userRepository,
+                           ProgressCounterService progressCounterService,
+                           TimeSpentAccumulator timeSpentAccumulator) {
         this.chapterProgressRepository = chapterProgressRepository;
         this.chapterRepository = chapterRepository;
         this.userRepository = userRepository;
+        this.progressCounterService = progressCounterService;
+        this.timeSpentAccumulator = timeSpentAccumulator;
     }
 
     public void markChapterCompleted(String studentEmail, Long chapterId) {
@@ -29,33 +33,23 @@ public class ProgressService {
         Chapter chapter = chapterRepository.findById(chapterId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Chapter not found"));
 
-        ChapterProgress progress = chapterProgressRepository
-                .findByChapterIdAndStudentId(chapterId, student.getId())
-                .orElse(ChapterProgress.builder()
-                        .chapter(chapter)
-                        .student(student)
-                        .build());
-
-        progress.setCompleted(true);
-        progress.setCompletedAt(LocalDateTime.now());
-        chapterProgressRepository.save(progress);
+        chapterProgressRepository.insertIfAbsent(chapterId, student.getId());
+        // A repeat or concurrent completion matches no row and leaves the counters alone
+        if (chapterProgressRepository.markCompleted(chapterId, student.getId()) == 1) {
+            progressCounterService.chapterCompleted(chapter, student.getId());
+        }
     }
 
+    // Heartbeats are coalesced in memory and written in periodic batches by TimeSpentAccumulator
+    @Transactional(readOnly = true)
     public void updateTimeSpent(String studentEmail, Long chapterId, Long additionalSeconds) {
         User student = requireUser(studentEmail);
-        Chapter chapter = chapterRepository.findById(chapterId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Chapter not found"));
-
-        ChapterProgress progress = chapterProgressRepository
-                .findByChapterIdAndStudentId(chapterId, student.getId())
-                .orElse(ChapterProgress.builder()
-                        .chapter(chapter)
-                        .student(student)
-                        .timeSpentSeconds(0L)
-                        .build());
-
-        progress.setTimeSpentSeconds(progress.getTimeSpentSeconds() + additionalSeconds);
-        chapterProgressRepository.save(progress);
+        if (additionalSeconds == null || additionalSeconds <= 0) return;
+        // The chapter only needs checking once per flush window for each reader
+        if (!timeSpentAccumulator.isPending(student.getId(), chapterId) && !chapterRepository.existsById(chapterId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Chapter not found");
+        }
+        timeSpentAccumulator.add(student.getId(), chapterId, additionalSeconds);
     }
 
     public boolean isChapterCompleted(String studentEmail, Long chapterId) {
@@ -1,6 +1,7 @@
 package in.bkitsolutions.lmsbackend.service;
 
 import in.bkitsolutions.lmsbackend.dto.AttemptDtos;
+import in.bkitsolutions.lmsbackend.dto.CursorPage;
 import in.bkitsolutions.lmsbackend.dto.TestDtos;
 import in.bkitsolutions.lmsbackend.dto.UserDtos;
 import in.bkitsolutions.lmsbackend.model.TestAttempt;
@@ -125,6 +126,17 @@ public class ResultService {
         return attempts.stream().map(this::toResultDto).collect(Collectors.toList());
     }
 
+    public CursorPage<AttemptDtos.ResultDto> myResultsPage(String requesterEmail, String cursor, Integer limit) {
+        User requester = requireUser(requesterEmail);
+        if (requester.getType() != UserType.USER && requester.getType() != UserType.FACULTY && requester.getType() != UserType.ADMIN) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only users, faculty, and admins can view their results");
+        }
+        int pageSize = CursorPage.clampLimit(limit);
+        List<TestAttempt> rows = testAttemptRepository.findByStudentIdAndIdLessThanOrderByIdDesc(
+                requester.getId(), CursorPage.decode(cursor), CursorPage.request(pageSize));
+        return CursorPage.of(rows, pageSize, TestAttempt::getId, this::toResultDto);
+    }
+
     public void deleteResult(String requesterEmail, Long resultId) {
         User requester = requireUser(requesterEmail);
         TestAttempt attempt = testAttemptRepository.findById(resultId)
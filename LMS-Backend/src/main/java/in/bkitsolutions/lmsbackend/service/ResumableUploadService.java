@@ -0,0 +1,398 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import in.bkitsolutions.lmsbackend.dto.UploadDtos;
+import in.bkitsolutions.lmsbackend.model.UploadSession;
+import in.bkitsolutions.lmsbackend.model.UploadSessionStatus;
+import in.bkitsolutions.lmsbackend.model.User;
+import in.bkitsolutions.lmsbackend.model.UserType;
+import in.bkitsolutions.lmsbackend.repository.UploadSessionRepository;
+import in.bkitsolutions.lmsbackend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumable uploads for files beyond the multipart limit: initiate a session, PUT chunks
+ * at chunk-aligned offsets in any order (each with its SHA-256), then complete. A chunk is
+ * streamed through a small buffer straight to its offset in the temp file, preallocated to
+ * the full size, and only marked received once its checksum matches. A chunk already
+ * received, or one being written by another request, is refused before any byte is
+ * written, so a bad retry can never overwrite good bytes. The finished file is moved into
+ * storage without being copied; if that fails the session is FAILED and the upload has to
+ * start again. A failed chunk is simply sent again; GET on the session lists the chunks
+ * still missing. Each user has at most app.upload.max-open-sessions open sessions, each
+ * holding a preallocated temp file.
+ */
+@Service
+@Transactional
+public class ResumableUploadService {
+    private static final Logger logger = LoggerFactory.getLogger(ResumableUploadService.class);
+
+    private static final Set<String> PURPOSES = Set.of(
+            "chapter-videos", "chapter-documents", "course-thumbnails", "college-logos", "college-banners");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final UserRepository userRepository;
+    private final FileStorageService fileStorageService;
+    private final TransactionTemplate transactionTemplate;
+    // "sessionId:chunkIndex" of chunks being written; temp files live on this node, so this is enough
+    private final Set<String> chunksInFlight = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.upload.chunk-size:8MB}")
+    private DataSize chunkSize;
+
+    @Value("${app.upload.max-resumable-size:4GB}")
+    private DataSize maxSize;
+
+    @Value("${app.upload.session-ttl:PT24H}")
+    private Duration sessionTtl;
+
+    @Value("${app.upload.direct-upload-ttl:PT15M}")
+    private Duration directUploadTtl;
+
+    @Value("${app.upload.max-open-sessions:5}")
+    private int maxOpenSessions;
+
+    public ResumableUploadService(UploadSessionRepository uploadSessionRepository, UserRepository userRepository,
+                                  FileStorageService fileStorageService, PlatformTransactionManager transactionManager) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.userRepository = userRepository;
+        this.fileStorageService = fileStorageService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    private User requireUser(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+    }
+
+    public UploadDtos.UploadSessionResponse initiate(String requesterEmail, UploadDtos.InitiateUploadRequest req) {
+        User requester = requireUploader(requesterEmail, req);
+        String purpose = req.getPurpose().trim().toLowerCase(Locale.ROOT);
+        if (uploadSessionRepository.countByOwnerIdAndStatus(requester.getId(), UploadSessionStatus.OPEN) >= maxOpenSessions) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many unfinished uploads; complete or abort one first");
+        }
+
+        Path temp;
+        try {
+            temp = fileStorageService.createTempFile();
+            try (RandomAccessFile file = new RandomAccessFile(temp.toFile(), "rw")) {
+                file.setLength(req.getTotalSize()); // sparse where the filesystem allows
+            }
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not create upload file");
+        }
+        UploadSession session = uploadSessionRepository.save(UploadSession.builder()
+                .id(UUID.randomUUID().toString())
+                .owner(requester)
+                .fileName(req.getFileName())
+                .purpose(purpose)
+                .totalSize(req.getTotalSize())
+                .chunkSize((int) chunkSize.toBytes())
+                .receivedChunks(new byte[0])
+                .tempPath(temp.toString())
+                .build());
+        return toResponse(session);
+    }
+
+    /**
+     * Presigned URL for uploading straight to object storage, so the bytes never pass through
+     * this server. Not offered by local storage (501); clients then fall back to chunks.
+     */
+    @Transactional(readOnly = true)
+    public UploadDtos.DirectUploadResponse presignDirect(String requesterEmail, UploadDtos.InitiateUploadRequest req) {
+        requireUploader(requesterEmail, req);
+        String key = fileStorageService.newKey(req.getPurpose().trim().toLowerCase(Locale.ROOT), req.getFileName());
+        ObjectStorage.PresignedUpload upload = fileStorageService.presignUpload(key, req.getTotalSize(), directUploadTtl);
+        if (upload == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "Direct uploads need object storage");
+        }
+        return UploadDtos.DirectUploadResponse.builder()
+                .uploadUrl(upload.url())
+                .method(upload.method())
+                .headers(upload.headers())
+                .url(fileStorageService.urlOf(key))
+                .expiresAt(upload.expiresAt().toString())
+                .build();
+    }
+
+    private User requireUploader(String requesterEmail, UploadDtos.InitiateUploadRequest req) {
+        User requester = requireUser(requesterEmail);
+        if (requester.getType() == UserType.USER) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not allowed to upload files");
+        }
+        if (!PURPOSES.contains(req.getPurpose().trim().toLowerCase(Locale.ROOT))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown upload purpose: " + req.getPurpose());
+        }
+        if (req.getTotalSize() > maxSize.toBytes()) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "File exceeds the limit of " + maxSize.toMegabytes() + " MB");
+        }
+        return requester;
+    }
+
+    @Transactional(readOnly = true)
+    public UploadDtos.UploadSessionResponse getSession(String requesterEmail, String sessionId) {
+        return toResponse(requireOwnSession(requireUser(requesterEmail), sessionId));
+    }
+
+    /**
+     * Writes one chunk at its offset. Runs outside a transaction: the session row is only
+     * locked for the moment the chunk is marked as received, so chunks upload in parallel.
+     * A second PUT of a chunk still being written is refused rather than interleaved.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public UploadDtos.UploadSessionResponse writeChunk(String requesterEmail, String sessionId, long offset,
+                                                       String sha256Hex, InputStream body) {
+        UploadSession session = requireOwnSession(requireUser(requesterEmail), sessionId);
+        if (session.getStatus() != UploadSessionStatus.OPEN) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload is already " + session.getStatus());
+        }
+        long size = session.getChunkSize();
+        if (offset < 0 || offset >= session.getTotalSize() || offset % size != 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Offset must be a multiple of " + size
+                    + " below " + session.getTotalSize());
+        }
+        int index = (int) (offset / size);
+        long expected = Math.min(size, session.getTotalSize() - offset);
+        if (sha256Hex == null || sha256Hex.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Chunk checksum is required");
+        }
+        String chunkKey = sessionId + ":" + index;
+        if (!chunksInFlight.add(chunkKey)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Chunk " + index + " is being uploaded");
+        }
+        try {
+            // Re-read once no other request can be writing this chunk, so a received chunk is never overwritten
+            UploadSession current = uploadSessionRepository.findById(sessionId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found"));
+            if (current.getStatus() != UploadSessionStatus.OPEN) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload is already " + current.getStatus());
+            }
+            if (BitSet.valueOf(current.getReceivedChunks()).get(index)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Chunk " + index + " was already received");
+            }
+            writeAt(Paths.get(session.getTempPath()), offset, expected, index, sha256Hex, body);
+            return markReceived(sessionId, index);
+        } finally {
+            chunksInFlight.remove(chunkKey);
+        }
+    }
+
+    // Unverified bytes may land in the file, but the chunk stays missing until its checksum matches
+    private static void writeAt(Path file, long offset, long expected, int index, String sha256Hex, InputStream body) {
+        MessageDigest digest = sha256();
+        long written = 0;
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = body.read(buffer)) != -1) {
+                if (written + n > expected) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Chunk is longer than " + expected + " bytes");
+                }
+                digest.update(buffer, 0, n);
+                ByteBuffer data = ByteBuffer.wrap(buffer, 0, n);
+                while (data.hasRemaining()) written += out.write(data, offset + written);
+            }
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Chunk upload interrupted; send it again");
+        }
+        if (written != expected) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Chunk " + index + " must be " + expected + " bytes, got " + written);
+        }
+        if (!HexFormat.of().formatHex(digest.digest()).equalsIgnoreCase(sha256Hex.trim())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Checksum mismatch for chunk " + index);
+        }
+    }
+
+    private UploadDtos.UploadSessionResponse markReceived(String sessionId, int index) {
+        return transactionTemplate.execute(status -> {
+            UploadSession locked = uploadSessionRepository.findByIdForUpdate(sessionId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found"));
+            if (locked.getStatus() != UploadSessionStatus.OPEN) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload is already " + locked.getStatus());
+            }
+            BitSet received = BitSet.valueOf(locked.getReceivedChunks());
+            received.set(index);
+            locked.setReceivedChunks(received.toByteArray());
+            locked.setUpdatedAt(LocalDateTime.now());
+            return toResponse(uploadSessionRepository.save(locked));
+        });
+    }
+
+    /** Moves the assembled file into storage once every chunk has arrived; repeat calls return the URL. */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public UploadDtos.UploadSessionResponse complete(String requesterEmail, String sessionId) {
+        User requester = requireUser(requesterEmail);
+        UploadSession session = transactionTemplate.execute(status -> {
+            UploadSession locked = uploadSessionRepository.findByIdForUpdate(sessionId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found"));
+            requireOwner(requester, locked);
+            if (locked.getStatus() == UploadSessionStatus.COMPLETED) return locked;
+            if (locked.getStatus() == UploadSessionStatus.ASSEMBLING) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload is being completed");
+            }
+            if (locked.getStatus() == UploadSessionStatus.FAILED) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload failed; start it again");
+            }
+            if (BitSet.valueOf(locked.getReceivedChunks()).cardinality() < chunkCount(locked)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload has missing chunks");
+            }
+            locked.setStatus(UploadSessionStatus.ASSEMBLING);
+            return uploadSessionRepository.save(locked);
+        });
+        if (session.getStatus() == UploadSessionStatus.COMPLETED) return toResponse(session);
+
+        String url;
+        try {
+            url = fileStorageService.storeLocalFile(Paths.get(session.getTempPath()), session.getFileName(),
+                    session.getPurpose());
+        } catch (IOException | RuntimeException e) {
+            // Storage may already have consumed the temp file, so the chunks cannot be reused.
+            // FAILED frees the user's open-session slot; the row goes with the idle-session sweep
+            logger.error("Could not store completed upload {}", sessionId, e);
+            try {
+                Files.deleteIfExists(Paths.get(session.getTempPath()));
+            } catch (IOException deleteError) {
+                logger.warn("Could not delete upload file {}", session.getTempPath(), deleteError);
+            }
+            transactionTemplate.executeWithoutResult(status -> uploadSessionRepository.findById(sessionId)
+                    .ifPresent(s -> {
+                        s.setStatus(UploadSessionStatus.FAILED);
+                        s.setTempPath(null);
+                        s.setUpdatedAt(LocalDateTime.now());
+                        uploadSessionRepository.save(s);
+                    }));
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not store the uploaded file");
+        }
+        return transactionTemplate.execute(status -> {
+            UploadSession done = uploadSessionRepository.findById(sessionId).orElseThrow();
+            done.setStatus(UploadSessionStatus.COMPLETED);
+            done.setUrl(url);
+            done.setTempPath(null);
+            done.setCompletedAt(LocalDateTime.now());
+            done.setUpdatedAt(done.getCompletedAt());
+            return toResponse(uploadSessionRepository.save(done));
+        });
+    }
+
+    public void abort(String requesterEmail, String sessionId) {
+        UploadSession session = requireOwnSession(requireUser(requesterEmail), sessionId);
+        if (session.getStatus() == UploadSessionStatus.ASSEMBLING) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload is being completed");
+        }
+        discard(session);
+    }
+
+    // Sessions idle for longer than app.upload.session-ttl: unfinished ones (including a
+    // completion cut short by a restart) free their disk space, finished ones their row
+    @Scheduled(initialDelayString = "${app.upload.session-cleanup-initial-delay:PT5M}",
+            fixedDelayString = "${app.upload.session-cleanup-interval:PT1H}")
+    public void expireIdleSessions() {
+        int expired = 0;
+        for (UploadSession session : uploadSessionRepository.findByUpdatedAtBefore(LocalDateTime.now().minus(sessionTtl))) {
+            if (session.getStatus() == UploadSessionStatus.COMPLETED) {
+                uploadSessionRepository.delete(session);
+            } else {
+                discard(session);
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            logger.info("Expired {} unfinished upload session(s)", expired);
+        }
+    }
+
+    private void discard(UploadSession session) {
+        if (session.getTempPath() != null) {
+            try {
+                Files.deleteIfExists(Paths.get(session.getTempPath()));
+            } catch (IOException e) {
+                logger.warn("Could not delete upload file {}", session.getTempPath(), e);
+            }
+        }
+        uploadSessionRepository.delete(session);
+    }
+
+    private UploadSession requireOwnSession(User requester, String sessionId) {
+        UploadSession session = uploadSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found"));
+        requireOwner(requester, session);
+        return session;
+    }
+
+    private static void requireOwner(User requester, UploadSession session) {
+        if (!session.getOwner().getId().equals(requester.getId())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found");
+        }
+    }
+
+    private static int chunkCount(UploadSession session) {
+        return (int) ((session.getTotalSize() + session.getChunkSize() - 1) / session.getChunkSize());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static UploadDtos.UploadSessionResponse toResponse(UploadSession session) {
+        int count = chunkCount(session);
+        BitSet received = BitSet.valueOf(session.getReceivedChunks() != null ? session.getReceivedChunks() : new byte[0]);
+        List<Integer> missing = new ArrayList<>();
+        if (session.getStatus() != UploadSessionStatus.COMPLETED) {
+            for (int i = received.nextClearBit(0); i < count; i = received.nextClearBit(i + 1)) missing.add(i);
+        }
+        return UploadDtos.UploadSessionResponse.builder()
+                .id(session.getId())
+                .fileName(session.getFileName())
+                .purpose(session.getPurpose())
+                .totalSize(session.getTotalSize())
+                .chunkSize(session.getChunkSize())
+                .chunkCount(count)
+                .receivedChunkCount(session.getStatus() == UploadSessionStatus.COMPLETED ? count : received.cardinality())
+                .missingChunks(missing)
+                .status(session.getStatus().name())
+                .url(session.getUrl())
+                .createdAt(session.getCreatedAt() != null ? session.getCreatedAt().toString() : null)
+                .updatedAt(session.getUpdatedAt() != null ? session.getUpdatedAt().toString() : null)
+                .build();
+    }
+}
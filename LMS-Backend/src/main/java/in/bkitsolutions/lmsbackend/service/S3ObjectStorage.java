@@ -0,0 +1,234 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.ContentStreamProvider;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Objects in an S3 bucket (or any S3-compatible server). Files above the part size go up as
+ * multipart uploads read part by part straight from disk, so the heap never holds more than
+ * the SDK's buffers; the public URL is app.storage.s3.public-base-url (bucket URL or CDN).
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "s3")
+public class S3ObjectStorage implements ObjectStorage {
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE = "public, no-cache";
+    private static final int DELETE_BATCH = 1000; // DeleteObjects limit
+
+    private final S3Client s3;
+    private final S3Presigner presigner;
+
+    @Value("${app.storage.s3.bucket}")
+    private String bucket;
+
+    @Value("${app.storage.s3.public-base-url}")
+    private String publicBaseUrl;
+
+    @Value("${app.storage.s3.part-size:16MB}")
+    private DataSize partSize; // S3 requires at least 5 MB for all parts but the last
+
+    public S3ObjectStorage(S3Client s3, S3Presigner presigner) {
+        this.s3 = s3;
+        this.presigner = presigner;
+    }
+
+    @Override
+    public void put(String key, Path source, String contentType, boolean immutable) throws IOException {
+        long size = Files.size(source);
+        String cacheControl = immutable ? IMMUTABLE : REVALIDATE;
+        if (size <= partSize.toBytes()) {
+            s3.putObject(PutObjectRequest.builder()
+                    .bucket(bucket).key(key).contentType(contentType).cacheControl(cacheControl)
+                    .contentLength(size).build(), RequestBody.fromFile(source));
+            return;
+        }
+
+        String uploadId = s3.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket).key(key).contentType(contentType).cacheControl(cacheControl).build()).uploadId();
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            long part = partSize.toBytes();
+            int number = 1;
+            for (long offset = 0; offset < size; offset += part, number++) {
+                long length = Math.min(part, size - offset);
+                String etag = s3.uploadPart(UploadPartRequest.builder()
+                                .bucket(bucket).key(key).uploadId(uploadId)
+                                .partNumber(number).contentLength(length).build(),
+                        RequestBody.fromContentProvider(partOf(source, offset, length), length, contentType)).eTag();
+                parts.add(CompletedPart.builder().partNumber(number).eTag(etag).build());
+            }
+            s3.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket).key(key).uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build()).build());
+        } catch (RuntimeException e) {
+            s3.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket).key(key).uploadId(uploadId).build());
+            throw e;
+        }
+    }
+
+    // Opens a fresh bounded stream on every call, so the SDK can retry a part
+    private static ContentStreamProvider partOf(Path source, long offset, long length) {
+        return () -> {
+            try {
+                FileChannel channel = FileChannel.open(source, StandardOpenOption.READ).position(offset);
+                return new BoundedInputStream(Channels.newInputStream(channel), length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    @Override
+    public boolean exists(String key) {
+        try {
+            s3.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build());
+            return true;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) return false;
+            throw e;
+        }
+    }
+
+    // Single-request copy, which S3 allows up to 5 GB (above app.upload.max-resumable-size); metadata comes along
+    @Override
+    public void move(String fromKey, String toKey) {
+        s3.copyObject(CopyObjectRequest.builder()
+                .sourceBucket(bucket).sourceKey(fromKey)
+                .destinationBucket(bucket).destinationKey(toKey).build());
+        delete(fromKey);
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        try {
+            return s3.getObject(GetObjectRequest.builder().bucket(bucket).key(key).build());
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) throw new NoSuchFileException(key);
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+    }
+
+    @Override
+    public void deletePrefix(String prefix) {
+        List<ObjectIdentifier> batch = new ArrayList<>();
+        for (S3Object object : s3.listObjectsV2Paginator(ListObjectsV2Request.builder()
+                .bucket(bucket).prefix(prefix).build()).contents()) {
+            batch.add(ObjectIdentifier.builder().key(object.key()).build());
+            if (batch.size() == DELETE_BATCH) {
+                deleteBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) deleteBatch(batch);
+    }
+
+    private void deleteBatch(List<ObjectIdentifier> keys) {
+        s3.deleteObjects(DeleteObjectsRequest.builder()
+                .bucket(bucket).delete(Delete.builder().objects(keys).quiet(true).build()).build());
+    }
+
+    @Override
+    public String publicUrl(String key) {
+        return publicBaseUrl + "/" + key;
+    }
+
+    @Override
+    public String keyOf(String url) {
+        return url != null && url.startsWith(publicBaseUrl + "/") ? url.substring(publicBaseUrl.length() + 1) : null;
+    }
+
+    // Content type and length are signed, so the client cannot upload something else or something larger
+    @Override
+    public PresignedUpload presignUpload(String key, String contentType, long size, Duration ttl) {
+        PresignedPutObjectRequest presigned = presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .putObjectRequest(PutObjectRequest.builder()
+                        .bucket(bucket).key(key).contentType(contentType).contentLength(size)
+                        .cacheControl(IMMUTABLE).build())
+                .build());
+        Map<String, String> headers = new LinkedHashMap<>();
+        presigned.signedHeaders().forEach((name, values) -> {
+            if (!"host".equalsIgnoreCase(name) && !"content-length".equalsIgnoreCase(name)) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+        return new PresignedUpload(presigned.url().toString(), "PUT", headers, presigned.expiration());
+    }
+
+    private static final class BoundedInputStream extends InputStream {
+        private final InputStream in;
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long limit) {
+            this.in = in;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) return -1;
+            int b = in.read();
+            if (b >= 0) remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            if (remaining <= 0) return -1;
+            int n = in.read(buffer, off, (int) Math.min(len, remaining));
+            if (n > 0) remaining -= n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import in.bkitsolutions.lmsbackend.repository.CourseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Course seat accounting on courses.seats_taken (enrollments that are not DROPPED).
+ * A seat is taken with one conditional UPDATE committed on its own, before the enrollment
+ * that uses it, so the course row is locked only for that statement and never for the
+ * rest of an enrollment transaction. If that transaction then rolls back, the seat is
+ * given back; seats freed by a drop are given back after the drop commits. Courses found
+ * full are remembered in-process for app.enrollment.full-cache-ttl, so a registration
+ * rush on a full course is rejected without touching the database; a seat released on
+ * this node clears the mark at once, one released on another node within the TTL.
+ */
+@Service
+@Transactional
+public class SeatReservationService {
+    private static final Logger logger = LoggerFactory.getLogger(SeatReservationService.class);
+
+    private final CourseRepository courseRepository;
+    private final TransactionTemplate seatTx;
+    private final Map<Long, Long> fullUntil = new ConcurrentHashMap<>();
+
+    @Value("${app.enrollment.full-cache-ttl:PT2S}")
+    private Duration fullCacheTtl;
+
+    @Value("${app.enrollment.recount-seats-on-startup:false}")
+    private boolean recountOnStartup;
+
+    public SeatReservationService(CourseRepository courseRepository, PlatformTransactionManager transactionManager) {
+        this.courseRepository = courseRepository;
+        // Seat writes commit on their own, whatever transaction the caller is in
+        this.seatTx = new TransactionTemplate(transactionManager);
+        this.seatTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** Takes one seat, answering from the in-process full mark when it is fresh. */
+    public boolean tryReserve(Long courseId) {
+        Long until = fullUntil.get(courseId);
+        if (until != null) {
+            if (until - System.nanoTime() > 0) return false;
+            fullUntil.remove(courseId, until);
+        }
+        return reserve(courseId, 1);
+    }
+
+    /**
+     * Takes the seats in the database, all or none, and commits at once. They are given back
+     * if the caller's transaction rolls back.
+     */
+    public boolean reserve(Long courseId, int seats) {
+        if (seats <= 0) return true;
+        Integer updated = seatTx.execute(status -> courseRepository.reserveSeats(courseId, seats));
+        if (updated == null || updated != 1) {
+            if (seats == 1 && !fullCacheTtl.isZero()) fullUntil.put(courseId, System.nanoTime() + fullCacheTtl.toNanos());
+            return false;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) giveBack(courseId, seats);
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Takes as many of the wanted seats as are free, at most {@code wanted}, on the same terms
+     * as {@link #reserve}. Returns the number taken.
+     */
+    public int reserveUpTo(Long courseId, int wanted) {
+        while (wanted > 0) {
+            int fit = (int) Math.min(wanted, seatsLeft(courseId));
+            if (fit == 0) return 0;
+            if (reserve(courseId, fit)) return fit;
+            wanted = fit; // others took seats since the read; try again with what was free then
+        }
+        return 0;
+    }
+
+    /** Gives the seats back once the caller's transaction commits. */
+    public void release(Long courseId, int seats) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    giveBack(courseId, seats);
+                }
+            });
+        } else {
+            giveBack(courseId, seats);
+        }
+    }
+
+    /**
+     * Seats still free, read without locking and outside the caller's snapshot; only a
+     * conditional reserve can take them.
+     */
+    public long seatsLeft(Long courseId) {
+        List<Object[]> rows = seatTx.execute(status -> courseRepository.findSeats(courseId));
+        if (rows == null || rows.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found");
+        }
+        Object[] row = rows.get(0);
+        if (row[1] == null) return Long.MAX_VALUE;
+        long taken = row[0] != null ? ((Number) row[0]).longValue() : 0;
+        return Math.max(0, ((Number) row[1]).longValue() - taken);
+    }
+
+    public void capacityChanged(Long courseId) {
+        fullUntil.remove(courseId);
+    }
+
+    // A seat that cannot be given back stays counted until the next recount; log it for that
+    private void giveBack(Long courseId, int seats) {
+        try {
+            seatTx.executeWithoutResult(status -> courseRepository.releaseSeats(courseId, seats));
+        } catch (RuntimeException e) {
+            logger.error("Could not give back {} seat(s) of course {}; recount seats to repair", seats, courseId, e);
+        }
+        fullUntil.remove(courseId);
+    }
+
+    // Backfills the counter after upgrading and repairs drift; a full scan of enrollments,
+    // so it runs only on starts with app.enrollment.recount-seats-on-startup set
+    @EventListener(ApplicationReadyEvent.class)
+    public void recountAll() {
+        if (!recountOnStartup) return;
+        int courses = courseRepository.recountSeats();
+        fullUntil.clear();
+        logger.info("Recounted seats of {} course(s)", courses);
+    }
+}
@@ -0,0 +1,116 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Copies files stored on local disk before the switch to app.storage.backend=s3 into the
+ * bucket under the same keys, then rewrites the stored URLs to the bucket's. URLs are only
+ * rewritten after a pass in which every file made it across, so no row ever points at a
+ * missing object; until then UploadController keeps serving the local copies. Local files
+ * are deleted only with app.storage.migration.delete-local, since chapter HTML may still
+ * link to them.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "s3")
+public class StorageMigrationJob {
+    private static final Logger logger = LoggerFactory.getLogger(StorageMigrationJob.class);
+
+    private static final String TEMP_DIR = ".incoming";
+
+    private final LocalObjectStorage local;
+    private final S3ObjectStorage s3;
+    private final FileStorageService fileStorageService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.storage.migration.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.storage.migration.delete-local:false}")
+    private boolean deleteLocal;
+
+    public StorageMigrationJob(LocalObjectStorage local, S3ObjectStorage s3,
+                               FileStorageService fileStorageService, JdbcTemplate jdbcTemplate) {
+        this.local = local;
+        this.s3 = s3;
+        this.fileStorageService = fileStorageService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Scheduled(initialDelayString = "${app.storage.migration.initial-delay:PT1M}",
+            fixedDelayString = "${app.storage.migration.interval:PT6H}")
+    public void migrate() {
+        Path root = local.root();
+        if (!enabled || !Files.isDirectory(root)) return;
+
+        List<Path> migrated = new ArrayList<>();
+        int copied = 0;
+        int failed = 0;
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String key = root.relativize(file).toString().replace(File.separatorChar, '/');
+                if (key.startsWith(TEMP_DIR + "/")) continue;
+                try {
+                    if (!s3.exists(key)) {
+                        String contentType = MediaTypeFactory.getMediaType(key)
+                                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+                        s3.put(key, file, contentType, fileStorageService.isImmutable(file));
+                        copied++;
+                    }
+                    migrated.add(file);
+                } catch (IOException | RuntimeException e) {
+                    failed++;
+                    logger.warn("Could not copy {} to object storage: {}", key, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not walk {}: {}", root, e.getMessage());
+            return;
+        }
+        if (failed > 0) {
+            logger.warn("Copied {} file(s) to object storage, {} failed; URLs stay local until all are across",
+                    copied, failed);
+            return;
+        }
+
+        int rewritten = rewriteUrls(local.publicUrl(""), s3.publicUrl(""));
+        if (copied > 0 || rewritten > 0) {
+            logger.info("Moved {} file(s) to object storage and rewrote {} URL(s)", copied, rewritten);
+        }
+        if (deleteLocal) {
+            for (Path file : migrated) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    logger.warn("Could not delete migrated file {}", file, e);
+                }
+            }
+        }
+    }
+
+    private int rewriteUrls(String oldPrefix, String newPrefix) {
+        String like = oldPrefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        int rewritten = 0;
+        for (String[] column : UploadGarbageCollector.URL_COLUMNS) {
+            rewritten += jdbcTemplate.update("UPDATE " + column[0] + " SET " + column[1]
+                            + " = CONCAT(?, SUBSTRING(" + column[1] + ", ?)) WHERE " + column[1] + " LIKE ?",
+                    newPrefix, oldPrefix.length() + 1, like);
+        }
+        return rewritten;
+    }
+}
@@ -0,0 +1,287 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import in.bkitsolutions.lmsbackend.model.ImportJobStatus;
+import in.bkitsolutions.lmsbackend.model.StudentImportJob;
+import in.bkitsolutions.lmsbackend.repository.CourseRepository;
+import in.bkitsolutions.lmsbackend.repository.StudentImportJobRepository;
+import in.bkitsolutions.lmsbackend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.regex.Pattern;
+
+/**
+ * Streams a queued CSV import: reads CHUNK_SIZE rows at a time, validates them (required
+ * fields, duplicates, existing emails, course codes) with one lookup per chunk, hashes the
+ * passwords on the bounded passwordHashExecutor, inserts the chunk in its own transaction
+ * and appends rejected rows to the job's error report. Memory stays at one chunk.
+ */
+@Component
+public class StudentImportJobRunner extends BackgroundJobRunner<StudentImportJob> {
+    private static final Logger logger = LoggerFactory.getLogger(StudentImportJobRunner.class);
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_FIELD_LENGTH = 255;
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    private final StudentImportJobRepository importJobRepository;
+    private final StudentImportService importService;
+    private final UserRepository userRepository;
+    private final CourseRepository courseRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final Executor hashExecutor;
+
+    public StudentImportJobRunner(StudentImportJobRepository importJobRepository, StudentImportService importService,
+                                  UserRepository userRepository, CourseRepository courseRepository,
+                                  PasswordEncoder passwordEncoder,
+                                  @Qualifier("passwordHashExecutor") Executor hashExecutor,
+                                  PlatformTransactionManager transactionManager) {
+        super(importJobRepository, "Student import job", transactionManager);
+        this.importJobRepository = importJobRepository;
+        this.importService = importService;
+        this.userRepository = userRepository;
+        this.courseRepository = courseRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.hashExecutor = hashExecutor;
+    }
+
+    @Override
+    protected boolean markRunning(Long jobId) {
+        return importJobRepository.transition(jobId, ImportJobStatus.QUEUED, ImportJobStatus.RUNNING) == 1;
+    }
+
+    @Override
+    protected void markFailed(StudentImportJob job, String message) {
+        job.setStatus(ImportJobStatus.FAILED);
+        job.setErrorMessage(message);
+        job.setCompletedAt(LocalDateTime.now());
+    }
+
+    @Async("studentImportExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void run(StudentImportService.ImportRequested event) {
+        Long jobId = event.jobId();
+        StudentImportJob job = claim(jobId, j -> {
+            j.setStartedAt(LocalDateTime.now());
+            j.getCollege().getId(); // initialize for use outside the transaction
+            j.getRequestedBy().getId();
+        });
+        if (job == null) return;
+
+        Path source = Paths.get(job.getSourcePath());
+        Path report = importService.errorReportPath(jobId);
+        ImportRun run = new ImportRun(job.getCollege().getId(), job.getRequestedBy().getId());
+        try (CsvReader csv = new CsvReader(Files.newBufferedReader(source, StandardCharsets.UTF_8));
+             BufferedWriter errors = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+            run.errors = errors;
+            errors.write("line,email,error");
+            errors.newLine();
+
+            Map<String, Integer> columns = readHeader(csv);
+            List<StudentImportService.ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+            List<String> fields;
+            while ((fields = csv.next()) != null) {
+                if (fields.stream().allMatch(String::isBlank)) continue;
+                run.rowsRead++;
+                StudentImportService.ImportRow row = parse(run, columns, fields, csv.recordLine());
+                if (row != null) chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    processChunk(run, chunk);
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                    publish(jobId, run);
+                }
+            }
+            processChunk(run, chunk);
+
+            update(jobId, j -> {
+                apply(j, run);
+                j.setErrorReportPath(run.rowsFailed > 0 ? report.toString() : null);
+                j.setStatus(ImportJobStatus.COMPLETED);
+                j.setCompletedAt(LocalDateTime.now());
+            });
+        } catch (IOException | RuntimeException e) {
+            fail(jobId, e, j -> {
+                apply(j, run);
+                j.setErrorReportPath(run.rowsFailed > 0 ? report.toString() : null);
+            });
+        } finally {
+            deleteQuietly(source); // holds plaintext passwords
+            if (run.rowsFailed == 0) deleteQuietly(report);
+        }
+    }
+
+    private Map<String, Integer> readHeader(CsvReader csv) throws IOException {
+        List<String> header = csv.next();
+        if (header == null) throw new IllegalArgumentException("CSV file is empty");
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("name", "email", "password")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Missing required column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private StudentImportService.ImportRow parse(ImportRun run, Map<String, Integer> columns,
+                                                 List<String> fields, long line) throws IOException {
+        StudentImportService.ImportRow row = new StudentImportService.ImportRow();
+        row.line = line;
+        row.name = field(fields, columns, "name");
+        row.email = field(fields, columns, "email");
+        row.password = field(fields, columns, "password");
+        row.phoneNumber = field(fields, columns, "phonenumber");
+        String courses = field(fields, columns, "courses");
+
+        String error = null;
+        if (row.name == null) error = "Name is required";
+        else if (row.email == null || !EMAIL.matcher(row.email).matches()) error = "Valid email is required";
+        else if (row.password == null) error = "Password is required";
+        else if (row.name.length() > MAX_FIELD_LENGTH || row.email.length() > MAX_FIELD_LENGTH
+                || (row.phoneNumber != null && row.phoneNumber.length() > MAX_FIELD_LENGTH)) {
+            error = "Value longer than " + MAX_FIELD_LENGTH + " characters";
+        }
+        if (error == null && courses != null) {
+            row.courseCodes = new ArrayList<>();
+            row.courseIds = new ArrayList<>();
+            for (String code : courses.split(";")) {
+                if (code.isBlank() || row.courseCodes.contains(code.trim())) continue;
+                Long courseId = run.courseIds.computeIfAbsent(code.trim(), c -> courseRepository
+                        .findByCourseCodeAndCollegeId(c, run.collegeId).map(course -> course.getId()).orElse(-1L));
+                if (courseId < 0) {
+                    error = "Unknown course code: " + code.trim();
+                    break;
+                }
+                row.courseCodes.add(code.trim());
+                row.courseIds.add(courseId);
+            }
+        }
+        if (error != null) {
+            reject(run, line, row.email, error);
+            return null;
+        }
+        return row;
+    }
+
+    private void processChunk(ImportRun run, List<StudentImportService.ImportRow> chunk) throws IOException {
+        if (chunk.isEmpty()) return;
+
+        // Duplicates within the file: earlier chunks are committed, so one IN query covers both cases
+        Set<String> existing = new HashSet<>();
+        for (String email : userRepository.findExistingEmails(chunk.stream().map(r -> r.email).toList())) {
+            existing.add(email.toLowerCase(Locale.ROOT));
+        }
+        Set<String> seen = new HashSet<>();
+        List<StudentImportService.ImportRow> accepted = new ArrayList<>(chunk.size());
+        for (StudentImportService.ImportRow row : chunk) {
+            String key = row.email.toLowerCase(Locale.ROOT);
+            if (existing.contains(key)) reject(run, row.line, row.email, "Email already exists");
+            else if (!seen.add(key)) reject(run, row.line, row.email, "Duplicate email in file");
+            else accepted.add(row);
+        }
+
+        CompletableFuture.allOf(accepted.stream()
+                .map(row -> CompletableFuture.runAsync(() -> {
+                    row.passwordHash = passwordEncoder.encode(row.password);
+                    row.password = null;
+                }, hashExecutor))
+                .toArray(CompletableFuture[]::new)).join();
+
+        StudentImportService.ChunkResult result = importService.insertChunk(run.collegeId, run.requesterId, accepted);
+        run.usersCreated += result.usersCreated;
+        run.enrollmentsCreated += result.enrollmentsCreated;
+        for (StudentImportService.RowError error : result.errors) {
+            boolean userCreated = error.message().startsWith("Student created");
+            if (userCreated) writeError(run, error.line(), error.email(), error.message());
+            else reject(run, error.line(), error.email(), error.message());
+        }
+    }
+
+    private void reject(ImportRun run, long line, String email, String message) throws IOException {
+        run.rowsFailed++;
+        writeError(run, line, email, message);
+    }
+
+    private static void writeError(ImportRun run, long line, String email, String message) throws IOException {
+        run.errors.write(line + "," + csvValue(email) + "," + csvValue(message));
+        run.errors.newLine();
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) return null;
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String csvValue(String value) {
+        if (value == null) return "";
+        if (value.matches(".*[\",\\r\\n].*") || value.startsWith("=") || value.startsWith("+")
+                || value.startsWith("-") || value.startsWith("@")) {
+            // Quote, and neutralize spreadsheet formulas from user-supplied cells
+            String safe = value.matches("^[=+\\-@].*") ? "'" + value : value;
+            return "\"" + safe.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private void publish(Long jobId, ImportRun run) {
+        update(jobId, j -> apply(j, run));
+    }
+
+    private static void apply(StudentImportJob job, ImportRun run) {
+        job.setRowsRead(run.rowsRead);
+        job.setUsersCreated(run.usersCreated);
+        job.setEnrollmentsCreated(run.enrollmentsCreated);
+        job.setRowsFailed(run.rowsFailed);
+    }
+
+    static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete import file {}", path, e);
+        }
+    }
+
+    /** Running totals and per-job caches of one import. */
+    private static class ImportRun {
+        final Long collegeId;
+        final Long requesterId;
+        final Map<String, Long> courseIds = new HashMap<>();
+        BufferedWriter errors;
+        int rowsRead;
+        int usersCreated;
+        int enrollmentsCreated;
+        int rowsFailed;
+
+        ImportRun(Long collegeId, Long requesterId) {
+            this.collegeId = collegeId;
+            this.requesterId = requesterId;
+        }
+    }
+}
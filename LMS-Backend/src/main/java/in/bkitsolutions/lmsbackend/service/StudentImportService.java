@@ -0,0 +1,270 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import in.bkitsolutions.lmsbackend.dto.UserDtos;
+import in.bkitsolutions.lmsbackend.model.ImportJobStatus;
+import in.bkitsolutions.lmsbackend.model.StudentImportJob;
+import in.bkitsolutions.lmsbackend.model.User;
+import in.bkitsolutions.lmsbackend.model.UserType;
+import in.bkitsolutions.lmsbackend.repository.StudentImportJobRepository;
+import in.bkitsolutions.lmsbackend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * CSV onboarding of students (columns: name, email, password, optional phoneNumber and
+ * courses = semicolon-separated course codes to enroll in). Uploads are queued as jobs;
+ * StudentImportJobRunner streams the file and hands validated, pre-hashed chunks to
+ * {@link #insertChunk}, which writes users and enrollments with multi-row INSERTs.
+ */
+@Service
+@Transactional
+public class StudentImportService {
+    public record ImportRequested(Long jobId) {
+    }
+
+    /** One CSV row; the plaintext password is dropped once hashed. */
+    public static class ImportRow {
+        public long line;
+        public String name;
+        public String email;
+        public String password;
+        public String passwordHash;
+        public String phoneNumber;
+        public List<Long> courseIds = List.of();
+        public List<String> courseCodes = List.of();
+    }
+
+    public record RowError(long line, String email, String message) {
+    }
+
+    public static class ChunkResult {
+        public int usersCreated;
+        public int enrollmentsCreated;
+        public final List<RowError> errors = new ArrayList<>();
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(StudentImportService.class);
+
+    private final StudentImportJobRepository importJobRepository;
+    private final UserRepository userRepository;
+    private final EnrollmentService enrollmentService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.import.dir:imports}")
+    private String importDir;
+
+    @Value("${app.import.stale-after:PT2H}")
+    private Duration staleAfter;
+
+    public StudentImportService(StudentImportJobRepository importJobRepository, UserRepository userRepository,
+                                EnrollmentService enrollmentService, ApplicationEventPublisher eventPublisher,
+                                JdbcTemplate jdbcTemplate) {
+        this.importJobRepository = importJobRepository;
+        this.userRepository = userRepository;
+        this.enrollmentService = enrollmentService;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    private User requireUser(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+    }
+
+    public UserDtos.StudentImportJobResponse enqueue(String requesterEmail, MultipartFile file) {
+        User requester = requireUser(requesterEmail);
+        // Same rule as UserManagementService.createStudent
+        if (requester.getType() != UserType.ADMIN && requester.getType() != UserType.FACULTY) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only Admin or Faculty can create Students");
+        }
+        if (requester.getCollege() == null || !requester.getIsActive()) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "User without college assignment or disabled cannot create students");
+        }
+        if (file == null || file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV file is required");
+        }
+
+        Path source = Paths.get(importDir, UUID.randomUUID() + ".csv");
+        try {
+            Files.createDirectories(source.getParent());
+            Files.copy(file.getInputStream(), source, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not store import file");
+        }
+
+        StudentImportJob job = importJobRepository.save(StudentImportJob.builder()
+                .college(requester.getCollege())
+                .requestedBy(requester)
+                .fileName(file.getOriginalFilename())
+                .sourcePath(source.toString())
+                .build());
+        eventPublisher.publishEvent(new ImportRequested(job.getId()));
+        return toJobResponse(job);
+    }
+
+    @Transactional(readOnly = true)
+    public UserDtos.StudentImportJobResponse getJob(String requesterEmail, Long jobId) {
+        return toJobResponse(requireVisibleJob(requireUser(requesterEmail), jobId));
+    }
+
+    @Transactional(readOnly = true)
+    public Resource getErrorReport(String requesterEmail, Long jobId) {
+        StudentImportJob job = requireVisibleJob(requireUser(requesterEmail), jobId);
+        if (job.getErrorReportPath() == null || !Files.exists(Paths.get(job.getErrorReportPath()))) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No error report for this import");
+        }
+        return new FileSystemResource(job.getErrorReportPath());
+    }
+
+    Path errorReportPath(Long jobId) {
+        return Paths.get(importDir, "import-" + jobId + "-" + UUID.randomUUID() + "-errors.csv");
+    }
+
+    /**
+     * Inserts one validated, hashed chunk in the caller's transaction. Rows whose email
+     * was taken concurrently are reported, as are enrollments that no longer fit a course.
+     */
+    public ChunkResult insertChunk(Long collegeId, Long requesterId, List<ImportRow> rows) {
+        ChunkResult result = new ChunkResult();
+        if (rows.isEmpty()) return result;
+
+        // Second precision so the read-back below matches whatever precision created_at has
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now().withNano(0));
+        StringBuilder insert = new StringBuilder("INSERT INTO users"
+                + " (email, name, password_hash, type, college_id, is_active, phone_number, created_at, created_by) VALUES ");
+        List<Object> args = new ArrayList<>(rows.size() * 8);
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRow row = rows.get(i);
+            insert.append(i == 0 ? "" : ",").append("(?, ?, ?, ?, ?, true, ?, ?, ?)");
+            args.addAll(Arrays.asList(row.email, row.name, row.passwordHash, UserType.USER.name(),
+                    collegeId, row.phoneNumber, createdAt, requesterId));
+        }
+        // Only a taken email is skipped; any other bad value fails the chunk instead of being coerced
+        insert.append(" ON DUPLICATE KEY UPDATE id = id");
+        jdbcTemplate.update(insert.toString(), args.toArray());
+
+        StringBuilder select = new StringBuilder("SELECT id, email FROM users WHERE created_by = ? AND created_at = ? AND email IN (");
+        List<Object> selectArgs = new ArrayList<>(rows.size() + 2);
+        selectArgs.add(requesterId);
+        selectArgs.add(createdAt);
+        for (int i = 0; i < rows.size(); i++) {
+            select.append(i == 0 ? "?" : ", ?");
+            selectArgs.add(rows.get(i).email);
+        }
+        select.append(')');
+        Map<String, Long> idByEmail = new HashMap<>();
+        jdbcTemplate.query(select.toString(), rs -> {
+            idByEmail.put(rs.getString(2).toLowerCase(Locale.ROOT), rs.getLong(1));
+        }, selectArgs.toArray());
+
+        Map<Long, List<Long>> studentsByCourse = new LinkedHashMap<>();
+        Map<Long, ImportRow> rowByStudent = new HashMap<>();
+        for (ImportRow row : rows) {
+            Long studentId = idByEmail.get(row.email.toLowerCase(Locale.ROOT));
+            if (studentId == null) {
+                result.errors.add(new RowError(row.line, row.email, "Email already exists"));
+                continue;
+            }
+            result.usersCreated++;
+            rowByStudent.put(studentId, row);
+            for (Long courseId : row.courseIds) {
+                studentsByCourse.computeIfAbsent(courseId, k -> new ArrayList<>()).add(studentId);
+            }
+        }
+
+        for (Map.Entry<Long, List<Long>> course : studentsByCourse.entrySet()) {
+            List<Long> rejected = enrollmentService.enrollValidatedStudents(course.getKey(), course.getValue());
+            result.enrollmentsCreated += course.getValue().size() - rejected.size();
+            for (Long studentId : rejected) {
+                ImportRow row = rowByStudent.get(studentId);
+                String code = row.courseCodes.get(row.courseIds.indexOf(course.getKey()));
+                result.errors.add(new RowError(row.line, row.email,
+                        "Student created but course " + code + " is full"));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Fails jobs lost to a restart or a full import queue: still QUEUED, or RUNNING without
+     * finishing, after app.import.stale-after. Their uploaded CSV holds plaintext passwords,
+     * so it is deleted with them.
+     */
+    @Scheduled(initialDelayString = "${app.import.stale-sweep-initial-delay:PT5M}",
+            fixedDelayString = "${app.import.stale-sweep-interval:PT15M}")
+    public void failStaleJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(staleAfter);
+        List<StudentImportJob> stale = new ArrayList<>(
+                importJobRepository.findByStatusAndCreatedAtBefore(ImportJobStatus.QUEUED, cutoff));
+        stale.addAll(importJobRepository.findByStatusAndStartedAtBefore(ImportJobStatus.RUNNING, cutoff));
+        for (StudentImportJob job : stale) {
+            if (importJobRepository.transition(job.getId(), job.getStatus(), ImportJobStatus.FAILED) == 0) continue;
+            job.setStatus(ImportJobStatus.FAILED);
+            job.setErrorMessage("Import did not finish; upload the file again");
+            job.setCompletedAt(LocalDateTime.now());
+            importJobRepository.save(job);
+            if (job.getSourcePath() != null) StudentImportJobRunner.deleteQuietly(Paths.get(job.getSourcePath()));
+        }
+        if (!stale.isEmpty()) {
+            logger.info("Failed {} stale student import job(s)", stale.size());
+        }
+    }
+
+    private StudentImportJob requireVisibleJob(User requester, Long jobId) {
+        StudentImportJob job = importJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Import job not found"));
+        if (requester.getType() == UserType.SUPERADMIN || requester.getType() == UserType.ROOTADMIN) return job;
+        if (job.getRequestedBy().getId().equals(requester.getId())) return job;
+        if (requester.getType() == UserType.ADMIN && requester.getCollege() != null
+                && requester.getCollege().getId().equals(job.getCollege().getId())) return job;
+        throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied");
+    }
+
+    static UserDtos.StudentImportJobResponse toJobResponse(StudentImportJob job) {
+        return UserDtos.StudentImportJobResponse.builder()
+                .id(job.getId())
+                .collegeId(job.getCollege().getId())
+                .fileName(job.getFileName())
+                .status(job.getStatus().name())
+                .rowsRead(job.getRowsRead())
+                .usersCreated(job.getUsersCreated())
+                .enrollmentsCreated(job.getEnrollmentsCreated())
+                .rowsFailed(job.getRowsFailed())
+                .hasErrorReport(job.getErrorReportPath() != null)
+                .errorMessage(job.getErrorMessage())
+                .createdAt(job.getCreatedAt() != null ? job.getCreatedAt().toString() : null)
+                .startedAt(job.getStartedAt() != null ? job.getStartedAt().toString() : null)
+                .completedAt(job.getCompletedAt() != null ? job.getCompletedAt().toString() : null)
+                .build();
+    }
+}
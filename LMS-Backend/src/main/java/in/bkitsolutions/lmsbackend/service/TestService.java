@@ -1,5 +1,6 @@
 package in.bkitsolutions.lmsbackend.service;
 
+import in.bkitsolutions.lmsbackend.dto.CursorPage;
 import in.bkitsolutions.lmsbackend.model.TestEntity;
 import in.bkitsolutions.lmsbackend.model.User;
 import in.bkitsolutions.lmsbackend.model.UserType;
@@ -118,6 +119,22 @@ public class TestService {
         throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only admin/faculty/superadmin can list tests");
     }
 
+    public CursorPage<TestEntity> myTestsPage(String requesterEmail, String cursor, Integer limit) {
+        User requester = requireUser(requesterEmail);
+        int pageSize = CursorPage.clampLimit(limit);
+        long before = CursorPage.decode(cursor);
+        List<TestEntity> rows;
+        if (requester.getType() == UserType.ADMIN || requester.getType() == UserType.FACULTY) {
+            rows = testRepository.findByCreatedByIdAndIdLessThanOrderByIdDesc(
+                    requester.getId(), before, CursorPage.request(pageSize));
+        } else if (requester.getType() == UserType.SUPERADMIN) {
+            rows = testRepository.findByIdLessThanOrderByIdDesc(before, CursorPage.request(pageSize));
+        } else {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only admin/faculty/superadmin can list tests");
+        }
+        return CursorPage.of(rows, pageSize, TestEntity::getId, t -> t);
+    }
+
     public List<TestEntity> availableForStudent(String requesterEmail) {
         User requester = requireUser(requesterEmail);
         // Allow USER, FACULTY, and ADMIN
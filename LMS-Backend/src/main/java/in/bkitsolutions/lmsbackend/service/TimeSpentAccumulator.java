@@ -0,0 +1,132 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.BatchUpdateException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Absorbs reader time-spent heartbeats in memory and writes the summed seconds per
+ * (student, chapter) in one batched upsert every flush interval. A crash loses at most
+ * one interval of heartbeats (app.progress.time-flush-interval); a clean shutdown flushes.
+ *
+ * Heartbeats add under the shared lock; a flush swaps in an empty map under the
+ * exclusive lock, so no add can land in a map that has already been drained.
+ *
+ * The batch runs in one transaction, so a failed flush writes nothing and its seconds
+ * go back into the map. Rows the driver reports as failed on an integrity error (a
+ * student deleted meanwhile, say) are dropped instead, as retrying cannot fix them.
+ */
+@Component
+public class TimeSpentAccumulator {
+    private static final Logger logger = LoggerFactory.getLogger(TimeSpentAccumulator.class);
+
+    // Rows for chapters deleted since the heartbeat are skipped by the SELECT instead of failing the batch
+    private static final String UPSERT = "INSERT INTO chapter_progress"
+            + " (chapter_id, student_id, completed, time_spent_seconds, last_accessed_at)"
+            + " SELECT ch.id, ?, false, ?, NOW() FROM chapters ch WHERE ch.id = ?"
+            + " ON DUPLICATE KEY UPDATE time_spent_seconds = COALESCE(time_spent_seconds, 0) + ?,"
+            + " last_accessed_at = NOW()";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile ConcurrentHashMap<Key, LongAdder> pending = new ConcurrentHashMap<>();
+
+    public TimeSpentAccumulator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void add(Long studentId, Long chapterId, long seconds) {
+        swapLock.readLock().lock();
+        try {
+            pending.computeIfAbsent(new Key(studentId, chapterId), k -> new LongAdder()).add(seconds);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /** True while heartbeats for this pair are waiting for the next flush. */
+    public boolean isPending(Long studentId, Long chapterId) {
+        return pending.containsKey(new Key(studentId, chapterId));
+    }
+
+    @Scheduled(fixedDelayString = "${app.progress.time-flush-interval:PT10S}")
+    public void flush() {
+        Map<Key, LongAdder> drained;
+        swapLock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) return;
+            drained = pending;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        List<Key> keys = new ArrayList<>(drained.size());
+        List<Object[]> rows = new ArrayList<>(drained.size());
+        drained.forEach((key, adder) -> {
+            long seconds = adder.sum();
+            if (seconds > 0) {
+                keys.add(key);
+                rows.add(new Object[]{key.studentId(), seconds, key.chapterId(), seconds});
+            }
+        });
+        if (rows.isEmpty()) return;
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT, rows));
+        } catch (RuntimeException e) {
+            // Nothing was written; put the seconds back so the next flush retries them
+            Set<Integer> rejected = e instanceof DataIntegrityViolationException ? failedRows(e, rows.size()) : Set.of();
+            logger.warn("Time-spent flush of {} row(s) failed; dropping {} rejected row(s), retrying the rest",
+                    rows.size(), rejected.size(), e);
+            for (int i = 0; i < keys.size(); i++) {
+                if (!rejected.contains(i)) add(keys.get(i).studentId(), keys.get(i).chapterId(), (Long) rows.get(i)[1]);
+            }
+        }
+    }
+
+    /**
+     * Indexes of the rows the driver marked EXECUTE_FAILED. A driver that stops at the first
+     * failure returns counts only for the rows before it, so the next row is the failed one.
+     */
+    private static Set<Integer> failedRows(Throwable e, int rowCount) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof BatchUpdateException batch && batch.getUpdateCounts() != null) {
+                int[] counts = batch.getUpdateCounts();
+                Set<Integer> failed = new HashSet<>();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == Statement.EXECUTE_FAILED) failed.add(i);
+                }
+                if (counts.length < rowCount) failed.add(counts.length);
+                return failed;
+            }
+        }
+        return Set.of();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private record Key(Long studentId, Long chapterId) {
+    }
+}
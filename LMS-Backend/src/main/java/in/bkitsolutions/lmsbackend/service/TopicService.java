@@ -1,6 +1,9 @@
 package in.bkitsolutions.lmsbackend.service;
 
+import in.bkitsolutions.lmsbackend.dto.ContentVersion;
+import in.bkitsolutions.lmsbackend.dto.CursorPage;
 import in.bkitsolutions.lmsbackend.dto.TopicDtos;
+import in.bkitsolutions.lmsbackend.model.Chapter;
 import in.bkitsolutions.lmsbackend.model.Course;
 import in.bkitsolutions.lmsbackend.model.Topic;
 import in.bkitsolutions.lmsbackend.model.User;
@@ -26,13 +29,19 @@ public class TopicService {
     private final UserRepository userRepository;
     private final CourseRepository courseRepository;
     private final ChapterRepository chapterRepository;
+    private final ProgressCounterService progressCounterService;
+    private final CurriculumSyncService curriculumSyncService;
 
     public TopicService(TopicRepository topicRepository, UserRepository userRepository, 
-                        CourseRepository courseRepository, ChapterRepository chapterRepository) {
+                        CourseRepository courseRepository, ChapterRepository chapterRepository,
+                        ProgressCounterService progressCounterService,
+                        CurriculumSyncService curriculumSyncService) {
         this.topicRepository = topicRepository;
         this.userRepository = userRepository;
         this.courseRepository = courseRepository;
         this.chapterRepository = chapterRepository;
+        this.progressCounterService = progressCounterService;
+        this.curriculumSyncService = curriculumSyncService;
     }
 
     private User requireUser(String email) {
@@ -92,6 +101,7 @@ public class TopicService {
                 .published(Boolean.TRUE.equals(req.getPublished()))
                 .displayOrder(req.getDisplayOrder() != null ? req.getDisplayOrder() : 0)
                 .build();
+        curriculumSyncService.touch(topic);
         Topic saved = topicRepository.save(topic);
         return toResponse(saved);
     }
@@ -115,6 +125,7 @@ public class TopicService {
             topic.setPublished(req.getPublished());
         if (req.getDisplayOrder() != null)
             topic.setDisplayOrder(req.getDisplayOrder());
+        curriculumSyncService.touch(topic);
         Topic saved = topicRepository.save(topic);
         return toResponse(saved);
     }
@@ -127,6 +138,11 @@ public class TopicService {
                 && requester.getType() != UserType.SUPERADMIN && requester.getType() != UserType.ROOTADMIN) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not allowed");
         }
+        // Chapters go with the topic (cascade), so take them off the enrollment counters first
+        List<Long> chapterIds = topic.getChapters() != null
+                ? topic.getChapters().stream().map(Chapter::getId).toList() : List.of();
+        progressCounterService.chaptersRemoved(topic, chapterIds);
+        curriculumSyncService.recordTopicDeletion(topic.getCourse().getId(), topicId, chapterIds);
         topicRepository.delete(topic);
     }
 
@@ -142,6 +158,22 @@ public class TopicService {
         throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only admin/faculty/superadmin can list topics");
     }
 
+    public CursorPage<TopicDtos.TopicResponse> getMyTopicsPage(String requesterEmail, String cursor, Integer limit) {
+        User requester = requireUser(requesterEmail);
+        int pageSize = CursorPage.clampLimit(limit);
+        long before = CursorPage.decode(cursor);
+        List<Topic> rows;
+        if (requester.getType() == UserType.ADMIN || requester.getType() == UserType.FACULTY) {
+            rows = topicRepository.findByCreatedByIdAndIdLessThanOrderByIdDesc(
+                    requester.getId(), before, CursorPage.request(pageSize));
+        } else if (requester.getType() == UserType.SUPERADMIN || requester.getType() == UserType.ROOTADMIN) {
+            rows = topicRepository.findByIdLessThanOrderByIdDesc(before, CursorPage.request(pageSize));
+        } else {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only admin/faculty/superadmin can list topics");
+        }
+        return CursorPage.of(rows, pageSize, Topic::getId, this::toResponse);
+    }
+
     public List<TopicDtos.TopicResponse> getTopicsByCollege(String requesterEmail, Long collegeId) {
         User requester = requireUser(requesterEmail);
         if (requester.getType() == UserType.SUPERADMIN || requester.getType() == UserType.ROOTADMIN) {
@@ -165,6 +197,7 @@ public class TopicService {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not allowed");
         }
         topic.setPublished(false);
+        curriculumSyncService.touch(topic);
         Topic saved = topicRepository.save(topic);
         return toResponse(saved);
     }
@@ -188,6 +221,7 @@ public class TopicService {
         }
         
         topic.setDisplayOrder(newOrder);
+        curriculumSyncService.touch(topic);
         Topic saved = topicRepository.save(topic);
         return toResponse(saved);
     }
@@ -244,6 +278,7 @@ public class TopicService {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not allowed");
         }
         topic.setPublished(true);
+        curriculumSyncService.touch(topic);
         Topic saved = topicRepository.save(topic);
         return toResponse(saved);
     }
@@ -254,6 +289,7 @@ public class TopicService {
         // Validate course exists
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found"));
+        CourseService.verifyCourseReadAccess(requester, course.getCollege().getId());
         
         // Get topics based on user role
         if (requester.getType() == UserType.USER) {
@@ -266,4 +302,21 @@ public class TopicService {
                     .stream().map(this::toResponse).collect(Collectors.toList());
         }
     }
+
+    // Validators for getTopicsByCourse; students and staff get different topic lists
+    public ContentVersion getTopicsByCourseVersion(String requesterEmail, Long courseId) {
+        User requester = requireUser(requesterEmail);
+        List<Object[]> course = courseRepository.findVersionStampById(courseId);
+        if (course.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found");
+        }
+        CourseService.verifyCourseReadAccess(requester, (Long) course.get(0)[2]);
+        Object[] topics = topicRepository.findVersionStampByCourseId(courseId).get(0);
+        Object[] chapters = chapterRepository.findVersionStampByCourseId(courseId).get(0);
+
+        return ContentVersion.of(courseId, course.get(0)[0], course.get(0)[1],
+                topics[0], topics[1], topics[2], topics[3],
+                chapters[0], chapters[1], chapters[2], chapters[3],
+                requester.getType() == UserType.USER ? "published" : "all").withoutLastModified();
+    }
 }
@@ -0,0 +1,308 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import in.bkitsolutions.lmsbackend.dto.UploadDtos;
+import in.bkitsolutions.lmsbackend.model.User;
+import in.bkitsolutions.lmsbackend.model.UserType;
+import in.bkitsolutions.lmsbackend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Mark-and-sweep collection of local uploads nothing refers to any more (replaced logos,
+ * files of deleted chapters, blobs whose delete() never came). Marking streams every URL
+ * column and every chapter body into a Bloom filter of the generated ids they mention; the
+ * sweep walks the upload tree and takes files the filter has never seen and that are older
+ * than app.upload.gc.grace. Those candidates are checked once more against an exact set in a
+ * second streaming pass, which also catches references written while the walk ran. Files
+ * without a generated name are never touched. Dry runs (the default) only report.
+ */
+@Service
+public class UploadGarbageCollector {
+    private static final Logger logger = LoggerFactory.getLogger(UploadGarbageCollector.class);
+
+    // Columns holding URLs (or private keys) returned by FileStorageService
+    static final List<String[]> URL_COLUMNS = List.of(
+            new String[]{"colleges", "logo_url"},
+            new String[]{"colleges", "banner_url"},
+            new String[]{"users", "profile_picture_url"},
+            new String[]{"courses", "thumbnail_url"},
+            new String[]{"chapters", "video_url"},
+            new String[]{"chapters", "document_url"},
+            new String[]{"questions", "image_url"},
+            new String[]{"certificates", "download_url"},
+            new String[]{"certificates", "pdf_key"},
+            new String[]{"upload_sessions", "url"});
+
+    // The random or content-hash part of every name FileStorageService generates
+    private static final Pattern ID = Pattern.compile(
+            "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}|[0-9a-f]{64}");
+    private static final Pattern GENERATED_NAME = Pattern.compile("(" + ID.pattern() + ")(\\.[A-Za-z0-9]{1,10})?");
+
+    private static final String BLOB_DIR = "blobs";
+    private static final String DERIVED_DIR = "derived";
+    private static final String TEMP_DIR = ".incoming";
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int HTML_REFERENCES_PER_CHAPTER = 4; // sizing guess for the filter
+    private static final int SAMPLE_SIZE = 100;
+
+    private final LocalObjectStorage local;
+    private final FileStorageService fileStorageService;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final ReentrantLock running = new ReentrantLock();
+
+    @Value("${app.upload.gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.upload.gc.dry-run:true}")
+    private boolean scheduledDryRun;
+
+    @Value("${app.upload.gc.grace:P7D}")
+    private Duration grace;
+
+    public UploadGarbageCollector(LocalObjectStorage local, FileStorageService fileStorageService,
+                                  UserRepository userRepository, JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.local = local;
+        this.fileStorageService = fileStorageService;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the result
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    @Scheduled(initialDelayString = "${app.upload.gc.initial-delay:PT30M}",
+            fixedDelayString = "${app.upload.gc.interval:P1D}")
+    public void collectScheduled() {
+        if (!enabled || !running.tryLock()) return;
+        try {
+            UploadDtos.GarbageCollectionReport report = collect(scheduledDryRun);
+            logger.info("Upload GC{}: {} file(s) scanned, {} orphan(s) of {} bytes, {} deleted",
+                    report.isDryRun() ? " (dry run)" : "", report.getScannedFiles(), report.getOrphanFiles(),
+                    report.getOrphanBytes(), report.getDeletedFiles());
+        } catch (RuntimeException e) {
+            logger.warn("Upload GC failed", e);
+        } finally {
+            running.unlock();
+        }
+    }
+
+    public UploadDtos.GarbageCollectionReport run(String requesterEmail, boolean dryRun) {
+        User requester = userRepository.findByEmail(requesterEmail)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+        if (requester.getType() != UserType.SUPERADMIN && requester.getType() != UserType.ROOTADMIN) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Insufficient permissions");
+        }
+        if (!running.tryLock()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload GC is already running");
+        }
+        try {
+            return collect(dryRun);
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private UploadDtos.GarbageCollectionReport collect(boolean dryRun) {
+        Instant started = Instant.now();
+        LocalDateTime cutoff = LocalDateTime.now().minus(grace);
+        Instant cutoffInstant = started.minus(grace);
+        Path root = local.root();
+
+        // Mark
+        BloomFilter referenced = new BloomFilter(expectedReferences(), FALSE_POSITIVE_RATE);
+        scanReferences(referenced::add);
+        Set<Path> sessionFiles = new HashSet<>();
+        for (String path : jdbcTemplate.queryForList(
+                "SELECT temp_path FROM upload_sessions WHERE temp_path IS NOT NULL", String.class)) {
+            sessionFiles.add(Paths.get(path).toAbsolutePath().normalize());
+        }
+
+        // Sweep
+        Sweep sweep = new Sweep(root, referenced, sessionFiles, cutoffInstant);
+        if (Files.isDirectory(root)) {
+            try {
+                Files.walkFileTree(root, sweep);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not walk " + root, e);
+            }
+        }
+
+        // Exact check of the candidates, which also sees references written since marking
+        Set<String> candidateIds = new HashSet<>();
+        for (Candidate candidate : sweep.candidates) {
+            if (candidate.id() != null) candidateIds.add(candidate.id());
+        }
+        Set<String> stillReferenced = new HashSet<>();
+        if (!candidateIds.isEmpty()) {
+            scanReferences(id -> {
+                if (candidateIds.contains(id)) stillReferenced.add(id);
+            });
+        }
+
+        long orphans = 0;
+        long orphanBytes = 0;
+        long deleted = 0;
+        List<String> sample = new ArrayList<>();
+        for (Candidate candidate : sweep.candidates) {
+            if (candidate.id() != null && stillReferenced.contains(candidate.id())) {
+                sweep.referencedFiles++;
+                continue;
+            }
+            orphans++;
+            orphanBytes += candidate.size();
+            if (sample.size() < SAMPLE_SIZE) sample.add(candidate.key());
+            if (!dryRun && delete(candidate, cutoff)) deleted++;
+        }
+
+        return UploadDtos.GarbageCollectionReport.builder()
+                .dryRun(dryRun)
+                .scannedFiles(sweep.scannedFiles)
+                .scannedBytes(sweep.scannedBytes)
+                .referencedFiles(sweep.referencedFiles)
+                .recentFiles(sweep.recentFiles)
+                .orphanFiles(orphans)
+                .orphanBytes(orphanBytes)
+                .deletedFiles(deleted)
+                .sample(sample)
+                .startedAt(started.toString())
+                .durationMs(Duration.between(started, Instant.now()).toMillis())
+                .build();
+    }
+
+    private boolean delete(Candidate candidate, LocalDateTime cutoff) {
+        try {
+            if (candidate.key().startsWith(BLOB_DIR + "/")) {
+                return fileStorageService.purgeOrphanBlob(
+                        candidate.key().substring(candidate.key().lastIndexOf('/') + 1), cutoff);
+            }
+            local.delete(candidate.key());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not delete orphaned upload {}: {}", candidate.key(), e.getMessage());
+            return false;
+        }
+    }
+
+    private long expectedReferences() {
+        long expected = 0;
+        for (String[] column : URL_COLUMNS) {
+            Long count = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(" + column[1] + ") FROM " + column[0], Long.class);
+            expected += count != null ? count : 0;
+        }
+        Long chapters = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM chapter_contents", Long.class);
+        return expected + (chapters != null ? chapters : 0) * HTML_REFERENCES_PER_CHAPTER;
+    }
+
+    // Streams every generated id mentioned in a URL column or a chapter body, whatever the base URL
+    private void scanReferences(Consumer<String> ids) {
+        for (String[] column : URL_COLUMNS) {
+            streamingJdbcTemplate.query("SELECT " + column[1] + " FROM " + column[0]
+                    + " WHERE " + column[1] + " IS NOT NULL", rs -> {
+                collectIds(rs.getString(1), ids);
+            });
+        }
+        streamingJdbcTemplate.query("SELECT content, content_gzip FROM chapter_contents", rs -> {
+            byte[] gzip = rs.getBytes(2);
+            collectIds(gzip != null ? ChapterContentStore.gunzip(gzip) : rs.getString(1), ids);
+        });
+    }
+
+    private static void collectIds(String text, Consumer<String> ids) {
+        if (text == null) return;
+        Matcher matcher = ID.matcher(text);
+        while (matcher.find()) ids.accept(matcher.group());
+    }
+
+    // id is null for temp files, which belong to upload sessions rather than to stored URLs
+    private record Candidate(String key, String id, long size) {
+    }
+
+    private final class Sweep extends SimpleFileVisitor<Path> {
+        private final Path root;
+        private final BloomFilter referenced;
+        private final Set<Path> sessionFiles;
+        private final Instant cutoff;
+        private final List<Candidate> candidates = new ArrayList<>();
+        private long scannedFiles;
+        private long scannedBytes;
+        private long referencedFiles;
+        private long recentFiles;
+
+        Sweep(Path root, BloomFilter referenced, Set<Path> sessionFiles, Instant cutoff) {
+            this.root = root;
+            this.referenced = referenced;
+            this.sessionFiles = sessionFiles;
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            if (!attrs.isRegularFile()) return FileVisitResult.CONTINUE;
+            scannedFiles++;
+            scannedBytes += attrs.size();
+            String key = root.relativize(file).toString().replace(File.separatorChar, '/');
+
+            if (key.startsWith(TEMP_DIR + "/")) {
+                // Leftovers of crashed uploads and renders; live session files are listed in upload_sessions
+                if (sessionFiles.contains(file)) {
+                    referencedFiles++;
+                } else if (attrs.lastModifiedTime().toInstant().isAfter(cutoff)) {
+                    recentFiles++;
+                } else {
+                    candidates.add(new Candidate(key, null, attrs.size()));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            // Derived files live and die with their original, named by their directory
+            String owner = key.startsWith(DERIVED_DIR + "/")
+                    ? file.getParent().getFileName().toString()
+                    : file.getFileName().toString();
+            Matcher name = GENERATED_NAME.matcher(owner);
+            if (!name.matches() || referenced.mightContain(name.group(1))) {
+                referencedFiles++;
+            } else if (attrs.lastModifiedTime().toInstant().isAfter(cutoff)) {
+                recentFiles++;
+            } else {
+                candidates.add(new Candidate(key, name.group(1), attrs.size()));
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException e) {
+            logger.debug("Skipping unreadable upload {}: {}", file, e.getMessage());
+            return FileVisitResult.CONTINUE;
+        }
+    }
+}
@@ -396,7 +396,7 @@ public class UserManagementService {
         }
     }
 
-    private UserDtos.UserResponse mapToUserResponse(User user) {
+    public UserDtos.UserResponse mapToUserResponse(User user) {
         return UserDtos.UserResponse.builder()
                 .id(user.getId())
                 .name(user.getName())
@@ -0,0 +1,65 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void neverReportsAnAddedValueMissing() {
+        BloomFilter filter = new BloomFilter(50_000, 0.01);
+        for (int i = 0; i < 50_000; i++) {
+            filter.add("student" + i + "@example.com");
+        }
+        for (int i = 0; i < 50_000; i++) {
+            assertTrue(filter.mightContain("student" + i + "@example.com"));
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTarget() {
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.add("in-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("out-" + i)) falsePositives++;
+        }
+        // sized for 1%; allow some slack for the hash, but a broken filter lands far above this
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        assertFalse(filter.mightContain(""));
+        assertFalse(filter.mightContain("anything"));
+    }
+
+    @Test
+    void handlesTinyAndZeroSizingAndNonAsciiValues() {
+        BloomFilter zero = new BloomFilter(0, 0.5);
+        zero.add("x");
+        assertTrue(zero.mightContain("x"));
+
+        BloomFilter filter = new BloomFilter(10, 0.001);
+        filter.add("");
+        filter.add("\u00dcn\u00efc\u00f8d\u00e9-\u540d\u524d");
+        assertTrue(filter.mightContain(""));
+        assertTrue(filter.mightContain("\u00dcn\u00efc\u00f8d\u00e9-\u540d\u524d"));
+    }
+
+    @Test
+    void overfilledFilterStillHasNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(Integer.toString(i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(Integer.toString(i)));
+        }
+    }
+}
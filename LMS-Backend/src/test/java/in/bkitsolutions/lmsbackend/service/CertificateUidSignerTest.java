@@ -0,0 +1,103 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CertificateUidSignerTest {
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567";
+
+    private final CertificateUidSigner signer = new CertificateUidSigner("test-secret");
+
+    @Test
+    void signedUidRoundTripsThroughBase32() {
+        LocalDate issuedOn = LocalDate.of(2026, 3, 14);
+        for (long id : new long[]{0, 1, 255, 256, 123_456_789L, (1L << 40) - 1}) {
+            String uid = signer.sign(id, issuedOn, "Asha Rao", "Data Structures");
+            assertEquals(37, uid.length()); // 23 bytes of base32
+            for (char c : uid.toCharArray()) {
+                assertTrue(ALPHABET.indexOf(c) >= 0);
+            }
+            CertificateUidSigner.Claims claims = signer.parse(uid);
+            assertNotNull(claims);
+            assertEquals(id, claims.certificateId());
+            assertEquals(issuedOn, claims.issuedOn());
+            assertTrue(signer.matches(uid, "Asha Rao", "Data Structures"));
+        }
+    }
+
+    @Test
+    void parseToleratesCaseDashesAndSpaces() {
+        String uid = signer.sign(42, LocalDate.of(2025, 1, 1), "Asha", "Java");
+        String copied = uid.substring(0, 10).toLowerCase(Locale.ROOT) + "-" + uid.substring(10, 20) + " " + uid.substring(20);
+        assertEquals(signer.parse(uid), signer.parse(copied));
+    }
+
+    @Test
+    void rejectsATamperedUid() {
+        String uid = signer.sign(42, LocalDate.of(2025, 1, 1), "Asha", "Java");
+        for (int i = 0; i < uid.length(); i++) {
+            // flip the high bit of the character, never one of the final character's padding bits
+            char replacement = ALPHABET.charAt(ALPHABET.indexOf(uid.charAt(i)) ^ 16);
+            String tampered = uid.substring(0, i) + replacement + uid.substring(i + 1);
+            assertNull(signer.parse(tampered), "accepted a change at " + i);
+        }
+        assertNull(signer.parse(uid.substring(0, uid.length() - 2)));
+        assertNull(signer.parse(uid + "AA"));
+    }
+
+    @Test
+    void rejectsNonCanonicalSpellings() {
+        String uid = signer.sign(42, LocalDate.of(2025, 1, 1), "Asha", "Java");
+        char last = uid.charAt(uid.length() - 1);
+        // 37 characters carry 185 bits for 184 bits of data, so the low bit of the last one is padding
+        String padded = uid.substring(0, uid.length() - 1) + ALPHABET.charAt(ALPHABET.indexOf(last) ^ 1);
+        assertNull(signer.parse(padded));
+        assertFalse(signer.matches(padded, "Asha", "Java"));
+        assertNull(signer.parse(uid + "A"));
+    }
+
+    @Test
+    void rejectsUidsSignedWithAnotherKey() {
+        String uid = new CertificateUidSigner("other-secret").sign(42, LocalDate.of(2025, 1, 1), "Asha", "Java");
+        assertNull(signer.parse(uid));
+    }
+
+    @Test
+    void detectsAlteredNames() {
+        String uid = signer.sign(7, LocalDate.of(2025, 6, 30), "Asha Rao", "Data Structures");
+        assertFalse(signer.matches(uid, "Asha Rao", "Algorithms"));
+        assertFalse(signer.matches(uid, "Someone Else", "Data Structures"));
+        // the separator keeps the two fields apart
+        assertFalse(signer.matches(uid, "Asha RaoData", " Structures"));
+    }
+
+    @Test
+    void legacyUuidUidsAreNotParsed() {
+        for (int i = 0; i < 100; i++) {
+            String legacy = UUID.randomUUID().toString();
+            assertNull(signer.parse(legacy));
+            assertNull(signer.parse(legacy.toUpperCase(Locale.ROOT)));
+            assertFalse(signer.matches(legacy, "Asha", "Java"));
+        }
+        assertNull(signer.parse(null));
+        assertNull(signer.parse(""));
+        assertNull(signer.parse("pending-" + UUID.randomUUID()));
+    }
+
+    @Test
+    void rejectsIdsOutsideFortyBits() {
+        LocalDate today = LocalDate.of(2025, 1, 1);
+        assertThrows(IllegalArgumentException.class, () -> signer.sign(-1, today, "a", "b"));
+        assertThrows(IllegalArgumentException.class, () -> signer.sign(1L << 40, today, "a", "b"));
+    }
+}
@@ -0,0 +1,163 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompletionBitmapTest {
+
+    private static List<Long> range(long from, long to) {
+        return LongStream.range(from, to).boxed().collect(Collectors.toList());
+    }
+
+    private static CompletionBitmap roundTrip(CompletionBitmap bitmap) {
+        return CompletionBitmap.deserialize(bitmap.serialize());
+    }
+
+    @Test
+    void addRemoveAndContains() {
+        CompletionBitmap bitmap = new CompletionBitmap();
+        assertTrue(bitmap.add(7));
+        assertFalse(bitmap.add(7));
+        assertTrue(bitmap.add(70_000));
+        assertTrue(bitmap.contains(7));
+        assertTrue(bitmap.contains(70_000));
+        assertFalse(bitmap.contains(8));
+        assertEquals(2, bitmap.cardinality());
+
+        assertTrue(bitmap.remove(70_000));
+        assertFalse(bitmap.remove(70_000));
+        assertEquals(List.of(7L), bitmap.toList());
+        assertTrue(bitmap.remove(7));
+        assertTrue(bitmap.isEmpty());
+    }
+
+    @Test
+    void rejectsIdsOutsideThirtyTwoBits() {
+        CompletionBitmap bitmap = new CompletionBitmap();
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1));
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(0x1_0000_0000L));
+        assertFalse(bitmap.contains(-1));
+        assertTrue(bitmap.add(0xFFFF_FFFFL));
+        assertEquals(List.of(0xFFFF_FFFFL), roundTrip(bitmap).toList());
+    }
+
+    @Test
+    void convertsBetweenArrayAndBitmapAtTheBoundary() {
+        CompletionBitmap bitmap = CompletionBitmap.of(range(0, 4096));
+        assertEquals(4096, bitmap.cardinality());
+        assertEquals(range(0, 4096), roundTrip(bitmap).toList());
+
+        // 4097th value turns the container into a bitmap
+        assertTrue(bitmap.add(5000));
+        assertEquals(4097, bitmap.cardinality());
+        assertTrue(bitmap.contains(5000));
+        CompletionBitmap copy = roundTrip(bitmap);
+        assertEquals(4097, copy.cardinality());
+        assertEquals(bitmap.toList(), copy.toList());
+
+        // and dropping back to 4096 turns it into an array again
+        assertTrue(bitmap.remove(0));
+        assertFalse(bitmap.contains(0));
+        assertEquals(4096, bitmap.cardinality());
+        assertEquals(bitmap.toList(), roundTrip(bitmap).toList());
+        assertTrue(bitmap.add(0));
+        assertEquals(4097, bitmap.cardinality());
+    }
+
+    @Test
+    void setOperationsAcrossContainerKinds() {
+        CompletionBitmap dense = CompletionBitmap.of(range(0, 6000));
+        CompletionBitmap sparse = CompletionBitmap.of(List.of(1L, 4095L, 4096L, 5999L, 6000L, 65_536L));
+
+        assertEquals(List.of(1L, 4095L, 4096L, 5999L), dense.and(sparse).toList());
+        assertEquals(List.of(1L, 4095L, 4096L, 5999L), sparse.and(dense).toList());
+
+        CompletionBitmap union = dense.or(sparse);
+        assertEquals(6002, union.cardinality());
+        assertTrue(union.contains(6000));
+        assertTrue(union.contains(65_536));
+
+        CompletionBitmap difference = dense.andNot(sparse);
+        assertEquals(5996, difference.cardinality());
+        assertFalse(difference.contains(4095));
+        assertEquals(List.of(6000L, 65_536L), sparse.andNot(dense).toList());
+
+        // operands are left untouched
+        assertEquals(6000, dense.cardinality());
+        assertEquals(6, sparse.cardinality());
+    }
+
+    @Test
+    void bitmapResultsShrinkBackToArrays() {
+        CompletionBitmap evens = CompletionBitmap.of(range(0, 10_000).stream()
+                .filter(id -> id % 2 == 0).collect(Collectors.toList()));
+        CompletionBitmap low = CompletionBitmap.of(range(0, 8192));
+
+        // both operands are bitmaps, the intersection has exactly 4096 values
+        CompletionBitmap intersection = evens.and(low);
+        assertEquals(4096, intersection.cardinality());
+        assertEquals(intersection.toList(), roundTrip(intersection).toList());
+
+        CompletionBitmap rest = low.andNot(evens);
+        assertEquals(4096, rest.cardinality());
+        assertTrue(rest.contains(8191));
+        assertEquals(rest.toList(), roundTrip(rest).toList());
+    }
+
+    @Test
+    void arrayUnionsPastTheLimitBecomeBitmaps() {
+        CompletionBitmap a = CompletionBitmap.of(range(0, 3000));
+        CompletionBitmap b = CompletionBitmap.of(range(2000, 5000));
+        CompletionBitmap union = a.or(b);
+        assertEquals(range(0, 5000), union.toList());
+        assertEquals(range(0, 5000), roundTrip(union).toList());
+    }
+
+    @Test
+    void matchesTreeSetOnMixedData() {
+        Random random = new Random(42);
+        TreeSet<Long> expectedA = new TreeSet<>();
+        TreeSet<Long> expectedB = new TreeSet<>();
+        CompletionBitmap a = new CompletionBitmap();
+        CompletionBitmap b = new CompletionBitmap();
+        for (int i = 0; i < 20_000; i++) {
+            long x = random.nextInt(3 * 65_536);
+            long y = random.nextInt(3 * 65_536);
+            expectedA.add(x);
+            a.add(x);
+            expectedB.add(y);
+            b.add(y);
+        }
+
+        TreeSet<Long> and = new TreeSet<>(expectedA);
+        and.retainAll(expectedB);
+        TreeSet<Long> or = new TreeSet<>(expectedA);
+        or.addAll(expectedB);
+        TreeSet<Long> andNot = new TreeSet<>(expectedA);
+        andNot.removeAll(expectedB);
+
+        assertEquals(new ArrayList<>(expectedA), roundTrip(a).toList());
+        assertEquals(new ArrayList<>(and), a.and(b).toList());
+        assertEquals(new ArrayList<>(or), a.or(b).toList());
+        assertEquals(new ArrayList<>(andNot), a.andNot(b).toList());
+    }
+
+    @Test
+    void emptyAndUnknownSerializedForms() {
+        assertTrue(CompletionBitmap.deserialize(null).isEmpty());
+        assertTrue(CompletionBitmap.deserialize(new byte[0]).isEmpty());
+        assertTrue(roundTrip(new CompletionBitmap()).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> CompletionBitmap.deserialize(new byte[]{9, 0, 0, 0, 0}));
+    }
+}
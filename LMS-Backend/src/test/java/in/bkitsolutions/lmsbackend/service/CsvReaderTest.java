@@ -0,0 +1,78 @@
+package in.bkitsolutions.lmsbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvReaderTest {
+
+    private static List<List<String>> readAll(String csv) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(new StringReader(csv))) {
+            List<String> record;
+            while ((record = reader.next()) != null) records.add(record);
+        }
+        return records;
+    }
+
+    @Test
+    void readsPlainRecords() throws IOException {
+        assertEquals(List.of(List.of("name", "email"), List.of("Asha", "asha@example.com")),
+                readAll("name,email\nAsha,asha@example.com\n"));
+    }
+
+    @Test
+    void keepsEmptyFieldsAndMissingTrailingNewline() throws IOException {
+        assertEquals(List.of(List.of("a", "", "c"), List.of("", "")), readAll("a,,c\n,"));
+    }
+
+    @Test
+    void quotedFieldsHoldCommasQuotesAndLineBreaks() throws IOException {
+        List<List<String>> records = readAll("\"Rao, Asha\",\"say \"\"hi\"\"\",\"two\nlines\"\nnext,row\n");
+        assertEquals(List.of("Rao, Asha", "say \"hi\"", "two\nlines"), records.get(0));
+        assertEquals(List.of("next", "row"), records.get(1));
+    }
+
+    @Test
+    void handlesCrlfAndBareCr() throws IOException {
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "d"), List.of("e")), readAll("a,b\r\nc,d\re\r\n"));
+    }
+
+    @Test
+    void skipsLeadingByteOrderMarkOnly() throws IOException {
+        List<List<String>> records = readAll("\uFEFFname,email\r\n\uFEFFx,y\r\n");
+        assertEquals(List.of("name", "email"), records.get(0));
+        assertEquals(List.of("\uFEFFx", "y"), records.get(1));
+    }
+
+    @Test
+    void reportsTheLineEachRecordStartsOn() throws IOException {
+        try (CsvReader reader = new CsvReader(new StringReader("h\r\n\"multi\r\nline\"\r\nlast\n"))) {
+            reader.next();
+            assertEquals(1, reader.recordLine());
+            assertEquals(List.of("multi\r\nline"), reader.next());
+            assertEquals(2, reader.recordLine());
+            assertEquals(List.of("last"), reader.next());
+            assertEquals(4, reader.recordLine());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void rejectsUnterminatedQuotes() {
+        assertThrows(IOException.class, () -> readAll("a,\"never closed\nb\n"));
+    }
+
+    @Test
+    void emptyInputHasNoRecords() throws IOException {
+        assertEquals(List.of(), readAll(""));
+        assertEquals(List.of(), readAll("\uFEFF"));
+    }
+}
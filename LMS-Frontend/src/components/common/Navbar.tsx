@@ -99,7 +99,7 @@ const Navbar: React.FC = () => {
         <Link to="/" className="flex items-center gap-3">
           <div className="h-11 w-11 rounded-xl flex items-center justify-center bg-[var(--primary-light)]">
             {branding?.logoUrl ? (
-              <img src={branding.logoUrl} alt="Logo" className="h-full w-full object-contain" />
+              <img src={branding.logoThumbnailUrl ?? branding.logoUrl} alt="Logo" className="h-full w-full object-contain" />
             ) : (
               <BookOpen className="w-6 h-6 text-[var(--primary)]" />
             )}
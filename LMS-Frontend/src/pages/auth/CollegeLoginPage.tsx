@@ -260,7 +260,7 @@ const CollegeLoginPage: React.FC = () => {
                 className="h-32 bg-cover bg-center"
                 style={{
                   backgroundImage:
-                    `url(${branding.bannerUrl})`
+                    `url(${branding.bannerMediumUrl ?? branding.bannerUrl})`
                 }}
               />
             )
@@ -291,7 +291,7 @@ const CollegeLoginPage: React.FC = () => {
                   }}
                 >
                   <img
-                    src={branding.logoUrl}
+                    src={branding.logoThumbnailUrl ?? branding.logoUrl}
                     className="w-full h-full object-contain"
                   />
                 </div>
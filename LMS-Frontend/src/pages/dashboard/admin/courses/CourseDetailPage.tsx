@@ -177,10 +177,9 @@ const CourseDetailPage: React.FC = () => {
     if (direction === "down" && idx >= topics.length - 1) return;
     const swapIdx = direction === "up" ? idx - 1 : idx + 1;
 
-    // Swap display orders via update
+    [topics[idx], topics[swapIdx]] = [topics[swapIdx], topics[idx]];
     try {
-      await topicApi.updateTopic(topics[idx].id, { displayOrder: swapIdx + 1 });
-      await topicApi.updateTopic(topics[swapIdx].id, { displayOrder: idx + 1 });
+      await courseApi.reorderTopics(course.id, topics.map((t) => t.id));
       fetchData();
     } catch (err: any) {
       setError(err.response?.data?.message || "Failed to reorder modules");
@@ -11,9 +11,17 @@ const StudentCertificatesPage: React.FC = () => {
     fetchCertificates();
   }, []);
 
-  const fetchCertificates = async () => {
+  // PDFs are rendered in the background; refresh quietly until every one has a download link
+  const pending = certificates.some((cert) => !cert.downloadUrl && cert.renderStatus !== "FAILED");
+  useEffect(() => {
+    if (!pending) return;
+    const timer = setTimeout(() => fetchCertificates(true), 5000);
+    return () => clearTimeout(timer);
+  }, [pending, certificates]);
+
+  const fetchCertificates = async (silent = false) => {
     try {
-      setLoading(true);
+      if (!silent) setLoading(true);
       const response = await certificateApi.getMyCertificates();
       if (response.success && response.data) {
         setCertificates(response.data);
@@ -25,6 +33,22 @@ const StudentCertificatesPage: React.FC = () => {
     }
   };
 
+  const downloadCertificate = async (cert: CertificateResponse) => {
+    try {
+      const blob = await certificateApi.downloadPdf(cert.id);
+      const url = URL.createObjectURL(blob);
+      const link = document.createElement("a");
+      link.href = url;
+      link.download = `certificate-${cert.certificateUid}.pdf`;
+      document.body.appendChild(link);
+      link.click();
+      document.body.removeChild(link);
+      URL.revokeObjectURL(url);
+    } catch (err: any) {
+      setError(err.response?.status === 410 ? "This certificate has been revoked" : "Failed to download certificate");
+    }
+  };
+
   if (loading) {
     return (
       <div className="min-h-screen bg-background flex items-center justify-center">
@@ -82,15 +106,18 @@ const StudentCertificatesPage: React.FC = () => {
               </p>
 
               <div className="mt-4 flex gap-2">
+                {!cert.downloadUrl && (
+                  <span className="flex-1 text-center py-2 rounded-lg bg-surface text-text-secondary text-sm font-medium">
+                    {cert.renderStatus === "FAILED" ? "PDF unavailable" : "Preparing PDF…"}
+                  </span>
+                )}
                 {cert.downloadUrl && (
-                  <a
-                    href={cert.downloadUrl}
-                    target="_blank"
-                    rel="noopener noreferrer"
+                  <button
+                    onClick={() => downloadCertificate(cert)}
                     className="flex-1 text-center py-2 rounded-lg bg-primary text-white text-sm font-medium hover:bg-secondary transition-colors"
                   >
                     Download
-                  </a>
+                  </button>
                 )}
                 <button
                   onClick={() => {
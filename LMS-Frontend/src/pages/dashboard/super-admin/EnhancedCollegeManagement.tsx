@@ -599,7 +599,7 @@ const EnhancedCollegeManagement: React.FC = () => {
                   <div className="flex items-center gap-3 mb-2">
                     {college.logoUrl ? (
                       <img 
-                        src={college.logoUrl} 
+                        src={college.logoThumbnailUrl ?? college.logoUrl} 
                         alt={college.name} 
                         className="w-10 h-10 object-contain rounded border border-border"
                         onError={(e) => {
@@ -630,7 +630,7 @@ const SuperAdminDashboard: React.FC = () => {
                 {/* College Logo */}
                 {college.logoUrl ? (
                   <img
-                    src={college.logoUrl}
+                    src={college.logoThumbnailUrl ?? college.logoUrl}
                     alt={`${college.name} logo`}
                     className="w-16 h-16 object-contain rounded-lg border p-2 mx-auto mb-4"
                     style={{ borderColor: "var(--border)" }}
@@ -153,6 +153,7 @@ export interface CollegeResponse {
   code: string;
   description?: string;
   logoUrl?: string;
+  logoThumbnailUrl?: string;
   bannerUrl?: string;
   primaryColor?: string;
   secondaryColor?: string;
@@ -15,9 +15,23 @@ export const certificateApi = {
     return response.data;
   },
 
-  // Verify certificate (public)
-  verifyCertificate: async (uid: string): Promise<ApiResponse<CertificateVerifyResponse>> => {
-    const response = await api.get(`/api/certificates/verify/${uid}`);
+  // Download the rendered PDF; it is only served to signed-in users allowed to see it
+  downloadPdf: async (id: number): Promise<Blob> => {
+    const response = await api.get(`/api/certificates/${id}/pdf`, { responseType: "blob" });
+    return response.data;
+  },
+
+  // Verify certificate (public); details also returns the names, at the cost of a database lookup
+  verifyCertificate: async (uid: string, details = false): Promise<ApiResponse<CertificateVerifyResponse>> => {
+    const response = await api.get(`/api/certificates/verify/${encodeURIComponent(uid)}`, {
+      params: details ? { details: true } : undefined,
+    });
+    return response.data;
+  },
+
+  // Revoke a certificate (college admin or platform admin)
+  revokeCertificate: async (id: number): Promise<ApiResponse<CertificateResponse>> => {
+    const response = await api.post(`/api/certificates/${id}/revoke`);
     return response.data;
   },
 };
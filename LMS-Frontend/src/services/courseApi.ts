@@ -3,6 +3,7 @@ import type { ApiResponse } from "./authApi";
 import type {
   CourseResponse,
   CourseDetailResponse,
+  CurriculumChangesResponse,
   CourseStatsResponse,
   DashboardStatsResponse,
   CreateCourseRequest,
@@ -115,4 +116,13 @@ export const courseApi = {
     const response = await api.put(`/api/courses/${courseId}/topics/reorder`, topicIds);
     return response.data;
   },
+
+  // Topics and chapters changed since a previous sync (0 = everything)
+  getCurriculumChanges: async (
+    courseId: number,
+    since = 0,
+  ): Promise<ApiResponse<CurriculumChangesResponse>> => {
+    const response = await api.get(`/api/courses/${courseId}/curriculum/changes`, { params: { since } });
+    return response.data;
+  },
 };
@@ -1,6 +1,6 @@
 import api from "./apiClient";
 import type { ApiResponse } from "./authApi";
-import type { EnrollmentResponse, ProgressResponse, EnrollmentStatsResponse } from "../types";
+import type { EnrollmentResponse, ProgressResponse, EnrollmentStatsResponse, BulkEnrollResponse, WaitlistEntryResponse } from "../types";
 
 export const enrollmentApi = {
   // Enroll in a course
@@ -60,7 +60,7 @@ export const enrollmentApi = {
   },
 
   // Admin: bulk enroll students
-  adminBulkEnroll: async (courseId: number, studentIds: number[]): Promise<ApiResponse<EnrollmentResponse[]>> => {
+  adminBulkEnroll: async (courseId: number, studentIds: number[]): Promise<ApiResponse<BulkEnrollResponse>> => {
     const response = await api.post(`/api/enrollments/admin/courses/${courseId}/bulk-enroll`, { studentIds });
     return response.data;
   },
@@ -71,6 +71,12 @@ export const enrollmentApi = {
     return response.data;
   },
 
+  // Admin: students waiting for a seat, in promotion order
+  getWaitlist: async (courseId: number): Promise<ApiResponse<WaitlistEntryResponse[]>> => {
+    const response = await api.get(`/api/enrollments/admin/courses/${courseId}/waitlist`);
+    return response.data;
+  },
+
   // Admin: update enrollment status
   adminUpdateStatus: async (enrollmentId: number, status: string): Promise<ApiResponse<EnrollmentResponse>> => {
     const response = await api.patch(`/api/enrollments/admin/${enrollmentId}/status`, { status });
@@ -115,4 +115,13 @@ export const topicApi = {
     const response = await api.delete(`/api/chapters/${chapterId}`);
     return response.data;
   },
+
+  // Admin: set the order of all chapters of a topic in one call
+  reorderChapters: async (
+    topicId: number,
+    chapterIds: number[],
+  ): Promise<ApiResponse<ChapterSummary[]>> => {
+    const response = await api.put(`/api/topics/${topicId}/chapters/reorder`, chapterIds);
+    return response.data;
+  },
 };
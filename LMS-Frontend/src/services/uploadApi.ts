@@ -0,0 +1,113 @@
+import api from "./apiClient";
+import type { ApiResponse } from "./authApi";
+import type { DirectUploadResponse, UploadSessionResponse } from "../types";
+
+const sha256Hex = async (data: ArrayBuffer): Promise<string> => {
+  const digest = await crypto.subtle.digest("SHA-256", data);
+  return Array.from(new Uint8Array(digest))
+    .map((b) => b.toString(16).padStart(2, "0"))
+    .join("");
+};
+
+export const uploadApi = {
+  // Start a resumable upload; chunks then go to putChunk at multiples of chunkSize
+  initiate: async (
+    file: File,
+    purpose: string,
+  ): Promise<ApiResponse<UploadSessionResponse>> => {
+    const response = await api.post("/api/uploads", {
+      fileName: file.name,
+      totalSize: file.size,
+      purpose,
+    });
+    return response.data;
+  },
+
+  // Status, including the chunks still missing (for resuming)
+  getSession: async (id: string): Promise<ApiResponse<UploadSessionResponse>> => {
+    const response = await api.get(`/api/uploads/${id}`);
+    return response.data;
+  },
+
+  putChunk: async (
+    id: string,
+    offset: number,
+    chunk: Blob,
+  ): Promise<ApiResponse<UploadSessionResponse>> => {
+    const data = await chunk.arrayBuffer();
+    const response = await api.put(`/api/uploads/${id}/chunks`, data, {
+      params: { offset },
+      headers: {
+        "Content-Type": "application/octet-stream",
+        "X-Chunk-SHA256": await sha256Hex(data),
+      },
+    });
+    return response.data;
+  },
+
+  complete: async (id: string): Promise<ApiResponse<UploadSessionResponse>> => {
+    const response = await api.post(`/api/uploads/${id}/complete`);
+    return response.data;
+  },
+
+  abort: async (id: string): Promise<ApiResponse<void>> => {
+    const response = await api.delete(`/api/uploads/${id}`);
+    return response.data;
+  },
+
+  // Presigned URL for uploading straight to object storage; fails with 501 on local storage
+  presignDirect: async (
+    file: File,
+    purpose: string,
+  ): Promise<ApiResponse<DirectUploadResponse>> => {
+    const response = await api.post("/api/uploads/direct", {
+      fileName: file.name,
+      totalSize: file.size,
+      purpose,
+    });
+    return response.data;
+  },
+
+  // Sends the file to object storage when the server offers it, otherwise in chunks through the server
+  uploadDirectOrChunked: async (
+    file: File,
+    purpose: string,
+    onProgress?: (fraction: number) => void,
+  ): Promise<string> => {
+    let direct: DirectUploadResponse;
+    try {
+      direct = (await uploadApi.presignDirect(file, purpose)).data;
+    } catch (err: any) {
+      if (err?.response?.status !== 501) throw err;
+      return uploadApi.uploadFile(file, purpose, onProgress);
+    }
+    const response = await fetch(direct.uploadUrl, {
+      method: direct.method,
+      headers: direct.headers,
+      body: file,
+    });
+    if (!response.ok) throw new Error(`Upload failed with status ${response.status}`);
+    onProgress?.(1);
+    return direct.url;
+  },
+
+  // Uploads (or resumes, given an existing session id) a file and returns its URL
+  uploadFile: async (
+    file: File,
+    purpose: string,
+    onProgress?: (fraction: number) => void,
+    sessionId?: string,
+  ): Promise<string> => {
+    let session = sessionId
+      ? (await uploadApi.getSession(sessionId)).data
+      : (await uploadApi.initiate(file, purpose)).data;
+    let done = session.chunkCount - session.missingChunks.length;
+    for (const index of session.missingChunks) {
+      const offset = index * session.chunkSize;
+      await uploadApi.putChunk(session.id, offset, file.slice(offset, offset + session.chunkSize));
+      onProgress?.(++done / session.chunkCount);
+    }
+    session = (await uploadApi.complete(session.id)).data;
+    return session.url as string;
+  },
+};
@@ -275,6 +275,8 @@ export interface UserProfile {
   type: UserRoleType;
   phoneNumber?: string;
   profilePictureUrl?: string;
+  profilePictureThumbnailUrl?: string;
+  profilePictureMediumUrl?: string;
   bio?: string;
   dateOfBirth?: string;
   address?: string;
@@ -335,6 +337,29 @@ export interface UpdateTopicRequest {
 
 export type ContentType = 'TEXT' | 'VIDEO' | 'DOCUMENT' | 'QUIZ' | 'MIXED';
 
+export interface DirectUploadResponse {
+  uploadUrl: string;
+  method: string;
+  headers: Record<string, string>;
+  url: string;
+  expiresAt: string;
+}
+
+export interface UploadSessionResponse {
+  id: string;
+  fileName: string;
+  purpose: string;
+  totalSize: number;
+  chunkSize: number;
+  chunkCount: number;
+  receivedChunkCount: number;
+  missingChunks: number[];
+  status: "OPEN" | "ASSEMBLING" | "COMPLETED" | "FAILED";
+  url?: string;
+  createdAt?: string;
+  updatedAt?: string;
+}
+
 export interface ChapterResponse {
   id: number;
   title: string;
@@ -403,6 +428,7 @@ export interface College {
   code: string;
   description?: string;
   logoUrl?: string;
+  logoThumbnailUrl?: string;
   bannerUrl?: string;
   primaryColor?: string;
   secondaryColor?: string;
@@ -452,7 +478,10 @@ export interface CollegeBranding {
   name: string;
   code: string;
   logoUrl?: string;
+  logoThumbnailUrl?: string;
+  logoMediumUrl?: string;
   bannerUrl?: string;
+  bannerMediumUrl?: string;
   primaryColor?: string;
   secondaryColor?: string;
 }
@@ -500,6 +529,7 @@ export interface CourseResponse {
   published: boolean;
   enrollmentOpen: boolean;
   maxEnrollment?: number;
+  waitlistEnabled?: boolean;
   displayOrder?: number;
   category?: string;
   department?: string;
@@ -529,6 +559,27 @@ export interface TopicWithChaptersResponse {
   chapters: ChapterResponse[];
 }
 
+export interface CurriculumTopic {
+  id: number;
+  title: string;
+  description?: string;
+  published: boolean;
+  displayOrder?: number;
+  updatedAt?: string;
+}
+
+// Pass `version` as `since` on the next sync; on fullSync replace the local curriculum
+export interface CurriculumChangesResponse {
+  courseId: number;
+  since: number;
+  version: number;
+  fullSync: boolean;
+  topics: CurriculumTopic[];
+  chapters: ChapterResponse[];
+  deletedTopicIds: number[];
+  deletedChapterIds: number[];
+}
+
 export interface CourseDetailResponse {
   id: number;
   title: string;
@@ -543,6 +594,7 @@ export interface CourseDetailResponse {
   published: boolean;
   enrollmentOpen: boolean;
   maxEnrollment?: number;
+  waitlistEnabled?: boolean;
   category?: string;
   department?: string;
   semester?: string;
@@ -568,6 +620,7 @@ export interface CreateCourseRequest {
   published?: boolean;
   enrollmentOpen?: boolean;
   maxEnrollment?: number;
+  waitlistEnabled?: boolean;
   displayOrder?: number;
   category?: string;
   department?: string;
@@ -592,6 +645,7 @@ export interface UpdateCourseRequest {
   published?: boolean;
   enrollmentOpen?: boolean;
   maxEnrollment?: number;
+  waitlistEnabled?: boolean;
   displayOrder?: number;
   category?: string;
   department?: string;
@@ -619,10 +673,34 @@ export interface EnrollmentResponse {
   studentId: number;
   studentName: string;
   studentEmail?: string;
-  status: string;
+  status: string; // an enrollment status, or "WAITLISTED" when the course was full
   enrolledAt?: string;
   completedAt?: string;
   progressPercentage: number;
+  waitlistPosition?: number;
+}
+
+export interface WaitlistEntryResponse {
+  studentId: number;
+  studentName: string;
+  studentEmail: string;
+  position: number;
+  joinedAt?: string;
+}
+
+export interface BulkEnrollOutcome {
+  studentId: number;
+  outcome: "ENROLLED" | "ALREADY_ENROLLED" | "DUPLICATE" | "STUDENT_NOT_FOUND" | "NOT_A_STUDENT" | "COURSE_FULL";
+  enrollmentId?: number;
+}
+
+export interface BulkEnrollResponse {
+  courseId: number;
+  requested: number;
+  enrolled: number;
+  skipped: number;
+  outcomes: BulkEnrollOutcome[];
+  enrollments: EnrollmentResponse[];
 }
 
 export interface ProgressResponse {
@@ -690,12 +768,17 @@ export interface CertificateResponse {
   collegeLogoUrl?: string;
   issuedAt?: string;
   downloadUrl?: string;
+  renderStatus?: "NOT_REQUESTED" | "QUEUED" | "RENDERING" | "READY" | "FAILED";
+  revokedAt?: string;
 }
 
 export interface CertificateVerifyResponse {
   valid: boolean;
-  studentName: string;
-  courseTitle: string;
-  collegeName: string;
+  revoked: boolean;
+  certificateUid: string;
+  // Only present when verified with details
+  studentName?: string;
+  courseTitle?: string;
+  collegeName?: string;
   issuedAt?: string;
 }